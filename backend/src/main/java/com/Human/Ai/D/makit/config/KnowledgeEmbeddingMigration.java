@@ -0,0 +1,65 @@
+package com.Human.Ai.D.makit.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+/**
+ * 청크 단위 색인 도입 이전의 문서 단위 임베딩(JSON 텍스트 embedding_vector, packed float32 embedding)을 정리하는 1회성 마이그레이션.
+ * 문서 전체 벡터는 청크 검색에 재사용할 수 없으므로 비우고 PENDING으로 표시해 시작 시 청크 단위로 다시 색인되도록 합니다.
+ * 비워진 행은 다시 대상이 되지 않으므로 재실행해도 안전합니다.
+ */
+@Component
+public class KnowledgeEmbeddingMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnowledgeEmbeddingMigration.class);
+    private static final String TABLE_NAME = "knowledge_documents";
+    private static final String[] LEGACY_COLUMNS = {"embedding_vector", "embedding"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int reset = 0;
+
+        for (String column : LEGACY_COLUMNS) {
+            if (!columnExists(column)) {
+                continue;
+            }
+            reset += jdbcTemplate.update(
+                    "UPDATE knowledge_documents SET " + column + " = NULL, status = 'PENDING' " +
+                    "WHERE " + column + " IS NOT NULL");
+        }
+
+        if (reset > 0) {
+            logger.info("Cleared {} legacy document-level knowledge embeddings; documents will be re-indexed as chunks",
+                    reset);
+        }
+    }
+
+    private boolean columnExists(String columnName) {
+        Boolean exists = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : new String[]{TABLE_NAME, TABLE_NAME.toUpperCase()}) {
+                for (String column : new String[]{columnName, columnName.toUpperCase()}) {
+                    try (ResultSet columns = metaData.getColumns(null, null, table, column)) {
+                        if (columns.next()) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -0,0 +1,111 @@
+package com.Human.Ai.D.makit.config;
+
+import com.Human.Ai.D.makit.domain.KnowledgeChunk;
+import com.Human.Ai.D.makit.repository.KnowledgeChunkRepository;
+import com.Human.Ai.D.makit.service.retrieval.Bm25Index;
+import com.Human.Ai.D.makit.service.retrieval.DocumentChunker;
+import com.Human.Ai.D.makit.service.retrieval.ExactVectorLoader;
+import com.Human.Ai.D.makit.service.retrieval.HnswVectorIndex;
+import com.Human.Ai.D.makit.service.retrieval.IvfPqVectorIndex;
+import com.Human.Ai.D.makit.service.retrieval.MetadataIndex;
+import com.Human.Ai.D.makit.service.retrieval.SnapshottingVectorIndex;
+import com.Human.Ai.D.makit.service.retrieval.VectorIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Vector index, keyword index, metadata filter index and chunking configuration for knowledge base retrieval.
+ * Index entries are document chunks keyed by chunk id.
+ * "hnsw" keeps full vectors in memory; "ivfpq" keeps ~64-byte codes and re-ranks against vectors loaded on demand.
+ * With snapshots enabled, the HNSW graph is persisted to disk and memory-mapped on startup instead of rebuilt.
+ */
+@Configuration
+public class VectorIndexConfig {
+
+    @Value("${knowledge.vector-index.type:hnsw}")
+    private String indexType;
+
+    @Value("${knowledge.vector-index.hnsw.m:16}")
+    private int hnswM;
+
+    @Value("${knowledge.vector-index.hnsw.ef-construction:200}")
+    private int hnswEfConstruction;
+
+    @Value("${knowledge.vector-index.hnsw.ef-search:100}")
+    private int hnswEfSearch;
+
+    @Value("${knowledge.vector-index.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    @Value("${knowledge.vector-index.snapshot.dir:./data/vector-index}")
+    private String snapshotDir;
+
+    @Value("${knowledge.vector-index.ivfpq.nlist:1024}")
+    private int ivfPqNlist;
+
+    @Value("${knowledge.vector-index.ivfpq.subquantizers:64}")
+    private int ivfPqSubquantizers;
+
+    @Value("${knowledge.vector-index.ivfpq.training-size:50000}")
+    private int ivfPqTrainingSize;
+
+    @Value("${knowledge.vector-index.ivfpq.recall-target:0.95}")
+    private double ivfPqRecallTarget;
+
+    @Value("${knowledge.vector-index.ivfpq.rerank-factor:4}")
+    private int ivfPqRerankFactor;
+
+    @Value("${knowledge.keyword-index.k1:1.2}")
+    private float bm25K1;
+
+    @Value("${knowledge.keyword-index.b:0.75}")
+    private float bm25B;
+
+    @Value("${knowledge.chunking.max-tokens:300}")
+    private int chunkMaxTokens;
+
+    @Value("${knowledge.chunking.overlap-tokens:50}")
+    private int chunkOverlapTokens;
+
+    @Bean
+    public VectorIndex vectorIndex(KnowledgeChunkRepository knowledgeChunkRepository) {
+        if ("ivfpq".equalsIgnoreCase(indexType)) {
+            return new IvfPqVectorIndex(ivfPqNlist, ivfPqSubquantizers, ivfPqTrainingSize,
+                    ivfPqRecallTarget, ivfPqRerankFactor, exactVectorLoader(knowledgeChunkRepository));
+        }
+        HnswVectorIndex hnsw = new HnswVectorIndex(hnswM, hnswEfConstruction, hnswEfSearch);
+        return snapshotEnabled ? new SnapshottingVectorIndex(hnsw, Paths.get(snapshotDir)) : hnsw;
+    }
+
+    @Bean
+    public Bm25Index keywordIndex() {
+        return new Bm25Index(bm25K1, bm25B);
+    }
+
+    @Bean
+    public MetadataIndex metadataIndex() {
+        return new MetadataIndex();
+    }
+
+    @Bean
+    public DocumentChunker documentChunker() {
+        return new DocumentChunker(chunkMaxTokens, chunkOverlapTokens);
+    }
+
+    private ExactVectorLoader exactVectorLoader(KnowledgeChunkRepository knowledgeChunkRepository) {
+        return ids -> {
+            Map<String, float[]> vectors = new HashMap<>();
+            for (KnowledgeChunk chunk : knowledgeChunkRepository.findAllById(ids)) {
+                if (chunk.hasEmbedding()) {
+                    vectors.put(chunk.getChunkId(), chunk.getEmbeddingValues());
+                }
+            }
+            return vectors;
+        };
+    }
+}
@@ -71,7 +71,8 @@ public class AsyncTaskController {
                 "progress", progress.getProgressPercentage(),
                 "message", progress.getStatusMessage(),
                 "createdAt", progress.getCreatedAt(),
-                "updatedAt", progress.getUpdatedAt()
+                "updatedAt", progress.getUpdatedAt(),
+                "details", progress.getDetails() != null ? progress.getDetails() : Map.of()
             ));
 
         } catch (Exception e) {
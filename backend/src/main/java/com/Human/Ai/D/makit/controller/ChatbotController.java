@@ -1,21 +1,33 @@
 package com.Human.Ai.D.makit.controller;
 
 import com.Human.Ai.D.makit.dto.ChatMessage;
+import com.Human.Ai.D.makit.dto.ChatStreamEvent;
 import com.Human.Ai.D.makit.domain.User;
+import com.Human.Ai.D.makit.service.AsyncTaskManager;
+import com.Human.Ai.D.makit.service.IntentModelTrainer;
 import com.Human.Ai.D.makit.service.RAGChatbotService;
 import com.Human.Ai.D.makit.service.ai.BedrockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Controller
 public class ChatbotController {
     
+    static final String CHAT_QUEUE = "/queue/chat";
+    
     @Autowired
     private BedrockService bedrockService;
     
@@ -25,22 +37,36 @@ public class ChatbotController {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
     
+    @Autowired
+    private IntentModelTrainer intentModelTrainer;
+    
+    /**
+     * Answers a chat message on the sender's own queue. Clients subscribe to /user/queue/chat, which the broker
+     * resolves per WebSocket session, so frames are never visible to other subscribers.
+     * Text deltas are forwarded as Claude produces them, followed by a DONE frame with the full response
+     * and its confidence and escalation flags.
+     */
     @MessageMapping("/chat")
-    @SendTo("/topic/chat")
-    public ChatMessage handleChatMessage(ChatMessage message) {
+    public void handleChatMessage(ChatMessage message, SimpMessageHeaderAccessor headerAccessor) {
+        String sessionId = headerAccessor.getSessionId() != null ? headerAccessor.getSessionId() : getSessionId();
+        MessageHeaders sessionHeaders = sessionHeaders(sessionId);
+        AtomicInteger sequence = new AtomicInteger();
         try {
             User user = getCurrentUser();
-            String sessionId = getSessionId();
             
-            // Use RAG chatbot service for enhanced responses
-            RAGChatbotService.ChatbotResponse ragResponse = 
-                    ragChatbotService.processMessage(message.getContent(), user, sessionId);
+            // Use RAG chatbot service for enhanced responses, streaming deltas to the session's queue
+            RAGChatbotService.ChatbotResponse ragResponse = ragChatbotService.processMessage(
+                    message.getContent(), user, sessionId,
+                    delta -> messagingTemplate.convertAndSendToUser(sessionId, CHAT_QUEUE, new ChatStreamEvent(
+                            ChatStreamEvent.EventType.DELTA, sessionId, sequence.getAndIncrement(), delta),
+                            sessionHeaders));
             
-            ChatMessage response = new ChatMessage();
-            response.setSender("MaKIT Assistant");
-            response.setContent(ragResponse.getMessage());
-            response.setType(ChatMessage.MessageType.CHAT);
-            response.setTimestamp(System.currentTimeMillis());
+            ChatStreamEvent done = new ChatStreamEvent(
+                    ChatStreamEvent.EventType.DONE, sessionId, sequence.getAndIncrement(), ragResponse.getMessage());
+            done.setConfidence(ragResponse.getConfidence());
+            done.setShouldEscalate(ragResponse.shouldEscalate());
+            done.setEscalationReason(ragResponse.getEscalationReason());
+            messagingTemplate.convertAndSendToUser(sessionId, CHAT_QUEUE, done, sessionHeaders);
             
             // Handle escalation if needed
             if (ragResponse.shouldEscalate()) {
@@ -49,19 +75,24 @@ public class ChatbotController {
                     "User " + user.getUsername() + " needs human support: " + ragResponse.getEscalationReason());
             }
             
-            return response;
-            
         } catch (Exception e) {
-            ChatMessage errorResponse = new ChatMessage();
-            errorResponse.setSender("MaKIT Assistant");
-            errorResponse.setContent("죄송합니다. 일시적인 오류가 발생했습니다. 다시 시도해 주세요.");
-            errorResponse.setType(ChatMessage.MessageType.ERROR);
-            errorResponse.setTimestamp(System.currentTimeMillis());
-            
-            return errorResponse;
+            messagingTemplate.convertAndSendToUser(sessionId, CHAT_QUEUE, new ChatStreamEvent(
+                    ChatStreamEvent.EventType.ERROR, sessionId, sequence.getAndIncrement(),
+                    "죄송합니다. 일시적인 오류가 발생했습니다. 다시 시도해 주세요."), sessionHeaders);
         }
     }
     
+    /**
+     * Headers that address a user destination to one WebSocket session, so replies reach sessions without a
+     * Principal as well.
+     */
+    private static MessageHeaders sessionHeaders(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+    
     @PostMapping("/api/chat")
     @ResponseBody
     public ChatbotResponseDto handleRestChatMessage(@RequestBody ChatMessage message, 
@@ -96,6 +127,25 @@ public class ChatbotController {
         }
     }
     
+    /**
+     * Starts retraining the local intent model from logged, confidently classified user messages and returns
+     * the tracked task at once; progress and the training report are available through /api/tasks/{taskId}/progress.
+     * Admin only, since the trained model replaces the one every instance loads. Responds with 409 while a
+     * training run is already in progress.
+     */
+    @PostMapping("/api/admin/chat/intent-model/train")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public ResponseEntity<AsyncTaskManager.TaskProgress> trainIntentModel() {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            String userId = auth != null ? auth.getName() : "system";
+            return ResponseEntity.accepted().body(intentModelTrainer.startTraining(userId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
     @GetMapping("/api/chat/context/{contextId}")
     @ResponseBody
     public ConversationContextDto getConversationContext(@PathVariable String contextId) {
@@ -1,9 +1,12 @@
 package com.Human.Ai.D.makit.controller;
 
 import com.Human.Ai.D.makit.domain.KnowledgeDocument;
+import com.Human.Ai.D.makit.service.AsyncTaskManager;
 import com.Human.Ai.D.makit.service.KnowledgeBaseManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -87,11 +90,17 @@ public class KnowledgeBaseController {
         }
     }
     
+    /**
+     * 재색인을 시작하고 즉시 작업 진행 정보를 반환합니다. 진행률은 /api/tasks/{taskId}/progress로 조회합니다.
+     * 작업은 요청한 인증 사용자 이름으로 기록됩니다.
+     */
     @PostMapping("/rebuild-index")
-    public CompletableFuture<ResponseEntity<String>> rebuildIndex() {
-        return knowledgeBaseManager.rebuildIndex()
-                .thenApply(v -> ResponseEntity.ok("Index rebuild started"))
-                .exceptionally(ex -> ResponseEntity.badRequest().body("Failed to rebuild index"));
+    public ResponseEntity<AsyncTaskManager.TaskProgress> rebuildIndex(Authentication authentication) {
+        try {
+            return ResponseEntity.accepted().body(knowledgeBaseManager.rebuildIndex(authentication.getName()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
     
     @GetMapping("/stats")
@@ -2,6 +2,7 @@ package com.Human.Ai.D.makit.controller;
 
 import com.Human.Ai.D.makit.service.CloudWatchMonitoringService;
 import com.Human.Ai.D.makit.service.HealthCheckService;
+import com.Human.Ai.D.makit.service.ai.BedrockService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +24,9 @@ public class MonitoringController {
     @Autowired
     private CloudWatchMonitoringService monitoringService;
 
+    @Autowired
+    private BedrockService bedrockService;
+
     /**
      * Health check endpoint
      */
@@ -107,6 +111,28 @@ public class MonitoringController {
         }
     }
 
+    /**
+     * Get Bedrock admission control, coalescing, retry/hedge, circuit breaker and response cache state
+     */
+    @GetMapping("/bedrock")
+    public ResponseEntity<?> getBedrockMetrics() {
+        try {
+            return ResponseEntity.ok(Map.of(
+                "models", bedrockService.getAdmissionStats(),
+                "coalescing", bedrockService.getCoalescingStats(),
+                "resilience", bedrockService.getResilienceStats(),
+                "responseCache", bedrockService.getResponseCacheStats(),
+                "timestamp", LocalDateTime.now()
+            ));
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Failed to get Bedrock metrics",
+                "message", e.getMessage()
+            ));
+        }
+    }
+
     /**
      * Get specific metric statistics
      */
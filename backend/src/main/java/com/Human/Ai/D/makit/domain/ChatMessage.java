@@ -40,6 +40,10 @@ public class ChatMessage {
     @Column
     private Double confidence;
     
+    // 의도를 분류한 방법 (KEYWORD, MODEL, CLAUDE)
+    @Column(name = "intent_source")
+    private String intentSource;
+    
     // Constructors
     public ChatMessage() {}
     
@@ -139,6 +143,14 @@ public class ChatMessage {
         this.confidence = confidence;
     }
     
+    public String getIntentSource() {
+        return intentSource;
+    }
+    
+    public void setIntentSource(String intentSource) {
+        this.intentSource = intentSource;
+    }
+    
     public enum MessageType {
         CHAT, JOIN, LEAVE, ERROR, SYSTEM, ESCALATION
     }
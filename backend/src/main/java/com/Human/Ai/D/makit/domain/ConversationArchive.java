@@ -0,0 +1,59 @@
+package com.Human.Ai.D.makit.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 종료 후 보관 기간이 지난 대화의 요약 행. 원본 컨텍스트·메시지·변수는 삭제되고 이 행만 남습니다.
+ */
+@Entity
+@Table(name = "conversation_archives", indexes = {
+    @Index(name = "idx_conversation_archive_user_id", columnList = "user_id")
+})
+public class ConversationArchive {
+
+    @Id
+    private String contextId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private String sessionId;
+
+    @Column
+    private String status;
+
+    @Column
+    private String currentTopic;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(nullable = false)
+    private Long userMessageCount;
+
+    @Column(nullable = false)
+    private Long botMessageCount;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Constructors
+    public ConversationArchive() {}
+
+    // Getters
+    public String getContextId() { return contextId; }
+    public Long getUserId() { return userId; }
+    public String getSessionId() { return sessionId; }
+    public String getStatus() { return status; }
+    public String getCurrentTopic() { return currentTopic; }
+    public LocalDateTime getStartTime() { return startTime; }
+    public LocalDateTime getEndTime() { return endTime; }
+    public Long getUserMessageCount() { return userMessageCount; }
+    public Long getBotMessageCount() { return botMessageCount; }
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
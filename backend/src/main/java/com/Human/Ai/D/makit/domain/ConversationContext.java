@@ -43,7 +43,8 @@ public class ConversationContext {
     @Column
     private String currentTopic;
     
-    @Column
+    // 메시지 저장 시 벌크 UPDATE로만 증가시킴. 엔티티 저장이 오래된 값으로 덮어쓰지 않도록 갱신에서 제외
+    @Column(updatable = false)
     private Integer messageCount = 0;
     
     // Constructors
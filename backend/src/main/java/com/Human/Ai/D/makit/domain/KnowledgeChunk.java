@@ -0,0 +1,173 @@
+package com.Human.Ai.D.makit.domain;
+
+import com.Human.Ai.D.makit.service.retrieval.EmbeddingCodec;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "knowledge_chunks", indexes = {
+    @Index(name = "idx_knowledge_chunk_document_id", columnList = "document_id")
+})
+public class KnowledgeChunk {
+
+    /**
+     * documentId#chunkIndex 형식의 결정적 ID
+     */
+    @Id
+    private String chunkId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "document_id", nullable = false)
+    private KnowledgeDocument document;
+
+    @Column(nullable = false)
+    private Integer chunkIndex;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String content;
+
+    @Column(nullable = false)
+    private Integer startOffset;
+
+    @Column(nullable = false)
+    private Integer endOffset;
+
+    @Column(nullable = false)
+    private Integer tokenCount;
+
+    /**
+     * packed little-endian float32 임베딩
+     */
+    @Column(name = "embedding", columnDefinition = "bytea")
+    private byte[] embedding;
+
+    @Column(name = "embedding_norm")
+    private Float embeddingNorm;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public KnowledgeChunk() {}
+
+    public KnowledgeChunk(KnowledgeDocument document, int chunkIndex, String content,
+                          int startOffset, int endOffset, int tokenCount) {
+        this.chunkId = chunkId(document.getDocumentId(), chunkIndex);
+        this.document = document;
+        this.chunkIndex = chunkIndex;
+        this.content = content;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.tokenCount = tokenCount;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public static String chunkId(String documentId, int chunkIndex) {
+        return documentId + "#" + chunkIndex;
+    }
+
+    // Getters and Setters
+    public String getChunkId() {
+        return chunkId;
+    }
+
+    public void setChunkId(String chunkId) {
+        this.chunkId = chunkId;
+    }
+
+    public KnowledgeDocument getDocument() {
+        return document;
+    }
+
+    public void setDocument(KnowledgeDocument document) {
+        this.document = document;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public Integer getStartOffset() {
+        return startOffset;
+    }
+
+    public void setStartOffset(Integer startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    public Integer getEndOffset() {
+        return endOffset;
+    }
+
+    public void setEndOffset(Integer endOffset) {
+        this.endOffset = endOffset;
+    }
+
+    public Integer getTokenCount() {
+        return tokenCount;
+    }
+
+    public void setTokenCount(Integer tokenCount) {
+        this.tokenCount = tokenCount;
+    }
+
+    public byte[] getEmbedding() {
+        return embedding;
+    }
+
+    public void setEmbedding(byte[] embedding) {
+        this.embedding = embedding;
+    }
+
+    public Float getEmbeddingNorm() {
+        return embeddingNorm;
+    }
+
+    public void setEmbeddingNorm(Float embeddingNorm) {
+        this.embeddingNorm = embeddingNorm;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public boolean hasEmbedding() {
+        return embedding != null;
+    }
+
+    /**
+     * 저장된 임베딩을 float 벡터로 디코딩합니다.
+     */
+    public float[] getEmbeddingValues() {
+        return EmbeddingCodec.decode(embedding);
+    }
+
+    /**
+     * 임베딩을 인코딩하여 저장하고 L2 노름을 함께 계산합니다.
+     */
+    public void setEmbeddingValues(float[] values) {
+        if (values == null) {
+            this.embedding = null;
+            this.embeddingNorm = null;
+            return;
+        }
+        this.embedding = EmbeddingCodec.encode(values);
+        this.embeddingNorm = EmbeddingCodec.l2Norm(values);
+    }
+}
@@ -33,9 +33,6 @@ public class KnowledgeDocument {
     @Column(nullable = false)
     private LocalDateTime lastUpdated;
     
-    @Column(columnDefinition = "TEXT")
-    private String embeddingVector;
-    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private DocumentStatus status;
@@ -118,14 +115,6 @@ public class KnowledgeDocument {
         this.lastUpdated = lastUpdated;
     }
     
-    public String getEmbeddingVector() {
-        return embeddingVector;
-    }
-    
-    public void setEmbeddingVector(String embeddingVector) {
-        this.embeddingVector = embeddingVector;
-    }
-    
     public DocumentStatus getStatus() {
         return status;
     }
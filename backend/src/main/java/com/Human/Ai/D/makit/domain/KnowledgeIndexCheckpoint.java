@@ -0,0 +1,148 @@
+package com.Human.Ai.D.makit.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 전체 재색인 작업의 진행 지점. 재시작 시 lastDocumentId 다음 문서부터 이어서 처리합니다.
+ */
+@Entity
+@Table(name = "knowledge_index_checkpoints")
+public class KnowledgeIndexCheckpoint {
+
+    @Id
+    private String jobName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CheckpointStatus status;
+
+    /**
+     * 마지막으로 완료된 페이지의 마지막 문서 ID (문서 ID 순 keyset)
+     */
+    @Column(nullable = false)
+    private String lastDocumentId;
+
+    @Column(nullable = false)
+    private Long processedDocuments;
+
+    @Column(nullable = false)
+    private Long failedDocuments;
+
+    @Column(nullable = false)
+    private Long totalDocuments;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public KnowledgeIndexCheckpoint() {}
+
+    public KnowledgeIndexCheckpoint(String jobName) {
+        this.jobName = jobName;
+        restart();
+    }
+
+    /**
+     * 진행 상황을 지우고 처음부터 다시 시작하도록 초기화합니다.
+     */
+    public void restart() {
+        this.status = CheckpointStatus.RUNNING;
+        this.lastDocumentId = "";
+        this.processedDocuments = 0L;
+        this.failedDocuments = 0L;
+        this.totalDocuments = 0L;
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = this.startedAt;
+    }
+
+    /**
+     * 페이지 하나를 끝낸 뒤 진행 지점을 앞으로 옮깁니다.
+     */
+    public void advance(String lastDocumentId, long processed, long failed) {
+        this.lastDocumentId = lastDocumentId;
+        this.processedDocuments += processed;
+        this.failedDocuments += failed;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public boolean isResumable() {
+        return status == CheckpointStatus.RUNNING || status == CheckpointStatus.CANCELLED;
+    }
+
+    // Getters and Setters
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public CheckpointStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CheckpointStatus status) {
+        this.status = status;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public String getLastDocumentId() {
+        return lastDocumentId;
+    }
+
+    public void setLastDocumentId(String lastDocumentId) {
+        this.lastDocumentId = lastDocumentId;
+    }
+
+    public Long getProcessedDocuments() {
+        return processedDocuments;
+    }
+
+    public void setProcessedDocuments(Long processedDocuments) {
+        this.processedDocuments = processedDocuments;
+    }
+
+    public Long getFailedDocuments() {
+        return failedDocuments;
+    }
+
+    public void setFailedDocuments(Long failedDocuments) {
+        this.failedDocuments = failedDocuments;
+    }
+
+    public Long getTotalDocuments() {
+        return totalDocuments;
+    }
+
+    public void setTotalDocuments(Long totalDocuments) {
+        this.totalDocuments = totalDocuments;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public enum CheckpointStatus {
+        RUNNING,    // 실행 중이거나 프로세스가 중단됨 - 시작 시 자동 재개
+        CANCELLED,  // 사용자가 취소함 - 다음 재구축 요청 시 이어서 처리
+        COMPLETED,
+        FAILED
+    }
+}
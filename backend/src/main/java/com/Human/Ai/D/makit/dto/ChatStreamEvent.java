@@ -0,0 +1,58 @@
+package com.Human.Ai.D.makit.dto;
+
+/**
+ * Frame sent to a chat session's private STOMP queue while a response is generated.
+ * DELTA frames carry the next piece of text in sequence order; the closing DONE frame carries the full
+ * response with its confidence and escalation flags, and ERROR replaces anything streamed so far.
+ */
+public class ChatStreamEvent {
+    
+    private EventType type;
+    private String sessionId;
+    private int sequence;
+    private String content;
+    private double confidence;
+    private boolean shouldEscalate;
+    private String escalationReason;
+    private long timestamp;
+    
+    public enum EventType {
+        DELTA, DONE, ERROR
+    }
+    
+    // Constructors
+    public ChatStreamEvent() {}
+    
+    public ChatStreamEvent(EventType type, String sessionId, int sequence, String content) {
+        this.type = type;
+        this.sessionId = sessionId;
+        this.sequence = sequence;
+        this.content = content;
+        this.timestamp = System.currentTimeMillis();
+    }
+    
+    // Getters and Setters
+    public EventType getType() { return type; }
+    public void setType(EventType type) { this.type = type; }
+    
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+    
+    public int getSequence() { return sequence; }
+    public void setSequence(int sequence) { this.sequence = sequence; }
+    
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+    
+    public double getConfidence() { return confidence; }
+    public void setConfidence(double confidence) { this.confidence = confidence; }
+    
+    public boolean isShouldEscalate() { return shouldEscalate; }
+    public void setShouldEscalate(boolean shouldEscalate) { this.shouldEscalate = shouldEscalate; }
+    
+    public String getEscalationReason() { return escalationReason; }
+    public void setEscalationReason(String escalationReason) { this.escalationReason = escalationReason; }
+    
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+}
@@ -2,12 +2,14 @@ package com.Human.Ai.D.makit.repository;
 
 import com.Human.Ai.D.makit.domain.ChatMessage;
 import com.Human.Ai.D.makit.domain.ConversationContext;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -26,10 +28,44 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     @Query("SELECT cm FROM ChatMessage cm WHERE cm.conversationContext = :context ORDER BY cm.timestamp DESC")
     List<ChatMessage> findByConversationContextOrderByTimestampDesc(@Param("context") ConversationContext context);
     
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.conversationContext = :context ORDER BY cm.timestamp DESC, cm.id DESC")
+    List<ChatMessage> findLatestMessages(@Param("context") ConversationContext context, Pageable pageable);
+    
+    /**
+     * 의도 모델 학습용으로 분류 방법이 sources 중 하나이고 신뢰도가 기준 이상인 사용자 메시지의 [내용, 의도]를
+     * 최신순으로 조회합니다.
+     */
+    @Query("SELECT cm.content, cm.intent FROM ChatMessage cm WHERE cm.isFromBot = false AND cm.intent IS NOT NULL " +
+           "AND cm.intent <> 'UNKNOWN' AND cm.confidence >= :minConfidence AND cm.intentSource IN :sources " +
+           "ORDER BY cm.timestamp DESC")
+    List<Object[]> findLabeledUserMessages(@Param("minConfidence") Double minConfidence,
+                                           @Param("sources") Collection<String> sources, Pageable pageable);
+    
     @Query("SELECT COUNT(cm) FROM ChatMessage cm WHERE cm.conversationContext = :context")
     Long countByConversationContext(@Param("context") ConversationContext context);
     
+    /**
+     * 대화의 발신자별 메시지 수와 첫/마지막 메시지 시각을 집계 쿼리 한 번으로 조회합니다.
+     */
+    @Query("SELECT COUNT(cm) AS totalMessages, " +
+           "COALESCE(SUM(CASE WHEN cm.isFromBot = true THEN 1 ELSE 0 END), 0) AS botMessages, " +
+           "COALESCE(SUM(CASE WHEN cm.isFromBot = true THEN 0 ELSE 1 END), 0) AS userMessages, " +
+           "MIN(cm.timestamp) AS firstMessageAt, MAX(cm.timestamp) AS lastMessageAt " +
+           "FROM ChatMessage cm WHERE cm.conversationContext.contextId = :contextId")
+    MessageAggregate aggregateByContextId(@Param("contextId") String contextId);
+    
     @Query("SELECT cm FROM ChatMessage cm WHERE cm.conversationContext = :context AND cm.isFromBot = :isFromBot")
     List<ChatMessage> findByConversationContextAndIsFromBot(@Param("context") ConversationContext context, 
                                                            @Param("isFromBot") Boolean isFromBot);
-}
\ No newline at end of file
+    
+    /**
+     * 대화별 메시지 집계 프로젝션
+     */
+    interface MessageAggregate {
+        Long getTotalMessages();
+        Long getBotMessages();
+        Long getUserMessages();
+        LocalDateTime getFirstMessageAt();
+        LocalDateTime getLastMessageAt();
+    }
+}
@@ -0,0 +1,50 @@
+package com.Human.Ai.D.makit.repository;
+
+import com.Human.Ai.D.makit.domain.ConversationArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 대화 보관용 집합 연산. 모든 메서드는 호출자의 트랜잭션 안에서 컨텍스트 ID 목록 단위로 실행됩니다.
+ */
+@Repository
+public interface ConversationArchiveRepository extends JpaRepository<ConversationArchive, String> {
+
+    /**
+     * ID 범위 안에서 보관 대상인 종료된 컨텍스트를 잠그고 ID를 반환합니다.
+     */
+    @Query(value = "SELECT cc.context_id FROM conversation_contexts cc " +
+            "WHERE cc.context_id >= :fromId AND cc.context_id <= :toId " +
+            "AND cc.status = 'ENDED' AND cc.last_activity < :endedBefore FOR UPDATE", nativeQuery = true)
+    List<String> lockEndedContextIds(@Param("fromId") String fromId, @Param("toId") String toId,
+                                     @Param("endedBefore") LocalDateTime endedBefore);
+
+    @Modifying
+    @Query(value = "INSERT INTO conversation_archives (context_id, user_id, session_id, status, current_topic, " +
+            "start_time, end_time, user_message_count, bot_message_count, archived_at) " +
+            "SELECT cc.context_id, cc.user_id, cc.session_id, cc.status, cc.current_topic, cc.start_time, cc.last_activity, " +
+            "(SELECT COUNT(*) FROM chat_messages m WHERE m.context_id = cc.context_id AND m.is_from_bot = FALSE), " +
+            "(SELECT COUNT(*) FROM chat_messages m WHERE m.context_id = cc.context_id AND m.is_from_bot = TRUE), " +
+            ":archivedAt FROM conversation_contexts cc WHERE cc.context_id IN (:contextIds)", nativeQuery = true)
+    int archiveContexts(@Param("contextIds") Collection<String> contextIds,
+                        @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM chat_messages WHERE context_id IN (:contextIds)", nativeQuery = true)
+    int deleteMessages(@Param("contextIds") Collection<String> contextIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM conversation_context_variables WHERE context_id IN (:contextIds)", nativeQuery = true)
+    int deleteVariables(@Param("contextIds") Collection<String> contextIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM conversation_contexts WHERE context_id IN (:contextIds)", nativeQuery = true)
+    int deleteContexts(@Param("contextIds") Collection<String> contextIds);
+}
@@ -2,10 +2,13 @@ package com.Human.Ai.D.makit.repository;
 
 import com.Human.Ai.D.makit.domain.ConversationContext;
 import com.Human.Ai.D.makit.domain.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,10 +28,42 @@ public interface ConversationContextRepository extends JpaRepository<Conversatio
     @Query("SELECT cc FROM ConversationContext cc WHERE cc.lastActivity < :cutoffTime")
     List<ConversationContext> findExpiredContexts(@Param("cutoffTime") LocalDateTime cutoffTime);
     
+    /**
+     * 상태가 status이고 cutoffTime 이전부터 활동이 없는 컨텍스트 ID를 afterId 다음부터 ID 순으로 조회합니다 (keyset).
+     */
+    @Query("SELECT cc.contextId FROM ConversationContext cc WHERE cc.status = :status AND cc.lastActivity < :cutoffTime " +
+           "AND cc.contextId > :afterId ORDER BY cc.contextId")
+    List<String> findInactiveContextIds(@Param("status") ConversationContext.ConversationStatus status,
+                                        @Param("cutoffTime") LocalDateTime cutoffTime,
+                                        @Param("afterId") String afterId, Pageable pageable);
+    
+    /**
+     * ID 범위 안에서 cutoffTime 이전부터 활동이 없는 active 상태 컨텍스트를 한 번에 ended 상태로 바꿉니다.
+     * 조회 이후 활동이 생긴 컨텍스트는 조건에서 빠지므로 종료되지 않습니다.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ConversationContext cc SET cc.status = :ended " +
+           "WHERE cc.contextId >= :fromId AND cc.contextId <= :toId " +
+           "AND cc.status = :active AND cc.lastActivity < :cutoffTime")
+    int endInactiveContextsInRange(@Param("fromId") String fromId, @Param("toId") String toId,
+                                   @Param("cutoffTime") LocalDateTime cutoffTime,
+                                   @Param("active") ConversationContext.ConversationStatus active,
+                                   @Param("ended") ConversationContext.ConversationStatus ended);
+    
     @Query("SELECT cc FROM ConversationContext cc WHERE cc.user = :user AND cc.status = :status ORDER BY cc.lastActivity DESC")
     List<ConversationContext> findByUserAndStatusOrderByLastActivityDesc(@Param("user") User user, 
                                                                         @Param("status") ConversationContext.ConversationStatus status);
     
+    /**
+     * 일괄 저장된 메시지 수만큼 컨텍스트의 메시지 수를 늘립니다.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ConversationContext cc SET cc.messageCount = COALESCE(cc.messageCount, 0) + :delta " +
+           "WHERE cc.contextId = :contextId")
+    int incrementMessageCount(@Param("contextId") String contextId, @Param("delta") int delta);
+    
     @Query("SELECT COUNT(cc) FROM ConversationContext cc WHERE cc.user = :user")
     Long countByUser(@Param("user") User user);
     
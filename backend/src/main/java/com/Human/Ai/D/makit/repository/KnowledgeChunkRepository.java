@@ -0,0 +1,40 @@
+package com.Human.Ai.D.makit.repository;
+
+import com.Human.Ai.D.makit.domain.KnowledgeChunk;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface KnowledgeChunkRepository extends JpaRepository<KnowledgeChunk, String> {
+
+    @Query("SELECT c.chunkId FROM KnowledgeChunk c WHERE c.document.documentId = :documentId")
+    List<String> findChunkIdsByDocumentId(@Param("documentId") String documentId);
+
+    @Query("SELECT c FROM KnowledgeChunk c JOIN FETCH c.document WHERE c.chunkId IN :chunkIds")
+    List<KnowledgeChunk> findWithDocumentByChunkIdIn(@Param("chunkIds") Collection<String> chunkIds);
+
+    @Query("SELECT c FROM KnowledgeChunk c JOIN FETCH c.document WHERE c.embedding IS NOT NULL AND c.chunkId > :afterId ORDER BY c.chunkId")
+    List<KnowledgeChunk> findEmbeddedChunksAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT c.chunkId FROM KnowledgeChunk c WHERE c.embedding IS NOT NULL")
+    List<String> findEmbeddedChunkIds();
+
+    @Query("SELECT c.chunkId FROM KnowledgeChunk c WHERE c.embedding IS NOT NULL AND c.createdAt >= :since")
+    List<String> findEmbeddedChunkIdsCreatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * 임베딩 없이 키워드/메타데이터 색인에 필요한
+     * [chunkId, documentId, 문서 제목, 청크 본문, 문서 유형, 출처]만 조회합니다.
+     */
+    @Query("SELECT c.chunkId, d.documentId, d.title, c.content, d.documentType, d.source " +
+           "FROM KnowledgeChunk c JOIN c.document d " +
+           "WHERE c.embedding IS NOT NULL AND c.chunkId > :afterId ORDER BY c.chunkId")
+    List<Object[]> findChunkTextsAfter(@Param("afterId") String afterId, Pageable pageable);
+}
@@ -1,11 +1,13 @@
 package com.Human.Ai.D.makit.repository;
 
 import com.Human.Ai.D.makit.domain.KnowledgeDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,6 +25,24 @@ public interface KnowledgeDocumentRepository extends JpaRepository<KnowledgeDocu
     
     List<KnowledgeDocument> findBySource(String source);
     
-    @Query("SELECT kd FROM KnowledgeDocument kd WHERE kd.embeddingVector IS NOT NULL")
-    List<KnowledgeDocument> findIndexedDocuments();
+    @Query("SELECT kd FROM KnowledgeDocument kd WHERE kd.documentId > :afterId ORDER BY kd.documentId")
+    List<KnowledgeDocument> findDocumentsAfter(@Param("afterId") String afterId, Pageable pageable);
+    
+    @Query("SELECT kd FROM KnowledgeDocument kd WHERE kd.status = :status AND kd.documentId > :afterId ORDER BY kd.documentId")
+    List<KnowledgeDocument> findByStatusAfter(@Param("status") KnowledgeDocument.DocumentStatus status,
+                                              @Param("afterId") String afterId, Pageable pageable);
+    
+    long countByStatus(KnowledgeDocument.DocumentStatus status);
+    
+    /**
+     * [documentId, tag] 쌍으로 여러 문서의 태그를 한 번에 조회합니다.
+     */
+    @Query("SELECT kd.documentId, t FROM KnowledgeDocument kd JOIN kd.tags t WHERE kd.documentId IN :documentIds")
+    List<Object[]> findTagsByDocumentIds(@Param("documentIds") Collection<String> documentIds);
+    
+    /**
+     * [documentId, lastUpdated] 쌍으로 여러 문서의 수정 시각을 조회합니다.
+     */
+    @Query("SELECT kd.documentId, kd.lastUpdated FROM KnowledgeDocument kd WHERE kd.documentId IN :documentIds")
+    List<Object[]> findLastUpdatedByDocumentIds(@Param("documentIds") Collection<String> documentIds);
 }
\ No newline at end of file
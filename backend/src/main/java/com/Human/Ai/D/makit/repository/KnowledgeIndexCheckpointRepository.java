@@ -0,0 +1,9 @@
+package com.Human.Ai.D.makit.repository;
+
+import com.Human.Ai.D.makit.domain.KnowledgeIndexCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface KnowledgeIndexCheckpointRepository extends JpaRepository<KnowledgeIndexCheckpoint, String> {
+}
@@ -69,6 +69,55 @@ public class AsyncTaskManager {
         });
     }
 
+    /**
+     * Register a long-running task that the caller executes itself and reports progress for.
+     * The task is tracked like submitted AI tasks, so it is visible through the same progress API.
+     */
+    public TaskProgress startTrackedTask(String taskType, String userId) {
+        String taskId = UUID.randomUUID().toString();
+        
+        TaskProgress progress = new TaskProgress(taskId, taskType, userId);
+        progress.updateStatus(TaskStatus.PROCESSING);
+        taskProgressMap.put(taskId, progress);
+        cacheService.put("taskProgress", taskId, progress);
+        
+        logger.info("Started tracked task: {} ({}) for user: {}", taskId, taskType, userId);
+        return progress;
+    }
+
+    /**
+     * Update progress of a tracked task, including task-specific details such as throughput or ETA
+     */
+    public void reportProgress(TaskProgress progress, int percentage, String message, Map<String, Object> details) {
+        progress.updateProgress(percentage, message);
+        progress.setDetails(details);
+        cacheService.put("taskProgress", progress.getTaskId(), progress);
+    }
+
+    /**
+     * Mark a tracked task as completed
+     */
+    public void completeTrackedTask(TaskProgress progress, TaskResult result) {
+        progress.updateStatus(TaskStatus.COMPLETED);
+        progress.updateProgress(100, "Task completed successfully");
+        progress.setResult(result);
+        cacheService.put("taskProgress", progress.getTaskId(), progress);
+        cacheService.put("taskResults", progress.getTaskId(), result);
+        
+        logger.info("Completed tracked task: {}", progress.getTaskId());
+    }
+
+    /**
+     * Mark a tracked task as failed
+     */
+    public void failTrackedTask(TaskProgress progress, String errorMessage) {
+        progress.updateStatus(TaskStatus.FAILED);
+        progress.setErrorMessage(errorMessage);
+        cacheService.put("taskProgress", progress.getTaskId(), progress);
+        
+        logger.error("Failed tracked task: {} - {}", progress.getTaskId(), errorMessage);
+    }
+
     /**
      * Get task progress by ID
      */
@@ -222,6 +271,7 @@ public class AsyncTaskManager {
         private String statusMessage;
         private String errorMessage;
         private TaskResult result;
+        private Map<String, Object> details;
         private LocalDateTime updatedAt;
 
         public TaskProgress(String taskId, String taskType, String userId) {
@@ -258,6 +308,8 @@ public class AsyncTaskManager {
         public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
         public TaskResult getResult() { return result; }
         public void setResult(TaskResult result) { this.result = result; }
+        public Map<String, Object> getDetails() { return details; }
+        public void setDetails(Map<String, Object> details) { this.details = details; }
         public LocalDateTime getUpdatedAt() { return updatedAt; }
     }
 
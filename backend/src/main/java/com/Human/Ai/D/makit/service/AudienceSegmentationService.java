@@ -7,6 +7,7 @@ import com.Human.Ai.D.makit.domain.User;
 import com.Human.Ai.D.makit.repository.AudienceSegmentRepository;
 import com.Human.Ai.D.makit.repository.CampaignAnalyticsRepository;
 import com.Human.Ai.D.makit.repository.UserRepository;
+import com.Human.Ai.D.makit.service.ai.BedrockCallOptions;
 import com.Human.Ai.D.makit.service.ai.BedrockService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +22,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Service
@@ -234,19 +236,25 @@ public class AudienceSegmentationService {
      */
     private void analyzeSegmentWithAI(AudienceSegment segment) {
         try {
+            // Both prompts depend only on the segment, so the two model calls run concurrently;
+            // identical segments analysed at the same time share the calls
             String prompt = buildSegmentAnalysisPrompt(segment);
-            String aiAnalysis = bedrockService.generateText(prompt, "cohere.embed-english-v3");
-            
-            // Parse AI response and extract insights
-            segment.setAiInsights(aiAnalysis);
+            CompletableFuture<String> aiAnalysis = bedrockService.generateTextAsync(prompt, "cohere.embed-english-v3",
+                    BedrockCallOptions.COALESCED);
             
             // Generate recommended actions
             String actionPrompt = buildActionRecommendationPrompt(segment);
-            String recommendedActions = bedrockService.generateText(actionPrompt, "claude-3-haiku-20240307-v1:0");
-            segment.setRecommendedActions(recommendedActions);
+            CompletableFuture<String> recommendedActions =
+                    bedrockService.generateTextAsync(actionPrompt, "claude-3-haiku-20240307-v1:0",
+                            BedrockCallOptions.COALESCED);
+            
+            // Parse AI response and extract insights
+            segment.setAiInsights(aiAnalysis.join());
+            segment.setRecommendedActions(recommendedActions.join());
             
         } catch (Exception e) {
-            logger.error("Failed to analyze segment with AI: {}", e.getMessage());
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            logger.error("Failed to analyze segment with AI: {}", cause.getMessage());
             segment.setAiInsights("AI analysis unavailable");
         }
     }
@@ -0,0 +1,454 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.domain.ChatMessage;
+import com.Human.Ai.D.makit.domain.ConversationContext;
+import com.Human.Ai.D.makit.repository.ChatMessageRepository;
+import com.Human.Ai.D.makit.repository.ConversationContextRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 대화 메시지 저장소. 컨텍스트마다 최근 메시지를 Redis 리스트(LPUSH/LTRIM)에 고정 크기 링 버퍼로 유지해
+ * 대화 기록 조회를 처리하고, DB에는 대기열에 모아 주기적으로 일괄 저장(write-behind)합니다.
+ * 메시지 하나를 추가하는 비용은 Redis 왕복 한 번이며, 전체 기록을 읽거나 지우지 않습니다.
+ * Redis에 링이 없으면(만료·장애) DB와 아직 저장되지 않은 대기 메시지를 합쳐 응답합니다.
+ * 대화별 메시지 집계도 같은 방식으로 계산해 Redis에 캐시하며, 메시지가 추가되거나 DB에 저장될 때 무효화합니다.
+ */
+@Service
+public class ChatMessageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageStore.class);
+    private static final String KEY_PREFIX = "chat:history:";
+    private static final String SUMMARY_KEY_PREFIX = "chat:summary:";
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ConversationContextRepository conversationContextRepository;
+
+    @Value("${chatbot.history.ring-size:50}")
+    private int ringSize = 50;
+
+    // 컨텍스트 만료(30분 무활동)보다 길게 유지. 메시지를 추가할 때마다 갱신
+    @Value("${chatbot.history.ttl-minutes:120}")
+    private long ttlMinutes = 120;
+
+    // 무효화를 놓친 경우에 대비한 상한
+    @Value("${chatbot.history.summary-ttl-seconds:300}")
+    private long summaryTtlSeconds = 300;
+
+    @Value("${chatbot.history.flush-batch-size:200}")
+    private int flushBatchSize = 200;
+
+    // 대기 메시지가 이보다 많으면(DB 장애 등) 새 메시지는 바로 저장해 메모리 사용을 제한
+    @Value("${chatbot.history.max-pending:10000}")
+    private int maxPending = 10000;
+
+    private final LinkedBlockingDeque<ChatMessage> pending = new LinkedBlockingDeque<>();
+
+    private final AtomicLong ringMisses = new AtomicLong();
+    private final AtomicLong flushedMessages = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    /**
+     * 메시지를 링 버퍼에 넣고 DB 저장 대기열에 추가합니다.
+     */
+    public void append(ChatMessage message) {
+        pushToRing(message);
+        if (pending.size() >= maxPending) {
+            logger.warn("Chat message write-behind queue is full ({}), saving synchronously", pending.size());
+            chatMessageRepository.save(message);
+            conversationContextRepository.incrementMessageCount(message.getConversationContext().getContextId(), 1);
+            evictSummaries(List.of(message.getConversationContext().getContextId()));
+            return;
+        }
+        pending.offerLast(message);
+    }
+
+    /**
+     * 가장 최근 메시지를 최대 limit개까지 시간순으로 반환합니다.
+     */
+    public List<ChatMessage> getLatestMessages(ConversationContext context, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (limit <= ringSize) {
+            List<ChatMessage> fromRing = readRing(context, limit);
+            if (fromRing != null) {
+                return fromRing;
+            }
+        }
+        ringMisses.incrementAndGet();
+        return readDatabase(context, limit);
+    }
+
+    /**
+     * 대화의 메시지 수와 첫/마지막 메시지 시각을 반환합니다.
+     * 캐시가 없으면 DB 집계 쿼리 한 번과 대기 메시지로 계산해 캐시합니다.
+     */
+    public MessageSummary getMessageSummary(ConversationContext context) {
+        String key = summaryKey(context.getContextId());
+        try {
+            if (redisTemplate.opsForValue().get(key) instanceof MessageSummary cached) {
+                return cached;
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to read message summary from Redis for context: {}", context.getContextId(), e);
+        }
+
+        MessageSummary summary = MessageSummary.from(
+                chatMessageRepository.aggregateByContextId(context.getContextId()));
+        for (ChatMessage message : pending) {
+            if (message.getConversationContext().getContextId().equals(context.getContextId())) {
+                summary.add(message);
+            }
+        }
+        try {
+            redisTemplate.opsForValue().set(key, summary, summaryTtlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.warn("Failed to cache message summary for context: {}", context.getContextId(), e);
+        }
+        return summary;
+    }
+
+    /**
+     * 대기 중인 메시지를 일괄 저장하고 컨텍스트별 메시지 수를 한 번씩 갱신합니다.
+     * 일괄 저장이 실패하면 메시지를 하나씩 다시 시도해 저장할 수 없는 메시지만 버리고,
+     * 모두 실패하면(DB 장애) 대기열 앞에 되돌려 다음 주기에 재시도합니다.
+     */
+    @Scheduled(fixedDelayString = "${chatbot.history.flush-interval-ms:500}")
+    public void flush() {
+        while (!pending.isEmpty()) {
+            List<ChatMessage> batch = new ArrayList<>(Math.min(flushBatchSize, pending.size()));
+            pending.drainTo(batch, flushBatchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<ChatMessage> saved = saveBatch(batch);
+            if (saved == null) {
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    pending.offerFirst(batch.get(i));
+                }
+                failedFlushes.incrementAndGet();
+                return;
+            }
+            updateMessageCounts(saved);
+            flushedMessages.addAndGet(saved.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            logger.error("Shutting down with {} chat messages not persisted", pending.size());
+        }
+    }
+
+    public MessageStoreStats getStats() {
+        return new MessageStoreStats(pending.size(), flushedMessages.get(), failedFlushes.get(), ringMisses.get());
+    }
+
+    /**
+     * @return 저장된 메시지, DB에 전혀 저장할 수 없으면 null
+     */
+    private List<ChatMessage> saveBatch(List<ChatMessage> batch) {
+        try {
+            chatMessageRepository.saveAll(batch);
+            return batch;
+        } catch (RuntimeException e) {
+            logger.warn("Batch save of {} chat messages failed, retrying individually", batch.size(), e);
+            // 롤백된 INSERT에서 받은 ID는 무효
+            batch.forEach(message -> message.setId(null));
+        }
+
+        List<ChatMessage> saved = new ArrayList<>();
+        for (ChatMessage message : batch) {
+            try {
+                chatMessageRepository.save(message);
+                saved.add(message);
+            } catch (RuntimeException e) {
+                logger.error("Could not save chat message {}", message.getMessageId(), e);
+                message.setId(null);
+            }
+        }
+        return saved.isEmpty() ? null : saved;
+    }
+
+    private void updateMessageCounts(List<ChatMessage> saved) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (ChatMessage message : saved) {
+            counts.merge(message.getConversationContext().getContextId(), 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            try {
+                conversationContextRepository.incrementMessageCount(count.getKey(), count.getValue());
+            } catch (RuntimeException e) {
+                logger.warn("Failed to update message count for context: {}", count.getKey(), e);
+            }
+        }
+        // 저장 도중(대기열에서도 DB에서도 보이지 않는 사이)에 계산된 집계를 버림
+        evictSummaries(counts.keySet());
+    }
+
+    private void evictSummaries(Collection<String> contextIds) {
+        List<String> keys = new ArrayList<>(contextIds.size());
+        for (String contextId : contextIds) {
+            keys.add(summaryKey(contextId));
+        }
+        try {
+            redisTemplate.delete(keys);
+        } catch (Exception e) {
+            logger.warn("Failed to evict message summaries for {} contexts", keys.size(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pushToRing(ChatMessage message) {
+        String key = ringKey(message.getConversationContext());
+        String summaryKey = summaryKey(message.getConversationContext().getContextId());
+        StoredMessage stored = StoredMessage.from(message);
+        try {
+            // 한 번의 왕복으로 추가·잘라내기·만료 갱신·집계 캐시 무효화
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.opsForList().leftPush(key, stored);
+                    ops.opsForList().trim(key, 0, ringSize - 1);
+                    ops.expire(key, ttlMinutes, TimeUnit.MINUTES);
+                    ops.delete(summaryKey);
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            // 링에 없는 메시지는 조회 시 DB와 대기열에서 찾음
+            logger.warn("Failed to push chat message to Redis history: {}", key, e);
+            try {
+                redisTemplate.delete(List.of(key, summaryKey));
+            } catch (Exception ignored) {
+                // Redis를 쓸 수 없으면 다음 조회도 DB로 처리됨
+            }
+        }
+    }
+
+    /**
+     * @return 시간순 메시지, 링이 없으면 null
+     */
+    private List<ChatMessage> readRing(ConversationContext context, int limit) {
+        List<Object> values;
+        try {
+            values = redisTemplate.opsForList().range(ringKey(context), 0, limit - 1);
+        } catch (Exception e) {
+            logger.warn("Failed to read chat history from Redis for context: {}", context.getContextId(), e);
+            return null;
+        }
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        List<ChatMessage> messages = new ArrayList<>(values.size());
+        for (int i = values.size() - 1; i >= 0; i--) {
+            if (values.get(i) instanceof StoredMessage stored) {
+                messages.add(stored.toChatMessage(context));
+            }
+        }
+        return messages;
+    }
+
+    private List<ChatMessage> readDatabase(ConversationContext context, int limit) {
+        List<ChatMessage> messages = new ArrayList<>(
+                chatMessageRepository.findLatestMessages(context, PageRequest.of(0, limit)));
+        Set<String> persistedIds = new HashSet<>();
+        for (ChatMessage message : messages) {
+            persistedIds.add(message.getMessageId());
+        }
+        for (ChatMessage message : pending) {
+            if (message.getConversationContext().getContextId().equals(context.getContextId())
+                    && !persistedIds.contains(message.getMessageId())) {
+                messages.add(message);
+            }
+        }
+        messages.sort(Comparator.comparing(ChatMessage::getTimestamp));
+        return messages.size() > limit
+                ? new ArrayList<>(messages.subList(messages.size() - limit, messages.size()))
+                : messages;
+    }
+
+    private static String ringKey(ConversationContext context) {
+        return KEY_PREFIX + context.getContextId();
+    }
+
+    private static String summaryKey(String contextId) {
+        return SUMMARY_KEY_PREFIX + contextId;
+    }
+
+    /**
+     * Redis 링에 저장하는 메시지 스냅샷. 시각은 epoch 밀리초로 저장합니다.
+     */
+    public static class StoredMessage {
+        private String messageId;
+        private String sender;
+        private String content;
+        private String type;
+        private long timestamp;
+        private boolean fromBot;
+        private String intent;
+        private Double confidence;
+
+        public StoredMessage() {}
+
+        static StoredMessage from(ChatMessage message) {
+            StoredMessage stored = new StoredMessage();
+            stored.messageId = message.getMessageId();
+            stored.sender = message.getSender();
+            stored.content = message.getContent();
+            stored.type = message.getType().name();
+            stored.timestamp = message.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            stored.fromBot = Boolean.TRUE.equals(message.getIsFromBot());
+            stored.intent = message.getIntent();
+            stored.confidence = message.getConfidence();
+            return stored;
+        }
+
+        ChatMessage toChatMessage(ConversationContext context) {
+            ChatMessage message = new ChatMessage(context, sender, content, ChatMessage.MessageType.valueOf(type), fromBot);
+            message.setMessageId(messageId);
+            message.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()));
+            message.setIntent(intent);
+            message.setConfidence(confidence);
+            return message;
+        }
+
+        public String getMessageId() { return messageId; }
+        public void setMessageId(String messageId) { this.messageId = messageId; }
+        public String getSender() { return sender; }
+        public void setSender(String sender) { this.sender = sender; }
+        public String getContent() { return content; }
+        public void setContent(String content) { this.content = content; }
+        public String getType() { return type; }
+        public void setType(String type) { this.type = type; }
+        public long getTimestamp() { return timestamp; }
+        public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+        public boolean isFromBot() { return fromBot; }
+        public void setFromBot(boolean fromBot) { this.fromBot = fromBot; }
+        public String getIntent() { return intent; }
+        public void setIntent(String intent) { this.intent = intent; }
+        public Double getConfidence() { return confidence; }
+        public void setConfidence(Double confidence) { this.confidence = confidence; }
+    }
+
+    /**
+     * 대화별 메시지 집계. Redis에 캐시하므로 시각은 epoch 밀리초로 저장합니다.
+     */
+    public static class MessageSummary {
+        private long totalMessages;
+        private long botMessages;
+        private long userMessages;
+        private Long firstMessageAt;
+        private Long lastMessageAt;
+
+        public MessageSummary() {}
+
+        static MessageSummary from(ChatMessageRepository.MessageAggregate aggregate) {
+            MessageSummary summary = new MessageSummary();
+            if (aggregate != null) {
+                summary.totalMessages = valueOf(aggregate.getTotalMessages());
+                summary.botMessages = valueOf(aggregate.getBotMessages());
+                summary.userMessages = valueOf(aggregate.getUserMessages());
+                summary.firstMessageAt = toEpochMilli(aggregate.getFirstMessageAt());
+                summary.lastMessageAt = toEpochMilli(aggregate.getLastMessageAt());
+            }
+            return summary;
+        }
+
+        void add(ChatMessage message) {
+            totalMessages++;
+            if (Boolean.TRUE.equals(message.getIsFromBot())) {
+                botMessages++;
+            } else {
+                userMessages++;
+            }
+            Long timestamp = toEpochMilli(message.getTimestamp());
+            if (timestamp != null) {
+                firstMessageAt = firstMessageAt == null ? timestamp : Math.min(firstMessageAt, timestamp);
+                lastMessageAt = lastMessageAt == null ? timestamp : Math.max(lastMessageAt, timestamp);
+            }
+        }
+
+        LocalDateTime firstMessageTime() { return toLocalDateTime(firstMessageAt); }
+        LocalDateTime lastMessageTime() { return toLocalDateTime(lastMessageAt); }
+
+        private static long valueOf(Long value) {
+            return value == null ? 0L : value;
+        }
+
+        private static Long toEpochMilli(LocalDateTime time) {
+            return time == null ? null : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        private static LocalDateTime toLocalDateTime(Long epochMilli) {
+            return epochMilli == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+        }
+
+        public long getTotalMessages() { return totalMessages; }
+        public void setTotalMessages(long totalMessages) { this.totalMessages = totalMessages; }
+        public long getBotMessages() { return botMessages; }
+        public void setBotMessages(long botMessages) { this.botMessages = botMessages; }
+        public long getUserMessages() { return userMessages; }
+        public void setUserMessages(long userMessages) { this.userMessages = userMessages; }
+        public Long getFirstMessageAt() { return firstMessageAt; }
+        public void setFirstMessageAt(Long firstMessageAt) { this.firstMessageAt = firstMessageAt; }
+        public Long getLastMessageAt() { return lastMessageAt; }
+        public void setLastMessageAt(Long lastMessageAt) { this.lastMessageAt = lastMessageAt; }
+    }
+
+    /**
+     * 저장소 상태
+     */
+    public static class MessageStoreStats {
+        private final int pendingMessages;
+        private final long flushedMessages;
+        private final long failedFlushes;
+        private final long ringMisses;
+
+        public MessageStoreStats(int pendingMessages, long flushedMessages, long failedFlushes, long ringMisses) {
+            this.pendingMessages = pendingMessages;
+            this.flushedMessages = flushedMessages;
+            this.failedFlushes = failedFlushes;
+            this.ringMisses = ringMisses;
+        }
+
+        public int getPendingMessages() { return pendingMessages; }
+        public long getFlushedMessages() { return flushedMessages; }
+        public long getFailedFlushes() { return failedFlushes; }
+        public long getRingMisses() { return ringMisses; }
+    }
+}
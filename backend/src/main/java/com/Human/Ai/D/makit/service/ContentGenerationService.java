@@ -12,7 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Supplier;
+import java.util.concurrent.CompletionException;
 
 @Service
 @Transactional
@@ -40,24 +40,21 @@ public class ContentGenerationService {
         content = contentRepository.save(content);
         
         final Content finalContent = content;
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Enhanced error handling and retry logic
-                String generatedText = generateWithRetry(() -> 
-                    bedrockService.generateTextWithClaude(prompt, 2000), 3);
-                
-                finalContent.setBody(generatedText);
-                finalContent.setStatus(Content.ContentStatus.GENERATED);
-                Content savedContent = contentRepository.save(finalContent);
-                
-                return savedContent;
-            } catch (Exception e) {
-                finalContent.setStatus(Content.ContentStatus.DRAFT);
-                finalContent.setBody("Error generating content: " + e.getMessage());
-                contentRepository.save(finalContent);
-                throw new RuntimeException("Failed to generate blog post", e);
-            }
-        });
+        // Transient Bedrock errors are retried with backoff inside BedrockService
+        return bedrockService.generateTextWithClaudeAsync(prompt, 2000)
+                .thenApply(generatedText -> {
+                    finalContent.setBody(generatedText);
+                    finalContent.setStatus(Content.ContentStatus.GENERATED);
+                    Content savedContent = contentRepository.save(finalContent);
+                    return savedContent;
+                })
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    finalContent.setStatus(Content.ContentStatus.DRAFT);
+                    finalContent.setBody("Error generating content: " + cause.getMessage());
+                    contentRepository.save(finalContent);
+                    throw new RuntimeException("Failed to generate blog post", cause);
+                });
     }
     
     @Async
@@ -149,30 +146,8 @@ public class ContentGenerationService {
         }
     }
     
-    /**
-     * Enhanced retry logic for AI operations
-     */
-    private String generateWithRetry(Supplier<String> operation, int maxRetries) {
-        Exception lastException = null;
-        
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            try {
-                return operation.get();
-            } catch (Exception e) {
-                lastException = e;
-                if (attempt < maxRetries) {
-                    try {
-                        // Exponential backoff
-                        Thread.sleep(1000 * attempt);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Interrupted during retry", ie);
-                    }
-                }
-            }
-        }
-        
-        throw new RuntimeException("Failed after " + maxRetries + " attempts", lastException);
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
     
     /**
@@ -1,12 +1,14 @@
 package com.Human.Ai.D.makit.service;
 
 import com.Human.Ai.D.makit.domain.Content;
+import com.Human.Ai.D.makit.service.ai.BedrockCallOptions;
 import com.Human.Ai.D.makit.service.ai.BedrockService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -19,6 +21,11 @@ import java.util.concurrent.CompletableFuture;
 public class ContentQualityAnalyzer {
     
     private static final Logger logger = LoggerFactory.getLogger(ContentQualityAnalyzer.class);
+    // 같은 텍스트의 점수는 다시 물어도 같으므로 동시 요청을 합치고 결과를 일주일 동안 캐시
+    private static final BedrockCallOptions SCORE_OPTIONS = BedrockCallOptions.builder()
+            .coalesce(true)
+            .cache(Duration.ofDays(7))
+            .build();
     
     @Autowired
     private BedrockService bedrockService;
@@ -292,7 +299,7 @@ public class ContentQualityAnalyzer {
                 text.length() > 1000 ? text.substring(0, 1000) + "..." : text
             );
             
-            String response = bedrockService.generateTextWithClaude(prompt, 50);
+            String response = bedrockService.generateTextWithClaude(prompt, 50, SCORE_OPTIONS);
             return parseScoreFromResponse(response);
             
         } catch (Exception e) {
@@ -314,7 +321,7 @@ public class ContentQualityAnalyzer {
                 text.length() > 1000 ? text.substring(0, 1000) + "..." : text
             );
             
-            String response = bedrockService.generateTextWithClaude(prompt, 50);
+            String response = bedrockService.generateTextWithClaude(prompt, 50, SCORE_OPTIONS);
             return parseScoreFromResponse(response);
             
         } catch (Exception e) {
@@ -336,7 +343,7 @@ public class ContentQualityAnalyzer {
                 text.length() > 800 ? text.substring(0, 800) + "..." : text
             );
             
-            String response = bedrockService.generateTextWithClaude(prompt, 50);
+            String response = bedrockService.generateTextWithClaude(prompt, 50, SCORE_OPTIONS);
             return parseScoreFromResponse(response);
             
         } catch (Exception e) {
@@ -0,0 +1,324 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.domain.ChatMessage;
+import com.Human.Ai.D.makit.domain.KnowledgeChunk;
+import com.Human.Ai.D.makit.service.retrieval.DocumentChunker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RAG 프롬프트에 넣을 컨텍스트를 토큰 예산 안에서 조립합니다.
+ * 상위 청크 → 최근 대화 → 이전 대화 요약 순으로 남은 예산을 채우므로 프롬프트 길이가 예산을 넘지 않습니다.
+ * 토큰 수는 {@link DocumentChunker#estimateTokens(CharSequence)}로 근사합니다.
+ */
+@Service
+public class ContextAssembler {
+
+    static final String SLOT_KNOWLEDGE = "knowledge";
+    static final String SLOT_RECENT_TURNS = "recentTurns";
+    static final String SLOT_SUMMARY = "summary";
+
+    // 이보다 적게 남으면 잘린 조각을 넣지 않음
+    private static final int MIN_PARTIAL_TOKENS = 40;
+    private static final int SUMMARY_ITEM_CHARS = 80;
+    private static final String ELLIPSIS = "...";
+
+    @Value("${chatbot.context.max-tokens:1200}")
+    private int maxTokens = 1200;
+
+    @Value("${chatbot.context.max-recent-messages:10}")
+    private int maxRecentMessages = 10;
+
+    /**
+     * 검색 결과와 대화 기록으로 컨텍스트를 조립합니다.
+     *
+     * @param relevantDocs 순위순 검색 결과
+     * @param history 시간순 대화 기록. 지금 답하려는 사용자 메시지는 제외해야 합니다.
+     */
+    public AssembledContext assemble(List<KnowledgeRetriever.RelevantDocument> relevantDocs,
+                                     List<ChatMessage> history) {
+        int remaining = maxTokens;
+        List<SlotUsage> usage = new ArrayList<>();
+
+        List<String> passages = new ArrayList<>();
+        SlotUsage knowledgeUsage = fillKnowledge(relevantDocs, remaining, passages);
+        usage.add(knowledgeUsage);
+        remaining -= knowledgeUsage.getTokens();
+
+        Deque<String> recentTurns = new ArrayDeque<>();
+        int olderEnd = fillRecentTurns(history, remaining, recentTurns, usage);
+        remaining -= usage.get(usage.size() - 1).getTokens();
+
+        List<String> summaryLines = new ArrayList<>();
+        usage.add(fillSummary(history.subList(0, olderEnd), remaining, summaryLines));
+
+        return new AssembledContext(
+                String.join("\n\n", passages),
+                String.join("\n", recentTurns),
+                String.join("\n", summaryLines),
+                maxTokens,
+                usage);
+    }
+
+    /**
+     * 순위순으로 청크를 넣습니다. 같은 문서에서 이미 넣은 범위와 겹치는 부분(청크 간 overlap)은 빼고,
+     * 본문이 같은 청크는 한 번만 넣습니다. 마지막 청크는 예산에 맞게 잘릴 수 있습니다.
+     */
+    private SlotUsage fillKnowledge(List<KnowledgeRetriever.RelevantDocument> relevantDocs, int budget,
+                                    List<String> passages) {
+        Map<String, List<int[]>> coveredByDocument = new HashMap<>();
+        Set<String> seenTexts = new HashSet<>();
+        int used = 0;
+        int included = 0;
+        int deduplicated = 0;
+        int dropped = 0;
+
+        for (KnowledgeRetriever.RelevantDocument doc : relevantDocs) {
+            String text = uncoveredText(doc, coveredByDocument);
+            if (text.isBlank() || !seenTexts.add(normalize(text))) {
+                deduplicated++;
+                continue;
+            }
+
+            String header = "문서: " + doc.getDocument().getTitle() + "\n내용: ";
+            int headerTokens = DocumentChunker.estimateTokens(header);
+            int available = budget - used - headerTokens;
+            int tokens = DocumentChunker.estimateTokens(text);
+            if (tokens > available) {
+                if (available < MIN_PARTIAL_TOKENS) {
+                    dropped++;
+                    continue;
+                }
+                text = truncateToTokens(text, available);
+                tokens = DocumentChunker.estimateTokens(text);
+            }
+            passages.add(header + text);
+            used += headerTokens + tokens;
+            included++;
+        }
+        return new SlotUsage(SLOT_KNOWLEDGE, used, included, deduplicated + dropped);
+    }
+
+    /**
+     * 최근 메시지부터 거꾸로 예산과 개수 한도까지 넣습니다.
+     *
+     * @return 요약으로 넘길 이전 메시지의 끝 인덱스 (history 기준, 배타적)
+     */
+    private int fillRecentTurns(List<ChatMessage> history, int budget, Deque<String> turns, List<SlotUsage> usage) {
+        int used = 0;
+        int index = history.size();
+        while (index > 0 && turns.size() < maxRecentMessages) {
+            ChatMessage message = history.get(index - 1);
+            String line = formatTurn(message);
+            int tokens = DocumentChunker.estimateTokens(line);
+            if (used + tokens > budget) {
+                break;
+            }
+            turns.addFirst(line);
+            used += tokens;
+            index--;
+        }
+        usage.add(new SlotUsage(SLOT_RECENT_TURNS, used, turns.size(), 0));
+        return index;
+    }
+
+    /**
+     * 최근 대화에 들어가지 못한 이전 사용자 질문을 한 줄씩 줄여 최근 것부터 넣습니다.
+     * 모델 호출 없이 만드는 추출 요약이라 응답 지연을 늘리지 않습니다.
+     */
+    private SlotUsage fillSummary(List<ChatMessage> older, int budget, List<String> lines) {
+        int used = 0;
+        int included = 0;
+        int dropped = 0;
+        for (int i = older.size() - 1; i >= 0; i--) {
+            ChatMessage message = older.get(i);
+            if (Boolean.TRUE.equals(message.getIsFromBot())) {
+                continue;
+            }
+            String line = "- " + firstSentence(message.getContent());
+            int tokens = DocumentChunker.estimateTokens(line);
+            if (used + tokens > budget) {
+                dropped++;
+                continue;
+            }
+            lines.add(0, line);
+            used += tokens;
+            included++;
+        }
+        return new SlotUsage(SLOT_SUMMARY, used, included, dropped);
+    }
+
+    private String uncoveredText(KnowledgeRetriever.RelevantDocument doc, Map<String, List<int[]>> coveredByDocument) {
+        KnowledgeChunk chunk = doc.getChunk();
+        if (chunk == null) {
+            return doc.getDocument().getContent();
+        }
+        String content = chunk.getContent();
+        if (chunk.getStartOffset() == null || chunk.getEndOffset() == null) {
+            return content;
+        }
+
+        int start = chunk.getStartOffset();
+        int end = start + content.length();
+        List<int[]> covered = coveredByDocument.computeIfAbsent(
+                doc.getDocument().getDocumentId(), key -> new ArrayList<>());
+
+        // [start, end) 중 이미 넣은 범위를 뺀 나머지 구간
+        List<int[]> gaps = new ArrayList<>();
+        gaps.add(new int[]{start, end});
+        for (int[] range : covered) {
+            List<int[]> next = new ArrayList<>();
+            for (int[] gap : gaps) {
+                if (range[1] <= gap[0] || range[0] >= gap[1]) {
+                    next.add(gap);
+                    continue;
+                }
+                if (gap[0] < range[0]) {
+                    next.add(new int[]{gap[0], range[0]});
+                }
+                if (range[1] < gap[1]) {
+                    next.add(new int[]{range[1], gap[1]});
+                }
+            }
+            gaps = next;
+        }
+        covered.add(new int[]{start, end});
+
+        StringBuilder text = new StringBuilder();
+        for (int[] gap : gaps) {
+            String piece = content.substring(gap[0] - start, gap[1] - start).trim();
+            if (piece.isEmpty()) {
+                continue;
+            }
+            if (text.length() > 0) {
+                text.append(' ').append(ELLIPSIS).append(' ');
+            }
+            text.append(piece);
+        }
+        return text.toString();
+    }
+
+    private String formatTurn(ChatMessage message) {
+        return String.format("%s: %s",
+                Boolean.TRUE.equals(message.getIsFromBot()) ? "Assistant" : "User",
+                message.getContent());
+    }
+
+    private static String firstSentence(String content) {
+        String text = content == null ? "" : content.trim().replaceAll("\\s+", " ");
+        for (int i = 0; i < text.length() && i < SUMMARY_ITEM_CHARS; i++) {
+            char c = text.charAt(i);
+            if (c == '.' || c == '?' || c == '!' || c == '\n') {
+                return text.substring(0, i + 1);
+            }
+        }
+        return text.length() <= SUMMARY_ITEM_CHARS ? text : text.substring(0, SUMMARY_ITEM_CHARS) + ELLIPSIS;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * 추정 토큰 수가 maxTokens 이하가 되도록 앞부분만 남깁니다. 가능하면 공백에서 자릅니다.
+     */
+    static String truncateToTokens(String text, int maxTokens) {
+        if (DocumentChunker.estimateTokens(text) <= maxTokens) {
+            return text;
+        }
+        int budget = Math.max(0, maxTokens - DocumentChunker.estimateTokens(ELLIPSIS));
+        // 추정 토큰 수는 길이에 대해 단조 증가하므로 이분 탐색
+        int low = 0;
+        int high = text.length();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (DocumentChunker.estimateTokens(text, 0, mid) <= budget) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        int cut = low;
+        int lastSpace = text.lastIndexOf(' ', low);
+        if (lastSpace > low / 2) {
+            cut = lastSpace;
+        }
+        return text.substring(0, cut).trim() + ELLIPSIS;
+    }
+
+    /**
+     * 조립된 컨텍스트와 슬롯별 예산 사용량
+     */
+    public static class AssembledContext {
+        private final String knowledge;
+        private final String recentTurns;
+        private final String summary;
+        private final int budget;
+        private final List<SlotUsage> slots;
+
+        public AssembledContext(String knowledge, String recentTurns, String summary, int budget,
+                                List<SlotUsage> slots) {
+            this.knowledge = knowledge;
+            this.recentTurns = recentTurns;
+            this.summary = summary;
+            this.budget = budget;
+            this.slots = slots;
+        }
+
+        public String getKnowledge() { return knowledge; }
+        public String getRecentTurns() { return recentTurns; }
+        public String getSummary() { return summary; }
+        public int getBudget() { return budget; }
+        public List<SlotUsage> getSlots() { return slots; }
+
+        public int getUsedTokens() {
+            return slots.stream().mapToInt(SlotUsage::getTokens).sum();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(getUsedTokens()).append('/').append(budget).append(" tokens");
+            for (SlotUsage slot : slots) {
+                report.append(", ").append(slot);
+            }
+            return report.toString();
+        }
+    }
+
+    /**
+     * 슬롯 하나의 사용 토큰 수와 넣은/뺀 항목 수
+     */
+    public static class SlotUsage {
+        private final String slot;
+        private final int tokens;
+        private final int included;
+        private final int omitted;
+
+        public SlotUsage(String slot, int tokens, int included, int omitted) {
+            this.slot = slot;
+            this.tokens = tokens;
+            this.included = included;
+            this.omitted = omitted;
+        }
+
+        public String getSlot() { return slot; }
+        public int getTokens() { return tokens; }
+        public int getIncluded() { return included; }
+        public int getOmitted() { return omitted; }
+
+        @Override
+        public String toString() {
+            return slot + "=" + tokens + " (" + included + " in, " + omitted + " out)";
+        }
+    }
+}
@@ -8,7 +8,6 @@ import com.Human.Ai.D.makit.repository.ConversationContextRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,7 +21,7 @@ import java.util.UUID;
 public class ConversationContextManager {
     
     private static final Logger logger = LoggerFactory.getLogger(ConversationContextManager.class);
-    private static final int DEFAULT_TIMEOUT_MINUTES = 30;
+    static final int DEFAULT_TIMEOUT_MINUTES = 30;
     private static final int MAX_CONTEXT_HISTORY = 50;
     
     @Autowired
@@ -31,6 +30,9 @@ public class ConversationContextManager {
     @Autowired
     private ChatMessageRepository chatMessageRepository;
     
+    @Autowired
+    private ChatMessageStore messageStore;
+    
     /**
      * 새로운 대화 컨텍스트를 생성합니다.
      */
@@ -82,18 +84,33 @@ public class ConversationContextManager {
      */
     public ChatMessage addMessage(ConversationContext context, String sender, String content, 
                                 ChatMessage.MessageType type, boolean isFromBot) {
+        return addMessage(context, sender, content, type, isFromBot, null, null);
+    }
+    
+    /**
+     * 분류된 의도와 함께 메시지를 컨텍스트에 추가합니다.
+     * 메시지는 Redis 대화 기록에 바로 반영되고 DB에는 일괄로 저장됩니다. 메시지 수도 저장 시 갱신됩니다.
+     */
+    public ChatMessage addMessage(ConversationContext context, String sender, String content,
+                                ChatMessage.MessageType type, boolean isFromBot, String intent, Double confidence) {
+        return addMessage(context, sender, content, type, isFromBot, intent, confidence, null);
+    }
+    
+    /**
+     * 분류된 의도와 분류 방법(키워드·모델·Claude)을 함께 기록해 메시지를 컨텍스트에 추가합니다.
+     */
+    public ChatMessage addMessage(ConversationContext context, String sender, String content,
+                                ChatMessage.MessageType type, boolean isFromBot, String intent, Double confidence,
+                                String intentSource) {
         
         ChatMessage message = new ChatMessage(context, sender, content, type, isFromBot);
         message.setMessageId(UUID.randomUUID().toString());
+        message.setIntent(intent);
+        message.setConfidence(confidence);
+        message.setIntentSource(intentSource);
         
-        message = chatMessageRepository.save(message);
-        
-        // 컨텍스트 업데이트
-        context.addMessage(message);
-        conversationContextRepository.save(context);
-        
-        // 메시지 히스토리 제한
-        limitMessageHistory(context);
+        messageStore.append(message);
+        context.updateActivity();
         
         logger.debug("Added message to context: {}", context.getContextId());
         return message;
@@ -119,7 +136,7 @@ public class ConversationContextManager {
      * 대화 히스토리를 가져옵니다.
      */
     public List<ChatMessage> getConversationHistory(ConversationContext context) {
-        return chatMessageRepository.findByConversationContextOrderByTimestampAsc(context);
+        return messageStore.getLatestMessages(context, MAX_CONTEXT_HISTORY);
     }
     
     /**
@@ -127,7 +144,16 @@ public class ConversationContextManager {
      */
     public List<ChatMessage> getRecentMessages(ConversationContext context, int minutes) {
         LocalDateTime since = LocalDateTime.now().minusMinutes(minutes);
-        return chatMessageRepository.findRecentMessages(context, since);
+        return messageStore.getLatestMessages(context, MAX_CONTEXT_HISTORY).stream()
+                .filter(message -> !message.getTimestamp().isBefore(since))
+                .toList();
+    }
+    
+    /**
+     * 가장 최근 메시지를 최대 limit개까지 시간순으로 가져옵니다.
+     */
+    public List<ChatMessage> getLatestMessages(ConversationContext context, int limit) {
+        return messageStore.getLatestMessages(context, limit);
     }
     
     /**
@@ -180,52 +206,20 @@ public class ConversationContextManager {
         logger.info("Escalated conversation context: {} - Reason: {}", context.getContextId(), reason);
     }
     
-    /**
-     * 메시지 히스토리를 제한합니다.
-     */
-    private void limitMessageHistory(ConversationContext context) {
-        List<ChatMessage> messages = chatMessageRepository.findByConversationContextOrderByTimestampDesc(context);
-        
-        if (messages.size() > MAX_CONTEXT_HISTORY) {
-            List<ChatMessage> messagesToDelete = messages.subList(MAX_CONTEXT_HISTORY, messages.size());
-            chatMessageRepository.deleteAll(messagesToDelete);
-            logger.debug("Trimmed message history for context: {}", context.getContextId());
-        }
-    }
-    
-    /**
-     * 만료된 컨텍스트들을 정리합니다.
-     */
-    @Scheduled(fixedRate = 300000) // 5분마다 실행
-    public void cleanupExpiredContexts() {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(DEFAULT_TIMEOUT_MINUTES);
-        List<ConversationContext> expiredContexts = conversationContextRepository.findExpiredContexts(cutoffTime);
-        
-        for (ConversationContext context : expiredContexts) {
-            if (context.getStatus() == ConversationContext.ConversationStatus.ACTIVE) {
-                endContext(context);
-            }
-        }
-        
-        if (!expiredContexts.isEmpty()) {
-            logger.info("Cleaned up {} expired conversation contexts", expiredContexts.size());
-        }
-    }
-    
     /**
      * 컨텍스트 통계를 가져옵니다.
      */
     public ConversationStats getContextStats(ConversationContext context) {
-        Long messageCount = chatMessageRepository.countByConversationContext(context);
-        List<ChatMessage> botMessages = chatMessageRepository.findByConversationContextAndIsFromBot(context, true);
-        List<ChatMessage> userMessages = chatMessageRepository.findByConversationContextAndIsFromBot(context, false);
+        ChatMessageStore.MessageSummary summary = messageStore.getMessageSummary(context);
         
         return new ConversationStats(
-                messageCount,
-                (long) botMessages.size(),
-                (long) userMessages.size(),
+                summary.getTotalMessages(),
+                summary.getBotMessages(),
+                summary.getUserMessages(),
                 context.getStartTime(),
-                context.getLastActivity()
+                context.getLastActivity(),
+                summary.firstMessageTime(),
+                summary.lastMessageTime()
         );
     }
     
@@ -235,14 +229,19 @@ public class ConversationContextManager {
         private final Long userMessages;
         private final LocalDateTime startTime;
         private final LocalDateTime lastActivity;
+        private final LocalDateTime firstMessageAt;
+        private final LocalDateTime lastMessageAt;
         
         public ConversationStats(Long totalMessages, Long botMessages, Long userMessages, 
-                               LocalDateTime startTime, LocalDateTime lastActivity) {
+                               LocalDateTime startTime, LocalDateTime lastActivity,
+                               LocalDateTime firstMessageAt, LocalDateTime lastMessageAt) {
             this.totalMessages = totalMessages;
             this.botMessages = botMessages;
             this.userMessages = userMessages;
             this.startTime = startTime;
             this.lastActivity = lastActivity;
+            this.firstMessageAt = firstMessageAt;
+            this.lastMessageAt = lastMessageAt;
         }
         
         // Getters
@@ -251,5 +250,7 @@ public class ConversationContextManager {
         public Long getUserMessages() { return userMessages; }
         public LocalDateTime getStartTime() { return startTime; }
         public LocalDateTime getLastActivity() { return lastActivity; }
+        public LocalDateTime getFirstMessageAt() { return firstMessageAt; }
+        public LocalDateTime getLastMessageAt() { return lastMessageAt; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.domain.ConversationContext;
+import com.Human.Ai.D.makit.repository.ConversationArchiveRepository;
+import com.Human.Ai.D.makit.repository.ConversationContextRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 만료된 대화 컨텍스트를 집합 연산으로 정리합니다.
+ * 1) 타임아웃이 지난 ACTIVE 컨텍스트를 ID 순 keyset 페이지 단위로 범위 UPDATE 해 종료하고,
+ * 2) 종료 후 보관 기간이 지난 컨텍스트는 요약 행만 conversation_archives에 남기고 메시지·변수와 함께 삭제합니다.
+ * 배치 사이에 쉬고 한 번에 처리하는 배치 수를 제한하며, 스케줄러 스레드가 아닌 전용 스레드에서 실행해
+ * 메시지 flush 같은 다른 스케줄 작업과 실시간 대화를 막지 않습니다.
+ */
+@Service
+public class ConversationExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationExpiryService.class);
+    // 모든 UUID 문자열보다 앞서는 keyset 시작값
+    private static final String FIRST_KEY = "";
+
+    @Autowired
+    private ConversationContextRepository conversationContextRepository;
+
+    @Autowired
+    private ConversationArchiveRepository conversationArchiveRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${chatbot.cleanup.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${chatbot.cleanup.pause-ms:50}")
+    private long pauseMs = 50;
+
+    @Value("${chatbot.cleanup.max-batches-per-run:200}")
+    private int maxBatchesPerRun = 200;
+
+    @Value("${chatbot.cleanup.archive-after-days:30}")
+    private int archiveAfterDays = 30;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final ExecutorService cleanupExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "conversation-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        cleanupExecutor.shutdownNow();
+    }
+
+    /**
+     * 정리 작업을 전용 스레드에 넘깁니다. 이전 실행이 아직 끝나지 않았으면 이번 주기는 건너뜁니다.
+     */
+    @Scheduled(fixedDelayString = "${chatbot.cleanup.interval-ms:300000}")
+    public void scheduleCleanup() {
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("Conversation cleanup still running, skipping this cycle");
+            return;
+        }
+        try {
+            cleanupExecutor.execute(() -> {
+                try {
+                    runCleanup();
+                } catch (RuntimeException e) {
+                    logger.error("Conversation cleanup failed", e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * 만료 처리와 보관 처리를 차례로 실행합니다.
+     */
+    public CleanupReport runCleanup() {
+        long start = System.currentTimeMillis();
+        int[] budget = {maxBatchesPerRun};
+        LocalDateTime now = LocalDateTime.now();
+
+        int ended = endExpiredContexts(now.minusMinutes(ConversationContextManager.DEFAULT_TIMEOUT_MINUTES), budget);
+        int archived = archiveEndedContexts(now.minusDays(archiveAfterDays), now, budget);
+
+        CleanupReport report = new CleanupReport(ended, archived, maxBatchesPerRun - budget[0],
+                budget[0] == 0, System.currentTimeMillis() - start);
+        if (ended > 0 || archived > 0) {
+            logger.info("Conversation cleanup: ended {}, archived {} in {} batches ({} ms){}",
+                    ended, archived, report.getBatches(), report.getDurationMs(),
+                    report.isTruncated() ? ", remaining work deferred to the next run" : "");
+        }
+        return report;
+    }
+
+    /**
+     * 타임아웃이 지난 ACTIVE 컨텍스트를 종료합니다. 페이지마다 첫 ID~마지막 ID 범위를 한 번에 UPDATE 하며,
+     * UPDATE 조건에 상태와 마지막 활동 시각을 다시 넣어 그사이 대화가 이어진 컨텍스트는 건드리지 않습니다.
+     */
+    private int endExpiredContexts(LocalDateTime cutoff, int[] budget) {
+        int ended = 0;
+        String afterId = FIRST_KEY;
+        while (budget[0] > 0) {
+            List<String> ids = conversationContextRepository.findInactiveContextIds(
+                    ConversationContext.ConversationStatus.ACTIVE, cutoff, afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            String lastId = ids.get(ids.size() - 1);
+            ended += conversationContextRepository.endInactiveContextsInRange(ids.get(0), lastId, cutoff,
+                    ConversationContext.ConversationStatus.ACTIVE, ConversationContext.ConversationStatus.ENDED);
+            budget[0]--;
+            afterId = lastId;
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+        return ended;
+    }
+
+    /**
+     * 보관 기간이 지난 종료 컨텍스트를 배치마다 한 트랜잭션에서 잠그고, 요약 행을 쓴 뒤 원본을 삭제합니다.
+     */
+    private int archiveEndedContexts(LocalDateTime endedBefore, LocalDateTime archivedAt, int[] budget) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int archived = 0;
+        String afterId = FIRST_KEY;
+        while (budget[0] > 0) {
+            List<String> ids = conversationContextRepository.findInactiveContextIds(
+                    ConversationContext.ConversationStatus.ENDED, endedBefore, afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            String firstId = ids.get(0);
+            String lastId = ids.get(ids.size() - 1);
+            Integer count = transaction.execute(status -> {
+                List<String> locked = conversationArchiveRepository.lockEndedContextIds(firstId, lastId, endedBefore);
+                if (locked.isEmpty()) {
+                    return 0;
+                }
+                conversationArchiveRepository.archiveContexts(locked, archivedAt);
+                conversationArchiveRepository.deleteMessages(locked);
+                conversationArchiveRepository.deleteVariables(locked);
+                return conversationArchiveRepository.deleteContexts(locked);
+            });
+            archived += count == null ? 0 : count;
+            budget[0]--;
+            afterId = lastId;
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+        return archived;
+    }
+
+    // 배치 사이에 DB를 다른 요청에 양보. 종료 중 인터럽트되면 false
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 정리 실행 결과
+     */
+    public static class CleanupReport {
+        private final int endedContexts;
+        private final int archivedContexts;
+        private final int batches;
+        private final boolean truncated;
+        private final long durationMs;
+
+        public CleanupReport(int endedContexts, int archivedContexts, int batches, boolean truncated, long durationMs) {
+            this.endedContexts = endedContexts;
+            this.archivedContexts = archivedContexts;
+            this.batches = batches;
+            this.truncated = truncated;
+            this.durationMs = durationMs;
+        }
+
+        public int getEndedContexts() { return endedContexts; }
+        public int getArchivedContexts() { return archivedContexts; }
+        public int getBatches() { return batches; }
+        public boolean isTruncated() { return truncated; }
+        public long getDurationMs() { return durationMs; }
+    }
+}
@@ -1,5 +1,7 @@
 package com.Human.Ai.D.makit.service;
 
+import com.Human.Ai.D.makit.service.ai.BedrockService;
+import com.Human.Ai.D.makit.service.ai.ModelCircuitBreaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,9 +11,8 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Service for system health checks and monitoring
@@ -30,6 +31,9 @@ public class HealthCheckService {
     @Autowired
     private CloudWatchMonitoringService monitoringService;
 
+    @Autowired
+    private BedrockService bedrockService;
+
     /**
      * Perform comprehensive health check
      */
@@ -226,32 +230,27 @@ public class HealthCheckService {
     }
 
     /**
-     * Check AI services health
+     * Check AI services health from the Bedrock circuit breakers.
+     * An open circuit means calls to that model currently fail fast.
      */
     private ComponentHealth checkAIServicesHealth() {
         try {
-            // This is a simplified check - in production you'd test actual AI service connectivity
+            Map<String, ModelCircuitBreaker.State> circuits = bedrockService.getCircuitStates();
             Map<String, Object> details = new HashMap<>();
-            details.put("bedrockService", "Available");
+            details.put("circuits", circuits);
             details.put("lastCheck", LocalDateTime.now());
             
-            // Simulate AI service check
-            CompletableFuture<Boolean> aiCheck = CompletableFuture.supplyAsync(() -> {
-                try {
-                    Thread.sleep(100); // Simulate network call
-                    return true; // Assume healthy for demo
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return false;
-                }
-            });
-            
-            boolean aiHealthy = aiCheck.get(5, TimeUnit.SECONDS);
+            List<String> openModels = circuits.entrySet().stream()
+                .filter(entry -> entry.getValue() == ModelCircuitBreaker.State.OPEN)
+                .map(Map.Entry::getKey)
+                .toList();
             
-            if (aiHealthy) {
-                return new ComponentHealth(HealthStatus.UP, "AI services operational", details);
+            if (!openModels.isEmpty()) {
+                return new ComponentHealth(HealthStatus.DOWN, "Bedrock circuit open for " + openModels, details);
+            } else if (circuits.containsValue(ModelCircuitBreaker.State.HALF_OPEN)) {
+                return new ComponentHealth(HealthStatus.DEGRADED, "Bedrock recovering from failures", details);
             } else {
-                return new ComponentHealth(HealthStatus.DOWN, "AI services unavailable", details);
+                return new ComponentHealth(HealthStatus.UP, "AI services operational", details);
             }
             
         } catch (Exception e) {
@@ -1,24 +1,58 @@
 package com.Human.Ai.D.makit.service;
 
+import com.Human.Ai.D.makit.service.ai.BedrockCallOptions;
 import com.Human.Ai.D.makit.service.ai.BedrockService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 @Service
 public class IntentClassifier {
     
     private static final Logger logger = LoggerFactory.getLogger(IntentClassifier.class);
     
+    private static final String NEGATION_PREFIX = "!";
+    private static final char WEIGHT_SEPARATOR = '^';
+    // 같은 메시지는 같은 의도이므로 AI 분류 결과를 하루 동안 캐시하고, 응답이 늦으면 한 번 더 요청
+    private static final BedrockCallOptions AI_CLASSIFICATION_OPTIONS = BedrockCallOptions.builder()
+            .hedge(true)
+            .cache(Duration.ofHours(24))
+            .build();
+    
     @Autowired
     private BedrockService bedrockService;
     
-    // 의도 분류를 위한 키워드 패턴들
+    // 비어 있으면 기본 키워드 패턴만 사용
+    @Value("${chatbot.intent.keywords-file:}")
+    private String keywordsFile = "";
+    
+    // 비어 있으면 로컬 모델 없이 키워드 → AI 순으로 분류
+    @Value("${chatbot.intent.model.path:}")
+    private String modelPath = "";
+    
+    @Value("${chatbot.intent.model.confidence-threshold:0.75}")
+    private double modelConfidenceThreshold = 0.75;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    // 기본 키워드 패턴. 키워드 파일이 있으면 파일 내용으로 대체됨
     private static final List<IntentPattern> INTENT_PATTERNS = Arrays.asList(
             new IntentPattern(Intent.GREETING, Arrays.asList("안녕", "hello", "hi", "좋은", "반가워"), 0.9),
             new IntentPattern(Intent.PRODUCT_INQUIRY, Arrays.asList("제품", "상품", "서비스", "기능", "가격", "비용"), 0.8),
@@ -30,6 +64,11 @@ public class IntentClassifier {
             new IntentPattern(Intent.ESCALATION_REQUEST, Arrays.asList("상담원", "직원", "사람", "담당자", "연결"), 0.9)
     );
     
+    private volatile KeywordAutomaton keywordAutomaton = compile(INTENT_PATTERNS);
+    private volatile FileTime keywordsFileModified;
+    private volatile IntentModel intentModel;
+    private volatile FileTime modelFileModified;
+    
     /**
      * 사용자 메시지의 의도를 분류합니다.
      */
@@ -38,7 +77,18 @@ public class IntentClassifier {
             // 1. 키워드 기반 분류
             IntentClassificationResult keywordResult = classifyByKeywords(message);
             
-            // 2. AI 기반 분류 (높은 신뢰도가 필요한 경우)
+            // 2. 로컬 모델 분류. 충분히 확실하면 Claude를 호출하지 않음
+            if (keywordResult.getConfidence() < 0.7) {
+                IntentModel model = intentModel;
+                if (model != null) {
+                    IntentClassificationResult modelResult = model.predict(message);
+                    if (modelResult.getConfidence() >= modelConfidenceThreshold) {
+                        return modelResult;
+                    }
+                }
+            }
+            
+            // 3. AI 기반 분류 (높은 신뢰도가 필요한 경우)
             if (keywordResult.getConfidence() < 0.7) {
                 IntentClassificationResult aiResult = classifyWithAI(message);
                 
@@ -60,21 +110,24 @@ public class IntentClassifier {
      * 키워드 기반으로 의도를 분류합니다.
      */
     private IntentClassificationResult classifyByKeywords(String message) {
-        String lowerMessage = message.toLowerCase();
+        Intent[] intents = Intent.values();
+        double[] scores = new double[intents.length];
+        keywordAutomaton.score(message, scores);
         
         Intent bestIntent = Intent.UNKNOWN;
         double bestConfidence = 0.0;
         
-        for (IntentPattern pattern : INTENT_PATTERNS) {
-            double score = calculateKeywordScore(lowerMessage, pattern);
+        // 점수가 같으면 먼저 선언된 의도를 유지
+        for (Intent intent : intents) {
+            double score = scores[intent.ordinal()];
             
             if (score > bestConfidence) {
                 bestConfidence = score;
-                bestIntent = pattern.getIntent();
+                bestIntent = intent;
             }
         }
         
-        return new IntentClassificationResult(bestIntent, bestConfidence, "키워드 기반 분류");
+        return new IntentClassificationResult(bestIntent, bestConfidence, "키워드 기반 분류", LabelSource.KEYWORD);
     }
     
     /**
@@ -83,7 +136,7 @@ public class IntentClassifier {
     private IntentClassificationResult classifyWithAI(String message) {
         try {
             String prompt = buildIntentClassificationPrompt(message);
-            String response = bedrockService.generateTextWithClaude(prompt, 200);
+            String response = bedrockService.generateTextWithClaude(prompt, 200, AI_CLASSIFICATION_OPTIONS);
             
             return parseAIResponse(response);
             
@@ -94,24 +147,105 @@ public class IntentClassifier {
     }
     
     /**
-     * 키워드 점수를 계산합니다.
+     * 키워드 파일이 바뀌었으면 다시 읽어 오토마톤을 교체합니다.
+     * 읽기나 파싱에 실패하면 기존 키워드를 그대로 사용합니다.
      */
-    private double calculateKeywordScore(String message, IntentPattern pattern) {
-        int matchCount = 0;
-        
-        for (String keyword : pattern.getKeywords()) {
-            if (message.contains(keyword)) {
-                matchCount++;
+    @Scheduled(fixedDelayString = "${chatbot.intent.reload-interval-ms:30000}")
+    public synchronized void reloadKeywordsIfChanged() {
+        if (keywordsFile == null || keywordsFile.isBlank()) {
+            return;
+        }
+        Path path = Paths.get(keywordsFile);
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            if (modified.equals(keywordsFileModified)) {
+                return;
             }
+            keywordAutomaton = compile(parseKeywordsFile(Files.readString(path)));
+            keywordsFileModified = modified;
+            logger.info("Loaded {} intent keywords from {}", keywordAutomaton.getKeywordCount(), path);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to load intent keywords from {}, keeping the current set", path, e);
         }
-        
-        if (matchCount == 0) {
-            return 0.0;
+    }
+    
+    /**
+     * 모델 파일이 바뀌었으면 다시 읽어 로컬 모델을 교체합니다.
+     * 다른 인스턴스에서 학습해 저장한 모델도 이 경로로 적용됩니다.
+     */
+    @Scheduled(fixedDelayString = "${chatbot.intent.reload-interval-ms:30000}")
+    public synchronized void reloadModelIfChanged() {
+        if (modelPath == null || modelPath.isBlank()) {
+            return;
+        }
+        Path path = Paths.get(modelPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            if (modified.equals(modelFileModified)) {
+                return;
+            }
+            intentModel = IntentModel.load(path);
+            modelFileModified = modified;
+            logger.info("Loaded intent model from {} ({} intents)", path, intentModel.getClasses().size());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to load intent model from {}, keeping the current model", path, e);
         }
-        
-        // 매치된 키워드 비율과 패턴 가중치를 곱함
-        double matchRatio = (double) matchCount / pattern.getKeywords().size();
-        return matchRatio * pattern.getWeight();
+    }
+    
+    /**
+     * 새로 학습한 모델을 바로 적용합니다.
+     */
+    public void useModel(IntentModel model) {
+        this.intentModel = model;
+    }
+    
+    /**
+     * 키워드 파일을 파싱합니다. 형식:
+     * {"GREETING": {"weight": 0.9, "keywords": ["안녕", "hello^2", "!안녕히"]}}
+     * "^" 뒤의 숫자는 키워드 가중치(기본 1), "!"로 시작하는 키워드는 나오면 해당 의도를 배제하는 부정 키워드입니다.
+     * 파일에 없는 의도는 키워드 분류에서 제외됩니다.
+     */
+    List<IntentPattern> parseKeywordsFile(String json) throws IOException {
+        List<IntentPattern> patterns = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = objectMapper.readTree(json).fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            Intent intent = Intent.valueOf(field.getKey().trim().toUpperCase());
+            List<String> keywords = new ArrayList<>();
+            for (JsonNode keyword : field.getValue().path("keywords")) {
+                keywords.add(keyword.asText());
+            }
+            patterns.add(new IntentPattern(intent, keywords, field.getValue().path("weight").asDouble(1.0)));
+        }
+        return patterns;
+    }
+    
+    /**
+     * 키워드 패턴을 의도 순서 번호를 그룹으로 하는 오토마톤으로 컴파일합니다.
+     */
+    static KeywordAutomaton compile(List<IntentPattern> patterns) {
+        KeywordAutomaton.Builder builder = KeywordAutomaton.builder(Intent.values().length);
+        for (IntentPattern pattern : patterns) {
+            int group = pattern.getIntent().ordinal();
+            builder.groupWeight(group, pattern.getWeight());
+            for (String keyword : pattern.getKeywords()) {
+                if (keyword.startsWith(NEGATION_PREFIX)) {
+                    builder.negatedKeyword(group, keyword.substring(NEGATION_PREFIX.length()));
+                    continue;
+                }
+                int separator = keyword.lastIndexOf(WEIGHT_SEPARATOR);
+                if (separator > 0) {
+                    builder.keyword(group, keyword.substring(0, separator),
+                            Double.parseDouble(keyword.substring(separator + 1)));
+                } else {
+                    builder.keyword(group, keyword, 1.0);
+                }
+            }
+        }
+        return builder.build();
     }
     
     /**
@@ -147,7 +281,7 @@ public class IntentClassifier {
                 Intent intent = Intent.valueOf(parts[0].trim());
                 double confidence = Double.parseDouble(parts[1].trim());
                 
-                return new IntentClassificationResult(intent, confidence, "AI 기반 분류");
+                return new IntentClassificationResult(intent, confidence, "AI 기반 분류", LabelSource.CLAUDE);
             }
         } catch (Exception e) {
             logger.error("Error parsing AI response: {}", response, e);
@@ -163,16 +297,23 @@ public class IntentClassifier {
         private final Intent intent;
         private final double confidence;
         private final String method;
+        private final LabelSource source;
         
         public IntentClassificationResult(Intent intent, double confidence, String method) {
+            this(intent, confidence, method, null);
+        }
+        
+        public IntentClassificationResult(Intent intent, double confidence, String method, LabelSource source) {
             this.intent = intent;
             this.confidence = confidence;
             this.method = method;
+            this.source = source;
         }
         
         public Intent getIntent() { return intent; }
         public double getConfidence() { return confidence; }
         public String getMethod() { return method; }
+        public LabelSource getSource() { return source; }
         
         public boolean isHighConfidence() {
             return confidence >= 0.8;
@@ -186,7 +327,7 @@ public class IntentClassifier {
     /**
      * 의도 패턴
      */
-    private static class IntentPattern {
+    static class IntentPattern {
         private final Intent intent;
         private final List<String> keywords;
         private final double weight;
@@ -216,4 +357,13 @@ public class IntentClassifier {
         ESCALATION_REQUEST,
         UNKNOWN
     }
+    
+    /**
+     * 의도를 분류한 방법. 로컬 모델의 예측(MODEL)은 모델 학습 데이터로 쓰지 않습니다.
+     */
+    public enum LabelSource {
+        KEYWORD,
+        MODEL,
+        CLAUDE
+    }
 }
\ No newline at end of file
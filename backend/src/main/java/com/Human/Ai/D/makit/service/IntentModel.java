@@ -0,0 +1,263 @@
+package com.Human.Ai.D.makit.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 문자 n-gram(1~3자)을 해시한 특성으로 학습하는 다중 클래스 로지스틱 회귀 의도 모델.
+ * 키워드 분류와 Claude 분류 사이에서 JVM 안에서만 동작하며, 예측은 메시지 길이에 비례하는 시간에 끝납니다.
+ * 학습된 모델은 파일로 저장해 다른 인스턴스가 읽을 수 있고, 불변이라 여러 스레드에서 공유할 수 있습니다.
+ */
+public final class IntentModel {
+
+    private static final int MAGIC = 0x4D4B494D; // "MKIM"
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_NGRAM = 3;
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final IntentClassifier.Intent[] classes;
+    private final int bucketMask;
+    // [버킷][클래스] 순서로 평탄화. 한 특성의 클래스별 가중치가 연속되도록 배치
+    private final float[] weights;
+    private final float[] bias;
+
+    private IntentModel(IntentClassifier.Intent[] classes, int buckets, float[] weights, float[] bias) {
+        this.classes = classes;
+        this.bucketMask = buckets - 1;
+        this.weights = weights;
+        this.bias = bias;
+    }
+
+    /**
+     * 가장 확률이 높은 의도와 그 확률을 반환합니다.
+     */
+    public IntentClassifier.IntentClassificationResult predict(String text) {
+        double[] probabilities = probabilities(features(text, bucketMask));
+        int best = 0;
+        for (int c = 1; c < probabilities.length; c++) {
+            if (probabilities[c] > probabilities[best]) {
+                best = c;
+            }
+        }
+        return new IntentClassifier.IntentClassificationResult(classes[best], probabilities[best], "로컬 모델 분류",
+                IntentClassifier.LabelSource.MODEL);
+    }
+
+    public List<IntentClassifier.Intent> getClasses() {
+        return List.of(classes);
+    }
+
+    public int getBuckets() {
+        return bucketMask + 1;
+    }
+
+    /**
+     * 확률적 경사 하강법으로 모델을 학습합니다. 학습 예시에 나온 의도만 클래스가 됩니다.
+     *
+     * @param buckets 해시 특성 공간 크기. 2의 거듭제곱이어야 합니다.
+     */
+    public static IntentModel train(List<LabeledText> examples, int buckets, int epochs,
+                                    double learningRate, double l2, long seed) {
+        if (Integer.bitCount(buckets) != 1) {
+            throw new IllegalArgumentException("Bucket count must be a power of two: " + buckets);
+        }
+        IntentClassifier.Intent[] classes = examples.stream()
+                .map(LabeledText::getIntent)
+                .distinct()
+                .sorted()
+                .toArray(IntentClassifier.Intent[]::new);
+        if (classes.length < 2) {
+            throw new IllegalArgumentException("At least two intents are required to train, got " + classes.length);
+        }
+
+        IntentModel model = new IntentModel(classes, buckets,
+                new float[buckets * classes.length], new float[classes.length]);
+        List<int[]> featureSets = new ArrayList<>(examples.size());
+        int[] labels = new int[examples.size()];
+        for (int i = 0; i < examples.size(); i++) {
+            featureSets.add(features(examples.get(i).getText(), buckets - 1));
+            labels[i] = indexOf(classes, examples.get(i).getIntent());
+        }
+
+        List<Integer> order = new ArrayList<>(examples.size());
+        for (int i = 0; i < examples.size(); i++) {
+            order.add(i);
+        }
+        Random random = new Random(seed);
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            Collections.shuffle(order, random);
+            double rate = learningRate / (1.0 + epoch);
+            for (int i : order) {
+                model.update(featureSets.get(i), labels[i], rate, l2);
+            }
+        }
+        return model;
+    }
+
+    private void update(int[] features, int label, double rate, double l2) {
+        if (features.length == 0) {
+            return;
+        }
+        double[] probabilities = probabilities(features);
+        double scale = featureScale(features);
+        int classCount = classes.length;
+        for (int c = 0; c < classCount; c++) {
+            double gradient = probabilities[c] - (c == label ? 1.0 : 0.0);
+            bias[c] -= (float) (rate * gradient);
+            for (int feature : features) {
+                int index = feature * classCount + c;
+                weights[index] -= (float) (rate * (gradient * scale + l2 * weights[index]));
+            }
+        }
+    }
+
+    private double[] probabilities(int[] features) {
+        int classCount = classes.length;
+        double[] logits = new double[classCount];
+        for (int c = 0; c < classCount; c++) {
+            logits[c] = bias[c];
+        }
+        double scale = featureScale(features);
+        for (int feature : features) {
+            int offset = feature * classCount;
+            for (int c = 0; c < classCount; c++) {
+                logits[c] += weights[offset + c] * scale;
+            }
+        }
+
+        double max = Double.NEGATIVE_INFINITY;
+        for (double logit : logits) {
+            max = Math.max(max, logit);
+        }
+        double sum = 0.0;
+        for (int c = 0; c < classCount; c++) {
+            logits[c] = Math.exp(logits[c] - max);
+            sum += logits[c];
+        }
+        for (int c = 0; c < classCount; c++) {
+            logits[c] /= sum;
+        }
+        return logits;
+    }
+
+    // 메시지 길이와 무관하게 특성 벡터의 L2 노름이 1에 가깝도록 조정
+    private static double featureScale(int[] features) {
+        return features.length == 0 ? 0.0 : 1.0 / Math.sqrt(features.length);
+    }
+
+    /**
+     * 소문자로 바꾸고 공백을 하나로 줄인 텍스트의 1~3자 n-gram을 FNV-1a로 해시해 버킷 번호로 만듭니다.
+     * 앞뒤에 공백을 붙여 단어 경계도 특성이 되도록 합니다.
+     */
+    static int[] features(String text, int bucketMask) {
+        String normalized = " " + (text == null ? "" : text.toLowerCase().trim().replaceAll("\\s+", " ")) + " ";
+        if (normalized.isBlank()) {
+            return new int[0];
+        }
+        int length = normalized.length();
+        int[] features = new int[length * MAX_NGRAM];
+        int count = 0;
+        for (int start = 0; start < length; start++) {
+            int hash = FNV_OFFSET;
+            for (int n = 1; n <= MAX_NGRAM && start + n <= length; n++) {
+                hash = (hash ^ normalized.charAt(start + n - 1)) * FNV_PRIME;
+                if (n == 1 && normalized.charAt(start) == ' ') {
+                    continue;
+                }
+                // n을 섞어 길이가 다른 n-gram이 같은 해시로 시작하지 않도록 함
+                features[count++] = (((hash ^ n) * FNV_PRIME) >>> 1) & bucketMask;
+            }
+        }
+        int[] trimmed = new int[count];
+        System.arraycopy(features, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    /**
+     * 모델을 파일로 저장합니다. 임시 파일에 쓴 뒤 원자적으로 이름을 바꿉니다.
+     */
+    public void save(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(getBuckets());
+            out.writeInt(classes.length);
+            for (IntentClassifier.Intent intent : classes) {
+                out.writeUTF(intent.name());
+            }
+            for (float value : bias) {
+                out.writeFloat(value);
+            }
+            for (float value : weights) {
+                out.writeFloat(value);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static IntentModel load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unrecognized intent model file: " + path);
+            }
+            int buckets = in.readInt();
+            if (Integer.bitCount(buckets) != 1) {
+                throw new IOException("Invalid bucket count in intent model file: " + buckets);
+            }
+            IntentClassifier.Intent[] classes = new IntentClassifier.Intent[in.readInt()];
+            for (int c = 0; c < classes.length; c++) {
+                classes[c] = IntentClassifier.Intent.valueOf(in.readUTF());
+            }
+            float[] bias = new float[classes.length];
+            for (int c = 0; c < bias.length; c++) {
+                bias[c] = in.readFloat();
+            }
+            float[] weights = new float[buckets * classes.length];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = in.readFloat();
+            }
+            return new IntentModel(classes, buckets, weights, bias);
+        }
+    }
+
+    private static int indexOf(IntentClassifier.Intent[] classes, IntentClassifier.Intent intent) {
+        for (int c = 0; c < classes.length; c++) {
+            if (classes[c] == intent) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException("Unknown intent: " + intent);
+    }
+
+    /**
+     * 의도가 표시된 학습용 메시지
+     */
+    public static class LabeledText {
+        private final String text;
+        private final IntentClassifier.Intent intent;
+
+        public LabeledText(String text, IntentClassifier.Intent intent) {
+            this.text = text;
+            this.intent = intent;
+        }
+
+        public String getText() { return text; }
+        public IntentClassifier.Intent getIntent() { return intent; }
+    }
+}
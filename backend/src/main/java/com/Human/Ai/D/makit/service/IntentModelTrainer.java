@@ -0,0 +1,224 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.repository.ChatMessageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 기록된 사용자 메시지와 그 분류 결과(키워드·Claude)로 로컬 의도 모델을 학습합니다.
+ * 모델 자신의 예측으로 분류된 메시지는 오류를 강화하므로 학습 데이터에서 제외합니다.
+ * 일부를 검증용으로 떼어 정확도를 보고하고, 학습한 모델을 저장한 뒤 분류기에 적용합니다.
+ * 요청 스레드를 막지 않도록 학습은 전용 스레드에서 한 번에 하나만 실행됩니다.
+ */
+@Service
+public class IntentModelTrainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntentModelTrainer.class);
+    private static final double HOLDOUT_RATIO = 0.1;
+    private static final long SEED = 42L;
+    private static final List<String> TRAINING_LABEL_SOURCES = List.of(
+            IntentClassifier.LabelSource.KEYWORD.name(), IntentClassifier.LabelSource.CLAUDE.name());
+    static final String TRAINING_TASK_TYPE = "INTENT_MODEL_TRAINING";
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private IntentClassifier intentClassifier;
+
+    @Autowired
+    private AsyncTaskManager asyncTaskManager;
+
+    @Value("${chatbot.intent.model.path:}")
+    private String modelPath = "";
+
+    @Value("${chatbot.intent.model.buckets:65536}")
+    private int buckets = 65536;
+
+    @Value("${chatbot.intent.model.epochs:5}")
+    private int epochs = 5;
+
+    @Value("${chatbot.intent.model.learning-rate:0.5}")
+    private double learningRate = 0.5;
+
+    @Value("${chatbot.intent.model.l2:0.000001}")
+    private double l2 = 0.000001;
+
+    @Value("${chatbot.intent.model.min-label-confidence:0.7}")
+    private double minLabelConfidence = 0.7;
+
+    @Value("${chatbot.intent.model.max-training-messages:50000}")
+    private int maxTrainingMessages = 50000;
+
+    @Value("${chatbot.intent.model.min-training-messages:200}")
+    private int minTrainingMessages = 200;
+
+    private final AtomicBoolean training = new AtomicBoolean(false);
+
+    private final ExecutorService trainingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "intent-model-trainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        trainingExecutor.shutdownNow();
+    }
+
+    /**
+     * 학습을 전용 스레드에서 시작하고 진행 상황을 추적할 작업을 즉시 반환합니다.
+     * 결과는 작업 결과로, 메시지가 부족하면 작업 실패로 기록됩니다.
+     *
+     * @throws IllegalStateException 이미 학습이 진행 중인 경우
+     */
+    public AsyncTaskManager.TaskProgress startTraining(String userId) {
+        if (!training.compareAndSet(false, true)) {
+            throw new IllegalStateException("Intent model training is already running");
+        }
+        try {
+            AsyncTaskManager.TaskProgress progress = asyncTaskManager.startTrackedTask(TRAINING_TASK_TYPE, userId);
+            trainingExecutor.execute(() -> {
+                try {
+                    TrainingReport report = train();
+                    asyncTaskManager.completeTrackedTask(progress, new AsyncTaskManager.TaskResult(
+                            TRAINING_TASK_TYPE, "Intent model trained", report.toDetails()));
+                } catch (RuntimeException e) {
+                    logger.error("Intent model training failed", e);
+                    asyncTaskManager.failTrackedTask(progress, e.getMessage());
+                } finally {
+                    training.set(false);
+                }
+            });
+            return progress;
+        } catch (RuntimeException e) {
+            training.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * 최근 메시지로 모델을 학습하고 적용합니다.
+     *
+     * @throws IllegalStateException 학습할 메시지가 부족한 경우
+     */
+    public TrainingReport train() {
+        long start = System.currentTimeMillis();
+        List<IntentModel.LabeledText> examples = loadExamples();
+        if (examples.size() < minTrainingMessages) {
+            throw new IllegalStateException(String.format(
+                    "Not enough labeled messages to train the intent model: %d < %d",
+                    examples.size(), minTrainingMessages));
+        }
+
+        Collections.shuffle(examples, new Random(SEED));
+        int holdoutSize = (int) Math.max(1, examples.size() * HOLDOUT_RATIO);
+        List<IntentModel.LabeledText> holdout = examples.subList(0, holdoutSize);
+        List<IntentModel.LabeledText> training = examples.subList(holdoutSize, examples.size());
+
+        IntentModel model = IntentModel.train(training, buckets, epochs, learningRate, l2, SEED);
+        double accuracy = accuracy(model, holdout);
+
+        String savedTo = null;
+        if (modelPath != null && !modelPath.isBlank()) {
+            try {
+                model.save(Paths.get(modelPath));
+                savedTo = modelPath;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to save intent model to " + modelPath, e);
+            }
+        }
+        intentClassifier.useModel(model);
+
+        Map<IntentClassifier.Intent, Integer> counts = new EnumMap<>(IntentClassifier.Intent.class);
+        for (IntentModel.LabeledText example : examples) {
+            counts.merge(example.getIntent(), 1, Integer::sum);
+        }
+        TrainingReport report = new TrainingReport(training.size(), holdout.size(), accuracy, counts,
+                savedTo, System.currentTimeMillis() - start);
+        logger.info("Trained intent model on {} messages, holdout accuracy {}", training.size(),
+                String.format("%.3f", accuracy));
+        return report;
+    }
+
+    private List<IntentModel.LabeledText> loadExamples() {
+        List<IntentModel.LabeledText> examples = new ArrayList<>();
+        for (Object[] row : chatMessageRepository.findLabeledUserMessages(
+                minLabelConfidence, TRAINING_LABEL_SOURCES, PageRequest.of(0, maxTrainingMessages))) {
+            try {
+                examples.add(new IntentModel.LabeledText((String) row[0], IntentClassifier.Intent.valueOf((String) row[1])));
+            } catch (IllegalArgumentException e) {
+                // 더 이상 없는 의도 이름은 건너뜀
+            }
+        }
+        return examples;
+    }
+
+    private static double accuracy(IntentModel model, List<IntentModel.LabeledText> holdout) {
+        int correct = 0;
+        for (IntentModel.LabeledText example : holdout) {
+            if (model.predict(example.getText()).getIntent() == example.getIntent()) {
+                correct++;
+            }
+        }
+        return holdout.isEmpty() ? 0.0 : (double) correct / holdout.size();
+    }
+
+    /**
+     * 학습 결과
+     */
+    public static class TrainingReport {
+        private final int trainingMessages;
+        private final int holdoutMessages;
+        private final double holdoutAccuracy;
+        private final Map<IntentClassifier.Intent, Integer> messagesPerIntent;
+        private final String savedTo;
+        private final long durationMs;
+
+        public TrainingReport(int trainingMessages, int holdoutMessages, double holdoutAccuracy,
+                              Map<IntentClassifier.Intent, Integer> messagesPerIntent, String savedTo, long durationMs) {
+            this.trainingMessages = trainingMessages;
+            this.holdoutMessages = holdoutMessages;
+            this.holdoutAccuracy = holdoutAccuracy;
+            this.messagesPerIntent = messagesPerIntent;
+            this.savedTo = savedTo;
+            this.durationMs = durationMs;
+        }
+
+        public int getTrainingMessages() { return trainingMessages; }
+        public int getHoldoutMessages() { return holdoutMessages; }
+        public double getHoldoutAccuracy() { return holdoutAccuracy; }
+        public Map<IntentClassifier.Intent, Integer> getMessagesPerIntent() { return messagesPerIntent; }
+        public String getSavedTo() { return savedTo; }
+        public long getDurationMs() { return durationMs; }
+
+        Map<String, Object> toDetails() {
+            Map<String, Object> details = new HashMap<>();
+            details.put("trainingMessages", trainingMessages);
+            details.put("holdoutMessages", holdoutMessages);
+            details.put("holdoutAccuracy", holdoutAccuracy);
+            details.put("messagesPerIntent", messagesPerIntent);
+            details.put("savedTo", savedTo);
+            details.put("durationMs", durationMs);
+            return details;
+        }
+    }
+}
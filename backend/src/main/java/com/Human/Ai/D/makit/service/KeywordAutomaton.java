@@ -0,0 +1,314 @@
+package com.Human.Ai.D.makit.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 여러 그룹(의도)의 키워드를 하나의 Aho-Corasick 오토마톤으로 컴파일해 메시지를 한 번만 훑어 모든 그룹의 점수를 계산합니다.
+ * 그룹 점수는 (일치한 키워드 가중치 합 / 전체 키워드 가중치 합) × 그룹 가중치이며, 부정 키워드가 하나라도 나오면 0입니다.
+ * 같은 키워드는 여러 번 나와도 한 번만 셉니다. 대소문자는 구분하지 않고 키워드는 부분 문자열로 일치합니다.
+ * 전이와 출력은 평탄한 배열에 저장하며, 검색 중에는 호출자가 넘긴 점수 배열 외에 객체를 만들지 않습니다.
+ * 컴파일된 인스턴스는 불변이라 여러 스레드에서 공유할 수 있습니다.
+ */
+public final class KeywordAutomaton {
+
+    private static final long EMPTY = -1L;
+
+    private final int groupCount;
+    private final double[] groupWeights;
+    private final double[] groupTotals;
+
+    // (상태, 문자) → 다음 상태. 개방 주소법 해시 테이블
+    private final long[] transitionKeys;
+    private final int[] transitionTargets;
+    private final int transitionMask;
+    private final int[] failure;
+
+    // 상태별 출력(실패 링크로 이어진 상태의 출력 포함)을 CSR 형태로 저장
+    private final int[] outputStart;
+    private final int[] outputs;
+
+    private final int[] entryGroup;
+    private final double[] entryWeight;
+    private final boolean[] entryNegated;
+
+    // 한 번의 검색에서 이미 센 항목을 표시. 세대 번호로 표시를 지우므로 검색마다 초기화하지 않음
+    private final ThreadLocal<Scratch> scratch;
+
+    private KeywordAutomaton(Builder builder) {
+        this.groupCount = builder.groupWeights.length;
+        this.groupWeights = builder.groupWeights.clone();
+        this.groupTotals = new double[groupCount];
+
+        int entryCount = builder.entries.size();
+        this.entryGroup = new int[entryCount];
+        this.entryWeight = new double[entryCount];
+        this.entryNegated = new boolean[entryCount];
+
+        // 1. 트라이 구성
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> stateOutputs = new ArrayList<>();
+        children.add(new LinkedHashMap<>());
+        stateOutputs.add(new ArrayList<>());
+        int transitionCount = 0;
+        for (int id = 0; id < entryCount; id++) {
+            Entry entry = builder.entries.get(id);
+            entryGroup[id] = entry.group;
+            entryWeight[id] = entry.weight;
+            entryNegated[id] = entry.negated;
+            if (!entry.negated) {
+                groupTotals[entry.group] += entry.weight;
+            }
+
+            int state = 0;
+            for (int i = 0; i < entry.keyword.length(); i++) {
+                char c = entry.keyword.charAt(i);
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(c, next);
+                    children.add(new LinkedHashMap<>());
+                    stateOutputs.add(new ArrayList<>());
+                    transitionCount++;
+                }
+                state = next;
+            }
+            stateOutputs.get(state).add(id);
+        }
+
+        // 2. 너비 우선으로 실패 링크를 계산하고 실패 상태의 출력을 합침. 루트의 자식은 루트로 실패
+        int stateCount = children.size();
+        this.failure = new int[stateCount];
+        Deque<Integer> queue = new ArrayDeque<>(children.get(0).values());
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                int child = edge.getValue();
+                int fallback = failure[state];
+                while (fallback != 0 && !children.get(fallback).containsKey(edge.getKey())) {
+                    fallback = failure[fallback];
+                }
+                Integer target = children.get(fallback).get(edge.getKey());
+                failure[child] = target == null ? 0 : target;
+                stateOutputs.get(child).addAll(stateOutputs.get(failure[child]));
+                queue.add(child);
+            }
+        }
+
+        // 3. 전이와 출력을 배열로 평탄화
+        int capacity = Integer.highestOneBit(Math.max(2, transitionCount * 2) - 1) << 1;
+        this.transitionKeys = new long[capacity];
+        this.transitionTargets = new int[capacity];
+        this.transitionMask = capacity - 1;
+        Arrays.fill(transitionKeys, EMPTY);
+        for (int state = 0; state < stateCount; state++) {
+            for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                long key = key(state, edge.getKey());
+                int slot = slot(key);
+                while (transitionKeys[slot] != EMPTY) {
+                    slot = (slot + 1) & transitionMask;
+                }
+                transitionKeys[slot] = key;
+                transitionTargets[slot] = edge.getValue();
+            }
+        }
+
+        this.outputStart = new int[stateCount + 1];
+        int outputCount = 0;
+        for (int state = 0; state < stateCount; state++) {
+            outputStart[state] = outputCount;
+            outputCount += stateOutputs.get(state).size();
+        }
+        outputStart[stateCount] = outputCount;
+        this.outputs = new int[outputCount];
+        for (int state = 0; state < stateCount; state++) {
+            int offset = outputStart[state];
+            for (int id : stateOutputs.get(state)) {
+                outputs[offset++] = id;
+            }
+        }
+
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(entryCount, groupCount));
+    }
+
+    public static Builder builder(int groupCount) {
+        return new Builder(groupCount);
+    }
+
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    public int getKeywordCount() {
+        return entryGroup.length;
+    }
+
+    /**
+     * 텍스트를 한 번 훑어 그룹별 점수를 scores에 기록합니다.
+     *
+     * @param scores 길이가 그룹 수 이상인 배열. 앞의 그룹 수만큼 덮어씁니다.
+     */
+    public void score(CharSequence text, double[] scores) {
+        Scratch work = scratch.get();
+        int epoch = work.nextEpoch();
+        double[] matched = work.matched;
+        boolean[] vetoed = work.vetoed;
+        Arrays.fill(matched, 0.0);
+        Arrays.fill(vetoed, false);
+
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            while (true) {
+                int next = next(state, c);
+                if (next >= 0) {
+                    state = next;
+                    break;
+                }
+                if (state == 0) {
+                    break;
+                }
+                state = failure[state];
+            }
+            for (int o = outputStart[state]; o < outputStart[state + 1]; o++) {
+                int id = outputs[o];
+                if (work.seen[id] == epoch) {
+                    continue;
+                }
+                work.seen[id] = epoch;
+                if (entryNegated[id]) {
+                    vetoed[entryGroup[id]] = true;
+                } else {
+                    matched[entryGroup[id]] += entryWeight[id];
+                }
+            }
+        }
+
+        for (int group = 0; group < groupCount; group++) {
+            scores[group] = (vetoed[group] || groupTotals[group] <= 0.0)
+                    ? 0.0
+                    : matched[group] / groupTotals[group] * groupWeights[group];
+        }
+    }
+
+    private int next(int state, char c) {
+        long key = key(state, c);
+        int slot = slot(key);
+        while (true) {
+            long candidate = transitionKeys[slot];
+            if (candidate == key) {
+                return transitionTargets[slot];
+            }
+            if (candidate == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & transitionMask;
+        }
+    }
+
+    private static long key(int state, char c) {
+        return ((long) state << 16) | c;
+    }
+
+    private int slot(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & transitionMask;
+    }
+
+    private static final class Scratch {
+        private final int[] seen;
+        private final double[] matched;
+        private final boolean[] vetoed;
+        private int epoch;
+
+        private Scratch(int entryCount, int groupCount) {
+            this.seen = new int[entryCount];
+            this.matched = new double[groupCount];
+            this.vetoed = new boolean[groupCount];
+        }
+
+        private int nextEpoch() {
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(seen, 0);
+                epoch = 1;
+            }
+            return epoch;
+        }
+    }
+
+    private static final class Entry {
+        private final String keyword;
+        private final int group;
+        private final double weight;
+        private final boolean negated;
+
+        private Entry(String keyword, int group, double weight, boolean negated) {
+            this.keyword = keyword;
+            this.group = group;
+            this.weight = weight;
+            this.negated = negated;
+        }
+    }
+
+    /**
+     * 오토마톤 빌더. 그룹은 0부터 groupCount-1까지의 번호로 지정합니다.
+     */
+    public static final class Builder {
+        private final double[] groupWeights;
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Builder(int groupCount) {
+            this.groupWeights = new double[groupCount];
+            Arrays.fill(groupWeights, 1.0);
+        }
+
+        public Builder groupWeight(int group, double weight) {
+            groupWeights[checkGroup(group)] = weight;
+            return this;
+        }
+
+        public Builder keyword(int group, String keyword, double weight) {
+            if (weight <= 0.0) {
+                throw new IllegalArgumentException("Keyword weight must be positive: " + keyword);
+            }
+            entries.add(new Entry(normalize(keyword), checkGroup(group), weight, false));
+            return this;
+        }
+
+        /**
+         * 텍스트에 나오면 그룹 점수를 0으로 만드는 부정 키워드를 추가합니다.
+         */
+        public Builder negatedKeyword(int group, String keyword) {
+            entries.add(new Entry(normalize(keyword), checkGroup(group), 0.0, true));
+            return this;
+        }
+
+        public KeywordAutomaton build() {
+            return new KeywordAutomaton(this);
+        }
+
+        private int checkGroup(int group) {
+            if (group < 0 || group >= groupWeights.length) {
+                throw new IllegalArgumentException("Unknown keyword group: " + group);
+            }
+            return group;
+        }
+
+        private static String normalize(String keyword) {
+            if (keyword == null || keyword.isBlank()) {
+                throw new IllegalArgumentException("Keyword must not be blank");
+            }
+            // 검색 시와 같은 문자 단위 소문자 변환
+            StringBuilder normalized = new StringBuilder(keyword.length());
+            for (int i = 0; i < keyword.length(); i++) {
+                normalized.append(Character.toLowerCase(keyword.charAt(i)));
+            }
+            return normalized.toString();
+        }
+    }
+}
@@ -1,33 +1,290 @@
 package com.Human.Ai.D.makit.service;
 
+import com.Human.Ai.D.makit.domain.KnowledgeChunk;
 import com.Human.Ai.D.makit.domain.KnowledgeDocument;
+import com.Human.Ai.D.makit.domain.KnowledgeIndexCheckpoint;
+import com.Human.Ai.D.makit.repository.KnowledgeChunkRepository;
 import com.Human.Ai.D.makit.repository.KnowledgeDocumentRepository;
-import com.Human.Ai.D.makit.service.ai.BedrockService;
+import com.Human.Ai.D.makit.repository.KnowledgeIndexCheckpointRepository;
+import com.Human.Ai.D.makit.service.ai.EmbeddingCache;
+import com.Human.Ai.D.makit.service.ai.RateLimiter;
+import com.Human.Ai.D.makit.service.retrieval.Bm25Index;
+import com.Human.Ai.D.makit.service.retrieval.DocumentChunker;
+import com.Human.Ai.D.makit.service.retrieval.MetadataIndex;
+import com.Human.Ai.D.makit.service.retrieval.SnapshottingVectorIndex;
+import com.Human.Ai.D.makit.service.retrieval.VectorIndex;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class KnowledgeBaseManager {
     
     private static final Logger logger = LoggerFactory.getLogger(KnowledgeBaseManager.class);
+    private static final int INDEX_LOAD_PAGE_SIZE = 500;
+    private static final String REINDEX_JOB = "knowledge-reindex";
+    private static final String REINDEX_TASK_TYPE = "knowledge_reindex";
+    // 다른 인스턴스와의 시계 차이를 감안해 스냅샷 시각보다 조금 앞부터 대조
+    private static final Duration SNAPSHOT_CLOCK_SKEW = Duration.ofMinutes(5);
     
     @Autowired
     private KnowledgeDocumentRepository knowledgeDocumentRepository;
     
     @Autowired
-    private BedrockService bedrockService;
+    private KnowledgeChunkRepository knowledgeChunkRepository;
+    
+    @Autowired
+    private EmbeddingCache embeddingCache;
+    
+    @Autowired
+    private VectorIndex vectorIndex;
+    
+    @Autowired
+    private Bm25Index keywordIndex;
+    
+    @Autowired
+    private MetadataIndex metadataIndex;
+    
+    @Autowired
+    private DocumentChunker documentChunker;
+    
+    @Autowired
+    private KnowledgeIndexCheckpointRepository checkpointRepository;
+    
+    @Autowired
+    private AsyncTaskManager asyncTaskManager;
+    
+    @Autowired
+    private SemanticAnswerCache answerCache;
+    
+    @Value("${knowledge.reindex.page-size:100}")
+    private int reindexPageSize = 100;
+    
+    @Value("${knowledge.reindex.concurrency:4}")
+    private int reindexConcurrency = 4;
+    
+    @Value("${knowledge.reindex.embeddings-per-second:20}")
+    private double reindexEmbeddingsPerSecond = 20;
+    
+    @Value("${knowledge.vector-index.snapshot.wal-max-entries:5000}")
+    private long snapshotWalMaxEntries = 5000;
+    
+    private final AtomicBoolean reindexRunning = new AtomicBoolean();
+    
+    /**
+     * 애플리케이션 시작 시 청크를 벡터, 키워드, 메타데이터 인덱스에 적재하고, 청크가 없는 대기 문서를 다시 색인합니다.
+     * 디스크 스냅샷이 있으면 벡터 인덱스는 스냅샷에서 복원하고 DB와는 청크 ID만 대조합니다.
+     * 페이지 단위로 읽어 영속성 컨텍스트에 전체 청크가 쌓이지 않도록 트랜잭션 밖에서 실행합니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void loadVectorIndex() {
+        keywordIndex.clear();
+        metadataIndex.clear();
+        Instant snapshotTime = vectorIndex instanceof SnapshottingVectorIndex snapshotting
+                ? snapshotting.restore() : null;
+        
+        if (snapshotTime != null) {
+            reconcileVectorIndex((SnapshottingVectorIndex) vectorIndex, snapshotTime);
+            loadTextIndexes();
+        } else {
+            vectorIndex.clear();
+            String lastChunkId = "";
+            while (true) {
+                List<KnowledgeChunk> page = knowledgeChunkRepository.findEmbeddedChunksAfter(
+                        lastChunkId, PageRequest.of(0, INDEX_LOAD_PAGE_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+                Map<String, List<String>> tags = loadTags(
+                        page.stream().map(chunk -> chunk.getDocument().getDocumentId()).collect(Collectors.toSet()));
+                for (KnowledgeChunk chunk : page) {
+                    KnowledgeDocument document = chunk.getDocument();
+                    vectorIndex.upsert(chunk.getChunkId(), chunk.getEmbeddingValues());
+                    keywordIndex.upsert(chunk.getChunkId(), keywordText(chunk));
+                    metadataIndex.upsert(chunk.getChunkId(), tags.get(document.getDocumentId()),
+                            document.getDocumentType(), document.getSource());
+                }
+                lastChunkId = page.get(page.size() - 1).getChunkId();
+            }
+            writeVectorSnapshot();
+        }
+        
+        logger.info("Vector index loaded with {} chunks; keyword index has {} terms; metadata index has {} chunks",
+                vectorIndex.size(), keywordIndex.termCount(), metadataIndex.size());
+        
+        // 프로세스 종료로 중단된 재색인은 체크포인트부터 이어서 진행하며, 대기 문서도 함께 색인됨
+        Optional<KnowledgeIndexCheckpoint> interrupted = checkpointRepository.findById(REINDEX_JOB)
+                .filter(checkpoint -> checkpoint.getStatus() == KnowledgeIndexCheckpoint.CheckpointStatus.RUNNING);
+        if (interrupted.isPresent()) {
+            logger.info("Resuming interrupted reindex after document: {}", interrupted.get().getLastDocumentId());
+            rebuildIndex("system");
+            return;
+        }
+        
+        // 청크 도입 이전에 색인되었거나 색인 도중 중단된 문서
+        long pendingDocuments = knowledgeDocumentRepository.countByStatus(KnowledgeDocument.DocumentStatus.PENDING);
+        if (pendingDocuments > 0 && reindexRunning.compareAndSet(false, true)) {
+            logger.info("Re-indexing {} pending knowledge documents", pendingDocuments);
+            try {
+                indexPendingDocuments().whenComplete((result, error) -> reindexRunning.set(false));
+            } catch (RuntimeException e) {
+                reindexRunning.set(false);
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * 스냅샷 이후 다른 인스턴스에서 추가, 교체, 삭제된 청크를 반영합니다.
+     * 임베딩은 인덱스에 없거나 스냅샷 이후에 만들어진 청크의 것만 읽습니다.
+     */
+    private void reconcileVectorIndex(SnapshottingVectorIndex index, Instant snapshotTime) {
+        Set<String> storedIds = new HashSet<>(knowledgeChunkRepository.findEmbeddedChunkIds());
+        Set<String> indexedIds = new HashSet<>(index.ids());
+        
+        int removed = 0;
+        for (String chunkId : indexedIds) {
+            if (!storedIds.contains(chunkId)) {
+                index.remove(chunkId);
+                removed++;
+            }
+        }
+        
+        Set<String> toLoad = new HashSet<>(storedIds);
+        toLoad.removeAll(indexedIds);
+        LocalDateTime since = LocalDateTime.ofInstant(snapshotTime.minus(SNAPSHOT_CLOCK_SKEW), ZoneId.systemDefault());
+        toLoad.addAll(knowledgeChunkRepository.findEmbeddedChunkIdsCreatedSince(since));
+        
+        List<String> batch = new ArrayList<>(INDEX_LOAD_PAGE_SIZE);
+        for (String chunkId : toLoad) {
+            batch.add(chunkId);
+            if (batch.size() == INDEX_LOAD_PAGE_SIZE) {
+                upsertStoredEmbeddings(batch);
+                batch.clear();
+            }
+        }
+        upsertStoredEmbeddings(batch);
+        
+        logger.info("Reconciled vector index snapshot with database: {} chunks loaded, {} removed",
+                toLoad.size(), removed);
+    }
+    
+    private void upsertStoredEmbeddings(List<String> chunkIds) {
+        if (chunkIds.isEmpty()) {
+            return;
+        }
+        for (KnowledgeChunk chunk : knowledgeChunkRepository.findAllById(chunkIds)) {
+            if (chunk.hasEmbedding()) {
+                vectorIndex.upsert(chunk.getChunkId(), chunk.getEmbeddingValues());
+            }
+        }
+    }
+    
+    /**
+     * 키워드와 메타데이터 인덱스는 디스크에 보존하지 않으므로 임베딩을 제외한 텍스트와 메타데이터만 읽어 다시 구성합니다.
+     */
+    private void loadTextIndexes() {
+        String lastChunkId = "";
+        while (true) {
+            List<Object[]> page = knowledgeChunkRepository.findChunkTextsAfter(
+                    lastChunkId, PageRequest.of(0, INDEX_LOAD_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            Map<String, List<String>> tags = loadTags(
+                    page.stream().map(row -> (String) row[1]).collect(Collectors.toSet()));
+            for (Object[] row : page) {
+                String chunkId = (String) row[0];
+                keywordIndex.upsert(chunkId, keywordText((String) row[2], (String) row[3]));
+                metadataIndex.upsert(chunkId, tags.get((String) row[1]), (String) row[4], (String) row[5]);
+            }
+            lastChunkId = (String) page.get(page.size() - 1)[0];
+        }
+    }
+    
+    /**
+     * 문서별 태그를 한 번의 조회로 읽습니다. 태그 컬렉션은 지연 로딩이라 트랜잭션 밖에서는 엔티티로 접근할 수 없습니다.
+     */
+    private Map<String, List<String>> loadTags(Collection<String> documentIds) {
+        Map<String, List<String>> tags = new HashMap<>();
+        if (documentIds.isEmpty()) {
+            return tags;
+        }
+        for (Object[] row : knowledgeDocumentRepository.findTagsByDocumentIds(documentIds)) {
+            tags.computeIfAbsent((String) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return tags;
+    }
+    
+    /**
+     * WAL이 충분히 쌓이면 새 스냅샷을 기록해 다음 시작 시 재적용할 변경을 줄입니다.
+     */
+    @Scheduled(fixedDelayString = "${knowledge.vector-index.snapshot.check-interval-ms:60000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void snapshotVectorIndexIfNeeded() {
+        if (vectorIndex instanceof SnapshottingVectorIndex snapshotting
+                && snapshotting.walEntries() >= snapshotWalMaxEntries) {
+            writeVectorSnapshot();
+        }
+    }
+    
+    /**
+     * 종료 시 남은 WAL을 스냅샷으로 정리해 다음 인스턴스가 재적용 없이 시작하도록 합니다.
+     */
+    @PreDestroy
+    public void closeVectorIndex() {
+        if (vectorIndex instanceof SnapshottingVectorIndex snapshotting) {
+            if (snapshotting.walEntries() > 0) {
+                writeVectorSnapshot();
+            }
+            snapshotting.close();
+        }
+    }
+    
+    private void writeVectorSnapshot() {
+        if (vectorIndex instanceof SnapshottingVectorIndex snapshotting) {
+            try {
+                snapshotting.snapshot();
+            } catch (IOException e) {
+                logger.error("Failed to write vector index snapshot", e);
+            }
+        }
+    }
     
     /**
      * 새 문서를 지식 베이스에 추가하고 인덱싱합니다.
@@ -60,29 +317,103 @@ public class KnowledgeBaseManager {
     }
     
     /**
-     * 문서의 임베딩을 생성하고 업데이트합니다.
+     * 문서를 청크로 분할하고 청크별 임베딩을 생성해 저장합니다. 기존 청크는 교체됩니다.
      */
     public CompletableFuture<Void> generateEmbedding(KnowledgeDocument document) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                // Bedrock 임베딩 모델을 사용하여 임베딩 생성
-                String embeddingText = document.getTitle() + " " + document.getContent();
-                String embedding = bedrockService.generateEmbedding(embeddingText);
-                
-                document.setEmbeddingVector(embedding);
-                document.setStatus(KnowledgeDocument.DocumentStatus.INDEXED);
-                document.setLastUpdated(LocalDateTime.now());
-                
-                knowledgeDocumentRepository.save(document);
-                
-                logger.info("Embedding generated for document: {}", document.getDocumentId());
-                
-            } catch (Exception e) {
-                logger.error("Error generating embedding for document: {}", document.getDocumentId(), e);
+        return CompletableFuture.runAsync(() -> indexDocument(document, null));
+    }
+    
+    /**
+     * 문서 하나를 색인합니다. 실패하면 false를 반환합니다.
+     * 새 청크의 임베딩을 모두 만든 뒤에 기존 청크와 교체하므로 재색인 중에도 문서가 검색에서 빠지지 않습니다.
+     * 청크 ID는 문서 ID와 순번으로 정해지므로 같은 ID의 청크는 덮어쓰고, 더 이상 없는 순번의 청크만 제거합니다.
+     * 임베딩에 실패하면 기존 청크를 그대로 두며, 남은 청크가 없을 때만 문서를 FAILED로 표시합니다.
+     * bedrockLimiter가 있으면 캐시에 없는 임베딩 호출마다 허가를 기다립니다.
+     */
+    private boolean indexDocument(KnowledgeDocument document, RateLimiter bedrockLimiter) {
+        String documentId = document.getDocumentId();
+        List<KnowledgeChunk> chunks = new ArrayList<>();
+        try {
+            // 청크마다 문서 제목을 앞에 붙여 임베딩해 짧은 청크도 문맥을 잃지 않도록 함
+            for (DocumentChunker.Chunk piece : documentChunker.split(document.getContent())) {
+                KnowledgeChunk chunk = new KnowledgeChunk(document, piece.getIndex(), piece.getText(),
+                        piece.getStartOffset(), piece.getEndOffset(), piece.getTokenCount());
+                chunk.setEmbeddingValues(embeddingCache.getEmbedding(
+                        document.getTitle() + "\n" + piece.getText(), bedrockLimiter));
+                chunks.add(chunk);
+            }
+        } catch (Exception e) {
+            logger.error("Error generating embedding for document: {}", documentId, e);
+            if (knowledgeChunkRepository.findChunkIdsByDocumentId(documentId).isEmpty()) {
                 document.setStatus(KnowledgeDocument.DocumentStatus.FAILED);
                 knowledgeDocumentRepository.save(document);
+            } else {
+                logger.warn("Keeping previously indexed chunks for document: {}", documentId);
             }
-        });
+            return false;
+        }
+        
+        try {
+            Set<String> staleIds = new HashSet<>(knowledgeChunkRepository.findChunkIdsByDocumentId(documentId));
+            chunks.forEach(chunk -> staleIds.remove(chunk.getChunkId()));
+            
+            knowledgeChunkRepository.saveAll(chunks);
+            if (!staleIds.isEmpty()) {
+                knowledgeChunkRepository.deleteAllByIdInBatch(staleIds);
+            }
+            document.setStatus(KnowledgeDocument.DocumentStatus.INDEXED);
+            document.setLastUpdated(LocalDateTime.now());
+            knowledgeDocumentRepository.save(document);
+            
+            List<String> tags = loadTags(List.of(documentId)).get(documentId);
+            for (KnowledgeChunk chunk : chunks) {
+                vectorIndex.upsert(chunk.getChunkId(), chunk.getEmbeddingValues());
+                keywordIndex.upsert(chunk.getChunkId(), keywordText(chunk));
+                metadataIndex.upsert(chunk.getChunkId(), tags, document.getDocumentType(), document.getSource());
+            }
+            for (String chunkId : staleIds) {
+                vectorIndex.remove(chunkId);
+                keywordIndex.remove(chunkId);
+                metadataIndex.remove(chunkId);
+            }
+            
+            logger.info("Embedded {} chunks for document: {}", chunks.size(), documentId);
+            return true;
+            
+        } catch (Exception e) {
+            logger.error("Error storing chunks for document: {}", documentId, e);
+            removeChunks(documentId);
+            document.setStatus(KnowledgeDocument.DocumentStatus.FAILED);
+            knowledgeDocumentRepository.save(document);
+            return false;
+        }
+    }
+    
+    /**
+     * 문서의 청크를 인덱스와 DB에서 제거합니다.
+     */
+    private void removeChunks(String documentId) {
+        List<String> chunkIds = knowledgeChunkRepository.findChunkIdsByDocumentId(documentId);
+        if (chunkIds.isEmpty()) {
+            return;
+        }
+        for (String chunkId : chunkIds) {
+            vectorIndex.remove(chunkId);
+            keywordIndex.remove(chunkId);
+            metadataIndex.remove(chunkId);
+        }
+        knowledgeChunkRepository.deleteAllByIdInBatch(chunkIds);
+    }
+    
+    /**
+     * 키워드 인덱스에 넣을 텍스트. 제목을 포함해 제목 일치도 점수에 반영되도록 합니다.
+     */
+    private String keywordText(KnowledgeChunk chunk) {
+        return keywordText(chunk.getDocument().getTitle(), chunk.getContent());
+    }
+    
+    private String keywordText(String title, String content) {
+        return title + "\n" + content;
     }
     
     /**
@@ -92,6 +423,20 @@ public class KnowledgeBaseManager {
         return knowledgeDocumentRepository.findById(documentId);
     }
     
+    /**
+     * 여러 문서 ID로 문서들을 조회합니다.
+     */
+    public List<KnowledgeDocument> getDocuments(Collection<String> documentIds) {
+        return knowledgeDocumentRepository.findAllById(documentIds);
+    }
+    
+    /**
+     * 청크 ID들로 청크와 소속 문서를 함께 조회합니다.
+     */
+    public List<KnowledgeChunk> getChunks(Collection<String> chunkIds) {
+        return knowledgeChunkRepository.findWithDocumentByChunkIdIn(chunkIds);
+    }
+    
     /**
      * 키워드로 문서를 검색합니다.
      */
@@ -117,7 +462,7 @@ public class KnowledgeBaseManager {
      * 모든 인덱싱된 문서를 반환합니다.
      */
     public List<KnowledgeDocument> getIndexedDocuments() {
-        return knowledgeDocumentRepository.findIndexedDocuments();
+        return knowledgeDocumentRepository.findByStatus(KnowledgeDocument.DocumentStatus.INDEXED);
     }
     
     /**
@@ -139,6 +484,9 @@ public class KnowledgeBaseManager {
             document.setLastUpdated(LocalDateTime.now());
             document.setStatus(KnowledgeDocument.DocumentStatus.PENDING);
             
+            // 새 임베딩이 생성될 때까지 이전 내용 기준의 청크와 답변이 사용되지 않도록 제거
+            removeChunks(documentId);
+            answerCache.invalidateDocument(documentId);
             document = knowledgeDocumentRepository.save(document);
             
             // 임베딩 재생성
@@ -157,31 +505,174 @@ public class KnowledgeBaseManager {
             throw new RuntimeException("Document not found: " + documentId);
         }
         
+        removeChunks(documentId);
+        answerCache.invalidateDocument(documentId);
         knowledgeDocumentRepository.deleteById(documentId);
         logger.info("Document deleted: {}", documentId);
     }
     
     /**
-     * 모든 문서의 인덱스를 재구축합니다.
+     * 모든 문서의 인덱스를 백그라운드에서 재구축하고 진행 상황을 추적할 작업을 반환합니다.
+     * 이전 재구축이 중단되었거나 취소되었다면 체크포인트 다음 문서부터 이어서 처리합니다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AsyncTaskManager.TaskProgress rebuildIndex(String userId) {
+        if (!reindexRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("Knowledge base reindex is already running");
+        }
+        try {
+            AsyncTaskManager.TaskProgress progress = asyncTaskManager.startTrackedTask(REINDEX_TASK_TYPE, userId);
+            runReindex(progress).whenComplete((result, error) -> reindexRunning.set(false));
+            return progress;
+        } catch (RuntimeException e) {
+            reindexRunning.set(false);
+            throw e;
+        }
+    }
+    
+    /**
+     * PENDING 상태 문서를 재색인과 같은 방식으로 색인합니다. 문서 ID 순 keyset 페이지로 읽고,
+     * 동시 작업 수와 Bedrock 임베딩 호출 속도를 재색인 설정으로 제한합니다.
      */
-    public CompletableFuture<Void> rebuildIndex() {
+    CompletableFuture<Void> indexPendingDocuments() {
         return CompletableFuture.runAsync(() -> {
-            List<KnowledgeDocument> allDocuments = knowledgeDocumentRepository.findAll();
-            
-            for (KnowledgeDocument document : allDocuments) {
-                generateEmbedding(document).join();
+            RateLimiter bedrockLimiter = new RateLimiter(reindexEmbeddingsPerSecond);
+            ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, reindexConcurrency));
+            int processed = 0;
+            int failed = 0;
+            try {
+                String lastDocumentId = "";
+                while (true) {
+                    List<KnowledgeDocument> page = knowledgeDocumentRepository.findByStatusAfter(
+                            KnowledgeDocument.DocumentStatus.PENDING, lastDocumentId, PageRequest.of(0, reindexPageSize));
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    failed += indexPage(page, bedrockLimiter, workers);
+                    processed += page.size();
+                    lastDocumentId = page.get(page.size() - 1).getDocumentId();
+                }
+                logger.info("Indexed {} pending knowledge documents ({} failed)", processed, failed);
+            } catch (Exception e) {
+                logger.error("Indexing pending knowledge documents failed after {} documents", processed, e);
+            } finally {
+                workers.shutdown();
+            }
+        });
+    }
+    
+    /**
+     * 페이지 안의 문서를 workers에서 병렬로 색인하고 실패한 문서 수를 반환합니다.
+     */
+    private int indexPage(List<KnowledgeDocument> page, RateLimiter bedrockLimiter, ExecutorService workers) {
+        AtomicInteger failed = new AtomicInteger();
+        CompletableFuture.allOf(page.stream()
+                .map(document -> CompletableFuture.runAsync(() -> {
+                    if (!indexDocument(document, bedrockLimiter)) {
+                        failed.incrementAndGet();
+                    }
+                }, workers))
+                .toArray(CompletableFuture[]::new)).join();
+        return failed.get();
+    }
+    
+    /**
+     * 문서 ID 순 keyset 페이지로 문서를 읽어 페이지 안의 문서를 병렬로 색인합니다.
+     * 페이지가 끝날 때마다 체크포인트를 저장하므로 중단되면 최대 한 페이지만 다시 처리하며,
+     * 이미 처리한 청크는 임베딩 캐시에 있어 Bedrock을 다시 호출하지 않습니다.
+     */
+    CompletableFuture<Void> runReindex(AsyncTaskManager.TaskProgress progress) {
+        return CompletableFuture.runAsync(() -> {
+            KnowledgeIndexCheckpoint checkpoint = checkpointRepository.findById(REINDEX_JOB)
+                    .filter(KnowledgeIndexCheckpoint::isResumable)
+                    .orElseGet(() -> new KnowledgeIndexCheckpoint(REINDEX_JOB));
+            if (checkpoint.getStatus() != KnowledgeIndexCheckpoint.CheckpointStatus.RUNNING) {
+                logger.info("Resuming cancelled reindex after document: {}", checkpoint.getLastDocumentId());
             }
+            checkpoint.setStatus(KnowledgeIndexCheckpoint.CheckpointStatus.RUNNING);
+            checkpoint.setTotalDocuments(knowledgeDocumentRepository.count());
+            checkpointRepository.save(checkpoint);
+            
+            RateLimiter bedrockLimiter = new RateLimiter(reindexEmbeddingsPerSecond);
+            ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, reindexConcurrency));
+            long startNanos = System.nanoTime();
+            long resumedFrom = checkpoint.getProcessedDocuments();
             
-            logger.info("Knowledge base index rebuilt for {} documents", allDocuments.size());
+            try {
+                while (true) {
+                    if (progress.getStatus() == AsyncTaskManager.TaskStatus.CANCELLED) {
+                        checkpoint.setStatus(KnowledgeIndexCheckpoint.CheckpointStatus.CANCELLED);
+                        checkpointRepository.save(checkpoint);
+                        logger.info("Reindex cancelled after document: {}", checkpoint.getLastDocumentId());
+                        return;
+                    }
+                    
+                    List<KnowledgeDocument> page = knowledgeDocumentRepository.findDocumentsAfter(
+                            checkpoint.getLastDocumentId(), PageRequest.of(0, reindexPageSize));
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    
+                    int failed = indexPage(page, bedrockLimiter, workers);
+                    checkpoint.advance(page.get(page.size() - 1).getDocumentId(), page.size(), failed);
+                    checkpointRepository.save(checkpoint);
+                    reportReindexProgress(progress, checkpoint, resumedFrom, startNanos);
+                }
+                
+                checkpoint.setStatus(KnowledgeIndexCheckpoint.CheckpointStatus.COMPLETED);
+                checkpointRepository.save(checkpoint);
+                
+                AsyncTaskManager.TaskResult result = new AsyncTaskManager.TaskResult(
+                        REINDEX_TASK_TYPE, "Knowledge base index rebuilt", reindexDetails(checkpoint, resumedFrom, startNanos));
+                asyncTaskManager.completeTrackedTask(progress, result);
+                logger.info("Knowledge base index rebuilt for {} documents ({} failed)",
+                        checkpoint.getProcessedDocuments(), checkpoint.getFailedDocuments());
+                
+            } catch (Exception e) {
+                logger.error("Knowledge base reindex failed after document: {}", checkpoint.getLastDocumentId(), e);
+                checkpoint.setStatus(KnowledgeIndexCheckpoint.CheckpointStatus.FAILED);
+                checkpointRepository.save(checkpoint);
+                asyncTaskManager.failTrackedTask(progress, e.getMessage());
+            } finally {
+                workers.shutdown();
+            }
         });
     }
     
+    private void reportReindexProgress(AsyncTaskManager.TaskProgress progress, KnowledgeIndexCheckpoint checkpoint,
+                                       long resumedFrom, long startNanos) {
+        long total = Math.max(checkpoint.getTotalDocuments(), checkpoint.getProcessedDocuments());
+        // 완료 처리 전까지는 100%를 보고하지 않음
+        int percentage = total == 0 ? 0 : (int) Math.min(99, checkpoint.getProcessedDocuments() * 100 / total);
+        String message = String.format("Indexed %d of %d documents", checkpoint.getProcessedDocuments(), total);
+        asyncTaskManager.reportProgress(progress, percentage, message,
+                reindexDetails(checkpoint, resumedFrom, startNanos));
+    }
+    
+    /**
+     * 진행 API에 노출할 처리량과 예상 남은 시간. 처리량은 이번 실행에서 처리한 문서만으로 계산합니다.
+     */
+    private Map<String, Object> reindexDetails(KnowledgeIndexCheckpoint checkpoint, long resumedFrom, long startNanos) {
+        double elapsedSeconds = Math.max((System.nanoTime() - startNanos) / 1e9, 1e-3);
+        double throughput = (checkpoint.getProcessedDocuments() - resumedFrom) / elapsedSeconds;
+        long remaining = Math.max(0, checkpoint.getTotalDocuments() - checkpoint.getProcessedDocuments());
+        
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("processedDocuments", checkpoint.getProcessedDocuments());
+        details.put("failedDocuments", checkpoint.getFailedDocuments());
+        details.put("totalDocuments", checkpoint.getTotalDocuments());
+        details.put("lastDocumentId", checkpoint.getLastDocumentId());
+        details.put("documentsPerSecond", Math.round(throughput * 100) / 100.0);
+        details.put("etaSeconds", throughput > 0 ? Math.round(remaining / throughput) : null);
+        return details;
+    }
+    
     /**
      * 지식 베이스 통계를 반환합니다.
      */
     public KnowledgeBaseStats getStats() {
         long totalDocuments = knowledgeDocumentRepository.count();
-        long indexedDocuments = knowledgeDocumentRepository.findIndexedDocuments().size();
+        long indexedDocuments = knowledgeDocumentRepository.findByStatus(KnowledgeDocument.DocumentStatus.INDEXED).size();
         long pendingDocuments = knowledgeDocumentRepository.findByStatus(KnowledgeDocument.DocumentStatus.PENDING).size();
         long failedDocuments = knowledgeDocumentRepository.findByStatus(KnowledgeDocument.DocumentStatus.FAILED).size();
         
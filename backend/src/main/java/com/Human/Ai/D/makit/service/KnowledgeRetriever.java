@@ -1,17 +1,33 @@
 package com.Human.Ai.D.makit.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.Human.Ai.D.makit.domain.KnowledgeChunk;
 import com.Human.Ai.D.makit.domain.KnowledgeDocument;
-import com.Human.Ai.D.makit.service.ai.BedrockService;
+import com.Human.Ai.D.makit.service.ai.EmbeddingCache;
+import com.Human.Ai.D.makit.service.retrieval.Bm25Index;
+import com.Human.Ai.D.makit.service.retrieval.MetadataFilter;
+import com.Human.Ai.D.makit.service.retrieval.MetadataIndex;
+import com.Human.Ai.D.makit.service.retrieval.SearchFilter;
+import com.Human.Ai.D.makit.service.retrieval.VectorIndex;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,45 +35,63 @@ public class KnowledgeRetriever {
     
     private static final Logger logger = LoggerFactory.getLogger(KnowledgeRetriever.class);
     private static final double SIMILARITY_THRESHOLD = 0.7;
+    // RRF 상수. 상위 몇 개 순위 차이가 점수를 지나치게 지배하지 않도록 하는 일반적인 값
+    private static final int RRF_K = 60;
+    // 융합 전 각 검색 경로에서 가져오는 후보 배수
+    private static final int CANDIDATE_MULTIPLIER = 3;
+    // 키워드 경로에서만 찾은 청크의 유사도 상한. BM25 정규화 점수는 최고 점수가 항상 1.0이므로
+    // 의미 유사도 임계값보다 낮게 눌러 응답 신뢰도를 부풀리지 않게 함
+    private static final double KEYWORD_ONLY_SIMILARITY_CAP = 0.5;
+    private static final int SEARCH_THREADS = 8;
     
     @Autowired
     private KnowledgeBaseManager knowledgeBaseManager;
     
     @Autowired
-    private BedrockService bedrockService;
+    private EmbeddingCache embeddingCache;
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private VectorIndex vectorIndex;
+    
+    @Autowired
+    private Bm25Index keywordIndex;
+    
+    @Autowired
+    private MetadataIndex metadataIndex;
+    
+    @Value("${knowledge.hybrid-search.leg-timeout-ms:1500}")
+    private long legTimeoutMs = 1500;
+    
+    // 하이브리드 검색의 의미/키워드 경로를 병렬로 실행하는 스레드 풀
+    private final ExecutorService searchExecutor = Executors.newFixedThreadPool(SEARCH_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "knowledge-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @PreDestroy
+    public void shutdown() {
+        searchExecutor.shutdownNow();
+    }
     
     /**
-     * 쿼리와 관련된 문서들을 검색합니다.
+     * 쿼리와 가장 잘 맞는 문서 청크들을 벡터 인덱스에서 검색합니다.
+     * 유사도 계산은 메모리 내 인덱스에서만 수행하고, DB에서는 상위 결과 청크만 조회합니다.
      */
     public List<RelevantDocument> retrieveRelevantDocuments(String query, int maxResults) {
+        return retrieveRelevantDocuments(query, maxResults, null);
+    }
+    
+    /**
+     * 메타데이터 필터를 통과하는 청크 중에서만 의미 검색을 수행합니다. filter가 null이면 전체를 검색합니다.
+     */
+    public List<RelevantDocument> retrieveRelevantDocuments(String query, int maxResults, MetadataFilter filter) {
         try {
-            // 쿼리의 임베딩 생성
-            String queryEmbedding = bedrockService.generateEmbedding(query);
-            
-            // 모든 인덱싱된 문서 가져오기
-            List<KnowledgeDocument> indexedDocuments = knowledgeBaseManager.getIndexedDocuments();
-            
-            // 유사도 계산 및 정렬
-            List<RelevantDocument> relevantDocuments = new ArrayList<>();
-            
-            for (KnowledgeDocument document : indexedDocuments) {
-                if (document.getEmbeddingVector() != null) {
-                    double similarity = calculateCosineSimilarity(queryEmbedding, document.getEmbeddingVector());
-                    
-                    if (similarity >= SIMILARITY_THRESHOLD) {
-                        relevantDocuments.add(new RelevantDocument(document, similarity));
-                    }
-                }
+            SearchFilter match = matchFilter(filter);
+            if (match != null && match.cardinality() == 0) {
+                return new ArrayList<>();
             }
-            
-            // 유사도 순으로 정렬하고 상위 결과만 반환
-            return relevantDocuments.stream()
-                    .sorted(Comparator.comparingDouble(RelevantDocument::getSimilarity).reversed())
-                    .limit(maxResults)
-                    .collect(Collectors.toList());
-            
+            return toRelevantDocuments(semanticHits(query, maxResults, match));
         } catch (Exception e) {
             logger.error("Error retrieving relevant documents for query: {}", query, e);
             return new ArrayList<>();
@@ -65,17 +99,23 @@ public class KnowledgeRetriever {
     }
     
     /**
-     * 키워드 기반 검색을 수행합니다.
+     * BM25 키워드 인덱스로 청크를 검색합니다.
+     * 점수는 쿼리 내 최고 BM25 점수 대비 비율(0~1]로 정규화해 의미 검색 점수와 같은 범위로 맞춥니다.
      */
     public List<RelevantDocument> keywordSearch(String query, int maxResults) {
+        return keywordSearch(query, maxResults, null);
+    }
+    
+    /**
+     * 메타데이터 필터를 통과하는 청크 중에서만 키워드 검색을 수행합니다. filter가 null이면 전체를 검색합니다.
+     */
+    public List<RelevantDocument> keywordSearch(String query, int maxResults, MetadataFilter filter) {
         try {
-            List<KnowledgeDocument> documents = knowledgeBaseManager.searchDocuments(query);
-            
-            return documents.stream()
-                    .limit(maxResults)
-                    .map(doc -> new RelevantDocument(doc, 1.0)) // 키워드 매치는 높은 점수
-                    .collect(Collectors.toList());
-            
+            SearchFilter match = matchFilter(filter);
+            if (match != null && match.cardinality() == 0) {
+                return new ArrayList<>();
+            }
+            return toRelevantDocuments(keywordHits(query, maxResults, match));
         } catch (Exception e) {
             logger.error("Error performing keyword search for query: {}", query, e);
             return new ArrayList<>();
@@ -84,127 +124,266 @@ public class KnowledgeRetriever {
     
     /**
      * 하이브리드 검색 (의미 검색 + 키워드 검색)을 수행합니다.
+     * 두 경로를 병렬로 실행하고 각각 제한 시간을 두며, 제한 시간을 넘긴 경로는 빈 결과로 취급합니다.
+     * 결과는 Reciprocal Rank Fusion으로 병합하므로 서로 비교할 수 없는 원점수 대신 순위만 사용합니다.
      */
     public List<RelevantDocument> hybridSearch(String query, int maxResults) {
-        List<RelevantDocument> semanticResults = retrieveRelevantDocuments(query, maxResults);
-        List<RelevantDocument> keywordResults = keywordSearch(query, maxResults);
-        
-        // 결과 병합 및 중복 제거
-        List<RelevantDocument> combinedResults = new ArrayList<>(semanticResults);
-        
-        for (RelevantDocument keywordResult : keywordResults) {
-            boolean exists = combinedResults.stream()
-                    .anyMatch(doc -> doc.getDocument().getDocumentId()
-                            .equals(keywordResult.getDocument().getDocumentId()));
-            
-            if (!exists) {
-                combinedResults.add(keywordResult);
+        return hybridSearch(query, maxResults, null);
+    }
+    
+    /**
+     * 메타데이터 필터를 통과하는 청크 중에서만 하이브리드 검색을 수행합니다. filter가 null이면 전체를 검색합니다.
+     * 필터는 검색 전에 비트맵으로 한 번 평가되고, 두 경로 모두 통과한 청크만 점수화합니다.
+     */
+    public List<RelevantDocument> hybridSearch(String query, int maxResults, MetadataFilter filter) {
+        SearchFilter match = matchFilter(filter);
+        if (match != null && match.cardinality() == 0) {
+            return new ArrayList<>();
+        }
+        int candidates = maxResults * CANDIDATE_MULTIPLIER;
+        CompletableFuture<List<VectorIndex.SearchHit>> semanticLeg =
+                searchLeg("semantic", query, () -> semanticHits(query, candidates, match));
+        CompletableFuture<List<VectorIndex.SearchHit>> keywordLeg =
+                searchLeg("keyword", query, () -> keywordHits(query, candidates, match));
+        
+        // 청크 ID 기준 해시 병합
+        Map<String, FusedHit> fused = new HashMap<>();
+        List<VectorIndex.SearchHit> semanticHits = semanticLeg.join();
+        for (int i = 0; i < semanticHits.size(); i++) {
+            VectorIndex.SearchHit hit = semanticHits.get(i);
+            FusedHit entry = fused.computeIfAbsent(hit.getId(), FusedHit::new);
+            entry.semanticRank = i + 1;
+            entry.similarity = hit.getScore();
+            entry.fusedScore += 1.0 / (RRF_K + i + 1);
+        }
+        List<VectorIndex.SearchHit> keywordHits = keywordLeg.join();
+        for (int i = 0; i < keywordHits.size(); i++) {
+            VectorIndex.SearchHit hit = keywordHits.get(i);
+            FusedHit entry = fused.computeIfAbsent(hit.getId(), FusedHit::new);
+            entry.keywordRank = i + 1;
+            if (entry.semanticRank == null) {
+                entry.similarity = Math.min(hit.getScore(), KEYWORD_ONLY_SIMILARITY_CAP);
             }
+            entry.fusedScore += 1.0 / (RRF_K + i + 1);
+        }
+        
+        if (fused.isEmpty()) {
+            return new ArrayList<>();
         }
         
-        // 유사도 순으로 정렬하고 제한
-        return combinedResults.stream()
-                .sorted(Comparator.comparingDouble(RelevantDocument::getSimilarity).reversed())
+        List<FusedHit> top = fused.values().stream()
+                .sorted(Comparator.comparingDouble((FusedHit hit) -> hit.fusedScore).reversed())
                 .limit(maxResults)
                 .collect(Collectors.toList());
+        
+        Map<String, KnowledgeChunk> chunks = new HashMap<>();
+        for (KnowledgeChunk chunk : knowledgeBaseManager.getChunks(
+                top.stream().map(hit -> hit.chunkId).collect(Collectors.toList()))) {
+            chunks.put(chunk.getChunkId(), chunk);
+        }
+        
+        List<RelevantDocument> results = new ArrayList<>(top.size());
+        for (FusedHit hit : top) {
+            KnowledgeChunk chunk = chunks.get(hit.chunkId);
+            if (chunk != null) {
+                results.add(new RelevantDocument(chunk, hit.similarity, hit.fusedScore,
+                        hit.semanticRank, hit.keywordRank));
+            }
+        }
+        return results;
     }
     
     /**
-     * 특정 태그로 문서를 검색합니다.
+     * 검색 경로 하나를 검색 스레드 풀에서 실행합니다. 실패하거나 제한 시간을 넘기면 빈 결과를 반환합니다.
+     * 제한 시간을 넘긴 작업은 취소(인터럽트)해 검색 스레드를 다음 쿼리에 돌려줍니다.
      */
-    public List<RelevantDocument> searchByTag(String tag, int maxResults) {
-        try {
-            List<KnowledgeDocument> documents = knowledgeBaseManager.getDocumentsByTag(tag);
-            
-            return documents.stream()
-                    .limit(maxResults)
-                    .map(doc -> new RelevantDocument(doc, 0.9)) // 태그 매치는 높은 점수
-                    .collect(Collectors.toList());
-            
-        } catch (Exception e) {
-            logger.error("Error searching documents by tag: {}", tag, e);
-            return new ArrayList<>();
+    private CompletableFuture<List<VectorIndex.SearchHit>> searchLeg(String leg, String query,
+                                                                    Supplier<List<VectorIndex.SearchHit>> search) {
+        CompletableFuture<List<VectorIndex.SearchHit>> result = new CompletableFuture<>();
+        Future<?> task = searchExecutor.submit(() -> {
+            try {
+                result.complete(search.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.orTimeout(legTimeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((hits, e) -> {
+                    if (e != null) {
+                        task.cancel(true);
+                    }
+                })
+                .exceptionally(e -> {
+                    if (e instanceof TimeoutException || e.getCause() instanceof TimeoutException) {
+                        logger.warn("Hybrid search {} leg timed out after {} ms for query: {}", leg, legTimeoutMs, query);
+                    } else {
+                        logger.error("Hybrid search {} leg failed for query: {}", leg, query, e);
+                    }
+                    return List.of();
+                });
+    }
+    
+    private SearchFilter matchFilter(MetadataFilter filter) {
+        return filter == null ? null : metadataIndex.match(filter);
+    }
+    
+    /**
+     * 의미 검색 후보를 유사도 내림차순으로 반환합니다. 임계값 미만은 제외합니다.
+     */
+    private List<VectorIndex.SearchHit> semanticHits(String query, int k, SearchFilter filter) {
+        float[] queryEmbedding = embeddingCache.getEmbedding(query);
+        if (Thread.currentThread().isInterrupted()) {
+            // 제한 시간을 넘겨 취소된 경로는 인덱스 검색을 건너뜀
+            return List.of();
+        }
+        List<VectorIndex.SearchHit> candidates = filter == null
+                ? vectorIndex.search(queryEmbedding, k)
+                : vectorIndex.search(queryEmbedding, k, filter);
+        
+        List<VectorIndex.SearchHit> hits = new ArrayList<>();
+        for (VectorIndex.SearchHit hit : candidates) {
+            if (hit.getScore() >= SIMILARITY_THRESHOLD) {
+                hits.add(hit);
+            }
         }
+        return hits;
     }
     
     /**
-     * 문서 유형으로 검색합니다.
+     * BM25 후보를 점수 내림차순으로 반환합니다. 점수는 최고 점수 대비 비율로 정규화합니다.
      */
-    public List<RelevantDocument> searchByType(String documentType, int maxResults) {
-        try {
-            List<KnowledgeDocument> documents = knowledgeBaseManager.getDocumentsByType(documentType);
-            
-            return documents.stream()
-                    .limit(maxResults)
-                    .map(doc -> new RelevantDocument(doc, 0.8)) // 타입 매치는 중간 점수
-                    .collect(Collectors.toList());
-            
-        } catch (Exception e) {
-            logger.error("Error searching documents by type: {}", documentType, e);
+    private List<VectorIndex.SearchHit> keywordHits(String query, int k, SearchFilter filter) {
+        List<VectorIndex.SearchHit> hits = filter == null
+                ? keywordIndex.search(query, k)
+                : keywordIndex.search(query, k, filter);
+        if (hits.isEmpty()) {
+            return hits;
+        }
+        
+        float topScore = hits.get(0).getScore();
+        List<VectorIndex.SearchHit> normalized = new ArrayList<>(hits.size());
+        for (VectorIndex.SearchHit hit : hits) {
+            normalized.add(new VectorIndex.SearchHit(hit.getId(), hit.getScore() / topScore));
+        }
+        return normalized;
+    }
+    
+    /**
+     * 검색 결과 청크를 DB에서 조회해 점수 내림차순의 결과 목록으로 만듭니다.
+     */
+    private List<RelevantDocument> toRelevantDocuments(List<VectorIndex.SearchHit> hits) {
+        if (hits.isEmpty()) {
             return new ArrayList<>();
         }
+        
+        Map<String, Float> scores = new LinkedHashMap<>();
+        for (VectorIndex.SearchHit hit : hits) {
+            scores.put(hit.getId(), hit.getScore());
+        }
+        
+        List<RelevantDocument> relevantDocuments = new ArrayList<>();
+        for (KnowledgeChunk chunk : knowledgeBaseManager.getChunks(scores.keySet())) {
+            relevantDocuments.add(new RelevantDocument(chunk, scores.get(chunk.getChunkId())));
+        }
+        
+        relevantDocuments.sort(Comparator.comparingDouble(RelevantDocument::getSimilarity).reversed());
+        return relevantDocuments;
     }
     
     /**
-     * 코사인 유사도를 계산합니다.
+     * 특정 태그가 붙은 문서의 청크 중에서 쿼리와 관련된 청크를 검색합니다.
      */
-    private double calculateCosineSimilarity(String embedding1, String embedding2) {
-        try {
-            JsonNode vector1 = objectMapper.readTree(embedding1);
-            JsonNode vector2 = objectMapper.readTree(embedding2);
-            
-            if (!vector1.isArray() || !vector2.isArray() || 
-                vector1.size() != vector2.size()) {
-                return 0.0;
-            }
-            
-            double dotProduct = 0.0;
-            double norm1 = 0.0;
-            double norm2 = 0.0;
-            
-            for (int i = 0; i < vector1.size(); i++) {
-                double val1 = vector1.get(i).asDouble();
-                double val2 = vector2.get(i).asDouble();
-                
-                dotProduct += val1 * val2;
-                norm1 += val1 * val1;
-                norm2 += val2 * val2;
-            }
-            
-            if (norm1 == 0.0 || norm2 == 0.0) {
-                return 0.0;
-            }
-            
-            return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
-            
-        } catch (Exception e) {
-            logger.error("Error calculating cosine similarity", e);
-            return 0.0;
+    public List<RelevantDocument> searchByTag(String tag, String query, int maxResults) {
+        return hybridSearch(query, maxResults, MetadataFilter.tag(tag));
+    }
+    
+    /**
+     * 특정 유형 문서의 청크 중에서 쿼리와 관련된 청크를 검색합니다.
+     */
+    public List<RelevantDocument> searchByType(String documentType, String query, int maxResults) {
+        return hybridSearch(query, maxResults, MetadataFilter.type(documentType));
+    }
+    
+    /**
+     * 하이브리드 검색에서 청크별 융합 점수와 경로별 순위를 모으는 중간 결과
+     */
+    private static class FusedHit {
+        private final String chunkId;
+        private double fusedScore;
+        private double similarity;
+        private Integer semanticRank;
+        private Integer keywordRank;
+        
+        FusedHit(String chunkId) {
+            this.chunkId = chunkId;
         }
     }
     
     /**
-     * 검색 결과를 나타내는 클래스
+     * 검색 결과를 나타내는 클래스. 의미/키워드 검색 결과는 일치한 청크를 함께 가집니다.
+     * 하이브리드 검색 결과에는 RRF 융합 점수와 경로별 순위(1부터, 해당 경로에 없으면 null)가 채워집니다.
+     * 키워드 경로에서만 찾은 청크의 유사도는 정규화된 BM25 점수를 상한으로 자른 값입니다.
      */
     public static class RelevantDocument {
         private final KnowledgeDocument document;
+        private final KnowledgeChunk chunk;
         private final double similarity;
+        private final double fusedScore;
+        private final Integer semanticRank;
+        private final Integer keywordRank;
         
         public RelevantDocument(KnowledgeDocument document, double similarity) {
             this.document = document;
+            this.chunk = null;
+            this.similarity = similarity;
+            this.fusedScore = similarity;
+            this.semanticRank = null;
+            this.keywordRank = null;
+        }
+        
+        public RelevantDocument(KnowledgeChunk chunk, double similarity) {
+            this(chunk, similarity, similarity, null, null);
+        }
+        
+        public RelevantDocument(KnowledgeChunk chunk, double similarity, double fusedScore,
+                                Integer semanticRank, Integer keywordRank) {
+            this.document = chunk.getDocument();
+            this.chunk = chunk;
             this.similarity = similarity;
+            this.fusedScore = fusedScore;
+            this.semanticRank = semanticRank;
+            this.keywordRank = keywordRank;
         }
         
         public KnowledgeDocument getDocument() {
             return document;
         }
         
+        public KnowledgeChunk getChunk() {
+            return chunk;
+        }
+        
         public double getSimilarity() {
             return similarity;
         }
         
+        public double getFusedScore() {
+            return fusedScore;
+        }
+        
+        public Integer getSemanticRank() {
+            return semanticRank;
+        }
+        
+        public Integer getKeywordRank() {
+            return keywordRank;
+        }
+        
+        /**
+         * 일치한 청크가 있으면 청크 본문을, 없으면 문서 본문을 maxLength로 잘라 반환합니다.
+         */
         public String getSnippet(int maxLength) {
-            String content = document.getContent();
+            String content = chunk != null ? chunk.getContent() : document.getContent();
             if (content.length() <= maxLength) {
                 return content;
             }
@@ -14,6 +14,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class PredictiveAnalyticsEngine {
@@ -30,106 +31,107 @@ public class PredictiveAnalyticsEngine {
     private DataPreprocessingService dataPreprocessingService;
     
     /**
-     * Generate performance predictions for a campaign
+     * Generate performance predictions for a campaign.
+     * Only the data preparation runs on a pool thread; the model call is awaited without holding one.
      */
     public CompletableFuture<PredictionResult> predictCampaignPerformance(Campaign campaign, int daysAhead) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Get historical data
-                List<CampaignAnalytics> historicalData = getHistoricalData(campaign, 30);
-                
-                if (historicalData.isEmpty()) {
-                    return new PredictionResult("Insufficient historical data for prediction", false);
-                }
-                
-                // Preprocess data for prediction
-                Map<String, Object> preprocessedData = dataPreprocessingService
-                        .preprocessForPrediction(historicalData);
-                
-                // Generate prediction using AI model
-                String predictionPrompt = buildPredictionPrompt(campaign, preprocessedData, daysAhead);
-                String aiPrediction = bedrockService.generateText(predictionPrompt, "claude-3-sonnet-20240229-v1:0");
-                
-                // Parse and structure the prediction
-                PredictionResult result = parsePredictionResult(aiPrediction, daysAhead);
-                result.setSuccessful(true);
-                
-                return result;
-                
-            } catch (Exception e) {
-                logger.error("Failed to generate prediction for campaign {}: {}", 
-                           campaign.getId(), e.getMessage());
-                return new PredictionResult("Prediction generation failed: " + e.getMessage(), false);
-            }
-        });
+        return CompletableFuture.supplyAsync(() -> getHistoricalData(campaign, 30))
+                .thenCompose(historicalData -> {
+                    if (historicalData.isEmpty()) {
+                        return CompletableFuture.completedFuture(
+                                new PredictionResult("Insufficient historical data for prediction", false));
+                    }
+                    
+                    // Preprocess data for prediction
+                    Map<String, Object> preprocessedData = dataPreprocessingService
+                            .preprocessForPrediction(historicalData);
+                    
+                    // Generate prediction using AI model
+                    String predictionPrompt = buildPredictionPrompt(campaign, preprocessedData, daysAhead);
+                    return bedrockService.generateTextAsync(predictionPrompt, "claude-3-sonnet-20240229-v1:0")
+                            .thenApply(aiPrediction -> {
+                                // Parse and structure the prediction
+                                PredictionResult result = parsePredictionResult(aiPrediction, daysAhead);
+                                result.setSuccessful(true);
+                                return result;
+                            });
+                })
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    logger.error("Failed to generate prediction for campaign {}: {}", 
+                               campaign.getId(), cause.getMessage());
+                    return new PredictionResult("Prediction generation failed: " + cause.getMessage(), false);
+                });
     }
     
     /**
      * Analyze trends in campaign performance
      */
     public CompletableFuture<TrendAnalysis> analyzeTrends(Campaign campaign) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                List<CampaignAnalytics> data = getHistoricalData(campaign, 60);
-                
-                if (data.size() < 7) {
-                    return new TrendAnalysis("Insufficient data for trend analysis", false);
-                }
-                
-                // Calculate trend metrics
-                Map<String, Double> trendMetrics = calculateTrendMetrics(data);
-                
-                // Generate AI-powered trend insights
-                String trendPrompt = buildTrendAnalysisPrompt(campaign, data, trendMetrics);
-                String aiAnalysis = bedrockService.generateText(trendPrompt, "claude-3-haiku-20240307-v1:0");
-                
-                TrendAnalysis analysis = new TrendAnalysis();
-                analysis.setTrendMetrics(trendMetrics);
-                analysis.setAiInsights(aiAnalysis);
-                analysis.setSuccessful(true);
-                
-                return analysis;
-                
-            } catch (Exception e) {
-                logger.error("Failed to analyze trends for campaign {}: {}", 
-                           campaign.getId(), e.getMessage());
-                return new TrendAnalysis("Trend analysis failed: " + e.getMessage(), false);
-            }
-        });
+        return CompletableFuture.supplyAsync(() -> getHistoricalData(campaign, 60))
+                .thenCompose(data -> {
+                    if (data.size() < 7) {
+                        return CompletableFuture.completedFuture(
+                                new TrendAnalysis("Insufficient data for trend analysis", false));
+                    }
+                    
+                    // Calculate trend metrics
+                    Map<String, Double> trendMetrics = calculateTrendMetrics(data);
+                    
+                    // Generate AI-powered trend insights
+                    String trendPrompt = buildTrendAnalysisPrompt(campaign, data, trendMetrics);
+                    return bedrockService.generateTextAsync(trendPrompt, "claude-3-haiku-20240307-v1:0")
+                            .thenApply(aiAnalysis -> {
+                                TrendAnalysis analysis = new TrendAnalysis();
+                                analysis.setTrendMetrics(trendMetrics);
+                                analysis.setAiInsights(aiAnalysis);
+                                analysis.setSuccessful(true);
+                                return analysis;
+                            });
+                })
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    logger.error("Failed to analyze trends for campaign {}: {}", 
+                               campaign.getId(), cause.getMessage());
+                    return new TrendAnalysis("Trend analysis failed: " + cause.getMessage(), false);
+                });
     }
     
     /**
      * Predict seasonal performance patterns
      */
     public CompletableFuture<SeasonalForecast> generateSeasonalForecast(Campaign campaign) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                List<CampaignAnalytics> yearlyData = getHistoricalData(campaign, 365);
-                
-                if (yearlyData.size() < 30) {
-                    return new SeasonalForecast("Insufficient data for seasonal analysis", false);
-                }
-                
-                // Analyze seasonal patterns
-                Map<String, Object> seasonalPatterns = analyzeSeasonalPatterns(yearlyData);
-                
-                // Generate forecast using AI
-                String forecastPrompt = buildSeasonalForecastPrompt(campaign, seasonalPatterns);
-                String aiForecast = bedrockService.generateText(forecastPrompt, "claude-3-sonnet-20240229-v1:0");
-                
-                SeasonalForecast forecast = new SeasonalForecast();
-                forecast.setSeasonalPatterns(seasonalPatterns);
-                forecast.setAiForecast(aiForecast);
-                forecast.setSuccessful(true);
-                
-                return forecast;
-                
-            } catch (Exception e) {
-                logger.error("Failed to generate seasonal forecast for campaign {}: {}", 
-                           campaign.getId(), e.getMessage());
-                return new SeasonalForecast("Seasonal forecast failed: " + e.getMessage(), false);
-            }
-        });
+        return CompletableFuture.supplyAsync(() -> getHistoricalData(campaign, 365))
+                .thenCompose(yearlyData -> {
+                    if (yearlyData.size() < 30) {
+                        return CompletableFuture.completedFuture(
+                                new SeasonalForecast("Insufficient data for seasonal analysis", false));
+                    }
+                    
+                    // Analyze seasonal patterns
+                    Map<String, Object> seasonalPatterns = analyzeSeasonalPatterns(yearlyData);
+                    
+                    // Generate forecast using AI
+                    String forecastPrompt = buildSeasonalForecastPrompt(campaign, seasonalPatterns);
+                    return bedrockService.generateTextAsync(forecastPrompt, "claude-3-sonnet-20240229-v1:0")
+                            .thenApply(aiForecast -> {
+                                SeasonalForecast forecast = new SeasonalForecast();
+                                forecast.setSeasonalPatterns(seasonalPatterns);
+                                forecast.setAiForecast(aiForecast);
+                                forecast.setSuccessful(true);
+                                return forecast;
+                            });
+                })
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    logger.error("Failed to generate seasonal forecast for campaign {}: {}", 
+                               campaign.getId(), cause.getMessage());
+                    return new SeasonalForecast("Seasonal forecast failed: " + cause.getMessage(), false);
+                });
+    }
+    
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
     
     /**
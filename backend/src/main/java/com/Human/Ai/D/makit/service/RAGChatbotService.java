@@ -4,20 +4,38 @@ import com.Human.Ai.D.makit.domain.ChatMessage;
 import com.Human.Ai.D.makit.domain.ConversationContext;
 import com.Human.Ai.D.makit.domain.User;
 import com.Human.Ai.D.makit.service.ai.BedrockService;
+import com.Human.Ai.D.makit.service.ai.EmbeddingCache;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Service
 public class RAGChatbotService {
     
     private static final Logger logger = LoggerFactory.getLogger(RAGChatbotService.class);
-    private static final int MAX_CONTEXT_MESSAGES = 10;
+    // 최근 대화와 이전 대화 요약의 재료로 읽는 최대 메시지 수
+    private static final int MAX_HISTORY_MESSAGES = 50;
     private static final int MAX_RETRIEVED_DOCUMENTS = 3;
+    private static final int PIPELINE_THREADS = 16;
+    // 지식 검색 결과로 답하는 의도. 나머지 의도에서는 미리 시작한 검색을 취소함
+    private static final Set<IntentClassifier.Intent> RETRIEVAL_INTENTS = EnumSet.of(
+            IntentClassifier.Intent.PRODUCT_INQUIRY,
+            IntentClassifier.Intent.TECHNICAL_SUPPORT,
+            IntentClassifier.Intent.UNKNOWN);
     
     @Autowired
     private ConversationContextManager contextManager;
@@ -31,34 +49,66 @@ public class RAGChatbotService {
     @Autowired
     private BedrockService bedrockService;
     
+    @Autowired
+    private SemanticAnswerCache answerCache;
+    
+    @Autowired
+    private ContextAssembler contextAssembler;
+    
+    @Autowired
+    private EmbeddingCache embeddingCache;
+    
+    // 의도 분류와 미리 시작하는 지식 검색을 요청 스레드와 병렬로 실행하는 스레드 풀
+    private final ExecutorService pipelineExecutor = Executors.newFixedThreadPool(PIPELINE_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "chat-pipeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @PreDestroy
+    public void shutdown() {
+        pipelineExecutor.shutdownNow();
+    }
+    
     /**
      * 사용자 메시지를 처리하고 응답을 생성합니다.
      */
     public ChatbotResponse processMessage(String message, User user, String sessionId) {
+        return processMessage(message, user, sessionId, null);
+    }
+    
+    /**
+     * 사용자 메시지를 처리하고, RAG 답변은 Claude 스트리밍으로 생성하면서 텍스트 조각을 onDelta로 전달합니다.
+     * 캐시 답변이나 정해진 안내 문구처럼 모델을 호출하지 않는 응답은 조각 없이 반환값으로만 전달됩니다.
+     * 전체 답변은 스트림이 끝난 뒤 대화 기록에 저장됩니다. onDelta가 null이면 스트리밍하지 않습니다.
+     */
+    public ChatbotResponse processMessage(String message, User user, String sessionId, Consumer<String> onDelta) {
+        // 의도 분류(AI 분류 시 Claude 호출)를 기다리지 않고 질문 임베딩과 검색을 미리 시작
+        SpeculativeRetrieval retrieval = new SpeculativeRetrieval(message);
         try {
+            CompletableFuture<IntentClassifier.IntentClassificationResult> intentFuture =
+                    CompletableFuture.supplyAsync(() -> intentClassifier.classifyIntent(message), pipelineExecutor);
+            
             // 1. 대화 컨텍스트 가져오기 또는 생성
             ConversationContext context = contextManager.getOrCreateContext(user, sessionId);
             
-            // 2. 사용자 메시지 저장
-            ChatMessage userMessage = contextManager.addMessage(
-                    context, user.getUsername(), message, ChatMessage.MessageType.CHAT, false);
-            
-            // 3. 의도 분류
-            IntentClassifier.IntentClassificationResult intentResult = 
-                    intentClassifier.classifyIntent(message);
+            // 2. 의도 분류 결과 대기
+            IntentClassifier.IntentClassificationResult intentResult = intentFuture.join();
+            if (!RETRIEVAL_INTENTS.contains(intentResult.getIntent())) {
+                retrieval.cancel();
+            }
             
-            userMessage.setIntent(intentResult.getIntent().toString());
-            userMessage.setConfidence(intentResult.getConfidence());
+            // 3. 분류된 의도와 함께 사용자 메시지 저장
+            contextManager.addMessage(context, user.getUsername(), message, ChatMessage.MessageType.CHAT, false,
+                    intentResult.getIntent().toString(), intentResult.getConfidence(),
+                    intentResult.getSource() != null ? intentResult.getSource().name() : null);
             
             // 4. 의도에 따른 응답 생성
-            ChatbotResponse response = generateResponse(message, context, intentResult);
+            ChatbotResponse response = generateResponse(message, context, intentResult, retrieval, onDelta);
             
             // 5. 봇 응답 저장
-            ChatMessage botMessage = contextManager.addMessage(
-                    context, "assistant", response.getMessage(), ChatMessage.MessageType.CHAT, true);
-            
-            botMessage.setIntent(intentResult.getIntent().toString());
-            botMessage.setConfidence(response.getConfidence());
+            contextManager.addMessage(context, "assistant", response.getMessage(), ChatMessage.MessageType.CHAT, true,
+                    intentResult.getIntent().toString(), response.getConfidence());
             
             // 6. 컨텍스트 업데이트
             if (response.shouldEscalate()) {
@@ -71,6 +121,7 @@ public class RAGChatbotService {
             return response;
             
         } catch (Exception e) {
+            retrieval.cancel();
             logger.error("Error processing chatbot message", e);
             return new ChatbotResponse(
                     "죄송합니다. 일시적인 오류가 발생했습니다. 잠시 후 다시 시도해주세요.",
@@ -85,17 +136,18 @@ public class RAGChatbotService {
      * 의도에 따라 응답을 생성합니다.
      */
     private ChatbotResponse generateResponse(String message, ConversationContext context, 
-                                           IntentClassifier.IntentClassificationResult intentResult) {
+                                           IntentClassifier.IntentClassificationResult intentResult,
+                                           SpeculativeRetrieval retrieval, Consumer<String> onDelta) {
         
         switch (intentResult.getIntent()) {
             case GREETING:
                 return handleGreeting(context);
                 
             case PRODUCT_INQUIRY:
-                return handleProductInquiry(message, context);
+                return handleProductInquiry(message, context, retrieval, onDelta);
                 
             case TECHNICAL_SUPPORT:
-                return handleTechnicalSupport(message, context);
+                return handleTechnicalSupport(message, context, retrieval, onDelta);
                 
             case ACCOUNT_MANAGEMENT:
                 return handleAccountManagement(message, context);
@@ -113,7 +165,7 @@ public class RAGChatbotService {
                 return handleEscalationRequest(context);
                 
             default:
-                return handleGeneralInquiry(message, context);
+                return handleGeneralInquiry(message, context, retrieval, onDelta);
         }
     }
     
@@ -130,10 +182,17 @@ public class RAGChatbotService {
     /**
      * 제품 문의 처리
      */
-    private ChatbotResponse handleProductInquiry(String message, ConversationContext context) {
+    private ChatbotResponse handleProductInquiry(String message, ConversationContext context,
+                                                 SpeculativeRetrieval retrieval, Consumer<String> onDelta) {
+        List<ChatMessage> history = getConversationHistory(context, message);
+        ChatbotResponse cached = cachedResponse(message, IntentClassifier.Intent.PRODUCT_INQUIRY, history);
+        if (cached != null) {
+            retrieval.cancel();
+            return cached;
+        }
+        
         // RAG를 사용하여 관련 문서 검색
-        List<KnowledgeRetriever.RelevantDocument> relevantDocs = 
-                knowledgeRetriever.hybridSearch(message, MAX_RETRIEVED_DOCUMENTS);
+        List<KnowledgeRetriever.RelevantDocument> relevantDocs = retrieval.await();
         
         if (relevantDocs.isEmpty()) {
             return new ChatbotResponse(
@@ -145,19 +204,29 @@ public class RAGChatbotService {
             );
         }
         
-        return generateRAGResponse(message, context, relevantDocs);
+        return generateRAGResponse(message, history, relevantDocs, IntentClassifier.Intent.PRODUCT_INQUIRY, onDelta);
     }
     
     /**
      * 기술 지원 처리
      */
-    private ChatbotResponse handleTechnicalSupport(String message, ConversationContext context) {
+    private ChatbotResponse handleTechnicalSupport(String message, ConversationContext context,
+                                                   SpeculativeRetrieval retrieval, Consumer<String> onDelta) {
+        List<ChatMessage> history = getConversationHistory(context, message);
+        ChatbotResponse cached = cachedResponse(message, IntentClassifier.Intent.TECHNICAL_SUPPORT, history);
+        if (cached != null) {
+            retrieval.cancel();
+            return cached;
+        }
+        
         // 기술 문서에서 검색
         List<KnowledgeRetriever.RelevantDocument> relevantDocs = 
-                knowledgeRetriever.searchByType("TECHNICAL", MAX_RETRIEVED_DOCUMENTS);
+                knowledgeRetriever.searchByType("TECHNICAL", message, MAX_RETRIEVED_DOCUMENTS);
         
         if (relevantDocs.isEmpty()) {
-            relevantDocs = knowledgeRetriever.hybridSearch(message, MAX_RETRIEVED_DOCUMENTS);
+            relevantDocs = retrieval.await();
+        } else {
+            retrieval.cancel();
         }
         
         if (relevantDocs.isEmpty()) {
@@ -170,7 +239,7 @@ public class RAGChatbotService {
             );
         }
         
-        return generateRAGResponse(message, context, relevantDocs);
+        return generateRAGResponse(message, history, relevantDocs, IntentClassifier.Intent.TECHNICAL_SUPPORT, onDelta);
     }
     
     /**
@@ -243,10 +312,17 @@ public class RAGChatbotService {
     /**
      * 일반 문의 처리
      */
-    private ChatbotResponse handleGeneralInquiry(String message, ConversationContext context) {
+    private ChatbotResponse handleGeneralInquiry(String message, ConversationContext context,
+                                                 SpeculativeRetrieval retrieval, Consumer<String> onDelta) {
+        List<ChatMessage> history = getConversationHistory(context, message);
+        ChatbotResponse cached = cachedResponse(message, IntentClassifier.Intent.UNKNOWN, history);
+        if (cached != null) {
+            retrieval.cancel();
+            return cached;
+        }
+        
         // RAG를 사용하여 관련 문서 검색
-        List<KnowledgeRetriever.RelevantDocument> relevantDocs = 
-                knowledgeRetriever.hybridSearch(message, MAX_RETRIEVED_DOCUMENTS);
+        List<KnowledgeRetriever.RelevantDocument> relevantDocs = retrieval.await();
         
         if (relevantDocs.isEmpty()) {
             return new ChatbotResponse(
@@ -258,24 +334,43 @@ public class RAGChatbotService {
             );
         }
         
-        return generateRAGResponse(message, context, relevantDocs);
+        return generateRAGResponse(message, history, relevantDocs, IntentClassifier.Intent.UNKNOWN, onDelta);
+    }
+    
+    /**
+     * 의미가 같은 이전 질문의 답변이 캐시에 있으면 Claude를 호출하지 않고 그 답변으로 응답합니다.
+     * 캐시는 모든 사용자가 공유하므로 대화 기록이 없는 첫 질문에만 사용합니다.
+     */
+    private ChatbotResponse cachedResponse(String message, IntentClassifier.Intent intent, List<ChatMessage> history) {
+        if (!history.isEmpty()) {
+            return null;
+        }
+        SemanticAnswerCache.CachedAnswer cached = answerCache.lookup(message, intent.name());
+        if (cached == null) {
+            return null;
+        }
+        return new ChatbotResponse(cached.getAnswer(), cached.getConfidence(), false, null);
     }
     
     /**
-     * RAG를 사용하여 응답을 생성합니다.
+     * RAG를 사용하여 응답을 생성합니다. 대화 기록 없이 생성된 답변만 사용한 문서와 함께 의미 캐시에 저장됩니다.
+     * 기록이 들어간 답변은 그 사용자의 대화에 의존하므로 다른 사용자에게 재사용하면 안 됩니다.
      */
-    private ChatbotResponse generateRAGResponse(String message, ConversationContext context,
-                                              List<KnowledgeRetriever.RelevantDocument> relevantDocs) {
+    private ChatbotResponse generateRAGResponse(String message, List<ChatMessage> history,
+                                              List<KnowledgeRetriever.RelevantDocument> relevantDocs,
+                                              IntentClassifier.Intent intent, Consumer<String> onDelta) {
         try {
-            // 컨텍스트 정보 수집
-            String conversationHistory = getConversationHistory(context);
-            String knowledgeContext = buildKnowledgeContext(relevantDocs);
+            // 토큰 예산 안에서 지식, 최근 대화, 이전 대화 요약 순으로 컨텍스트 조립
+            ContextAssembler.AssembledContext assembled = contextAssembler.assemble(relevantDocs, history);
+            logger.debug("Assembled RAG context: {}", assembled);
             
             // RAG 프롬프트 생성
-            String prompt = buildRAGPrompt(message, conversationHistory, knowledgeContext);
+            String prompt = buildRAGPrompt(message, assembled);
             
-            // AI 응답 생성
-            String aiResponse = bedrockService.generateTextWithClaude(prompt, 500);
+            // AI 응답 생성 (스트리밍 시 조각을 바로 전달하고 전체 텍스트를 기다림)
+            String aiResponse = onDelta == null
+                    ? bedrockService.generateTextWithClaude(prompt, 500)
+                    : bedrockService.streamTextWithClaude(prompt, 500, onDelta).join();
             
             // 신뢰도 계산 (관련 문서의 평균 유사도)
             double confidence = relevantDocs.stream()
@@ -283,6 +378,9 @@ public class RAGChatbotService {
                     .average()
                     .orElse(0.5);
             
+            if (history.isEmpty()) {
+                answerCache.store(message, intent.name(), aiResponse, confidence, relevantDocs);
+            }
             return new ChatbotResponse(aiResponse, confidence, false, null);
             
         } catch (Exception e) {
@@ -297,38 +395,34 @@ public class RAGChatbotService {
     }
     
     /**
-     * 대화 히스토리를 문자열로 변환합니다.
-     */
-    private String getConversationHistory(ConversationContext context) {
-        List<ChatMessage> recentMessages = contextManager.getRecentMessages(context, 30);
-        
-        return recentMessages.stream()
-                .limit(MAX_CONTEXT_MESSAGES)
-                .map(msg -> String.format("%s: %s", 
-                           msg.getIsFromBot() ? "Assistant" : "User", 
-                           msg.getContent()))
-                .collect(Collectors.joining("\n"));
-    }
-    
-    /**
-     * 지식 베이스 컨텍스트를 구축합니다.
+     * 최근 대화 기록을 시간순으로 가져옵니다. 지금 답하려는 사용자 메시지는 질문으로 따로 들어가므로 제외합니다.
      */
-    private String buildKnowledgeContext(List<KnowledgeRetriever.RelevantDocument> relevantDocs) {
-        return relevantDocs.stream()
-                .map(doc -> String.format("문서: %s\n내용: %s", 
-                                        doc.getDocument().getTitle(),
-                                        doc.getSnippet(300)))
-                .collect(Collectors.joining("\n\n"));
+    private List<ChatMessage> getConversationHistory(ConversationContext context, String currentMessage) {
+        List<ChatMessage> history = new ArrayList<>(contextManager.getLatestMessages(context, MAX_HISTORY_MESSAGES));
+        if (!history.isEmpty()) {
+            ChatMessage last = history.get(history.size() - 1);
+            if (!Boolean.TRUE.equals(last.getIsFromBot()) && currentMessage.equals(last.getContent())) {
+                history.remove(history.size() - 1);
+            }
+        }
+        return history;
     }
     
     /**
      * RAG 프롬프트를 생성합니다.
      */
-    private String buildRAGPrompt(String userMessage, String conversationHistory, String knowledgeContext) {
+    private String buildRAGPrompt(String userMessage, ContextAssembler.AssembledContext assembled) {
+        String conversationHistory = assembled.getRecentTurns();
+        String knowledgeContext = assembled.getKnowledge();
+        String earlierSummary = assembled.getSummary().isEmpty()
+                ? ""
+                : "이전 대화 요약 (고객의 이전 질문):\n" + assembled.getSummary() + "\n\n";
         return String.format(
                 "당신은 MarKIT의 고객 지원 AI 어시스턴트입니다. " +
                 "다음 정보를 바탕으로 고객의 질문에 정확하고 도움이 되는 답변을 제공해주세요.\n\n" +
                 
+                "%s" +
+                
                 "대화 히스토리:\n%s\n\n" +
                 
                 "관련 지식 베이스 정보:\n%s\n\n" +
@@ -344,12 +438,63 @@ public class RAGChatbotService {
                 
                 "답변:",
                 
+                earlierSummary,
                 conversationHistory.isEmpty() ? "없음" : conversationHistory,
                 knowledgeContext.isEmpty() ? "관련 정보 없음" : knowledgeContext,
                 userMessage
         );
     }
     
+    /**
+     * 의도 분류와 병렬로 미리 실행하는 하이브리드 검색. 질문 임베딩을 먼저 계산해 임베딩 캐시를 채우므로
+     * 이후의 의미 캐시 조회와 유형 필터 검색도 Bedrock을 다시 호출하지 않습니다.
+     * 검색이 필요 없는 의도로 판정되면 취소되며, 임베딩이 끝난 뒤라도 검색 단계는 건너뜁니다.
+     */
+    private final class SpeculativeRetrieval {
+        private final String message;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final Future<List<KnowledgeRetriever.RelevantDocument>> result;
+        
+        private SpeculativeRetrieval(String message) {
+            this.message = message;
+            this.result = pipelineExecutor.submit(this::retrieve);
+        }
+        
+        private List<KnowledgeRetriever.RelevantDocument> retrieve() {
+            try {
+                embeddingCache.getEmbedding(message);
+            } catch (Exception e) {
+                // 검색의 키워드 경로는 임베딩 없이도 동작하므로 계속 진행
+                logger.debug("Speculative query embedding failed", e);
+            }
+            if (cancelled.get()) {
+                return List.of();
+            }
+            return knowledgeRetriever.hybridSearch(message, MAX_RETRIEVED_DOCUMENTS);
+        }
+        
+        private void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                result.cancel(true);
+            }
+        }
+        
+        /**
+         * 검색 결과를 기다립니다. 미리 실행한 검색이 실패했으면 이 스레드에서 다시 검색합니다.
+         */
+        private List<KnowledgeRetriever.RelevantDocument> await() {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return List.of();
+            } catch (ExecutionException e) {
+                logger.warn("Speculative retrieval failed, retrying inline", e.getCause());
+                return knowledgeRetriever.hybridSearch(message, MAX_RETRIEVED_DOCUMENTS);
+            }
+        }
+    }
+    
     /**
      * 챗봇 응답 클래스
      */
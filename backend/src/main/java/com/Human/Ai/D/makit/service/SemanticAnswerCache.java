@@ -0,0 +1,330 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.repository.KnowledgeDocumentRepository;
+import com.Human.Ai.D.makit.service.ai.EmbeddingCache;
+import com.Human.Ai.D.makit.service.retrieval.VectorMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 질문 임베딩 → RAG 답변 캐시. 의미가 거의 같은 질문에는 Claude를 다시 호출하지 않고 저장된 답변을 돌려줍니다.
+ * 항목마다 답변 생성에 사용한 문서와 그 시점의 수정 시각을 기록해 두고, 적중 시 DB의 수정 시각과 비교해
+ * 문서가 바뀌었거나 삭제되었으면 사용하지 않습니다. 문서가 수정·삭제되면 해당 문서를 참조한 항목도 즉시 제거됩니다.
+ */
+@Service
+public class SemanticAnswerCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SemanticAnswerCache.class);
+
+    @Autowired
+    private EmbeddingCache embeddingCache;
+
+    @Autowired
+    private KnowledgeDocumentRepository knowledgeDocumentRepository;
+
+    @Value("${knowledge.answer-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${knowledge.answer-cache.similarity-threshold:0.92}")
+    private double similarityThreshold = 0.92;
+
+    @Value("${knowledge.answer-cache.max-entries:1000}")
+    private int maxEntries = 1000;
+
+    @Value("${knowledge.answer-cache.ttl-minutes:1440}")
+    private long ttlMinutes = 1440;
+
+    private final AtomicLong nextEntryId = new AtomicLong();
+    private final Map<String, Set<Long>> entriesByDocument = new HashMap<>();
+
+    // 접근 순서 LinkedHashMap을 LRU로 사용. 모든 접근은 이 맵의 모니터로 보호
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > maxEntries) {
+                unlinkDocuments(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleRejections = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 같은 범위(scope)에서 유사도가 임계값 이상인 가장 가까운 질문의 답변을 찾습니다.
+     * 출처 문서가 저장 이후 바뀌었거나 만료된 항목은 제거하고 미스로 처리합니다.
+     *
+     * @return 사용할 수 있는 캐시 답변, 없으면 null
+     */
+    public CachedAnswer lookup(String question, String scope) {
+        if (!enabled) {
+            return null;
+        }
+        float[] query = embed(question);
+        if (query == null) {
+            return null;
+        }
+
+        long bestId = -1;
+        Entry best = null;
+        float bestSimilarity = (float) similarityThreshold;
+        synchronized (entries) {
+            for (Map.Entry<Long, Entry> candidate : entries.entrySet()) {
+                Entry entry = candidate.getValue();
+                if (!entry.scope.equals(scope) || entry.embedding.length != query.length) {
+                    continue;
+                }
+                float similarity = VectorMath.dot(query, entry.embedding);
+                if (similarity >= bestSimilarity) {
+                    bestSimilarity = similarity;
+                    bestId = candidate.getKey();
+                    best = entry;
+                }
+            }
+            if (best != null) {
+                // LRU 순서 갱신
+                entries.get(bestId);
+            }
+        }
+
+        if (best == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (isExpired(best) || !sourcesUnchanged(best)) {
+            remove(bestId);
+            staleRejections.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        logger.debug("Semantic answer cache hit (similarity {}) for scope {}", bestSimilarity, scope);
+        return new CachedAnswer(best.answer, best.confidence, bestSimilarity, best.sourceVersions.keySet());
+    }
+
+    /**
+     * 답변과 출처 문서를 저장합니다. 출처 문서의 현재 수정 시각이 함께 기록됩니다.
+     */
+    public void store(String question, String scope, String answer, double confidence,
+                      List<KnowledgeRetriever.RelevantDocument> sources) {
+        if (!enabled || answer == null || answer.isBlank()) {
+            return;
+        }
+        float[] embedding = embed(question);
+        if (embedding == null) {
+            return;
+        }
+
+        Map<String, LocalDateTime> sourceVersions = new HashMap<>();
+        for (KnowledgeRetriever.RelevantDocument source : sources) {
+            sourceVersions.put(source.getDocument().getDocumentId(), source.getDocument().getLastUpdated());
+        }
+        Entry entry = new Entry(scope, embedding, answer, confidence, sourceVersions, LocalDateTime.now());
+
+        long id = nextEntryId.incrementAndGet();
+        synchronized (entries) {
+            for (String documentId : sourceVersions.keySet()) {
+                entriesByDocument.computeIfAbsent(documentId, key -> new HashSet<>()).add(id);
+            }
+            entries.put(id, entry);
+        }
+    }
+
+    /**
+     * 문서를 참조한 모든 캐시 답변을 제거합니다. 문서 수정·삭제 시 호출됩니다.
+     *
+     * @return 제거된 항목 수
+     */
+    public int invalidateDocument(String documentId) {
+        int removed = 0;
+        synchronized (entries) {
+            Set<Long> ids = entriesByDocument.remove(documentId);
+            if (ids != null) {
+                for (Long id : ids) {
+                    Entry entry = entries.remove(id);
+                    if (entry != null) {
+                        unlinkDocuments(id, entry);
+                        removed++;
+                    }
+                }
+            }
+        }
+        if (removed > 0) {
+            invalidations.addAndGet(removed);
+            logger.info("Invalidated {} cached answers referencing document: {}", removed, documentId);
+        }
+        return removed;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            entriesByDocument.clear();
+        }
+    }
+
+    public AnswerCacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new AnswerCacheStats(hits.get(), misses.get(), staleRejections.get(), invalidations.get(), size);
+    }
+
+    private float[] embed(String question) {
+        try {
+            // 검색 경로와 같은 임베딩 캐시를 쓰므로 같은 질문의 임베딩은 한 번만 계산됨
+            return VectorMath.normalize(embeddingCache.getEmbedding(question));
+        } catch (Exception e) {
+            logger.warn("Semantic answer cache skipped, question embedding failed", e);
+            return null;
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return ttlMinutes > 0
+                && entry.createdAt.plus(Duration.ofMinutes(ttlMinutes)).isBefore(LocalDateTime.now());
+    }
+
+    /**
+     * 다른 인스턴스에서 수정된 문서도 잡아내도록 출처 문서의 현재 수정 시각을 DB에서 확인합니다.
+     */
+    private boolean sourcesUnchanged(Entry entry) {
+        if (entry.sourceVersions.isEmpty()) {
+            return true;
+        }
+        Map<String, LocalDateTime> current = new HashMap<>();
+        for (Object[] row : knowledgeDocumentRepository.findLastUpdatedByDocumentIds(entry.sourceVersions.keySet())) {
+            current.put((String) row[0], (LocalDateTime) row[1]);
+        }
+        for (Map.Entry<String, LocalDateTime> source : entry.sourceVersions.entrySet()) {
+            if (!current.containsKey(source.getKey())
+                    || !sameVersion(current.get(source.getKey()), source.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * DB 컬럼 정밀도에 따라 잘린 소수 초 차이는 무시합니다.
+     */
+    private static boolean sameVersion(LocalDateTime current, LocalDateTime cached) {
+        if (current == null || cached == null) {
+            return Objects.equals(current, cached);
+        }
+        return current.truncatedTo(ChronoUnit.MILLIS).equals(cached.truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    private void remove(long id) {
+        synchronized (entries) {
+            Entry entry = entries.remove(id);
+            if (entry != null) {
+                unlinkDocuments(id, entry);
+            }
+        }
+    }
+
+    private void unlinkDocuments(long id, Entry entry) {
+        for (String documentId : entry.sourceVersions.keySet()) {
+            Set<Long> ids = entriesByDocument.get(documentId);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    entriesByDocument.remove(documentId);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String scope;
+        private final float[] embedding;
+        private final String answer;
+        private final double confidence;
+        private final Map<String, LocalDateTime> sourceVersions;
+        private final LocalDateTime createdAt;
+
+        private Entry(String scope, float[] embedding, String answer, double confidence,
+                      Map<String, LocalDateTime> sourceVersions, LocalDateTime createdAt) {
+            this.scope = scope;
+            this.embedding = embedding;
+            this.answer = answer;
+            this.confidence = confidence;
+            this.sourceVersions = sourceVersions;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * 캐시에서 찾은 답변
+     */
+    public static class CachedAnswer {
+        private final String answer;
+        private final double confidence;
+        private final double similarity;
+        private final Set<String> sourceDocumentIds;
+
+        public CachedAnswer(String answer, double confidence, double similarity, Set<String> sourceDocumentIds) {
+            this.answer = answer;
+            this.confidence = confidence;
+            this.similarity = similarity;
+            this.sourceDocumentIds = sourceDocumentIds;
+        }
+
+        public String getAnswer() { return answer; }
+        public double getConfidence() { return confidence; }
+        public double getSimilarity() { return similarity; }
+        public Set<String> getSourceDocumentIds() { return sourceDocumentIds; }
+    }
+
+    /**
+     * 답변 캐시 적중 통계
+     */
+    public static class AnswerCacheStats {
+        private final long hits;
+        private final long misses;
+        private final long staleRejections;
+        private final long invalidations;
+        private final int entries;
+
+        public AnswerCacheStats(long hits, long misses, long staleRejections, long invalidations, int entries) {
+            this.hits = hits;
+            this.misses = misses;
+            this.staleRejections = staleRejections;
+            this.invalidations = invalidations;
+            this.entries = entries;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getStaleRejections() { return staleRejections; }
+        public long getInvalidations() { return invalidations; }
+        public int getEntries() { return entries; }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
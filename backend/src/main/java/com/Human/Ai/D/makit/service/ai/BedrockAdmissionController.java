@@ -0,0 +1,136 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.bedrockruntime.model.ModelTimeoutException;
+import software.amazon.awssdk.services.bedrockruntime.model.ServiceQuotaExceededException;
+import software.amazon.awssdk.services.bedrockruntime.model.ThrottlingException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-model admission control in front of every Bedrock call. Each model id gets its own {@link ModelLimiter}
+ * with the configured request and token rates and an adaptive concurrency limit, so a throttled or slow
+ * model backs off without affecting the others. A single ticker thread admits queued calls as the buckets
+ * refill and expires calls that waited too long.
+ */
+@Service
+public class BedrockAdmissionController {
+
+    @Value("${aws.bedrock.admission.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${aws.bedrock.admission.requests-per-second:20}")
+    private double requestsPerSecond = 20;
+
+    @Value("${aws.bedrock.admission.tokens-per-minute:200000}")
+    private long tokensPerMinute = 200000;
+
+    @Value("${aws.bedrock.admission.initial-concurrency:16}")
+    private int initialConcurrency = 16;
+
+    @Value("${aws.bedrock.admission.min-concurrency:1}")
+    private int minConcurrency = 1;
+
+    @Value("${aws.bedrock.admission.max-concurrency:200}")
+    private int maxConcurrency = 200;
+
+    @Value("${aws.bedrock.admission.batch-share:0.5}")
+    private double batchShare = 0.5;
+
+    @Value("${aws.bedrock.admission.max-queued:1000}")
+    private int maxQueued = 1000;
+
+    @Value("${aws.bedrock.admission.max-wait-ms:30000}")
+    private long maxWaitMs = 30000;
+
+    private final Map<String, ModelLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bedrock-admission");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BedrockAdmissionController(@Value("${aws.bedrock.admission.tick-ms:50}") long tickMs) {
+        ticker.scheduleWithFixedDelay(() -> limiters.values().forEach(ModelLimiter::dispatch),
+                tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Waits for admission to call the given model. When admission control is disabled the permit is granted
+     * immediately and tracks nothing.
+     */
+    public CompletableFuture<ModelLimiter.Permit> acquire(String modelId, BedrockCallOptions.Priority priority,
+                                                          long estimatedTokens) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return limiters.computeIfAbsent(modelId, id -> new ModelLimiter(id, config()))
+                .acquire(priority, estimatedTokens);
+    }
+
+    /**
+     * Releases a permit from {@link #acquire}, classifying the call's failure (null on success).
+     */
+    public static void release(ModelLimiter.Permit permit, Throwable error) {
+        if (permit != null) {
+            permit.release(classify(error));
+        }
+    }
+
+    static ModelLimiter.Outcome classify(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error == null) {
+            return ModelLimiter.Outcome.SUCCESS;
+        }
+        if (error instanceof ThrottlingException || error instanceof ServiceQuotaExceededException) {
+            return ModelLimiter.Outcome.THROTTLED;
+        }
+        if (error instanceof SdkServiceException serviceError) {
+            if (serviceError.isThrottlingException()) {
+                return ModelLimiter.Outcome.THROTTLED;
+            }
+            return error instanceof ModelTimeoutException || serviceError.statusCode() >= 500
+                    ? ModelLimiter.Outcome.FAILED : ModelLimiter.Outcome.IGNORED;
+        }
+        // Client-side failures are timeouts and connection errors: the model did not answer in time
+        if (error instanceof SdkClientException) {
+            return ModelLimiter.Outcome.FAILED;
+        }
+        // Cancellations and local errors such as an unreadable response say nothing about capacity
+        return ModelLimiter.Outcome.IGNORED;
+    }
+
+    public List<ModelLimiter.Stats> getStats() {
+        return limiters.values().stream()
+                .map(ModelLimiter::getStats)
+                .sorted(Comparator.comparing(ModelLimiter.Stats::getModelId))
+                .toList();
+    }
+
+    private ModelLimiter.Config config() {
+        return new ModelLimiter.Config(requestsPerSecond, tokensPerMinute, initialConcurrency, minConcurrency,
+                maxConcurrency, batchShare, maxQueued, maxWaitMs);
+    }
+}
@@ -0,0 +1,117 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import java.time.Duration;
+
+/**
+ * Per-call-site policy for a Bedrock invocation. Immutable; call sites usually keep one as a constant.
+ */
+public final class BedrockCallOptions {
+
+    /**
+     * Admission lane. Interactive calls are always admitted ahead of queued batch calls, and batch calls may only
+     * use part of a model's concurrency so interactive traffic keeps headroom.
+     */
+    public enum Priority {
+        INTERACTIVE, BATCH
+    }
+
+    /**
+     * Interactive, no coalescing: every call goes upstream.
+     */
+    public static final BedrockCallOptions DEFAULT = builder().build();
+
+    /**
+     * Concurrent identical requests share one upstream call.
+     */
+    public static final BedrockCallOptions COALESCED = builder().coalesce(true).build();
+
+    /**
+     * Background work such as bulk reindexing, admitted behind interactive calls.
+     */
+    public static final BedrockCallOptions BATCH = builder().priority(Priority.BATCH).build();
+
+    /**
+     * Short, latency-critical call that may be hedged with a second request.
+     */
+    public static final BedrockCallOptions HEDGED = builder().hedge(true).build();
+
+    private final boolean coalesce;
+    private final Priority priority;
+    private final boolean hedge;
+    private final Duration cacheTtl;
+
+    private BedrockCallOptions(Builder builder) {
+        this.coalesce = builder.coalesce;
+        this.priority = builder.priority;
+        this.hedge = builder.hedge;
+        this.cacheTtl = builder.cacheTtl;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether an identical request (same model, same request body) already in flight is joined instead of
+     * sending another one. Only suitable where callers accept a shared result, e.g. scoring prompts and
+     * embeddings, not where each caller expects its own sample.
+     */
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Whether a second identical request is sent when the first is slower than the recent p95 of similar
+     * calls. Meant for short calls such as embeddings and intent classification, where a duplicate is cheap
+     * and waiting on a stuck request is not.
+     */
+    public boolean isHedge() {
+        return hedge;
+    }
+
+    /**
+     * How long a successful response may be served from {@link BedrockResponseCache} for an identical request,
+     * or null when the call is never cached. Only for call sites whose answer depends on nothing but the request,
+     * such as scoring and classification prompts.
+     */
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public static final class Builder {
+        private boolean coalesce;
+        private Priority priority = Priority.INTERACTIVE;
+        private boolean hedge;
+        private Duration cacheTtl;
+
+        private Builder() {}
+
+        public Builder coalesce(boolean coalesce) {
+            this.coalesce = coalesce;
+            return this;
+        }
+
+        public Builder priority(Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder hedge(boolean hedge) {
+            this.hedge = hedge;
+            return this;
+        }
+
+        public Builder cache(Duration ttl) {
+            this.cacheTtl = ttl;
+            return this;
+        }
+
+        public BedrockCallOptions build() {
+            return new BedrockCallOptions(this);
+        }
+    }
+}
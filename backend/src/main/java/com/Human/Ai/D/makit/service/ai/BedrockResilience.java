@@ -0,0 +1,323 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Retries, hedging and circuit breaking around Bedrock calls, in that order from the outside in.
+ * <ul>
+ *   <li>Throttled calls, server errors and timeouts are retried with capped exponential backoff and full
+ *       jitter, so clients that failed together do not retry together. Waits are scheduled on a delayed
+ *       executor; no thread sleeps.</li>
+ *   <li>Calls that opt into hedging start a second identical request when the first has not answered within
+ *       the recent p95 latency of similar calls, and take whichever answers first. Hedges are capped at a
+ *       fraction of hedged calls so a slow model is not hit with double load.</li>
+ *   <li>Each model has a {@link ModelCircuitBreaker}; while it is open, calls fail fast with
+ *       {@link RejectedExecutionException} and are not retried.</li>
+ * </ul>
+ * SDK-level retries are disabled on the client, so this is the only retry layer.
+ */
+@Service
+public class BedrockResilience {
+
+    private static final int LATENCY_SAMPLES = 256;
+
+    @Value("${aws.bedrock.retry.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${aws.bedrock.retry.base-delay-ms:200}")
+    private long baseDelayMs = 200;
+
+    @Value("${aws.bedrock.retry.max-delay-ms:5000}")
+    private long maxDelayMs = 5000;
+
+    @Value("${aws.bedrock.hedge.percentile:0.95}")
+    private double hedgePercentile = 0.95;
+
+    @Value("${aws.bedrock.hedge.min-delay-ms:50}")
+    private long hedgeMinDelayMs = 50;
+
+    @Value("${aws.bedrock.hedge.min-samples:20}")
+    private int hedgeMinSamples = 20;
+
+    @Value("${aws.bedrock.hedge.max-ratio:0.1}")
+    private double hedgeMaxRatio = 0.1;
+
+    @Value("${aws.bedrock.circuit.window-size:20}")
+    private int circuitWindowSize = 20;
+
+    @Value("${aws.bedrock.circuit.minimum-calls:10}")
+    private int circuitMinimumCalls = 10;
+
+    @Value("${aws.bedrock.circuit.failure-rate:0.5}")
+    private double circuitFailureRate = 0.5;
+
+    @Value("${aws.bedrock.circuit.open-ms:30000}")
+    private long circuitOpenMs = 30000;
+
+    private final Map<String, ModelCircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong hedgedCalls = new AtomicLong();
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    /**
+     * One upstream attempt. {@code stillNeeded} turns false once another attempt has already answered,
+     * so an attempt that was queued for admission can give up before calling Bedrock.
+     */
+    @FunctionalInterface
+    public interface Attempt<T> {
+        CompletableFuture<T> start(BooleanSupplier stillNeeded);
+    }
+
+    /**
+     * Runs the call with retries, the model's circuit breaker, and hedging when the options ask for it.
+     *
+     * @param latencyKey groups calls of similar expected latency for the hedge delay, e.g. model and output size
+     */
+    public <T> CompletableFuture<T> execute(String modelId, String latencyKey, BedrockCallOptions options,
+                                            Attempt<T> attempt) {
+        return withRetries(() -> guarded(modelId, () -> options.isHedge()
+                ? hedged(latencyKey, attempt)
+                : attempt.start(() -> true)), 1);
+    }
+
+    /**
+     * Applies only the circuit breaker, for calls that cannot be repeated such as streams that already
+     * handed out partial output.
+     */
+    public <T> CompletableFuture<T> protect(String modelId, Supplier<CompletableFuture<T>> call) {
+        return guarded(modelId, call);
+    }
+
+    private <T> CompletableFuture<T> withRetries(Supplier<CompletableFuture<T>> call, int attempt) {
+        return call.get()
+                .handle((value, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(value);
+                    }
+                    Throwable cause = unwrap(error);
+                    if (attempt >= maxAttempts || !isRetryable(cause)) {
+                        return CompletableFuture.<T>failedFuture(cause);
+                    }
+                    retries.incrementAndGet();
+                    Executor backoff = CompletableFuture.delayedExecutor(backoffMs(attempt), TimeUnit.MILLISECONDS);
+                    return CompletableFuture.runAsync(() -> {}, backoff)
+                            .thenCompose(ignored -> withRetries(call, attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^(attempt-1))]
+    private long backoffMs(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    static boolean isRetryable(Throwable error) {
+        ModelLimiter.Outcome outcome = BedrockAdmissionController.classify(error);
+        return outcome == ModelLimiter.Outcome.THROTTLED || outcome == ModelLimiter.Outcome.FAILED;
+    }
+
+    private <T> CompletableFuture<T> guarded(String modelId, Supplier<CompletableFuture<T>> call) {
+        ModelCircuitBreaker breaker = breakers.computeIfAbsent(modelId, id -> new ModelCircuitBreaker(
+                circuitWindowSize, circuitFailureRate, circuitMinimumCalls, circuitOpenMs));
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Circuit open for Bedrock model " + modelId));
+        }
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((value, error) -> breaker.record(BedrockAdmissionController.classify(error)));
+    }
+
+    /**
+     * Starts the attempt, and a second one after the hedge delay if the first has not completed.
+     * Completes with the first success, or fails once every started attempt has failed.
+     */
+    private <T> CompletableFuture<T> hedged(String latencyKey, Attempt<T> attempt) {
+        hedgedCalls.incrementAndGet();
+        LatencyWindow latency = latencies.computeIfAbsent(latencyKey, key -> new LatencyWindow());
+        long delayMs = latency.percentile(hedgePercentile, hedgeMinSamples);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        BooleanSupplier stillNeeded = () -> !result.isDone();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicBoolean answered = new AtomicBoolean();
+        start(attempt, stillNeeded, latency, result, pending, answered, false);
+        if (delayMs < 0) {
+            return result;
+        }
+
+        Executor hedgeTimer = CompletableFuture.delayedExecutor(Math.max(hedgeMinDelayMs, delayMs), TimeUnit.MILLISECONDS);
+        hedgeTimer.execute(() -> {
+            if (result.isDone() || !takeHedgeBudget()) {
+                return;
+            }
+            // Do not start a hedge once the first attempt has already failed the result
+            if (pending.getAndUpdate(count -> count == 0 ? 0 : count + 1) == 0) {
+                return;
+            }
+            start(attempt, stillNeeded, latency, result, pending, answered, true);
+        });
+        return result;
+    }
+
+    private <T> void start(Attempt<T> attempt, BooleanSupplier stillNeeded, LatencyWindow latency,
+                           CompletableFuture<T> result, AtomicInteger pending, AtomicBoolean answered,
+                           boolean hedge) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> call;
+        try {
+            call = attempt.start(stillNeeded);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((value, error) -> {
+            if (error == null) {
+                latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                // Count the hedge win before completing so callers observe it together with the answer
+                if (answered.compareAndSet(false, true)) {
+                    if (hedge) {
+                        hedgeWins.incrementAndGet();
+                    }
+                    result.complete(value);
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(unwrap(error));
+            }
+        });
+    }
+
+    private boolean takeHedgeBudget() {
+        while (true) {
+            long sent = hedgesSent.get();
+            if (sent + 1 > hedgedCalls.get() * hedgeMaxRatio) {
+                return false;
+            }
+            if (hedgesSent.compareAndSet(sent, sent + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    public Map<String, ModelCircuitBreaker.State> getCircuitStates() {
+        Map<String, ModelCircuitBreaker.State> states = new TreeMap<>();
+        breakers.forEach((modelId, breaker) -> states.put(modelId, breaker.getState()));
+        return states;
+    }
+
+    public ResilienceStats getStats() {
+        List<CircuitStats> circuits = breakers.entrySet().stream()
+                .map(entry -> new CircuitStats(entry.getKey(), entry.getValue().getState(),
+                        entry.getValue().getFailureRate(), entry.getValue().getRejectedCalls(),
+                        entry.getValue().getTimesOpened()))
+                .sorted(Comparator.comparing(CircuitStats::getModelId))
+                .toList();
+        return new ResilienceStats(retries.get(), hedgedCalls.get(), hedgesSent.get(), hedgeWins.get(), circuits);
+    }
+
+    /**
+     * Latencies of the most recent successful attempts for one kind of call
+     */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private int count;
+        private int next;
+
+        synchronized void record(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        // -1 until there are enough samples to trust the estimate
+        synchronized long percentile(double percentile, int minSamples) {
+            if (count < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+        }
+    }
+
+    public static class CircuitStats {
+        private final String modelId;
+        private final ModelCircuitBreaker.State state;
+        private final double failureRate;
+        private final long rejectedCalls;
+        private final long timesOpened;
+
+        public CircuitStats(String modelId, ModelCircuitBreaker.State state, double failureRate,
+                            long rejectedCalls, long timesOpened) {
+            this.modelId = modelId;
+            this.state = state;
+            this.failureRate = failureRate;
+            this.rejectedCalls = rejectedCalls;
+            this.timesOpened = timesOpened;
+        }
+
+        public String getModelId() { return modelId; }
+        public ModelCircuitBreaker.State getState() { return state; }
+        public double getFailureRate() { return failureRate; }
+        public long getRejectedCalls() { return rejectedCalls; }
+        public long getTimesOpened() { return timesOpened; }
+    }
+
+    public static class ResilienceStats {
+        private final long retries;
+        private final long hedgedCalls;
+        private final long hedgesSent;
+        private final long hedgeWins;
+        private final List<CircuitStats> circuits;
+
+        public ResilienceStats(long retries, long hedgedCalls, long hedgesSent, long hedgeWins,
+                               List<CircuitStats> circuits) {
+            this.retries = retries;
+            this.hedgedCalls = hedgedCalls;
+            this.hedgesSent = hedgesSent;
+            this.hedgeWins = hedgeWins;
+            this.circuits = circuits;
+        }
+
+        public long getRetries() { return retries; }
+        public long getHedgedCalls() { return hedgedCalls; }
+        public long getHedgesSent() { return hedgesSent; }
+        public long getHedgeWins() { return hedgeWins; }
+        public List<CircuitStats> getCircuits() { return circuits; }
+    }
+}
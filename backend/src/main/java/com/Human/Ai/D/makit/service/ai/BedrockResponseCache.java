@@ -0,0 +1,261 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed cache of Bedrock responses for call sites that opt in through
+ * {@link BedrockCallOptions#getCacheTtl()}. The key is the model id, the request temperature and a SHA-256 of
+ * the request JSON with object keys sorted, so requests that differ only in field order or number formatting
+ * share an entry. Lookups go through a bounded in-process LRU holding parsed responses, then Redis, where
+ * responses are stored gzip-compressed with their expiry so both tiers honour the call site's TTL.
+ */
+@Service
+public class BedrockResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(BedrockResponseCache.class);
+    private static final String KEY_PREFIX = "bedrock-response::";
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${aws.bedrock.response-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${aws.bedrock.response-cache.local-max-entries:5000}")
+    private int localMaxEntries = 5000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // access-ordered LinkedHashMap as a bounded LRU
+    private final Map<String, Entry> localCache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > localMaxEntries;
+        }
+    };
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached response, or null on a miss. The returned tree is shared and must not be modified.
+     */
+    public JsonNode get(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (localCache) {
+            Entry entry = localCache.get(key);
+            if (entry != null) {
+                if (entry.expiresAtMillis > now) {
+                    localHits.incrementAndGet();
+                    return entry.response;
+                }
+                localCache.remove(key);
+            }
+        }
+
+        Entry entry = readRedis(key, now);
+        if (entry != null) {
+            redisHits.incrementAndGet();
+            putLocal(key, entry);
+            return entry.response;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, JsonNode response, Duration ttl) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        Entry entry = new Entry(response, System.currentTimeMillis() + ttl.toMillis());
+        putLocal(key, entry);
+        writeRedis(key, entry, ttl);
+    }
+
+    /**
+     * Cache key for a request: model id, temperature (or "-" when the body has none) and the canonical body hash.
+     */
+    public String key(String modelId, String jsonBody) {
+        try {
+            JsonNode canonical = canonicalize(objectMapper.readTree(jsonBody));
+            JsonNode temperature = canonical.findValue("temperature");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(objectMapper.writeValueAsBytes(canonical));
+            return KEY_PREFIX + modelId + ":" + (temperature != null && temperature.isNumber() ? temperature.asText() : "-")
+                    + ":" + HexFormat.of().formatHex(hash);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Request body is not valid JSON", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Copies the tree with every object's fields in name order. Numbers are re-serialized from their parsed
+     * value, so 0.50 and 0.5 produce the same bytes.
+     */
+    static JsonNode canonicalize(JsonNode node) {
+        if (node.isObject()) {
+            List<String> names = new ArrayList<>();
+            node.fieldNames().forEachRemaining(names::add);
+            names.sort(null);
+            ObjectNode sorted = ((ObjectNode) node).objectNode();
+            for (String name : names) {
+                sorted.set(name, canonicalize(node.get(name)));
+            }
+            return sorted;
+        }
+        if (node.isArray()) {
+            ArrayNode copy = ((ArrayNode) node).arrayNode();
+            for (Iterator<JsonNode> elements = node.elements(); elements.hasNext(); ) {
+                copy.add(canonicalize(elements.next()));
+            }
+            return copy;
+        }
+        return node;
+    }
+
+    private void putLocal(String key, Entry entry) {
+        synchronized (localCache) {
+            localCache.put(key, entry);
+        }
+    }
+
+    // Stored as "<expiresAtMillis>:<Base64 of gzipped response JSON>"
+    private Entry readRedis(String key, long now) {
+        try {
+            Object value = redisTemplate.opsForValue().get(key);
+            if (value instanceof String stored) {
+                int separator = stored.indexOf(':');
+                long expiresAt = Long.parseLong(stored.substring(0, separator));
+                if (expiresAt <= now) {
+                    return null;
+                }
+                byte[] json = gunzip(Base64.getDecoder().decode(stored.substring(separator + 1)));
+                return new Entry(objectMapper.readTree(json), expiresAt);
+            }
+        } catch (Exception e) {
+            logger.warn("Bedrock response cache read from Redis failed for key: {}", key, e);
+        }
+        return null;
+    }
+
+    private void writeRedis(String key, Entry entry, Duration ttl) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(entry.response);
+            byte[] compressed = gzip(json);
+            rawBytes.addAndGet(json.length);
+            storedBytes.addAndGet(compressed.length);
+            String stored = entry.expiresAtMillis + ":" + Base64.getEncoder().encodeToString(compressed);
+            redisTemplate.opsForValue().set(key, stored, ttl.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            logger.warn("Bedrock response cache write to Redis failed for key: {}", key, e);
+        }
+    }
+
+    static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] gunzip(byte[] data) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    public ResponseCacheStats getStats() {
+        int localSize;
+        synchronized (localCache) {
+            localSize = localCache.size();
+        }
+        return new ResponseCacheStats(localHits.get(), redisHits.get(), misses.get(), localSize,
+                rawBytes.get(), storedBytes.get());
+    }
+
+    private static final class Entry {
+        private final JsonNode response;
+        private final long expiresAtMillis;
+
+        private Entry(JsonNode response, long expiresAtMillis) {
+            this.response = response;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    /**
+     * Hit counters for the response cache tiers and the compression achieved on Redis writes
+     */
+    public static class ResponseCacheStats {
+        private final long localHits;
+        private final long redisHits;
+        private final long misses;
+        private final int localEntries;
+        private final long rawBytesWritten;
+        private final long compressedBytesWritten;
+
+        public ResponseCacheStats(long localHits, long redisHits, long misses, int localEntries,
+                                  long rawBytesWritten, long compressedBytesWritten) {
+            this.localHits = localHits;
+            this.redisHits = redisHits;
+            this.misses = misses;
+            this.localEntries = localEntries;
+            this.rawBytesWritten = rawBytesWritten;
+            this.compressedBytesWritten = compressedBytesWritten;
+        }
+
+        public long getLocalHits() { return localHits; }
+        public long getRedisHits() { return redisHits; }
+        public long getMisses() { return misses; }
+        public int getLocalEntries() { return localEntries; }
+        public long getRawBytesWritten() { return rawBytesWritten; }
+        public long getCompressedBytesWritten() { return compressedBytesWritten; }
+
+        public double getHitRatio() {
+            long total = localHits + redisHits + misses;
+            return total == 0 ? 0.0 : (double) (localHits + redisHits) / total;
+        }
+
+        public double getCompressionRatio() {
+            return compressedBytesWritten == 0 ? 0.0 : (double) rawBytesWritten / compressedBytesWritten;
+        }
+    }
+}
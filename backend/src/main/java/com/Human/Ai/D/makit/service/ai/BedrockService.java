@@ -2,64 +2,199 @@ package com.Human.Ai.D.makit.service.ai;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.Human.Ai.D.makit.service.retrieval.DocumentChunker;
+import com.Human.Ai.D.makit.service.retrieval.EmbeddingCodec;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelRequest;
-import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelResponse;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithResponseStreamRequest;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithResponseStreamResponseHandler;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * Facade over Bedrock model invocation. Every call goes through the non-blocking
+ * {@link BedrockRuntimeAsyncClient} on a Netty connection pool, so an in-flight model call holds a pooled
+ * connection rather than a thread. The {@code *Async} methods return futures completed on the SDK's
+ * completion executor; the synchronous methods are thin wrappers that wait on them.
+ * Call sites pass {@link BedrockCallOptions} to opt into per-call policies such as coalescing.
+ * Each upstream call first waits for a permit from {@link BedrockAdmissionController}, which paces calls
+ * per model and lets interactive calls ahead of batch work. Retries, hedging and per-model circuit breaking
+ * are handled by {@link BedrockResilience}; the SDK's own retries are turned off so failures are not retried
+ * at two layers. Call sites that opt in with a cache TTL are served from {@link BedrockResponseCache} when
+ * an identical request was answered recently.
+ */
 @Service
 public class BedrockService {
     
-    private final BedrockRuntimeClient bedrockClient;
+    public static final String EMBEDDING_MODEL_ID = "amazon.titan-embed-text-v1";
+    
+    private static final String CLAUDE_MODEL_ID = "anthropic.claude-v2";
+    private static final String TITAN_TEXT_MODEL_ID = "amazon.titan-text-express-v1";
+    private static final String STABLE_DIFFUSION_MODEL_ID = "stability.stable-diffusion-xl-v1";
+    
+    private final SdkAsyncHttpClient httpClient;
+    private final BedrockRuntimeAsyncClient bedrockAsyncClient;
     private final ObjectMapper objectMapper;
+    // Identical in-flight requests, keyed by model id and request body hash
+    private final SingleFlight<String, JsonNode> inFlightRequests = new SingleFlight<>();
+    
+    @Autowired
+    private BedrockAdmissionController admissionController;
     
-    @Value("${aws.region:us-east-1}")
-    private String awsRegion;
+    @Autowired
+    private BedrockResilience resilience;
     
-    public BedrockService() {
-        this.bedrockClient = BedrockRuntimeClient.builder()
-                .region(Region.of("us-east-1"))
+    @Autowired
+    private BedrockResponseCache responseCache;
+    
+    public BedrockService(@Value("${aws.region:us-east-1}") String awsRegion,
+                          @Value("${aws.bedrock.http.max-concurrency:500}") int maxConcurrency,
+                          @Value("${aws.bedrock.http.max-pending-acquires:10000}") int maxPendingAcquires,
+                          @Value("${aws.bedrock.http.connection-timeout-ms:2000}") long connectionTimeoutMs,
+                          @Value("${aws.bedrock.http.acquire-timeout-ms:10000}") long acquireTimeoutMs,
+                          @Value("${aws.bedrock.http.read-timeout-ms:120000}") long readTimeoutMs) {
+        // Model calls are long and mostly idle on the wire: size the pool for concurrent calls, not for threads
+        this.httpClient = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(maxConcurrency)
+                .maxPendingConnectionAcquires(maxPendingAcquires)
+                .connectionTimeout(Duration.ofMillis(connectionTimeoutMs))
+                .connectionAcquisitionTimeout(Duration.ofMillis(acquireTimeoutMs))
+                .readTimeout(Duration.ofMillis(readTimeoutMs))
+                .writeTimeout(Duration.ofMillis(connectionTimeoutMs * 5))
+                .connectionMaxIdleTime(Duration.ofSeconds(60))
+                .tcpKeepAlive(true)
+                .build();
+        this.bedrockAsyncClient = BedrockRuntimeAsyncClient.builder()
+                .region(Region.of(awsRegion))
                 .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClient(httpClient)
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .retryPolicy(RetryPolicy.none())
+                        .build())
                 .build();
         this.objectMapper = new ObjectMapper();
     }
     
+    @PreDestroy
+    public void shutdown() {
+        bedrockAsyncClient.close();
+        httpClient.close();
+    }
+    
+    public CompletableFuture<String> generateTextWithClaudeAsync(String prompt, int maxTokens) {
+        return generateTextWithClaudeAsync(prompt, maxTokens, BedrockCallOptions.DEFAULT);
+    }
+    
+    public CompletableFuture<String> generateTextWithClaudeAsync(String prompt, int maxTokens, BedrockCallOptions options) {
+        try {
+            return invokeModel(CLAUDE_MODEL_ID, claudeRequestBody(prompt, maxTokens), maxTokens, options)
+                    .thenApply(json -> json.get("completion").asText().trim())
+                    .exceptionally(failure("Failed to generate text with Claude"));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Failed to generate text with Claude: " + e.getMessage(), e));
+        }
+    }
+    
     public String generateTextWithClaude(String prompt, int maxTokens) {
+        return generateTextWithClaude(prompt, maxTokens, BedrockCallOptions.DEFAULT);
+    }
+    
+    public String generateTextWithClaude(String prompt, int maxTokens, BedrockCallOptions options) {
+        return await(generateTextWithClaudeAsync(prompt, maxTokens, options));
+    }
+    
+    /**
+     * Streams a Claude completion, handing each text delta to onDelta as Bedrock emits it.
+     * Deltas arrive on an SDK event-loop thread, in order; leading whitespace of the completion is dropped
+     * so the concatenated deltas equal the trimmed text the returned future completes with.
+     */
+    public CompletableFuture<String> streamTextWithClaude(String prompt, int maxTokens, Consumer<String> onDelta) {
         try {
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("prompt", "\n\nHuman: " + prompt + "\n\nAssistant:");
-            requestBody.put("max_tokens_to_sample", maxTokens);
-            requestBody.put("temperature", 0.7);
-            requestBody.put("top_p", 0.9);
-            
-            String jsonBody = objectMapper.writeValueAsString(requestBody);
-            
-            InvokeModelRequest request = InvokeModelRequest.builder()
-                    .modelId("anthropic.claude-v2")
-                    .body(SdkBytes.fromUtf8String(jsonBody))
+            InvokeModelWithResponseStreamRequest request = InvokeModelWithResponseStreamRequest.builder()
+                    .modelId(CLAUDE_MODEL_ID)
+                    .body(SdkBytes.fromUtf8String(claudeRequestBody(prompt, maxTokens)))
                     .contentType("application/json")
                     .accept("application/json")
                     .build();
             
-            InvokeModelResponse response = bedrockClient.invokeModel(request);
-            String responseBody = response.body().asUtf8String();
+            StringBuilder completion = new StringBuilder();
+            InvokeModelWithResponseStreamResponseHandler handler = InvokeModelWithResponseStreamResponseHandler.builder()
+                    .subscriber(InvokeModelWithResponseStreamResponseHandler.Visitor.builder()
+                            .onChunk(chunk -> {
+                                String delta = readCompletionDelta(chunk.bytes().asUtf8String());
+                                if (completion.length() == 0) {
+                                    delta = delta.stripLeading();
+                                }
+                                if (!delta.isEmpty()) {
+                                    completion.append(delta);
+                                    onDelta.accept(delta);
+                                }
+                            })
+                            .build())
+                    .build();
             
-            JsonNode jsonResponse = objectMapper.readTree(responseBody);
-            return jsonResponse.get("completion").asText().trim();
+            // Not retried: deltas already handed to onDelta cannot be taken back
+            return resilience.protect(CLAUDE_MODEL_ID, () -> admitted(CLAUDE_MODEL_ID, request.body().asUtf8String(),
+                    maxTokens, BedrockCallOptions.DEFAULT, () -> bedrockAsyncClient.invokeModelWithResponseStream(request, handler)))
+                    .thenApply(done -> completion.toString().stripTrailing())
+                    .exceptionally(failure("Failed to stream text with Claude"));
             
         } catch (Exception e) {
-            throw new RuntimeException("Failed to generate text with Claude: " + e.getMessage(), e);
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Failed to stream text with Claude: " + e.getMessage(), e));
         }
     }
     
-    public String generateTextWithTitan(String prompt, int maxTokens) {
+    private String claudeRequestBody(String prompt, int maxTokens) throws IOException {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("prompt", "\n\nHuman: " + prompt + "\n\nAssistant:");
+        requestBody.put("max_tokens_to_sample", maxTokens);
+        requestBody.put("temperature", 0.7);
+        requestBody.put("top_p", 0.9);
+        return objectMapper.writeValueAsString(requestBody);
+    }
+    
+    private String readCompletionDelta(String chunkJson) {
+        try {
+            return objectMapper.readTree(chunkJson).path("completion").asText("");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public CompletableFuture<String> generateTextWithTitanAsync(String prompt, int maxTokens) {
+        return generateTextWithTitanAsync(prompt, maxTokens, BedrockCallOptions.DEFAULT);
+    }
+    
+    public CompletableFuture<String> generateTextWithTitanAsync(String prompt, int maxTokens, BedrockCallOptions options) {
         try {
             Map<String, Object> textGenerationConfig = new HashMap<>();
             textGenerationConfig.put("maxTokenCount", maxTokens);
@@ -70,27 +205,21 @@ public class BedrockService {
             requestBody.put("inputText", prompt);
             requestBody.put("textGenerationConfig", textGenerationConfig);
             
-            String jsonBody = objectMapper.writeValueAsString(requestBody);
-            
-            InvokeModelRequest request = InvokeModelRequest.builder()
-                    .modelId("amazon.titan-text-express-v1")
-                    .body(SdkBytes.fromUtf8String(jsonBody))
-                    .contentType("application/json")
-                    .accept("application/json")
-                    .build();
-            
-            InvokeModelResponse response = bedrockClient.invokeModel(request);
-            String responseBody = response.body().asUtf8String();
-            
-            JsonNode jsonResponse = objectMapper.readTree(responseBody);
-            return jsonResponse.get("results").get(0).get("outputText").asText().trim();
+            return invokeModel(TITAN_TEXT_MODEL_ID, objectMapper.writeValueAsString(requestBody), maxTokens, options)
+                    .thenApply(json -> json.get("results").get(0).get("outputText").asText().trim())
+                    .exceptionally(failure("Failed to generate text with Titan"));
             
         } catch (Exception e) {
-            throw new RuntimeException("Failed to generate text with Titan: " + e.getMessage(), e);
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Failed to generate text with Titan: " + e.getMessage(), e));
         }
     }
     
-    public String generateImageWithStableDiffusion(String prompt, int width, int height) {
+    public String generateTextWithTitan(String prompt, int maxTokens) {
+        return await(generateTextWithTitanAsync(prompt, maxTokens));
+    }
+    
+    public CompletableFuture<String> generateImageWithStableDiffusionAsync(String prompt, int width, int height) {
         try {
             Map<String, Object> requestBody = new HashMap<>();
             requestBody.put("text_prompts", new Object[]{
@@ -102,72 +231,264 @@ public class BedrockService {
             requestBody.put("width", width);
             requestBody.put("height", height);
             
-            String jsonBody = objectMapper.writeValueAsString(requestBody);
-            
-            InvokeModelRequest request = InvokeModelRequest.builder()
-                    .modelId("stability.stable-diffusion-xl-v1")
-                    .body(SdkBytes.fromUtf8String(jsonBody))
-                    .contentType("application/json")
-                    .accept("application/json")
-                    .build();
-            
-            InvokeModelResponse response = bedrockClient.invokeModel(request);
-            String responseBody = response.body().asUtf8String();
-            
-            JsonNode jsonResponse = objectMapper.readTree(responseBody);
-            return jsonResponse.get("artifacts").get(0).get("base64").asText();
+            return invokeModel(STABLE_DIFFUSION_MODEL_ID, objectMapper.writeValueAsString(requestBody), 0,
+                    BedrockCallOptions.DEFAULT)
+                    .thenApply(json -> json.get("artifacts").get(0).get("base64").asText())
+                    .exceptionally(failure("Failed to generate image with Stable Diffusion"));
             
         } catch (Exception e) {
-            throw new RuntimeException("Failed to generate image with Stable Diffusion: " + e.getMessage(), e);
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Failed to generate image with Stable Diffusion: " + e.getMessage(), e));
         }
     }
     
+    public String generateImageWithStableDiffusion(String prompt, int width, int height) {
+        return await(generateImageWithStableDiffusionAsync(prompt, width, height));
+    }
+    
+    public CompletableFuture<String> generateEmbeddingAsync(String text) {
+        return invokeEmbeddingModel(text, BedrockCallOptions.DEFAULT)
+                .thenApply(embedding -> {
+                    try {
+                        // Convert embedding array to string representation
+                        return objectMapper.writeValueAsString(embedding);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .exceptionally(failure("Failed to generate embedding"));
+    }
+    
     public String generateEmbedding(String text) {
+        return await(generateEmbeddingAsync(text));
+    }
+    
+    /**
+     * Generates an embedding decoded straight into a float array, skipping the JSON string round trip
+     */
+    public CompletableFuture<float[]> generateEmbeddingVectorAsync(String text) {
+        return generateEmbeddingVectorAsync(text, BedrockCallOptions.DEFAULT);
+    }
+    
+    /**
+     * With coalescing, concurrent callers embedding the same text receive the same array, which must not be modified
+     */
+    public CompletableFuture<float[]> generateEmbeddingVectorAsync(String text, BedrockCallOptions options) {
+        return invokeEmbeddingModel(text, options)
+                .thenApply(EmbeddingCodec::fromJsonNode)
+                .exceptionally(failure("Failed to generate embedding"));
+    }
+    
+    public float[] generateEmbeddingVector(String text) {
+        return generateEmbeddingVector(text, BedrockCallOptions.DEFAULT);
+    }
+    
+    public float[] generateEmbeddingVector(String text, BedrockCallOptions options) {
+        return await(generateEmbeddingVectorAsync(text, options));
+    }
+    
+    private CompletableFuture<JsonNode> invokeEmbeddingModel(String text, BedrockCallOptions options) {
         try {
             Map<String, Object> requestBody = new HashMap<>();
             requestBody.put("inputText", text);
-            
-            String jsonBody = objectMapper.writeValueAsString(requestBody);
-            
-            InvokeModelRequest request = InvokeModelRequest.builder()
-                    .modelId("amazon.titan-embed-text-v1")
-                    .body(SdkBytes.fromUtf8String(jsonBody))
-                    .contentType("application/json")
-                    .accept("application/json")
-                    .build();
-            
-            InvokeModelResponse response = bedrockClient.invokeModel(request);
-            String responseBody = response.body().asUtf8String();
-            
-            JsonNode jsonResponse = objectMapper.readTree(responseBody);
-            JsonNode embedding = jsonResponse.get("embedding");
-            
-            // Convert embedding array to string representation
-            return objectMapper.writeValueAsString(embedding);
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate embedding: " + e.getMessage(), e);
+            return invokeModel(EMBEDDING_MODEL_ID, objectMapper.writeValueAsString(requestBody), 0, options)
+                    .thenApply(json -> json.get("embedding"));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private CompletableFuture<JsonNode> invokeModel(String modelId, String jsonBody, int maxOutputTokens,
+                                                    BedrockCallOptions options) {
+        if (options.getCacheTtl() != null && responseCache.isEnabled()) {
+            String cacheKey = responseCache.key(modelId, jsonBody);
+            JsonNode cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            return uncachedRequest(modelId, jsonBody, maxOutputTokens, options)
+                    .thenApply(response -> {
+                        responseCache.put(cacheKey, response, options.getCacheTtl());
+                        return response;
+                    });
+        }
+        return uncachedRequest(modelId, jsonBody, maxOutputTokens, options);
+    }
+    
+    private CompletableFuture<JsonNode> uncachedRequest(String modelId, String jsonBody, int maxOutputTokens,
+                                                        BedrockCallOptions options) {
+        if (options.isCoalesce()) {
+            // The body carries the prompt and every sampling parameter, so equal keys mean equal requests.
+            // Only the leader waits for admission; joiners add no upstream load.
+            return inFlightRequests.execute(requestKey(modelId, jsonBody),
+                    () -> resilientRequest(modelId, jsonBody, maxOutputTokens, options));
+        }
+        return resilientRequest(modelId, jsonBody, maxOutputTokens, options);
+    }
+    
+    // Every retry and hedge goes back through admission, so extra attempts respect the model's limits
+    private CompletableFuture<JsonNode> resilientRequest(String modelId, String jsonBody, int maxOutputTokens,
+                                                         BedrockCallOptions options) {
+        return resilience.execute(modelId, modelId + "/" + maxOutputTokens, options,
+                stillNeeded -> admitted(modelId, jsonBody, maxOutputTokens, options,
+                        () -> stillNeeded.getAsBoolean()
+                                ? sendRequest(modelId, jsonBody)
+                                : CompletableFuture.failedFuture(new CancellationException("Hedged request no longer needed"))));
+    }
+    
+    /**
+     * Runs the call once admitted and reports its outcome back to the model's limiter.
+     * The token estimate covers the request body and the most the model may generate.
+     */
+    private <T> CompletableFuture<T> admitted(String modelId, String jsonBody, int maxOutputTokens,
+                                              BedrockCallOptions options, Supplier<CompletableFuture<T>> call) {
+        long estimatedTokens = DocumentChunker.estimateTokens(jsonBody) + (long) maxOutputTokens;
+        return admissionController.acquire(modelId, options.getPriority(), estimatedTokens)
+                .thenCompose(permit -> {
+                    CompletableFuture<T> result;
+                    try {
+                        result = call.get();
+                    } catch (RuntimeException e) {
+                        result = CompletableFuture.failedFuture(e);
+                    }
+                    return result.whenComplete((value, error) -> BedrockAdmissionController.release(permit, error));
+                });
+    }
+    
+    private CompletableFuture<JsonNode> sendRequest(String modelId, String jsonBody) {
+        InvokeModelRequest request = InvokeModelRequest.builder()
+                .modelId(modelId)
+                .body(SdkBytes.fromUtf8String(jsonBody))
+                .contentType("application/json")
+                .accept("application/json")
+                .build();
+        
+        return bedrockAsyncClient.invokeModel(request)
+                .thenApply(response -> {
+                    try {
+                        return objectMapper.readTree(response.body().asUtf8String());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+    
+    static String requestKey(String modelId, String jsonBody) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return modelId + ":" + HexFormat.of().formatHex(digest.digest(jsonBody.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Admission state per model: concurrency limit, queue depths, bucket levels and outcome counts
+     */
+    public List<ModelLimiter.Stats> getAdmissionStats() {
+        return admissionController.getStats();
+    }
+    
+    /**
+     * Retry and hedge counts and the circuit breaker state per model
+     */
+    public BedrockResilience.ResilienceStats getResilienceStats() {
+        return resilience.getStats();
+    }
+    
+    public Map<String, ModelCircuitBreaker.State> getCircuitStates() {
+        return resilience.getCircuitStates();
+    }
+    
+    /**
+     * Hit ratio and compression of the response cache for call sites that opted into caching
+     */
+    public BedrockResponseCache.ResponseCacheStats getResponseCacheStats() {
+        return responseCache.getStats();
+    }
+    
+    /**
+     * Upstream and coalesced call counts for requests that opted into coalescing
+     */
+    public CoalescingStats getCoalescingStats() {
+        return new CoalescingStats(inFlightRequests.getCalls(), inFlightRequests.getCoalesced(),
+                inFlightRequests.getInFlight());
+    }
+    
+    /**
+     * Rethrows a failed stage as a RuntimeException carrying the operation name and the root message
+     */
+    private static <T> Function<Throwable, T> failure(String operation) {
+        return e -> {
+            Throwable cause = unwrap(e);
+            throw new RuntimeException(operation + ": " + cause.getMessage(), cause);
+        };
+    }
+    
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+    
+    /**
+     * Waits for an async call, rethrowing its failure unwrapped so sync callers see the same exceptions as before
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
         }
     }
 
     /**
      * Generic text generation method that uses Claude by default
      */
-    public String generateText(String prompt, String modelId) {
-        if (modelId == null || modelId.contains("claude")) {
-            return generateTextWithClaude(prompt, 1000);
-        } else if (modelId.contains("titan")) {
-            return generateTextWithTitan(prompt, 1000);
-        } else {
-            // Default to Claude
-            return generateTextWithClaude(prompt, 1000);
+    public CompletableFuture<String> generateTextAsync(String prompt, String modelId) {
+        return generateTextAsync(prompt, modelId, BedrockCallOptions.DEFAULT);
+    }
+    
+    public CompletableFuture<String> generateTextAsync(String prompt, String modelId, BedrockCallOptions options) {
+        if (modelId != null && !modelId.contains("claude") && modelId.contains("titan")) {
+            return generateTextWithTitanAsync(prompt, 1000, options);
         }
+        return generateTextWithClaudeAsync(prompt, 1000, options);
+    }
+    
+    public String generateText(String prompt, String modelId) {
+        return await(generateTextAsync(prompt, modelId));
+    }
+    
+    public CompletableFuture<String> generateTextAsync(String prompt) {
+        return generateTextWithClaudeAsync(prompt, 1000);
     }
 
     /**
      * Simple text generation method with default parameters
      */
     public String generateText(String prompt) {
-        return generateTextWithClaude(prompt, 1000);
+        return await(generateTextAsync(prompt));
+    }
+
+    public static class CoalescingStats {
+        private final long upstreamCalls;
+        private final long coalescedCalls;
+        private final int inFlight;
+        
+        public CoalescingStats(long upstreamCalls, long coalescedCalls, int inFlight) {
+            this.upstreamCalls = upstreamCalls;
+            this.coalescedCalls = coalescedCalls;
+            this.inFlight = inFlight;
+        }
+        
+        public long getUpstreamCalls() { return upstreamCalls; }
+        public long getCoalescedCalls() { return coalescedCalls; }
+        public int getInFlight() { return inFlight; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import com.Human.Ai.D.makit.service.retrieval.EmbeddingCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed embedding cache shared by knowledge ingestion and query retrieval.
+ * Keys are the embedding model id plus a SHA-256 of the normalized text, so an unchanged chunk or a repeated
+ * question never goes back to Bedrock. Lookups go through a bounded in-process LRU first, then Redis, where
+ * vectors are stored as Base64 of packed little-endian float32.
+ */
+@Service
+public class EmbeddingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingCache.class);
+    private static final String KEY_PREFIX = "embedding::";
+    // Interactive lookups sit on the chat path: hedge a stuck call
+    static final BedrockCallOptions INTERACTIVE_OPTIONS = BedrockCallOptions.builder()
+            .coalesce(true)
+            .hedge(true)
+            .build();
+    private static final BedrockCallOptions BULK_OPTIONS = BedrockCallOptions.builder()
+            .coalesce(true)
+            .priority(BedrockCallOptions.Priority.BATCH)
+            .build();
+
+    @Autowired
+    private BedrockService bedrockService;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${knowledge.embedding-cache.local-max-entries:2000}")
+    private int localMaxEntries = 2000;
+
+    @Value("${knowledge.embedding-cache.redis-ttl-hours:720}")
+    private long redisTtlHours = 720;
+
+    // access-ordered LinkedHashMap as a bounded LRU
+    private final Map<String, float[]> localCache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+            return size() > localMaxEntries;
+        }
+    };
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Returns the embedding for the text, calling Bedrock only when neither cache tier has it.
+     * The returned array is shared with the cache and must not be modified.
+     */
+    public float[] getEmbedding(String text) {
+        return getEmbedding(text, null);
+    }
+
+    /**
+     * Same as {@link #getEmbedding(String)}, but waits on the limiter before a Bedrock call and is admitted
+     * in the batch lane, behind interactive calls. Cache hits are never throttled, so bulk jobs only pay for
+     * texts that actually need embedding.
+     */
+    public float[] getEmbedding(String text, RateLimiter bedrockLimiter) {
+        String normalized = normalize(text);
+        String key = cacheKey(BedrockService.EMBEDDING_MODEL_ID, normalized);
+
+        float[] cached;
+        synchronized (localCache) {
+            cached = localCache.get(key);
+        }
+        if (cached != null) {
+            localHits.incrementAndGet();
+            return cached;
+        }
+
+        cached = readRedis(key);
+        if (cached != null) {
+            redisHits.incrementAndGet();
+            putLocal(key, cached);
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        if (bedrockLimiter != null) {
+            bedrockLimiter.acquire();
+        }
+        // Concurrent misses for the same text share one Bedrock call
+        float[] embedding = bedrockService.generateEmbeddingVector(normalized,
+                bedrockLimiter != null ? BULK_OPTIONS : INTERACTIVE_OPTIONS);
+        putLocal(key, embedding);
+        writeRedis(key, embedding);
+        return embedding;
+    }
+
+    public EmbeddingCacheStats getStats() {
+        int localSize;
+        synchronized (localCache) {
+            localSize = localCache.size();
+        }
+        return new EmbeddingCacheStats(localHits.get(), redisHits.get(), misses.get(), localSize);
+    }
+
+    /**
+     * Unicode NFC, trimmed, with whitespace runs collapsed to a single space.
+     */
+    static String normalize(String text) {
+        String composed = Normalizer.normalize(text == null ? "" : text, Normalizer.Form.NFC);
+        return composed.trim().replaceAll("\\s+", " ");
+    }
+
+    static String cacheKey(String modelId, String normalizedText) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(normalizedText.getBytes(StandardCharsets.UTF_8));
+            return KEY_PREFIX + modelId + ":" + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void putLocal(String key, float[] embedding) {
+        synchronized (localCache) {
+            localCache.put(key, embedding);
+        }
+    }
+
+    private float[] readRedis(String key) {
+        try {
+            Object value = redisTemplate.opsForValue().get(key);
+            if (value instanceof String encoded) {
+                return EmbeddingCodec.decode(Base64.getDecoder().decode(encoded));
+            }
+        } catch (Exception e) {
+            logger.warn("Embedding cache read from Redis failed for key: {}", key, e);
+        }
+        return null;
+    }
+
+    private void writeRedis(String key, float[] embedding) {
+        try {
+            String encoded = Base64.getEncoder().encodeToString(EmbeddingCodec.encode(embedding));
+            redisTemplate.opsForValue().set(key, encoded, redisTtlHours, TimeUnit.HOURS);
+        } catch (Exception e) {
+            logger.warn("Embedding cache write to Redis failed for key: {}", key, e);
+        }
+    }
+
+    /**
+     * Hit counters for the embedding cache tiers
+     */
+    public static class EmbeddingCacheStats {
+        private final long localHits;
+        private final long redisHits;
+        private final long misses;
+        private final int localEntries;
+
+        public EmbeddingCacheStats(long localHits, long redisHits, long misses, int localEntries) {
+            this.localHits = localHits;
+            this.redisHits = redisHits;
+            this.misses = misses;
+            this.localEntries = localEntries;
+        }
+
+        public long getLocalHits() { return localHits; }
+        public long getRedisHits() { return redisHits; }
+        public long getMisses() { return misses; }
+        public int getLocalEntries() { return localEntries; }
+
+        public double getHitRatio() {
+            long total = localHits + redisHits + misses;
+            return total == 0 ? 0.0 : (double) (localHits + redisHits) / total;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for one Bedrock model over a window of its most recent calls. When the failure rate in
+ * the window reaches the threshold the circuit opens and calls fail fast without reaching Bedrock. After the
+ * open period a single trial call is let through: success closes the circuit, failure opens it again.
+ *
+ * <p>Only server errors and timeouts count as failures. Throttling is left to the admission limiter, and
+ * client errors such as invalid requests say nothing about the model's health.
+ */
+public class ModelCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean[] window;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+    private long rejectedCalls;
+    private long timesOpened;
+
+    public ModelCircuitBreaker(int windowSize, double failureRateThreshold, int minimumCalls, long openMs) {
+        this(windowSize, failureRateThreshold, minimumCalls, openMs, System::nanoTime);
+    }
+
+    ModelCircuitBreaker(int windowSize, double failureRateThreshold, int minimumCalls, long openMs,
+                        LongSupplier nanoClock) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = Math.min(window.length, Math.max(1, minimumCalls));
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Whether a call may go ahead. A permitted call must be followed by exactly one {@link #record}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < openNanos) {
+                rejectedCalls++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                rejectedCalls++;
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void record(ModelLimiter.Outcome outcome) {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+            if (outcome == ModelLimiter.Outcome.SUCCESS) {
+                reset();
+            } else if (outcome == ModelLimiter.Outcome.FAILED) {
+                open();
+            }
+            return;
+        }
+        // Calls admitted before the circuit opened may still finish; they no longer change anything
+        if (state == State.OPEN || (outcome != ModelLimiter.Outcome.SUCCESS && outcome != ModelLimiter.Outcome.FAILED)) {
+            return;
+        }
+
+        boolean failed = outcome == ModelLimiter.Outcome.FAILED;
+        if (recorded == window.length) {
+            failures -= window[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        failures += failed ? 1 : 0;
+        next = (next + 1) % window.length;
+
+        if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = nanoClock.getAsLong();
+        timesOpened++;
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+
+    public synchronized State getState() {
+        // Report an expired open period as half-open even before the next call arrives
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0.0 : (double) failures / recorded;
+    }
+
+    public synchronized long getRejectedCalls() {
+        return rejectedCalls;
+    }
+
+    public synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+}
@@ -0,0 +1,382 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for one Bedrock model. A call is admitted when the model has a free concurrency slot,
+ * a request token (requests/second bucket) and enough model tokens (tokens/minute bucket) for its estimated
+ * size; otherwise it waits in its priority lane without holding a thread.
+ *
+ * <p>The concurrency limit adapts AIMD-style: it grows by roughly one per limit-sized round of successful
+ * calls, and shrinks multiplicatively when Bedrock throttles, when calls fail with a server error or timeout,
+ * or when recent latency rises well above the long-run average. Decreases are spaced at least one average
+ * latency apart, so a burst of failures from the same overload counts once.
+ *
+ * <p>State is guarded by the instance lock; futures are completed outside it. Waiters are also admitted
+ * or expired by {@link #dispatch()}, which the owner calls periodically as the buckets refill.
+ */
+public class ModelLimiter {
+
+    public enum Outcome {
+        /** Completed normally; latency feeds the gradient */
+        SUCCESS,
+        /** Rejected by Bedrock for rate or quota reasons */
+        THROTTLED,
+        /** Server error or timeout, a sign of overload */
+        FAILED,
+        /** Says nothing about capacity, e.g. a validation error or a cancelled call */
+        IGNORED
+    }
+
+    private static final double LATENCY_TOLERANCE = 1.5;
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double FAILURE_BACKOFF = 0.9;
+    private static final double THROTTLE_BACKOFF = 0.5;
+    private static final double SHORT_LATENCY_WEIGHT = 0.2;
+    private static final double LONG_LATENCY_WEIGHT = 0.02;
+    private static final int LATENCY_WARMUP_SAMPLES = 20;
+
+    private final String modelId;
+    private final Config config;
+    private final LongSupplier nanoClock;
+
+    private final Deque<Waiter> interactive = new ArrayDeque<>();
+    private final Deque<Waiter> batch = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight;
+    private double requestTokens;
+    private double modelTokens;
+    private long lastRefillNanos;
+    private long lastDecreaseNanos;
+
+    private double shortLatencyNanos;
+    private double longLatencyNanos;
+    private long latencySamples;
+
+    private long admitted;
+    private long rejected;
+    private long timedOut;
+    private long throttled;
+    private long failed;
+
+    public ModelLimiter(String modelId, Config config) {
+        this(modelId, config, System::nanoTime);
+    }
+
+    ModelLimiter(String modelId, Config config, LongSupplier nanoClock) {
+        this.modelId = modelId;
+        this.config = config;
+        this.nanoClock = nanoClock;
+        this.limit = config.initialConcurrency;
+        this.requestTokens = requestCapacity();
+        this.modelTokens = config.tokensPerMinute;
+        this.lastRefillNanos = nanoClock.getAsLong();
+        this.lastDecreaseNanos = lastRefillNanos;
+    }
+
+    /**
+     * Requests admission for a call expected to use about {@code estimatedTokens} model tokens.
+     * The future completes with a permit once admitted, or fails with {@link RejectedExecutionException}
+     * when the lane is full or the call waited longer than the configured maximum.
+     * Every permit must be released exactly once when the call finishes.
+     */
+    public CompletableFuture<Permit> acquire(BedrockCallOptions.Priority priority, long estimatedTokens) {
+        // A call larger than the whole bucket could never be admitted; let it drain the bucket instead
+        long cost = config.tokensPerMinute > 0 ? Math.min(Math.max(estimatedTokens, 0), config.tokensPerMinute) : 0;
+        Waiter waiter = new Waiter(priority, cost, nanoClock.getAsLong());
+        List<Waiter> done;
+        synchronized (this) {
+            Deque<Waiter> lane = lane(priority);
+            if (lane.size() >= config.maxQueued) {
+                rejected++;
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "Bedrock admission queue full for " + modelId + " (" + priority + ")"));
+            }
+            lane.addLast(waiter);
+            done = admitWaiting(waiter.enqueuedNanos);
+        }
+        finish(done);
+        return waiter.future;
+    }
+
+    /**
+     * Refills the buckets, admits whatever now fits and fails waiters that exceeded the maximum wait.
+     */
+    public void dispatch() {
+        List<Waiter> done;
+        synchronized (this) {
+            done = admitWaiting(nanoClock.getAsLong());
+        }
+        finish(done);
+    }
+
+    private void release(Permit permit, Outcome outcome) {
+        long now = nanoClock.getAsLong();
+        List<Waiter> done;
+        synchronized (this) {
+            inFlight--;
+            adapt(outcome, now - permit.admittedNanos, now);
+            done = admitWaiting(now);
+        }
+        finish(done);
+    }
+
+    private void adapt(Outcome outcome, long latencyNanos, long now) {
+        switch (outcome) {
+            case SUCCESS -> {
+                recordLatency(latencyNanos);
+                if (latencySamples > LATENCY_WARMUP_SAMPLES
+                        && shortLatencyNanos > longLatencyNanos * LATENCY_TOLERANCE) {
+                    decrease(LATENCY_BACKOFF, now);
+                } else if (inFlight + 1 >= limit / 2) {
+                    // Only grow while the limit is actually being used, so an idle model does not drift to max
+                    limit = Math.min(config.maxConcurrency, limit + 1.0 / limit);
+                }
+            }
+            case THROTTLED -> {
+                throttled++;
+                decrease(THROTTLE_BACKOFF, now);
+                // Stop admitting on the request bucket until it refills
+                requestTokens = Math.min(requestTokens, 0);
+            }
+            case FAILED -> {
+                failed++;
+                decrease(FAILURE_BACKOFF, now);
+            }
+            case IGNORED -> {
+            }
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        if (latencySamples++ == 0) {
+            shortLatencyNanos = latencyNanos;
+            longLatencyNanos = latencyNanos;
+            return;
+        }
+        shortLatencyNanos += SHORT_LATENCY_WEIGHT * (latencyNanos - shortLatencyNanos);
+        longLatencyNanos += LONG_LATENCY_WEIGHT * (latencyNanos - longLatencyNanos);
+    }
+
+    private void decrease(double factor, long now) {
+        if (now - lastDecreaseNanos < longLatencyNanos) {
+            return;
+        }
+        limit = Math.max(config.minConcurrency, limit * factor);
+        lastDecreaseNanos = now;
+    }
+
+    // Interactive waiters always go first; a blocked interactive head also holds back the batch lane
+    private List<Waiter> admitWaiting(long now) {
+        refill(now);
+        List<Waiter> done = new ArrayList<>();
+        expire(interactive, now, done);
+        expire(batch, now, done);
+        while (true) {
+            Deque<Waiter> lane = interactive.isEmpty() ? batch : interactive;
+            Waiter next = lane.peekFirst();
+            if (next == null || !fits(next)) {
+                break;
+            }
+            lane.pollFirst();
+            inFlight++;
+            requestTokens -= 1;
+            modelTokens -= next.cost;
+            admitted++;
+            next.permit = new Permit(this, now);
+            done.add(next);
+        }
+        return done;
+    }
+
+    private boolean fits(Waiter waiter) {
+        int slots = waiter.priority == BedrockCallOptions.Priority.BATCH
+                ? (int) (limit * config.batchShare) : (int) limit;
+        if (inFlight >= Math.max(1, slots)) {
+            return false;
+        }
+        if (config.requestsPerSecond > 0 && requestTokens < 1) {
+            return false;
+        }
+        return config.tokensPerMinute <= 0 || modelTokens >= waiter.cost;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed <= 0) {
+            return;
+        }
+        lastRefillNanos = now;
+        if (config.requestsPerSecond > 0) {
+            requestTokens = Math.min(requestCapacity(),
+                    requestTokens + elapsed * config.requestsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        }
+        if (config.tokensPerMinute > 0) {
+            modelTokens = Math.min(config.tokensPerMinute,
+                    modelTokens + (double) elapsed * config.tokensPerMinute / TimeUnit.MINUTES.toNanos(1));
+        }
+    }
+
+    // Allow up to one second of requests as a burst
+    private double requestCapacity() {
+        return Math.max(1.0, config.requestsPerSecond);
+    }
+
+    private void expire(Deque<Waiter> lane, long now, List<Waiter> done) {
+        while (!lane.isEmpty() && now - lane.peekFirst().enqueuedNanos >= config.maxWaitNanos) {
+            Waiter waiter = lane.pollFirst();
+            timedOut++;
+            waiter.failure = new RejectedExecutionException("Timed out waiting for Bedrock admission to "
+                    + modelId + " after " + TimeUnit.NANOSECONDS.toMillis(now - waiter.enqueuedNanos) + " ms");
+            done.add(waiter);
+        }
+    }
+
+    private Deque<Waiter> lane(BedrockCallOptions.Priority priority) {
+        return priority == BedrockCallOptions.Priority.BATCH ? batch : interactive;
+    }
+
+    private void finish(List<Waiter> done) {
+        for (Waiter waiter : done) {
+            if (waiter.failure != null) {
+                waiter.future.completeExceptionally(waiter.failure);
+            } else if (!waiter.future.complete(waiter.permit)) {
+                // The caller gave up while queued; hand the slot straight back
+                waiter.permit.release(Outcome.IGNORED);
+            }
+        }
+    }
+
+    public synchronized Stats getStats() {
+        refill(nanoClock.getAsLong());
+        return new Stats(modelId, limit, inFlight, interactive.size(), batch.size(),
+                config.requestsPerSecond > 0 ? requestTokens : -1, config.tokensPerMinute > 0 ? modelTokens : -1,
+                TimeUnit.NANOSECONDS.toMillis((long) shortLatencyNanos),
+                TimeUnit.NANOSECONDS.toMillis((long) longLatencyNanos),
+                admitted, rejected, timedOut, throttled, failed);
+    }
+
+    /**
+     * A granted admission. Releasing it frees the slot and reports how the call went.
+     */
+    public static final class Permit {
+        private final ModelLimiter limiter;
+        private final long admittedNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(ModelLimiter limiter, long admittedNanos) {
+            this.limiter = limiter;
+            this.admittedNanos = admittedNanos;
+        }
+
+        public void release(Outcome outcome) {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(this, outcome);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final BedrockCallOptions.Priority priority;
+        private final long cost;
+        private final long enqueuedNanos;
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+        private Permit permit;
+        private RuntimeException failure;
+
+        private Waiter(BedrockCallOptions.Priority priority, long cost, long enqueuedNanos) {
+            this.priority = priority;
+            this.cost = cost;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /**
+     * Limits applied to one model. Zero or negative rates disable the corresponding bucket.
+     */
+    public static final class Config {
+        private final double requestsPerSecond;
+        private final long tokensPerMinute;
+        private final int initialConcurrency;
+        private final int minConcurrency;
+        private final int maxConcurrency;
+        private final double batchShare;
+        private final int maxQueued;
+        private final long maxWaitNanos;
+
+        public Config(double requestsPerSecond, long tokensPerMinute, int initialConcurrency, int minConcurrency,
+                      int maxConcurrency, double batchShare, int maxQueued, long maxWaitMs) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.tokensPerMinute = tokensPerMinute;
+            this.minConcurrency = Math.max(1, minConcurrency);
+            this.maxConcurrency = Math.max(this.minConcurrency, maxConcurrency);
+            this.initialConcurrency = Math.min(this.maxConcurrency, Math.max(this.minConcurrency, initialConcurrency));
+            this.batchShare = batchShare;
+            this.maxQueued = maxQueued;
+            this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        }
+    }
+
+    /**
+     * Point-in-time view of one model's admission state. Token figures are -1 when that bucket is disabled.
+     */
+    public static class Stats {
+        private final String modelId;
+        private final double concurrencyLimit;
+        private final int inFlight;
+        private final int queuedInteractive;
+        private final int queuedBatch;
+        private final double availableRequests;
+        private final double availableTokens;
+        private final long recentLatencyMs;
+        private final long averageLatencyMs;
+        private final long admitted;
+        private final long rejected;
+        private final long timedOut;
+        private final long throttled;
+        private final long failed;
+
+        public Stats(String modelId, double concurrencyLimit, int inFlight, int queuedInteractive, int queuedBatch,
+                     double availableRequests, double availableTokens, long recentLatencyMs, long averageLatencyMs,
+                     long admitted, long rejected, long timedOut, long throttled, long failed) {
+            this.modelId = modelId;
+            this.concurrencyLimit = concurrencyLimit;
+            this.inFlight = inFlight;
+            this.queuedInteractive = queuedInteractive;
+            this.queuedBatch = queuedBatch;
+            this.availableRequests = availableRequests;
+            this.availableTokens = availableTokens;
+            this.recentLatencyMs = recentLatencyMs;
+            this.averageLatencyMs = averageLatencyMs;
+            this.admitted = admitted;
+            this.rejected = rejected;
+            this.timedOut = timedOut;
+            this.throttled = throttled;
+            this.failed = failed;
+        }
+
+        public String getModelId() { return modelId; }
+        public double getConcurrencyLimit() { return concurrencyLimit; }
+        public int getInFlight() { return inFlight; }
+        public int getQueuedInteractive() { return queuedInteractive; }
+        public int getQueuedBatch() { return queuedBatch; }
+        public double getAvailableRequests() { return availableRequests; }
+        public double getAvailableTokens() { return availableTokens; }
+        public long getRecentLatencyMs() { return recentLatencyMs; }
+        public long getAverageLatencyMs() { return averageLatencyMs; }
+        public long getAdmitted() { return admitted; }
+        public long getRejected() { return rejected; }
+        public long getTimedOut() { return timedOut; }
+        public long getThrottled() { return throttled; }
+        public long getFailed() { return failed; }
+    }
+}
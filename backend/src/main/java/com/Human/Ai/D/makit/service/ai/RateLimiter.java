@@ -0,0 +1,46 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Smooth rate limiter that spaces permits evenly at a fixed rate.
+ * Each caller reserves the next free slot under a lock and then sleeps outside it, so concurrent
+ * callers queue up in order without holding the lock while waiting.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeNanos;
+
+    /**
+     * @param permitsPerSecond allowed rate; zero or negative disables limiting
+     */
+    public RateLimiter(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0L;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Blocks until a permit is available.
+     */
+    public void acquire() {
+        if (intervalNanos == 0L) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeNanos);
+            nextFreeNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for rate limit", e);
+            }
+        }
+    }
+}
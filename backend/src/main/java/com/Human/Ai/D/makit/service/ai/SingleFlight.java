@@ -0,0 +1,63 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key into one: the first caller starts the call and later callers
+ * join it until it completes, after which the key is free again. Nothing is cached beyond the in-flight window.
+ * Every caller gets its own dependent future, so cancelling one does not cancel the shared call.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> shared = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing.copy();
+        }
+
+        calls.incrementAndGet();
+        try {
+            call.get().whenComplete((value, error) -> {
+                // Free the key before completing so callers arriving after completion start a new call
+                inFlight.remove(key, shared);
+                if (error != null) {
+                    shared.completeExceptionally(error);
+                } else {
+                    shared.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+        }
+        return shared.copy();
+    }
+
+    /**
+     * Calls that went upstream
+     */
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * Calls that joined one already in flight
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
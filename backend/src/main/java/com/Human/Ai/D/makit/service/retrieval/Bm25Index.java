@@ -0,0 +1,432 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 프로세스 내 BM25 역색인.
+ * 포스팅은 용어별로 (문서 번호 delta, 출현 빈도) 쌍을 variable-byte로 인코딩한 byte 배열에 보관합니다.
+ * 새 문서는 항상 더 큰 번호를 받으므로 포스팅 끝에 이어 쓰기만 하면 되고,
+ * 삭제는 툼스톤으로 처리한 뒤 삭제된 문서가 절반을 넘으면 포스팅을 다시 씁니다.
+ */
+public class Bm25Index {
+
+    private static final int COMPACTION_MIN_DELETED = 1024;
+
+    private final float k1;
+    private final float b;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(Accumulator::new);
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private PostingList[] postings = new PostingList[64];
+    private int[] documentFrequency = new int[64];
+
+    private String[] keys = new String[16];
+    private int[] lengths = new int[16];
+    // 문서별 고유 용어 ID (삭제 시 문서 빈도 갱신용)
+    private int[][] documentTerms = new int[16][];
+    private int docCount;
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private long totalLength;
+    private final Map<String, Integer> docByKey = new HashMap<>();
+
+    public Bm25Index(float k1, float b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * 문서를 색인합니다. 같은 ID가 이미 있으면 교체합니다.
+     */
+    public void upsert(String id, String text) {
+        // 잠금 밖에서 토큰화와 빈도 계산
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        int length = 0;
+        for (String token : KeywordTokenizer.tokenize(text)) {
+            frequencies.merge(token, 1, Integer::sum);
+            length++;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByKey.get(id);
+            if (existing != null) {
+                markDeleted(existing);
+            }
+            if (length > 0) {
+                insert(id, frequencies, length);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return 제거된 문서가 있었으면 true
+     */
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docByKey.get(id);
+            if (doc == null) {
+                return false;
+            }
+            markDeleted(doc);
+            compactIfNeeded();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * BM25 점수 상위 k개 문서를 점수 내림차순으로 반환합니다.
+     */
+    public List<VectorIndex.SearchHit> search(String query, int k) {
+        return search(query, k, null);
+    }
+
+    /**
+     * filter를 통과하는 문서만 점수화해 상위 k개를 반환합니다. 문서 빈도와 평균 길이는 전체 색인 기준입니다.
+     */
+    public List<VectorIndex.SearchHit> search(String query, int k, SearchFilter filter) {
+        if (filter != null && filter.cardinality() == 0) {
+            return List.of();
+        }
+        List<String> queryTokens = KeywordTokenizer.tokenize(query);
+        if (k <= 0 || queryTokens.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> queryFrequencies = new LinkedHashMap<>();
+        for (String token : queryTokens) {
+            queryFrequencies.merge(token, 1, Integer::sum);
+        }
+
+        lock.readLock().lock();
+        try {
+            int liveDocs = docCount - deletedCount;
+            if (liveDocs == 0) {
+                return List.of();
+            }
+            float averageLength = (float) totalLength / liveDocs;
+            BitSet allowed = filter == null ? null : allowedDocuments(filter);
+            Accumulator accumulator = accumulators.get();
+            accumulator.reset(docCount);
+
+            for (Map.Entry<String, Integer> entry : queryFrequencies.entrySet()) {
+                Integer term = termIds.get(entry.getKey());
+                if (term == null || documentFrequency[term] == 0) {
+                    continue;
+                }
+                int df = documentFrequency[term];
+                float idf = (float) Math.log(1.0 + (liveDocs - df + 0.5) / (df + 0.5));
+                float weight = idf * entry.getValue();
+
+                PostingList list = postings[term];
+                int offset = 0;
+                int doc = 0;
+                while (offset < list.size) {
+                    int delta = 0;
+                    int shift = 0;
+                    byte value;
+                    do {
+                        value = list.data[offset++];
+                        delta |= (value & 0x7F) << shift;
+                        shift += 7;
+                    } while (value < 0);
+                    doc += delta;
+
+                    int tf = 0;
+                    shift = 0;
+                    do {
+                        value = list.data[offset++];
+                        tf |= (value & 0x7F) << shift;
+                        shift += 7;
+                    } while (value < 0);
+
+                    if (deleted.get(doc) || (allowed != null && !allowed.get(doc))) {
+                        continue;
+                    }
+                    float norm = k1 * (1.0f - b + b * lengths[doc] / averageLength);
+                    accumulator.add(doc, weight * tf * (k1 + 1.0f) / (tf + norm));
+                }
+            }
+
+            ScoreHeap top = ScoreHeap.minHeap(k + 1);
+            for (int i = 0; i < accumulator.touchedCount; i++) {
+                int doc = accumulator.touched[i];
+                top.pushBounded(accumulator.scores[doc], doc, k);
+            }
+            long[] ordered = top.drainDescending();
+            List<VectorIndex.SearchHit> hits = new ArrayList<>(ordered.length);
+            for (long encoded : ordered) {
+                hits.add(new VectorIndex.SearchHit(keys[ScoreHeap.decodeNode(encoded)], ScoreHeap.decodeScore(encoded)));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 필터를 통과하는 문서 번호 집합. 읽기 잠금 안에서 호출됩니다.
+     */
+    private BitSet allowedDocuments(SearchFilter filter) {
+        BitSet allowed = new BitSet(docCount);
+        filter.forEachId(id -> {
+            Integer doc = docByKey.get(id);
+            if (doc != null) {
+                allowed.set(doc);
+            }
+        });
+        return allowed;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 색인된 고유 용어 수를 반환합니다.
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return termIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 포스팅이 차지하는 바이트 수를 반환합니다.
+     */
+    public long postingBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (int term = 0; term < termIds.size(); term++) {
+                bytes += postings[term].size;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            termIds.clear();
+            postings = new PostingList[64];
+            documentFrequency = new int[64];
+            resetDocuments(16);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void resetDocuments(int capacity) {
+        keys = new String[capacity];
+        lengths = new int[capacity];
+        documentTerms = new int[capacity][];
+        docCount = 0;
+        deleted.clear();
+        deletedCount = 0;
+        totalLength = 0;
+        docByKey.clear();
+    }
+
+    private void insert(String id, Map<String, Integer> frequencies, int length) {
+        int doc = docCount++;
+        ensureDocumentCapacity(docCount);
+        keys[doc] = id;
+        lengths[doc] = length;
+        totalLength += length;
+        docByKey.put(id, doc);
+
+        int[] terms = new int[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            int term = termId(entry.getKey());
+            postings[term].append(doc, entry.getValue());
+            documentFrequency[term]++;
+            terms[i++] = term;
+        }
+        documentTerms[doc] = terms;
+    }
+
+    private int termId(String token) {
+        Integer term = termIds.get(token);
+        if (term != null) {
+            return term;
+        }
+        int newTerm = termIds.size();
+        if (newTerm == postings.length) {
+            postings = Arrays.copyOf(postings, newTerm * 2);
+            documentFrequency = Arrays.copyOf(documentFrequency, newTerm * 2);
+        }
+        postings[newTerm] = new PostingList();
+        termIds.put(token, newTerm);
+        return newTerm;
+    }
+
+    private void markDeleted(int doc) {
+        if (deleted.get(doc)) {
+            return;
+        }
+        deleted.set(doc);
+        deletedCount++;
+        totalLength -= lengths[doc];
+        docByKey.remove(keys[doc]);
+        for (int term : documentTerms[doc]) {
+            documentFrequency[term]--;
+        }
+        documentTerms[doc] = null;
+    }
+
+    /**
+     * 툼스톤이 너무 많아지면 살아있는 문서만으로 포스팅과 문서 번호를 다시 씁니다.
+     * 번호의 상대 순서가 유지되므로 포스팅을 디코딩해 번호만 바꿔 다시 인코딩하면 됩니다.
+     */
+    private void compactIfNeeded() {
+        if (deletedCount < COMPACTION_MIN_DELETED || deletedCount * 2 < docCount) {
+            return;
+        }
+        int[] remap = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            remap[doc] = deleted.get(doc) ? -1 : live++;
+        }
+
+        for (int term = 0; term < termIds.size(); term++) {
+            PostingList old = postings[term];
+            PostingList compacted = new PostingList();
+            int offset = 0;
+            int doc = 0;
+            while (offset < old.size) {
+                int[] decoded = old.decode(offset);
+                doc += decoded[0];
+                offset = decoded[2];
+                if (remap[doc] >= 0) {
+                    compacted.append(remap[doc], decoded[1]);
+                }
+            }
+            postings[term] = compacted;
+        }
+
+        String[] oldKeys = keys;
+        int[] oldLengths = lengths;
+        int[][] oldTerms = documentTerms;
+        int oldCount = docCount;
+        long liveLength = totalLength;
+        resetDocuments(Math.max(16, live));
+        for (int doc = 0; doc < oldCount; doc++) {
+            int target = remap[doc];
+            if (target >= 0) {
+                keys[target] = oldKeys[doc];
+                lengths[target] = oldLengths[doc];
+                documentTerms[target] = oldTerms[doc];
+                docByKey.put(oldKeys[doc], target);
+            }
+        }
+        docCount = live;
+        totalLength = liveLength;
+    }
+
+    private void ensureDocumentCapacity(int required) {
+        if (required > keys.length) {
+            int newCapacity = Math.max(required, keys.length * 2);
+            keys = Arrays.copyOf(keys, newCapacity);
+            lengths = Arrays.copyOf(lengths, newCapacity);
+            documentTerms = Arrays.copyOf(documentTerms, newCapacity);
+        }
+    }
+
+    /**
+     * variable-byte로 인코딩된 (delta, tf) 포스팅 목록
+     */
+    private static final class PostingList {
+        private byte[] data = new byte[8];
+        private int size;
+        private int lastDoc;
+
+        void append(int doc, int tf) {
+            if (size + 10 > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + 10, data.length * 2));
+            }
+            writeVarInt(doc - lastDoc);
+            writeVarInt(tf);
+            lastDoc = doc;
+        }
+
+        /**
+         * @return [delta, tf, 다음 오프셋]
+         */
+        int[] decode(int offset) {
+            int[] result = new int[3];
+            for (int field = 0; field < 2; field++) {
+                int value = 0;
+                int shift = 0;
+                byte current;
+                do {
+                    current = data[offset++];
+                    value |= (current & 0x7F) << shift;
+                    shift += 7;
+                } while (current < 0);
+                result[field] = value;
+            }
+            result[2] = offset;
+            return result;
+        }
+
+        private void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+    }
+
+    /**
+     * 검색마다 재사용하는 점수 누적 버퍼. 건드린 문서만 기록했다가 다음 검색 전에 되돌립니다.
+     */
+    private static final class Accumulator {
+        private float[] scores = new float[0];
+        private int[] touched = new int[0];
+        private int touchedCount;
+
+        void reset(int capacity) {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0.0f;
+            }
+            touchedCount = 0;
+            if (scores.length < capacity) {
+                scores = new float[Math.max(capacity, scores.length * 2)];
+                touched = new int[scores.length];
+            }
+        }
+
+        void add(int doc, float score) {
+            if (scores[doc] == 0.0f) {
+                touched[touchedCount++] = doc;
+            }
+            scores[doc] += score;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 문서 본문을 토큰 상한이 있는, 서로 겹치는 청크로 분할합니다.
+ * 문단/문장 경계를 우선으로 자르고, 상한을 넘는 긴 문장은 공백 위치에서 다시 나눕니다.
+ * 다음 청크는 이전 청크 끝부분의 문장들(overlapTokens 이내)로 시작해 경계에 걸친 내용이 유실되지 않도록 합니다.
+ */
+public class DocumentChunker {
+
+    private final int maxTokens;
+    private final int overlapTokens;
+
+    public DocumentChunker(int maxTokens, int overlapTokens) {
+        if (maxTokens < 16) {
+            throw new IllegalArgumentException("Chunk max tokens must be at least 16");
+        }
+        if (overlapTokens < 0 || overlapTokens >= maxTokens) {
+            throw new IllegalArgumentException("Chunk overlap must be between 0 and max tokens");
+        }
+        this.maxTokens = maxTokens;
+        this.overlapTokens = overlapTokens;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public int getOverlapTokens() {
+        return overlapTokens;
+    }
+
+    /**
+     * 텍스트를 청크 목록으로 분할합니다. 빈 텍스트는 빈 목록을 반환합니다.
+     */
+    public List<Chunk> split(String text) {
+        List<Chunk> chunks = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return chunks;
+        }
+
+        List<int[]> segments = segment(text);
+        int first = 0;
+        while (first < segments.size()) {
+            // 상한까지 문장 단위로 채움 (첫 문장은 segment()에서 상한 이하로 보장됨)
+            int tokens = 0;
+            int last = first;
+            while (last < segments.size() && (last == first || tokens + segments.get(last)[2] <= maxTokens)) {
+                tokens += segments.get(last)[2];
+                last++;
+            }
+
+            int start = segments.get(first)[0];
+            int end = segments.get(last - 1)[1];
+            chunks.add(new Chunk(chunks.size(), text.substring(start, end), start, end, tokens));
+
+            if (last == segments.size()) {
+                break;
+            }
+
+            // 끝부분 문장들을 다음 청크의 시작으로 재사용하되, 최소 한 문장은 전진
+            int next = last;
+            int overlap = 0;
+            while (next - 1 > first && overlap + segments.get(next - 1)[2] <= overlapTokens) {
+                overlap += segments.get(next - 1)[2];
+                next--;
+            }
+            first = next;
+        }
+        return chunks;
+    }
+
+    /**
+     * 텍스트를 [start, end, tokens] 형태의 문장 단위 구간으로 나눕니다. 구간 앞뒤 공백은 제외합니다.
+     */
+    private List<int[]> segment(String text) {
+        List<int[]> segments = new ArrayList<>();
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            boolean boundary = c == '\n'
+                    || ((c == '.' || c == '!' || c == '?' || c == '。')
+                        && (i + 1 == length || Character.isWhitespace(text.charAt(i + 1))));
+            if (boundary) {
+                addSegment(text, start, i + 1, segments);
+                start = i + 1;
+            }
+        }
+        addSegment(text, start, length, segments);
+        return segments;
+    }
+
+    private void addSegment(String text, int start, int end, List<int[]> segments) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+
+        int tokens = estimateTokens(text, start, end);
+        if (tokens <= maxTokens) {
+            segments.add(new int[]{start, end, tokens});
+            return;
+        }
+
+        // 상한을 넘는 문장은 상한 내에서 가장 뒤쪽 공백에서 자르고, 공백이 없으면 그 자리에서 자름
+        int pieceStart = start;
+        int pieceTokens = 0;
+        int lastSpace = -1;
+        for (int i = start; i < end; i++) {
+            int charTokens = tokenWeight(text.charAt(i));
+            if (pieceTokens + charTokens > maxTokens * 4) {
+                int cut = lastSpace > pieceStart ? lastSpace : i;
+                addSegment(text, pieceStart, cut, segments);
+                pieceStart = cut;
+                pieceTokens = 0;
+                lastSpace = -1;
+                i = cut - 1;
+                continue;
+            }
+            pieceTokens += charTokens;
+            if (Character.isWhitespace(text.charAt(i))) {
+                lastSpace = i;
+            }
+        }
+        addSegment(text, pieceStart, end, segments);
+    }
+
+    /**
+     * 임베딩 모델 토크나이저를 근사한 토큰 수. ASCII 문자는 약 4자당 1토큰,
+     * 한글 등 그 밖의 문자는 1자당 1토큰으로 보수적으로 계산합니다.
+     */
+    public static int estimateTokens(CharSequence text, int start, int end) {
+        int quarterTokens = 0;
+        for (int i = start; i < end; i++) {
+            quarterTokens += tokenWeight(text.charAt(i));
+        }
+        return (quarterTokens + 3) / 4;
+    }
+
+    public static int estimateTokens(CharSequence text) {
+        return text == null ? 0 : estimateTokens(text, 0, text.length());
+    }
+
+    // 1/4 토큰 단위의 문자 가중치
+    private static int tokenWeight(char c) {
+        if (Character.isWhitespace(c)) {
+            return 0;
+        }
+        return c < 128 ? 1 : 4;
+    }
+
+    /**
+     * 분할된 청크 하나. 오프셋은 원문 기준입니다.
+     */
+    public static class Chunk {
+        private final int index;
+        private final String text;
+        private final int startOffset;
+        private final int endOffset;
+        private final int tokenCount;
+
+        public Chunk(int index, String text, int startOffset, int endOffset, int tokenCount) {
+            this.index = index;
+            this.text = text;
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+            this.tokenCount = tokenCount;
+        }
+
+        public int getIndex() { return index; }
+        public String getText() { return text; }
+        public int getStartOffset() { return startOffset; }
+        public int getEndOffset() { return endOffset; }
+        public int getTokenCount() { return tokenCount; }
+    }
+}
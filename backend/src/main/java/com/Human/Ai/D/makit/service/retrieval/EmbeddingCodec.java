@@ -0,0 +1,59 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 임베딩 벡터를 little-endian float32 바이트 배열로 변환하는 유틸리티
+ */
+public final class EmbeddingCodec {
+
+    private EmbeddingCodec() {}
+
+    /**
+     * float 벡터를 packed little-endian float32 바이트 배열로 인코딩합니다.
+     */
+    public static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    /**
+     * packed little-endian float32 바이트 배열을 float 벡터로 디코딩합니다.
+     */
+    public static float[] decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length % Float.BYTES != 0) {
+            throw new IllegalArgumentException("Embedding byte length is not a multiple of 4: " + bytes.length);
+        }
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    /**
+     * JSON 배열 노드를 float 벡터로 변환합니다.
+     */
+    public static float[] fromJsonNode(JsonNode node) {
+        if (node == null || !node.isArray()) {
+            throw new IllegalArgumentException("Embedding is not a JSON array");
+        }
+        float[] vector = new float[node.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) node.get(i).asDouble();
+        }
+        return vector;
+    }
+
+    /**
+     * 벡터의 L2 노름을 계산합니다.
+     */
+    public static float l2Norm(float[] vector) {
+        return VectorMath.norm(vector);
+    }
+}
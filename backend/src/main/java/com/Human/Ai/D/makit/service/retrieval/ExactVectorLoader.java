@@ -0,0 +1,16 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 압축 인덱스의 재정렬 단계에서 원본 벡터를 필요한 만큼만 읽어오는 로더
+ */
+@FunctionalInterface
+public interface ExactVectorLoader {
+
+    /**
+     * 주어진 ID들의 원본 벡터를 반환합니다. 찾을 수 없는 ID는 결과에서 생략합니다.
+     */
+    Map<String, float[]> load(Collection<String> ids);
+}
@@ -0,0 +1,729 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * 프로세스 내 HNSW(Hierarchical Navigable Small World) 그래프 인덱스.
+ * 벡터는 삽입 시 정규화되어 float[]로 보관되므로 내적이 곧 코사인 유사도입니다.
+ * 삭제는 툼스톤으로 처리하며, 삭제된 노드가 절반을 넘으면 그래프를 다시 구성합니다.
+ * 스냅샷에서 복원한 노드의 벡터는 힙으로 복사하지 않고 memory-mapped 파일에서 직접 읽습니다.
+ */
+public class HnswVectorIndex implements VectorIndex {
+
+    private static final int COMPACTION_MIN_DELETED = 1024;
+    // 필터 통과 항목이 이보다 적거나 전체의 1/FILTER_EXACT_FRACTION 이하면 그래프 대신 통과 항목만 직접 점수화
+    private static final int FILTER_EXACT_MAX = 2048;
+    private static final int FILTER_EXACT_FRACTION = 20;
+    private static final int SNAPSHOT_HEADER_BYTES = 64;
+    private static final int SNAPSHOT_WRITE_BUFFER_BYTES = 1 << 20;
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<VisitedSet> visitedSets = ThreadLocal.withInitial(VisitedSet::new);
+
+    private int dimension = -1;
+    private float[][] vectors = new float[16][];
+    // 스냅샷에서 매핑된 노드 [0, mappedCount)의 벡터. 이후에 추가된 노드는 vectors에 보관
+    private MappedVectors mapped;
+    private int mappedCount;
+    private String[] keys = new String[16];
+    // node -> level -> [count, neighbor...]
+    private int[][][] links = new int[16][][];
+    private int nodeCount;
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private final Map<String, Integer> nodeByKey = new HashMap<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswVectorIndex(int m, int efConstruction, int efSearch) {
+        if (m < 2) {
+            throw new IllegalArgumentException("HNSW M must be at least 2");
+        }
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = Math.max(efSearch, 1);
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    @Override
+    public void upsert(String id, float[] vector) {
+        float[] normalized = VectorMath.normalize(vector);
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodeByKey.get(id);
+            if (existing != null) {
+                markDeleted(existing);
+            }
+            if (dimension == -1) {
+                dimension = normalized.length;
+            } else if (dimension != normalized.length) {
+                throw new IllegalArgumentException(
+                        "Vector dimension mismatch: expected " + dimension + " but was " + normalized.length);
+            }
+            insert(id, normalized);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodeByKey.get(id);
+            if (node == null) {
+                return false;
+            }
+            markDeleted(node);
+            compactIfNeeded();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<SearchHit> search(float[] query, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        float[] normalized = VectorMath.normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint == -1 || normalized.length != dimension) {
+                return List.of();
+            }
+            int ep = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                ep = greedySearch(normalized, ep, level);
+            }
+            ScoreHeap results = searchLayer(normalized, ep, Math.max(efSearch, k), 0, node -> !deleted.get(node));
+            return toHits(results, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 필터 통과 항목이 적으면 해당 항목만 정확히 점수화하고,
+     * 많으면 그래프를 탐색하면서 통과 항목만 결과에 넣되 통과 비율만큼 ef를 늘립니다.
+     */
+    @Override
+    public List<SearchHit> search(float[] query, int k, SearchFilter filter) {
+        int cardinality = filter.cardinality();
+        if (k <= 0 || cardinality == 0) {
+            return List.of();
+        }
+        float[] normalized = VectorMath.normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint == -1 || normalized.length != dimension) {
+                return List.of();
+            }
+            int live = nodeCount - deletedCount;
+            if (cardinality <= FILTER_EXACT_MAX || (long) cardinality * FILTER_EXACT_FRACTION <= live) {
+                ScoreHeap top = ScoreHeap.minHeap(k + 1);
+                filter.forEachId(id -> {
+                    Integer node = nodeByKey.get(id);
+                    if (node != null) {
+                        top.pushBounded(similarity(normalized, node), node, k);
+                    }
+                });
+                return toHits(top, k);
+            }
+
+            int ep = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                ep = greedySearch(normalized, ep, level);
+            }
+            int ef = (int) Math.min(live, (long) Math.max(efSearch, k) * live / cardinality);
+            ScoreHeap results = searchLayer(normalized, ep, Math.max(ef, k), 0,
+                    node -> !deleted.get(node) && filter.accepts(keys[node]));
+            return toHits(results, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SearchHit> toHits(ScoreHeap results, int k) {
+        while (results.size() > k) {
+            results.pop();
+        }
+        long[] ordered = results.drainDescending();
+        List<SearchHit> hits = new ArrayList<>(ordered.length);
+        for (long encoded : ordered) {
+            hits.add(new SearchHit(keys[ScoreHeap.decodeNode(encoded)], ScoreHeap.decodeScore(encoded)));
+        }
+        return hits;
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            resetGraph(16);
+            dimension = -1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 검색 가능한 항목의 ID 목록을 반환합니다.
+     */
+    public List<String> ids() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(nodeByKey.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 그래프 전체를 channel의 현재 위치부터 little-endian으로 기록합니다.
+     * 노드 번호를 그대로 유지하므로 툼스톤 노드도 함께 기록되며, 기록 중에도 검색은 계속 가능합니다.
+     * 구성: 헤더(64바이트) | 벡터(nodeCount x dimension float32) | 키 | 이웃 목록 | 툼스톤 노드 번호
+     */
+    public void writeSnapshot(FileChannel channel) throws IOException {
+        lock.readLock().lock();
+        try {
+            long base = channel.position();
+            int dim = Math.max(dimension, 0);
+            SnapshotWriter writer = new SnapshotWriter(channel);
+            writer.skip(SNAPSHOT_HEADER_BYTES);
+
+            for (int node = 0; node < nodeCount; node++) {
+                if (node < mappedCount) {
+                    writer.putFloats(mapped.copy(node));
+                } else {
+                    writer.putFloats(vectors[node]);
+                }
+            }
+
+            long keysOffset = writer.position() - base;
+            for (int node = 0; node < nodeCount; node++) {
+                byte[] key = keys[node].getBytes(StandardCharsets.UTF_8);
+                writer.putInt(key.length);
+                writer.putBytes(key);
+            }
+
+            long linksOffset = writer.position() - base;
+            for (int node = 0; node < nodeCount; node++) {
+                int[][] nodeLinks = links[node];
+                writer.putInt(nodeLinks.length);
+                for (int[] levelLinks : nodeLinks) {
+                    writer.putInt(levelLinks.length - 1);
+                    writer.putInt(levelLinks[0]);
+                    for (int i = 1; i <= levelLinks[0]; i++) {
+                        writer.putInt(levelLinks[i]);
+                    }
+                }
+            }
+            for (int node = deleted.nextSetBit(0); node >= 0; node = deleted.nextSetBit(node + 1)) {
+                writer.putInt(node);
+            }
+            writer.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(m).putInt(dim).putInt(nodeCount).putInt(entryPoint).putInt(maxLevel).putInt(deletedCount)
+                    .putLong(keysOffset).putLong(linksOffset);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, base + header.position());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@link #writeSnapshot}로 기록한 그래프로 현재 상태를 교체합니다.
+     * 벡터 영역은 memory-mapped 상태로 두고 키와 이웃 목록만 힙으로 읽습니다.
+     * 매핑은 channel을 닫은 뒤에도 유효합니다.
+     *
+     * @throws IllegalArgumentException 스냅샷의 M이 이 인덱스와 다르거나 형식이 맞지 않는 경우
+     */
+    public void readSnapshot(FileChannel channel, long base) throws IOException {
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, base, SNAPSHOT_HEADER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        int snapshotM = header.getInt();
+        int dim = header.getInt();
+        int count = header.getInt();
+        int snapshotEntryPoint = header.getInt();
+        int snapshotMaxLevel = header.getInt();
+        int snapshotDeletedCount = header.getInt();
+        long keysOffset = header.getLong();
+        long linksOffset = header.getLong();
+        if (snapshotM != m) {
+            throw new IllegalArgumentException("Snapshot was built with M=" + snapshotM + " but index uses M=" + m);
+        }
+        if (keysOffset != SNAPSHOT_HEADER_BYTES + (long) count * dim * Float.BYTES
+                || linksOffset < keysOffset || base + linksOffset > channel.size()) {
+            throw new IllegalArgumentException("Corrupt HNSW snapshot header");
+        }
+
+        MappedVectors snapshotVectors = count == 0 ? null
+                : MappedVectors.map(channel, base + SNAPSHOT_HEADER_BYTES, count, dim);
+        MappedByteBuffer graph = channel.map(FileChannel.MapMode.READ_ONLY, base + keysOffset,
+                channel.size() - base - keysOffset);
+        graph.order(ByteOrder.LITTLE_ENDIAN);
+
+        lock.writeLock().lock();
+        try {
+            resetGraph(Math.max(16, count));
+            dimension = count == 0 ? -1 : dim;
+            for (int node = 0; node < count; node++) {
+                byte[] key = new byte[graph.getInt()];
+                graph.get(key);
+                keys[node] = new String(key, StandardCharsets.UTF_8);
+            }
+            for (int node = 0; node < count; node++) {
+                int[][] nodeLinks = new int[graph.getInt()][];
+                for (int level = 0; level < nodeLinks.length; level++) {
+                    int[] levelLinks = new int[graph.getInt() + 1];
+                    levelLinks[0] = graph.getInt();
+                    for (int i = 1; i <= levelLinks[0]; i++) {
+                        levelLinks[i] = graph.getInt();
+                    }
+                    nodeLinks[level] = levelLinks;
+                }
+                links[node] = nodeLinks;
+            }
+            for (int i = 0; i < snapshotDeletedCount; i++) {
+                deleted.set(graph.getInt());
+            }
+            for (int node = 0; node < count; node++) {
+                if (!deleted.get(node)) {
+                    nodeByKey.put(keys[node], node);
+                }
+            }
+            nodeCount = count;
+            deletedCount = snapshotDeletedCount;
+            mapped = snapshotVectors;
+            mappedCount = count;
+            entryPoint = snapshotEntryPoint;
+            maxLevel = snapshotMaxLevel;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void resetGraph(int capacity) {
+        vectors = new float[capacity][];
+        mapped = null;
+        mappedCount = 0;
+        keys = new String[capacity];
+        links = new int[capacity][][];
+        nodeCount = 0;
+        deleted.clear();
+        deletedCount = 0;
+        nodeByKey.clear();
+        entryPoint = -1;
+        maxLevel = -1;
+    }
+
+    private void insert(String id, float[] vector) {
+        int node = nodeCount++;
+        ensureCapacity(nodeCount);
+        int level = randomLevel();
+
+        vectors[node] = vector;
+        keys[node] = id;
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[maxConnections(l) + 1];
+        }
+        nodeByKey.put(id, node);
+
+        if (entryPoint == -1) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedySearch(vector, ep, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            ScoreHeap candidates = searchLayer(vector, ep, efConstruction, l, null);
+            long[] ordered = candidates.drainDescending();
+            ep = ScoreHeap.decodeNode(ordered[0]);
+
+            int[] selected = selectNeighbors(ordered, m);
+            int[] nodeLinks = links[node][l];
+            nodeLinks[0] = selected.length;
+            System.arraycopy(selected, 0, nodeLinks, 1, selected.length);
+
+            for (int neighbor : selected) {
+                connect(neighbor, node, l);
+            }
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * neighbor의 이웃 목록에 node를 추가하고, 가득 찬 경우 휴리스틱으로 다시 선별합니다.
+     */
+    private void connect(int neighbor, int node, int level) {
+        int[] neighborLinks = links[neighbor][level];
+        int count = neighborLinks[0];
+        int capacity = neighborLinks.length - 1;
+
+        if (count < capacity) {
+            neighborLinks[count + 1] = node;
+            neighborLinks[0] = count + 1;
+            return;
+        }
+
+        float[] base = vector(neighbor);
+        ScoreHeap candidates = ScoreHeap.maxHeap(count + 1);
+        candidates.push(similarity(base, node), node);
+        for (int i = 1; i <= count; i++) {
+            int existing = neighborLinks[i];
+            candidates.push(similarity(base, existing), existing);
+        }
+
+        int[] selected = selectNeighbors(candidates.drainDescending(), capacity);
+        neighborLinks[0] = selected.length;
+        System.arraycopy(selected, 0, neighborLinks, 1, selected.length);
+    }
+
+    /**
+     * HNSW 논문의 이웃 선택 휴리스틱. 이미 선택된 이웃보다 기준점에 더 가까운 후보만 고르고,
+     * 남는 자리는 제외된 후보 중 가까운 순으로 채웁니다.
+     */
+    private int[] selectNeighbors(long[] candidatesDescending, int limit) {
+        if (candidatesDescending.length <= limit) {
+            int[] all = new int[candidatesDescending.length];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = ScoreHeap.decodeNode(candidatesDescending[i]);
+            }
+            return all;
+        }
+
+        int[] selected = new int[limit];
+        int selectedCount = 0;
+        int[] pruned = new int[candidatesDescending.length];
+        int prunedCount = 0;
+
+        for (long encoded : candidatesDescending) {
+            if (selectedCount >= limit) {
+                break;
+            }
+            int candidate = ScoreHeap.decodeNode(encoded);
+            float similarityToBase = ScoreHeap.decodeScore(encoded);
+            float[] candidateVector = vector(candidate);
+            boolean keep = true;
+            for (int i = 0; i < selectedCount; i++) {
+                if (similarity(candidateVector, selected[i]) > similarityToBase) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[selectedCount++] = candidate;
+            } else {
+                pruned[prunedCount++] = candidate;
+            }
+        }
+
+        for (int i = 0; i < prunedCount && selectedCount < limit; i++) {
+            selected[selectedCount++] = pruned[i];
+        }
+        return selectedCount == limit ? selected : Arrays.copyOf(selected, selectedCount);
+    }
+
+    private int greedySearch(float[] query, int entry, int level) {
+        int current = entry;
+        float best = similarity(query, current);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[] currentLinks = links[current][level];
+            for (int i = 1; i <= currentLinks[0]; i++) {
+                int candidate = currentLinks[i];
+                float score = similarity(query, candidate);
+                if (score > best) {
+                    best = score;
+                    current = candidate;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 한 레벨에서 ef개의 최근접 후보를 찾습니다. 반환값은 결과 min-heap 입니다.
+     * accept가 있으면 통과하지 못한 노드는 탐색 경로로만 쓰고 결과에는 넣지 않습니다.
+     */
+    private ScoreHeap searchLayer(float[] query, int entry, int ef, int level, IntPredicate accept) {
+        VisitedSet visited = visitedSets.get();
+        visited.reset(nodeCount);
+
+        ScoreHeap candidates = ScoreHeap.maxHeap(ef * 2);
+        ScoreHeap results = ScoreHeap.minHeap(ef + 1);
+
+        float entryScore = similarity(query, entry);
+        visited.mark(entry);
+        candidates.push(entryScore, entry);
+        if (accept == null || accept.test(entry)) {
+            results.push(entryScore, entry);
+        }
+
+        while (!candidates.isEmpty()) {
+            long current = candidates.pop();
+            if (results.size() >= ef && ScoreHeap.decodeScore(current) < results.peekScore()) {
+                break;
+            }
+            int[] currentLinks = links[ScoreHeap.decodeNode(current)][level];
+            for (int i = 1; i <= currentLinks[0]; i++) {
+                int neighbor = currentLinks[i];
+                if (!visited.mark(neighbor)) {
+                    continue;
+                }
+                float score = similarity(query, neighbor);
+                if (results.size() < ef || score > results.peekScore()) {
+                    candidates.push(score, neighbor);
+                    if (accept == null || accept.test(neighbor)) {
+                        results.push(score, neighbor);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private void markDeleted(int node) {
+        if (!deleted.get(node)) {
+            deleted.set(node);
+            deletedCount++;
+            nodeByKey.remove(keys[node]);
+        }
+    }
+
+    /**
+     * 툼스톤이 너무 많아지면 살아있는 벡터로 그래프를 다시 구성합니다.
+     */
+    private void compactIfNeeded() {
+        if (deletedCount < COMPACTION_MIN_DELETED || deletedCount * 2 < nodeCount) {
+            return;
+        }
+        float[][] oldVectors = vectors;
+        MappedVectors oldMapped = mapped;
+        int oldMappedCount = mappedCount;
+        String[] oldKeys = keys;
+        int oldCount = nodeCount;
+        BitSet oldDeleted = (BitSet) deleted.clone();
+
+        // 다시 구성한 그래프의 벡터는 모두 힙에 보관
+        resetGraph(Math.max(16, oldCount - oldDeleted.cardinality()));
+        for (int node = 0; node < oldCount; node++) {
+            if (!oldDeleted.get(node)) {
+                insert(oldKeys[node], node < oldMappedCount ? oldMapped.copy(node) : oldVectors[node]);
+            }
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > vectors.length) {
+            int newCapacity = Math.max(required, vectors.length * 2);
+            vectors = Arrays.copyOf(vectors, newCapacity);
+            keys = Arrays.copyOf(keys, newCapacity);
+            links = Arrays.copyOf(links, newCapacity);
+        }
+    }
+
+    private float similarity(float[] query, int node) {
+        return node < mappedCount ? mapped.dot(query, node) : VectorMath.dot(query, vectors[node]);
+    }
+
+    private float[] vector(int node) {
+        return node < mappedCount ? mapped.copy(node) : vectors[node];
+    }
+
+    private int maxConnections(int level) {
+        return level == 0 ? maxM0 : m;
+    }
+
+    private int randomLevel() {
+        double uniform = 1.0 - random.nextDouble();
+        return (int) Math.floor(-Math.log(uniform) * levelMultiplier);
+    }
+
+    /**
+     * 세대 번호를 이용해 매 검색마다 배열을 지우지 않고 재사용하는 방문 집합
+     */
+    private static final class VisitedSet {
+        private int[] marks = new int[0];
+        private int generation;
+
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[Math.max(capacity, marks.length * 2)];
+                generation = 0;
+            }
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * @return 처음 방문하는 노드이면 true
+         */
+        boolean mark(int node) {
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+
+    /**
+     * 스냅샷 파일의 벡터 영역을 float 뷰로 매핑한 것.
+     * 하나의 매핑은 2GB를 넘을 수 없으므로 노드 단위로 나누어 여러 구간으로 매핑합니다.
+     */
+    private static final class MappedVectors {
+        private final FloatBuffer[] segments;
+        private final int nodesPerSegment;
+        private final int dimension;
+
+        private MappedVectors(FloatBuffer[] segments, int nodesPerSegment, int dimension) {
+            this.segments = segments;
+            this.nodesPerSegment = nodesPerSegment;
+            this.dimension = dimension;
+        }
+
+        static MappedVectors map(FileChannel channel, long offset, int count, int dimension) throws IOException {
+            long vectorBytes = (long) dimension * Float.BYTES;
+            int nodesPerSegment = (int) Math.max(1, Integer.MAX_VALUE / vectorBytes);
+            FloatBuffer[] segments = new FloatBuffer[(count + nodesPerSegment - 1) / nodesPerSegment];
+            for (int i = 0; i < segments.length; i++) {
+                int nodes = Math.min(nodesPerSegment, count - i * nodesPerSegment);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                                offset + i * nodesPerSegment * vectorBytes, nodes * vectorBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asFloatBuffer();
+            }
+            return new MappedVectors(segments, nodesPerSegment, dimension);
+        }
+
+        float dot(float[] query, int node) {
+            return VectorMath.dot(query, segments[node / nodesPerSegment], (node % nodesPerSegment) * dimension);
+        }
+
+        float[] copy(int node) {
+            float[] vector = new float[dimension];
+            segments[node / nodesPerSegment].get((node % nodesPerSegment) * dimension, vector, 0, dimension);
+            return vector;
+        }
+    }
+
+    /**
+     * 고정 크기 direct 버퍼에 모아 channel에 순차 기록하는 little-endian 작성기
+     */
+    private static final class SnapshotWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(SNAPSHOT_WRITE_BUFFER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        SnapshotWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() throws IOException {
+            return channel.position() + buffer.position();
+        }
+
+        void skip(int bytes) throws IOException {
+            flush();
+            channel.position(channel.position() + bytes);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putFloats(float[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                ensure(Float.BYTES);
+                int count = Math.min(values.length - offset, buffer.remaining() / Float.BYTES);
+                buffer.asFloatBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Float.BYTES);
+                offset += count;
+            }
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int count = Math.min(bytes.length - offset, buffer.remaining());
+                buffer.put(bytes, offset, count);
+                offset += count;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,859 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * IVF-PQ(inverted file + product quantization) 압축 벡터 인덱스.
+ *
+ * <p>벡터는 가장 가까운 coarse centroid의 역리스트에 들어가고, centroid와의 잔차는
+ * subquantizers개의 부분공간별 8비트 코드로 압축됩니다 (기본 64바이트/벡터).
+ * 검색은 쿼리별 비대칭 거리 테이블(ADC)로 후보를 고른 뒤, 상위 후보만
+ * {@link ExactVectorLoader}로 원본 벡터를 읽어 정확한 코사인 유사도로 재정렬합니다.
+ *
+ * <p>학습 전까지는 원본 벡터를 그대로 보관하며 전수 검색하고, trainingSize에 도달하면
+ * 그 표본으로 centroid와 코드북을 학습합니다. 학습은 전용 스레드에서 진행되며, 게시되기
+ * 전까지 들어온 벡터도 계속 전수 검색 대상으로 남습니다. nprobe는 학습 표본에 대해 측정한
+ * recall@10이 recallTarget 이상이 되는 가장 작은 값으로 보정됩니다.
+ */
+public class IvfPqVectorIndex implements VectorIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(IvfPqVectorIndex.class);
+
+    private static final int CODEBOOK_SIZE = 256;
+    private static final int KMEANS_ITERATIONS = 12;
+    private static final int CALIBRATION_QUERIES = 64;
+    private static final int CALIBRATION_K = 10;
+    private static final int COMPACTION_MIN_DELETED = 1024;
+    private static final int MAX_RERANK_FACTOR = 64;
+    private static final int MAX_KMEANS_THREADS = 4;
+    // 필터 통과 항목이 이보다 적으면 역리스트 대신 통과 항목의 원본 벡터만 읽어 정확히 점수화
+    // (재정렬 단계가 읽는 후보 수와 비슷한 규모)
+    private static final int FILTER_EXACT_MAX = 512;
+
+    private final int nlist;
+    private final int subquantizers;
+    private final int trainingSize;
+    private final int rerankFactor;
+    private final double recallTarget;
+    private final ExactVectorLoader exactVectorLoader;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService trainingExecutor = Executors.newSingleThreadExecutor(
+            daemonThreads("ivfpq-trainer"));
+
+    private int dimension = -1;
+    // 학습 전이거나 학습 중에 들어온 정규화된 원본 벡터
+    private final Map<String, float[]> pending = new LinkedHashMap<>();
+    private boolean training;
+    // clear() 이전에 시작된 학습 결과가 게시되지 않도록 구분하는 세대 번호
+    private int generation;
+
+    private Quantizer quantizer;
+    private InvertedList[] lists;
+    private String[] keys = new String[16];
+    private int ordinalCount;
+    private final Map<String, Integer> ordinalByKey = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+
+    public IvfPqVectorIndex(int nlist, int subquantizers, int trainingSize, double recallTarget,
+                            int rerankFactor, ExactVectorLoader exactVectorLoader) {
+        if (nlist < 1 || subquantizers < 1) {
+            throw new IllegalArgumentException("nlist and subquantizers must be positive");
+        }
+        this.nlist = nlist;
+        this.subquantizers = subquantizers;
+        this.trainingSize = Math.max(trainingSize, CODEBOOK_SIZE);
+        this.recallTarget = Math.min(Math.max(recallTarget, 0.0), 1.0);
+        this.rerankFactor = Math.max(rerankFactor, 1);
+        this.exactVectorLoader = exactVectorLoader;
+    }
+
+    @Override
+    public void upsert(String id, float[] vector) {
+        float[] normalized = VectorMath.normalize(vector);
+        Map<String, float[]> trainingSample = null;
+        int trainingGeneration = 0;
+
+        lock.writeLock().lock();
+        try {
+            if (dimension == -1) {
+                if (normalized.length < subquantizers) {
+                    throw new IllegalArgumentException("Vector dimension " + normalized.length
+                            + " is smaller than the number of subquantizers " + subquantizers);
+                }
+                dimension = normalized.length;
+            } else if (dimension != normalized.length) {
+                throw new IllegalArgumentException(
+                        "Vector dimension mismatch: expected " + dimension + " but was " + normalized.length);
+            }
+
+            removeInternal(id);
+            if (quantizer == null || training) {
+                pending.put(id, normalized);
+                if (quantizer == null && !training && pending.size() >= trainingSize) {
+                    training = true;
+                    trainingSample = new LinkedHashMap<>(pending);
+                    trainingGeneration = generation;
+                }
+            } else {
+                addEncoded(id, normalized);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (trainingSample != null) {
+            Map<String, float[]> sample = trainingSample;
+            int sampleGeneration = trainingGeneration;
+            trainingExecutor.execute(() -> trainAndPublish(sample, sampleGeneration));
+        }
+    }
+
+    @Override
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            return removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<SearchHit> search(float[] query, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        float[] normalized = VectorMath.normalize(query);
+        List<SearchHit> exactHits = new ArrayList<>();
+        long[] candidates;
+        String[] candidateKeys;
+
+        lock.readLock().lock();
+        try {
+            if (dimension == -1 || normalized.length != dimension) {
+                return List.of();
+            }
+            for (Map.Entry<String, float[]> entry : pending.entrySet()) {
+                exactHits.add(new SearchHit(entry.getKey(), VectorMath.dot(normalized, entry.getValue())));
+            }
+            if (quantizer == null) {
+                candidates = new long[0];
+            } else {
+                candidates = scan(quantizer, lists, deleted, null, normalized, quantizer.nprobe,
+                        k * quantizer.rerankFactor);
+            }
+            candidateKeys = candidateKeys(candidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return rerank(normalized, k, exactHits, candidates, candidateKeys);
+    }
+
+    /**
+     * 필터 통과 항목이 적으면 해당 항목의 원본 벡터만 읽어 정확히 점수화하고,
+     * 많으면 역리스트를 스캔하면서 통과 항목만 후보에 넣되 통과 비율만큼 nprobe를 늘립니다.
+     */
+    @Override
+    public List<SearchHit> search(float[] query, int k, SearchFilter filter) {
+        int cardinality = filter.cardinality();
+        if (k <= 0 || cardinality == 0) {
+            return List.of();
+        }
+        float[] normalized = VectorMath.normalize(query);
+        List<SearchHit> exactHits = new ArrayList<>();
+        List<String> filteredIds = new ArrayList<>();
+        long[] candidates = new long[0];
+        String[] candidateKeys = new String[0];
+
+        lock.readLock().lock();
+        try {
+            if (dimension == -1 || normalized.length != dimension) {
+                return List.of();
+            }
+            for (Map.Entry<String, float[]> entry : pending.entrySet()) {
+                if (filter.accepts(entry.getKey())) {
+                    exactHits.add(new SearchHit(entry.getKey(), VectorMath.dot(normalized, entry.getValue())));
+                }
+            }
+            if (quantizer != null) {
+                if (cardinality <= FILTER_EXACT_MAX && exactVectorLoader != null) {
+                    filter.forEachId(id -> {
+                        if (ordinalByKey.containsKey(id)) {
+                            filteredIds.add(id);
+                        }
+                    });
+                } else {
+                    int live = ordinalByKey.size();
+                    int nprobe = (int) Math.min(quantizer.coarse.length,
+                            Math.max(quantizer.nprobe, (long) quantizer.nprobe * live / cardinality));
+                    String[] ordinalKeys = keys;
+                    candidates = scan(quantizer, lists, deleted, ordinal -> filter.accepts(ordinalKeys[ordinal]),
+                            normalized, nprobe, k * quantizer.rerankFactor);
+                    candidateKeys = candidateKeys(candidates);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (!filteredIds.isEmpty()) {
+            Map<String, float[]> exactVectors = exactVectorLoader.load(filteredIds);
+            for (Map.Entry<String, float[]> entry : exactVectors.entrySet()) {
+                if (entry.getValue().length == normalized.length) {
+                    exactHits.add(new SearchHit(entry.getKey(),
+                            VectorMath.dot(normalized, VectorMath.normalize(entry.getValue()))));
+                }
+            }
+        }
+        return rerank(normalized, k, exactHits, candidates, candidateKeys);
+    }
+
+    private String[] candidateKeys(long[] candidates) {
+        String[] candidateKeys = new String[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            candidateKeys[i] = keys[ScoreHeap.decodeNode(candidates[i])];
+        }
+        return candidateKeys;
+    }
+
+    /**
+     * ADC 후보를 원본 벡터의 정확한 점수로 바꿔 exactHits와 합친 뒤 상위 k개를 반환합니다.
+     */
+    private List<SearchHit> rerank(float[] normalized, int k, List<SearchHit> exactHits,
+                                   long[] candidates, String[] candidateKeys) {
+        // 원본 벡터는 락 밖에서 필요한 후보만 읽어 정확한 점수로 재정렬
+        Map<String, float[]> exactVectors = candidateKeys.length == 0 || exactVectorLoader == null
+                ? Map.of()
+                : exactVectorLoader.load(Arrays.asList(candidateKeys));
+        for (int i = 0; i < candidates.length; i++) {
+            float[] exact = exactVectors.get(candidateKeys[i]);
+            float score = exact != null && exact.length == normalized.length
+                    ? VectorMath.dot(normalized, VectorMath.normalize(exact))
+                    // 단위 벡터 사이의 제곱 거리 d에 대해 cos = 1 - d / 2
+                    : 1.0f + ScoreHeap.decodeScore(candidates[i]) / 2.0f;
+            exactHits.add(new SearchHit(candidateKeys[i], score));
+        }
+
+        exactHits.sort((a, b) -> Float.compare(b.getScore(), a.getScore()));
+        return exactHits.size() > k ? new ArrayList<>(exactHits.subList(0, k)) : exactHits;
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return pending.size() + ordinalByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            dimension = -1;
+            pending.clear();
+            quantizer = null;
+            lists = null;
+            keys = new String[16];
+            ordinalCount = 0;
+            ordinalByKey.clear();
+            deleted.clear();
+            deletedCount = 0;
+            training = false;
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 학습 스레드를 종료합니다. Spring이 빈 소멸 시 자동으로 호출합니다.
+     */
+    public void shutdown() {
+        trainingExecutor.shutdownNow();
+    }
+
+    /**
+     * 이미 예약된 학습이 끝날 때까지 기다립니다 (테스트용)
+     */
+    void awaitTraining(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        trainingExecutor.submit(() -> { }).get(timeout, unit);
+    }
+
+    /**
+     * 압축 코드 저장에 사용되는 대략적인 바이트 수 (역리스트 코드 + ordinal)
+     */
+    public long encodedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) ordinalByKey.size() * (subquantizers + Integer.BYTES);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 보정된 nprobe 값 (학습 전에는 0)
+     */
+    public int getNprobe() {
+        lock.readLock().lock();
+        try {
+            return quantizer != null ? quantizer.nprobe : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public boolean isTrained() {
+        lock.readLock().lock();
+        try {
+            return quantizer != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeInternal(String id) {
+        if (pending.remove(id) != null) {
+            return true;
+        }
+        Integer ordinal = ordinalByKey.remove(id);
+        if (ordinal == null) {
+            return false;
+        }
+        deleted.set(ordinal);
+        deletedCount++;
+        compactIfNeeded();
+        return true;
+    }
+
+    private void addEncoded(String id, float[] normalized) {
+        int ordinal = ordinalCount++;
+        if (ordinal == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        }
+        keys[ordinal] = id;
+        ordinalByKey.put(id, ordinal);
+
+        byte[] code = new byte[subquantizers];
+        int list = quantizer.encode(normalized, code);
+        lists[list].add(ordinal, code);
+    }
+
+    /**
+     * 표본으로 양자화기를 학습하고, 학습 중 쌓인 벡터까지 모두 인코딩해 게시합니다.
+     */
+    private void trainAndPublish(Map<String, float[]> sample, int sampleGeneration) {
+        Quantizer trained;
+        int threads = Math.max(1, Math.min(MAX_KMEANS_THREADS, Runtime.getRuntime().availableProcessors() / 2));
+        ExecutorService kmeansPool = Executors.newFixedThreadPool(threads, daemonThreads("ivfpq-kmeans"));
+        try {
+            long start = System.currentTimeMillis();
+            float[][] vectors = sample.values().toArray(new float[0][]);
+            trained = train(vectors, kmeansPool);
+            logger.info("IVF-PQ quantizer trained on {} vectors in {} ms (nlist={}, nprobe={}, rerankFactor={})",
+                    vectors.length, System.currentTimeMillis() - start, trained.coarse.length,
+                    trained.nprobe, trained.rerankFactor);
+        } catch (RuntimeException e) {
+            logger.error("IVF-PQ training failed; continuing with exact search", e);
+            lock.writeLock().lock();
+            try {
+                if (generation == sampleGeneration) {
+                    training = false;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        } finally {
+            kmeansPool.shutdownNow();
+        }
+
+        // 검색이 멈추지 않도록 현재 pending 스냅샷은 락 밖에서 인코딩
+        Map<String, float[]> snapshot;
+        lock.readLock().lock();
+        try {
+            snapshot = new LinkedHashMap<>(pending);
+        } finally {
+            lock.readLock().unlock();
+        }
+        InvertedList[] encodedLists = newLists(trained.coarse.length, subquantizers);
+        String[] encodedKeys = new String[Math.max(16, snapshot.size())];
+        Map<String, Integer> encodedOrdinals = new HashMap<>();
+        int encodedCount = 0;
+        for (Map.Entry<String, float[]> entry : snapshot.entrySet()) {
+            byte[] code = new byte[subquantizers];
+            encodedLists[trained.encode(entry.getValue(), code)].add(encodedCount, code);
+            encodedKeys[encodedCount] = entry.getKey();
+            encodedOrdinals.put(entry.getKey(), encodedCount);
+            encodedCount++;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (generation != sampleGeneration) {
+                logger.info("IVF-PQ index was cleared during training; discarding trained quantizer");
+                return;
+            }
+            quantizer = trained;
+            lists = encodedLists;
+            keys = encodedKeys;
+            ordinalCount = encodedCount;
+            ordinalByKey.putAll(encodedOrdinals);
+            // 스냅샷 이후 제거되거나 교체된 벡터는 삭제 표시하고, 새로 들어온 벡터만 락 안에서 인코딩
+            for (Map.Entry<String, float[]> entry : snapshot.entrySet()) {
+                if (pending.get(entry.getKey()) != entry.getValue()) {
+                    deleted.set(ordinalByKey.remove(entry.getKey()));
+                    deletedCount++;
+                }
+            }
+            for (Map.Entry<String, float[]> entry : pending.entrySet()) {
+                if (snapshot.get(entry.getKey()) != entry.getValue()) {
+                    addEncoded(entry.getKey(), entry.getValue());
+                }
+            }
+            pending.clear();
+            training = false;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Quantizer train(float[][] vectors, ExecutorService kmeansPool) {
+        Random random = new Random(42);
+        int coarseCount = Math.max(1, Math.min(nlist, vectors.length / 39));
+        float[][] coarse = kmeans(vectors, coarseCount, random, kmeansPool);
+
+        int[] assignments = new int[vectors.length];
+        float[][] residuals = new float[vectors.length][];
+        for (int i = 0; i < vectors.length; i++) {
+            assignments[i] = nearest(coarse, vectors[i]);
+            residuals[i] = subtract(vectors[i], coarse[assignments[i]]);
+        }
+
+        int[] subStart = new int[subquantizers + 1];
+        for (int s = 0; s <= subquantizers; s++) {
+            subStart[s] = s * vectors[0].length / subquantizers;
+        }
+        float[][] codebooks = new float[subquantizers][];
+        for (int s = 0; s < subquantizers; s++) {
+            int from = subStart[s];
+            int width = subStart[s + 1] - from;
+            float[][] subVectors = new float[residuals.length][];
+            for (int i = 0; i < residuals.length; i++) {
+                subVectors[i] = Arrays.copyOfRange(residuals[i], from, from + width);
+            }
+            float[][] centroids = kmeans(subVectors, Math.min(CODEBOOK_SIZE, subVectors.length), random,
+                    kmeansPool);
+            float[] flat = new float[CODEBOOK_SIZE * width];
+            for (int c = 0; c < centroids.length; c++) {
+                System.arraycopy(centroids[c], 0, flat, c * width, width);
+            }
+            codebooks[s] = flat;
+        }
+
+        Quantizer trained = new Quantizer(coarse, codebooks, subStart, Math.min(CODEBOOK_SIZE, vectors.length));
+        calibrate(trained, vectors, random);
+        return trained;
+    }
+
+    /**
+     * 학습 표본 일부를 쿼리로 사용해 recall 목표를 만족하는 nprobe와 재정렬 후보 배수를 찾습니다.
+     */
+    private void calibrate(Quantizer trained, float[][] vectors, Random random) {
+        InvertedList[] sampleLists = newLists(trained.coarse.length, subquantizers);
+        for (int i = 0; i < vectors.length; i++) {
+            byte[] code = new byte[subquantizers];
+            sampleLists[trained.encode(vectors[i], code)].add(i, code);
+        }
+
+        // 표본 벡터를 쿼리로 쓰되 자기 자신은 정답과 결과에서 제외 (leave-one-out)
+        int queryCount = Math.min(CALIBRATION_QUERIES, vectors.length);
+        int k = Math.min(CALIBRATION_K, vectors.length - 1);
+        int[] queryOrdinals = new int[queryCount];
+        int[][] truth = new int[queryCount][];
+        for (int q = 0; q < queryCount; q++) {
+            queryOrdinals[q] = random.nextInt(vectors.length);
+            truth[q] = bruteForceTopK(vectors, vectors[queryOrdinals[q]], k, queryOrdinals[q]);
+        }
+
+        // nprobe(역리스트 수)와 재정렬 후보 배수를 번갈아 늘리며 목표 recall을 만족하는 가장 싼 조합을 탐색
+        int nprobe = 1;
+        int rerank = rerankFactor;
+        double recall = measureRecall(trained, sampleLists, vectors, queryOrdinals, truth, k, nprobe, rerank);
+        while (recall < recallTarget) {
+            boolean canProbe = nprobe < trained.coarse.length;
+            boolean canRerank = rerank < MAX_RERANK_FACTOR;
+            if (!canProbe && !canRerank) {
+                break;
+            }
+            double probeRecall = canProbe
+                    ? measureRecall(trained, sampleLists, vectors, queryOrdinals, truth, k,
+                                    Math.min(nprobe * 2, trained.coarse.length), rerank)
+                    : -1.0;
+            double rerankRecall = canRerank
+                    ? measureRecall(trained, sampleLists, vectors, queryOrdinals, truth, k, nprobe, rerank * 2)
+                    : -1.0;
+            // 재정렬은 원본 벡터 조회 비용이 들기 때문에 비슷하면 nprobe를 늘리는 쪽을 선호
+            if (probeRecall >= rerankRecall - 0.01) {
+                nprobe = Math.min(nprobe * 2, trained.coarse.length);
+                recall = probeRecall;
+            } else {
+                rerank *= 2;
+                recall = rerankRecall;
+            }
+        }
+        logger.debug("IVF-PQ calibration: nprobe={} rerankFactor={} recall@{}={}", nprobe, rerank, k, recall);
+        trained.nprobe = nprobe;
+        trained.rerankFactor = rerank;
+    }
+
+    private double measureRecall(Quantizer trained, InvertedList[] sampleLists, float[][] vectors,
+                                 int[] queryOrdinals, int[][] truth, int k, int nprobe, int rerank) {
+        BitSet none = new BitSet();
+        int found = 0;
+        for (int q = 0; q < queryOrdinals.length; q++) {
+            float[] query = vectors[queryOrdinals[q]];
+            long[] candidates = scan(trained, sampleLists, none, null, query, nprobe, (k + 1) * rerank);
+            ScoreHeap reranked = ScoreHeap.minHeap(k + 1);
+            for (long candidate : candidates) {
+                int ordinal = ScoreHeap.decodeNode(candidate);
+                if (ordinal != queryOrdinals[q]) {
+                    reranked.pushBounded(VectorMath.dot(query, vectors[ordinal]), ordinal, k);
+                }
+            }
+            BitSet returned = new BitSet();
+            while (!reranked.isEmpty()) {
+                returned.set(ScoreHeap.decodeNode(reranked.pop()));
+            }
+            for (int expected : truth[q]) {
+                if (returned.get(expected)) {
+                    found++;
+                }
+            }
+        }
+        return (double) found / (queryOrdinals.length * k);
+    }
+
+    /**
+     * nprobe개의 역리스트를 ADC로 스캔해 거리가 가까운 limit개 후보를 (점수 = -거리) 형태로 반환합니다.
+     * accept가 주어지면 이를 통과한 ordinal만 후보가 됩니다.
+     */
+    private static long[] scan(Quantizer quantizer, InvertedList[] lists, BitSet deleted, IntPredicate accept,
+                               float[] query, int nprobe, int limit) {
+        int probes = Math.min(nprobe, quantizer.coarse.length);
+        ScoreHeap nearestLists = ScoreHeap.minHeap(probes + 1);
+        for (int c = 0; c < quantizer.coarse.length; c++) {
+            nearestLists.pushBounded(-VectorMath.squaredDistance(query, quantizer.coarse[c]), c, probes);
+        }
+
+        int subquantizers = quantizer.subStart.length - 1;
+        float[] table = new float[subquantizers * CODEBOOK_SIZE];
+        float[] residual = new float[query.length];
+        ScoreHeap results = ScoreHeap.minHeap(limit + 1);
+
+        while (!nearestLists.isEmpty()) {
+            int listId = ScoreHeap.decodeNode(nearestLists.pop());
+            InvertedList list = lists[listId];
+            if (list.size == 0) {
+                continue;
+            }
+            float[] centroid = quantizer.coarse[listId];
+            for (int i = 0; i < query.length; i++) {
+                residual[i] = query[i] - centroid[i];
+            }
+            quantizer.fillDistanceTable(residual, table);
+
+            byte[] codes = list.codes;
+            for (int entry = 0; entry < list.size; entry++) {
+                int ordinal = list.ordinals[entry];
+                if (deleted.get(ordinal) || (accept != null && !accept.test(ordinal))) {
+                    continue;
+                }
+                float distance = 0.0f;
+                int offset = entry * subquantizers;
+                for (int s = 0; s < subquantizers; s++) {
+                    distance += table[s * CODEBOOK_SIZE + (codes[offset + s] & 0xFF)];
+                }
+                results.pushBounded(-distance, ordinal, limit);
+            }
+        }
+        return results.drainDescending();
+    }
+
+    private void compactIfNeeded() {
+        if (quantizer == null || deletedCount < COMPACTION_MIN_DELETED || deletedCount * 2 < ordinalCount) {
+            return;
+        }
+        int[] remap = new int[ordinalCount];
+        String[] compactKeys = new String[Math.max(16, ordinalCount - deletedCount)];
+        int next = 0;
+        for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+            if (deleted.get(ordinal)) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = next;
+                compactKeys[next] = keys[ordinal];
+                ordinalByKey.put(keys[ordinal], next);
+                next++;
+            }
+        }
+        for (InvertedList list : lists) {
+            list.compact(remap, subquantizers);
+        }
+        keys = compactKeys;
+        ordinalCount = next;
+        deleted.clear();
+        deletedCount = 0;
+    }
+
+    private static int[] bruteForceTopK(float[][] vectors, float[] query, int k, int excluded) {
+        ScoreHeap heap = ScoreHeap.minHeap(k + 1);
+        for (int i = 0; i < vectors.length; i++) {
+            if (i != excluded) {
+                heap.pushBounded(VectorMath.dot(query, vectors[i]), i, k);
+            }
+        }
+        int[] result = new int[heap.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ScoreHeap.decodeNode(heap.pop());
+        }
+        return result;
+    }
+
+    private static float[][] kmeans(float[][] points, int k, Random random, ExecutorService pool) {
+        int dim = points[0].length;
+        float[][] centroids = new float[k][];
+        int[] order = IntStream.range(0, points.length).toArray();
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(points.length - i);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+            centroids[i] = points[order[i]].clone();
+        }
+
+        int[] assignments = new int[points.length];
+        for (int iteration = 0; iteration < KMEANS_ITERATIONS; iteration++) {
+            assignNearest(points, centroids, assignments, pool);
+
+            float[][] sums = new float[k][dim];
+            int[] counts = new int[k];
+            for (int i = 0; i < points.length; i++) {
+                float[] sum = sums[assignments[i]];
+                float[] point = points[i];
+                for (int d = 0; d < dim; d++) {
+                    sum[d] += point[d];
+                }
+                counts[assignments[i]]++;
+            }
+            float[][] updated = new float[k][];
+            for (int c = 0; c < k; c++) {
+                if (counts[c] == 0) {
+                    // 빈 클러스터는 임의의 점으로 다시 시작
+                    updated[c] = points[random.nextInt(points.length)].clone();
+                } else {
+                    updated[c] = sums[c];
+                    for (int d = 0; d < dim; d++) {
+                        updated[c][d] /= counts[c];
+                    }
+                }
+            }
+            centroids = updated;
+        }
+        return centroids;
+    }
+
+    /**
+     * 점들을 구간으로 나눠 전용 풀에서 가장 가까운 centroid를 할당합니다.
+     */
+    private static void assignNearest(float[][] points, float[][] centroids, int[] assignments, ExecutorService pool) {
+        int slices = Math.min(MAX_KMEANS_THREADS * 4, Math.max(1, points.length / 256));
+        List<Callable<Void>> tasks = new ArrayList<>(slices);
+        for (int slice = 0; slice < slices; slice++) {
+            int from = (int) ((long) points.length * slice / slices);
+            int to = (int) ((long) points.length * (slice + 1) / slices);
+            tasks.add(() -> {
+                for (int i = from; i < to; i++) {
+                    assignments[i] = nearest(centroids, points[i]);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("IVF-PQ training interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("IVF-PQ centroid assignment failed", e.getCause());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static int nearest(float[][] centroids, float[] point) {
+        int best = 0;
+        float bestDistance = Float.MAX_VALUE;
+        for (int c = 0; c < centroids.length; c++) {
+            float distance = VectorMath.squaredDistance(point, centroids[c]);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static InvertedList[] newLists(int count, int codeSize) {
+        InvertedList[] result = new InvertedList[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = new InvertedList(codeSize);
+        }
+        return result;
+    }
+
+    private static float[] subtract(float[] a, float[] b) {
+        float[] result = new float[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] - b[i];
+        }
+        return result;
+    }
+
+    /**
+     * 학습된 coarse centroid와 부분공간 코드북
+     */
+    private static final class Quantizer {
+        private final float[][] coarse;
+        // 부분공간 s의 코드북: CODEBOOK_SIZE x width 를 평탄화
+        private final float[][] codebooks;
+        private final int[] subStart;
+        private final int codebookEntries;
+        private int nprobe = 1;
+        private int rerankFactor = 1;
+
+        private Quantizer(float[][] coarse, float[][] codebooks, int[] subStart, int codebookEntries) {
+            this.coarse = coarse;
+            this.codebooks = codebooks;
+            this.subStart = subStart;
+            this.codebookEntries = codebookEntries;
+        }
+
+        /**
+         * 벡터를 인코딩해 code에 채우고, 소속 역리스트 번호를 반환합니다.
+         */
+        int encode(float[] vector, byte[] code) {
+            int list = nearest(coarse, vector);
+            float[] residual = subtract(vector, coarse[list]);
+            for (int s = 0; s < code.length; s++) {
+                int from = subStart[s];
+                int width = subStart[s + 1] - from;
+                float[] codebook = codebooks[s];
+                int best = 0;
+                float bestDistance = Float.MAX_VALUE;
+                for (int c = 0; c < codebookEntries; c++) {
+                    float distance = VectorMath.squaredDistance(residual, from, codebook, c * width, width);
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = c;
+                    }
+                }
+                code[s] = (byte) best;
+            }
+            return list;
+        }
+
+        /**
+         * 잔차 쿼리에 대한 부분공간별 코드워드 거리 테이블을 계산합니다.
+         */
+        void fillDistanceTable(float[] residual, float[] table) {
+            for (int s = 0; s < codebooks.length; s++) {
+                int from = subStart[s];
+                int width = subStart[s + 1] - from;
+                float[] codebook = codebooks[s];
+                int tableOffset = s * CODEBOOK_SIZE;
+                for (int c = 0; c < codebookEntries; c++) {
+                    table[tableOffset + c] = VectorMath.squaredDistance(residual, from, codebook, c * width, width);
+                }
+                for (int c = codebookEntries; c < CODEBOOK_SIZE; c++) {
+                    table[tableOffset + c] = Float.MAX_VALUE;
+                }
+            }
+        }
+    }
+
+    /**
+     * 하나의 coarse centroid에 속한 벡터들의 ordinal과 PQ 코드
+     */
+    private static final class InvertedList {
+        private int[] ordinals = new int[8];
+        private byte[] codes;
+        private int size;
+
+        private InvertedList(int codeSize) {
+            this.codes = new byte[8 * codeSize];
+        }
+
+        void add(int ordinal, byte[] code) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                codes = Arrays.copyOf(codes, size * 2 * code.length);
+            }
+            ordinals[size] = ordinal;
+            System.arraycopy(code, 0, codes, size * code.length, code.length);
+            size++;
+        }
+
+        void compact(int[] remap, int codeSize) {
+            int next = 0;
+            for (int entry = 0; entry < size; entry++) {
+                int mapped = remap[ordinals[entry]];
+                if (mapped < 0) {
+                    continue;
+                }
+                ordinals[next] = mapped;
+                if (next != entry) {
+                    System.arraycopy(codes, entry * codeSize, codes, next * codeSize, codeSize);
+                }
+                next++;
+            }
+            size = next;
+        }
+    }
+}
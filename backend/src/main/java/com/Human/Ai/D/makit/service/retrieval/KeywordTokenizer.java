@@ -0,0 +1,58 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 키워드 검색용 토크나이저.
+ * 영문/숫자는 소문자 단어 단위로, 한글·한자·가나 연속 구간은 문자 bigram으로 분리합니다.
+ * 조사나 어미가 붙어도 어간 bigram이 겹치므로 형태소 분석 없이도 한국어 부분 일치가 가능합니다.
+ */
+public final class KeywordTokenizer {
+
+    private KeywordTokenizer() {}
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < length && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    tokens.add(text.substring(start, i));
+                } else {
+                    for (int j = start; j + 1 < i; j++) {
+                        tokens.add(text.substring(j, j + 2));
+                    }
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(text.charAt(i)) && !isCjk(text.charAt(i))) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HANGUL
+                || script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA;
+    }
+}
@@ -0,0 +1,285 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * 청크 메타데이터 필터 표현식. {@link MetadataIndex}의 비트맵에 대한 AND/OR/NOT으로 평가됩니다.
+ *
+ * <p>문자열 형식: {@code tag:promotion AND (type:FAQ OR type:GUIDE) AND NOT source:legacy}.
+ * 공백이나 괄호가 들어간 값은 큰따옴표로 감쌉니다. 연산자와 필드 이름은 대소문자를 구분하지 않습니다.
+ */
+public abstract class MetadataFilter {
+
+    public enum Field {
+        TAG, TYPE, SOURCE
+    }
+
+    public static MetadataFilter tag(String value) {
+        return new Term(Field.TAG, value);
+    }
+
+    public static MetadataFilter type(String value) {
+        return new Term(Field.TYPE, value);
+    }
+
+    public static MetadataFilter source(String value) {
+        return new Term(Field.SOURCE, value);
+    }
+
+    public static MetadataFilter and(MetadataFilter... filters) {
+        return new And(Arrays.asList(filters));
+    }
+
+    public static MetadataFilter or(MetadataFilter... filters) {
+        return new Or(Arrays.asList(filters));
+    }
+
+    public static MetadataFilter not(MetadataFilter filter) {
+        return new Not(filter);
+    }
+
+    public MetadataFilter and(MetadataFilter other) {
+        return and(this, other);
+    }
+
+    public MetadataFilter or(MetadataFilter other) {
+        return or(this, other);
+    }
+
+    /**
+     * 문자열 표현식을 파싱합니다.
+     *
+     * @throws IllegalArgumentException 문법 오류 또는 알 수 없는 필드
+     */
+    public static MetadataFilter parse(String expression) {
+        Parser parser = new Parser(expression);
+        MetadataFilter filter = parser.parseOr();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected input");
+        }
+        return filter;
+    }
+
+    /**
+     * 읽기 잠금을 잡은 색인에 대해 평가합니다. 반환된 비트맵은 호출자가 수정해도 됩니다.
+     */
+    abstract RoaringBitmap evaluate(MetadataIndex index);
+
+    private static final class Term extends MetadataFilter {
+        private final Field field;
+        private final String value;
+
+        Term(Field field, String value) {
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException("Filter value for " + field + " must not be blank");
+            }
+            this.field = field;
+            this.value = value;
+        }
+
+        @Override
+        RoaringBitmap evaluate(MetadataIndex index) {
+            return index.valueBitmap(field, value);
+        }
+
+        @Override
+        public String toString() {
+            return field.name().toLowerCase(Locale.ROOT) + ":\"" + value + "\"";
+        }
+    }
+
+    private static final class And extends MetadataFilter {
+        private final List<MetadataFilter> filters;
+
+        And(List<MetadataFilter> filters) {
+            this.filters = List.copyOf(filters);
+        }
+
+        @Override
+        RoaringBitmap evaluate(MetadataIndex index) {
+            // 작은 집합부터 교집합을 구해 중간 결과를 빨리 줄임
+            List<RoaringBitmap> operands = new ArrayList<>(filters.size());
+            for (MetadataFilter filter : filters) {
+                operands.add(filter.evaluate(index));
+            }
+            operands.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+            RoaringBitmap result = operands.isEmpty() ? index.liveBitmap() : operands.get(0);
+            for (int i = 1; i < operands.size() && !result.isEmpty(); i++) {
+                result.and(operands.get(i));
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return filters.stream().map(Object::toString).collect(Collectors.joining(" AND ", "(", ")"));
+        }
+    }
+
+    private static final class Or extends MetadataFilter {
+        private final List<MetadataFilter> filters;
+
+        Or(List<MetadataFilter> filters) {
+            this.filters = List.copyOf(filters);
+        }
+
+        @Override
+        RoaringBitmap evaluate(MetadataIndex index) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (MetadataFilter filter : filters) {
+                result.or(filter.evaluate(index));
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return filters.stream().map(Object::toString).collect(Collectors.joining(" OR ", "(", ")"));
+        }
+    }
+
+    private static final class Not extends MetadataFilter {
+        private final MetadataFilter filter;
+
+        Not(MetadataFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        RoaringBitmap evaluate(MetadataIndex index) {
+            RoaringBitmap result = index.liveBitmap();
+            result.andNot(filter.evaluate(index));
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + filter;
+        }
+    }
+
+    /**
+     * 재귀 하강 파서. 우선순위는 NOT > AND > OR 입니다.
+     */
+    private static final class Parser {
+        private final String input;
+        private int position;
+
+        Parser(String input) {
+            this.input = input == null ? "" : input;
+        }
+
+        MetadataFilter parseOr() {
+            List<MetadataFilter> operands = new ArrayList<>();
+            operands.add(parseAnd());
+            while (consumeKeyword("OR")) {
+                operands.add(parseAnd());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Or(operands);
+        }
+
+        private MetadataFilter parseAnd() {
+            List<MetadataFilter> operands = new ArrayList<>();
+            operands.add(parseUnary());
+            while (consumeKeyword("AND")) {
+                operands.add(parseUnary());
+            }
+            return operands.size() == 1 ? operands.get(0) : new And(operands);
+        }
+
+        private MetadataFilter parseUnary() {
+            if (consumeKeyword("NOT")) {
+                return new Not(parseUnary());
+            }
+            skipWhitespace();
+            if (peek() == '(') {
+                position++;
+                MetadataFilter inner = parseOr();
+                skipWhitespace();
+                if (peek() != ')') {
+                    throw error("Expected ')'");
+                }
+                position++;
+                return inner;
+            }
+            return parseTerm();
+        }
+
+        private MetadataFilter parseTerm() {
+            int start = position;
+            while (!atEnd() && Character.isLetter(input.charAt(position))) {
+                position++;
+            }
+            String fieldName = input.substring(start, position);
+            if (peek() != ':') {
+                throw error("Expected field:value");
+            }
+            position++;
+
+            Field field;
+            try {
+                field = Field.valueOf(fieldName.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw error("Unknown filter field '" + fieldName + "'");
+            }
+            return new Term(field, parseValue());
+        }
+
+        private String parseValue() {
+            if (peek() == '"') {
+                int end = input.indexOf('"', position + 1);
+                if (end < 0) {
+                    throw error("Unterminated quoted value");
+                }
+                String value = input.substring(position + 1, end);
+                position = end + 1;
+                return value;
+            }
+            int start = position;
+            while (!atEnd() && !Character.isWhitespace(peek()) && peek() != '(' && peek() != ')') {
+                position++;
+            }
+            if (start == position) {
+                throw error("Expected value");
+            }
+            return input.substring(start, position);
+        }
+
+        private boolean consumeKeyword(String keyword) {
+            skipWhitespace();
+            int end = position + keyword.length();
+            if (end <= input.length() && input.regionMatches(true, position, keyword, 0, keyword.length())
+                    && (end == input.length() || Character.isWhitespace(input.charAt(end)) || input.charAt(end) == '(')) {
+                position = end;
+                return true;
+            }
+            return false;
+        }
+
+        void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(input.charAt(position))) {
+                position++;
+            }
+        }
+
+        boolean atEnd() {
+            return position >= input.length();
+        }
+
+        private char peek() {
+            return atEnd() ? '\0' : input.charAt(position);
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position + " in filter: " + input);
+        }
+    }
+}
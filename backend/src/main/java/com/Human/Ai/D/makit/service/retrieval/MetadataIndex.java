@@ -0,0 +1,295 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 청크 메타데이터(태그, 문서 유형, 출처)별 Roaring 비트맵 색인.
+ * 청크마다 프로세스 내 고유 번호를 부여하고, 값마다 해당 번호들의 압축 비트맵을 유지합니다.
+ * 필터 표현식은 비트맵 AND/OR로 평가되므로 검색 전에 대상 청크 집합을 DB 조인 없이 구할 수 있습니다.
+ * 번호는 같은 청크 ID에 대해 재사용되므로 문서를 다시 색인해도 번호 공간이 늘어나지 않고,
+ * 제거된 청크의 번호가 절반을 넘으면 살아있는 청크만 남겨 번호를 다시 매깁니다.
+ */
+public class MetadataIndex {
+
+    private static final int COMPACTION_MIN_REMOVED = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 압축 시에는 진행 중인 Match가 이전 사본을 계속 읽도록 맵과 배열을 새로 만들어 교체
+    private volatile Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile String[] ids = new String[16];
+    private Entry[] entries = new Entry[16];
+    private RoaringBitmap live = new RoaringBitmap();
+    private final Map<MetadataFilter.Field, Map<String, RoaringBitmap>> bitmaps = new HashMap<>();
+
+    public MetadataIndex() {
+        for (MetadataFilter.Field field : MetadataFilter.Field.values()) {
+            bitmaps.put(field, new HashMap<>());
+        }
+    }
+
+    /**
+     * 청크의 메타데이터를 색인합니다. 같은 ID가 이미 있으면 교체합니다.
+     */
+    public void upsert(String id, Collection<String> tags, String documentType, String source) {
+        Entry entry = new Entry(tags, documentType, source);
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(id);
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                unset(ordinal);
+            } else {
+                ordinal = ordinals.size();
+                ensureCapacity(ordinal + 1);
+                ids[ordinal] = id;
+                ordinals.put(id, ordinal);
+            }
+            entries[ordinal] = entry;
+            set(ordinal, entry);
+            live.add(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return 제거된 항목이 있었으면 true
+     */
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal == null || !live.contains(ordinal)) {
+                return false;
+            }
+            unset(ordinal);
+            entries[ordinal] = null;
+            live.remove(ordinal);
+            compactIfNeeded();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 필터 표현식을 평가해 통과하는 청크 집합을 반환합니다.
+     */
+    public Match match(MetadataFilter filter) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = RoaringBitmap.and(filter.evaluate(this), live);
+            return new Match(result, ids, ordinals);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 부여된 번호 수 (제거되었지만 아직 압축되지 않은 번호 포함)
+     */
+    int ordinalCount() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals = new ConcurrentHashMap<>();
+            ids = new String[16];
+            entries = new Entry[16];
+            live.clear();
+            bitmaps.values().forEach(Map::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 필드 값의 비트맵 사본. 읽기 잠금 안에서 필터 평가 중에만 호출됩니다.
+     */
+    RoaringBitmap valueBitmap(MetadataFilter.Field field, String value) {
+        RoaringBitmap bitmap = bitmap(field, value, false);
+        return bitmap == null ? new RoaringBitmap() : bitmap.clone();
+    }
+
+    /**
+     * 살아있는 전체 청크 비트맵 사본 (NOT 평가용)
+     */
+    RoaringBitmap liveBitmap() {
+        return live.clone();
+    }
+
+    private RoaringBitmap bitmap(MetadataFilter.Field field, String value, boolean create) {
+        Map<String, RoaringBitmap> values = bitmaps.get(field);
+        String key = normalize(value);
+        return create ? values.computeIfAbsent(key, k -> new RoaringBitmap()) : values.get(key);
+    }
+
+    private void set(int ordinal, Entry entry) {
+        for (String tag : entry.tags) {
+            bitmap(MetadataFilter.Field.TAG, tag, true).add(ordinal);
+        }
+        if (entry.documentType != null) {
+            bitmap(MetadataFilter.Field.TYPE, entry.documentType, true).add(ordinal);
+        }
+        if (entry.source != null) {
+            bitmap(MetadataFilter.Field.SOURCE, entry.source, true).add(ordinal);
+        }
+    }
+
+    /**
+     * 제거된 번호가 충분히 쌓이면 살아있는 청크에 0부터 번호를 다시 매기고 비트맵을 재구성합니다.
+     */
+    private void compactIfNeeded() {
+        int count = live.getCardinality();
+        int removed = ordinals.size() - count;
+        if (removed < COMPACTION_MIN_REMOVED || removed * 2 < ordinals.size()) {
+            return;
+        }
+        String[] compactIds = new String[Math.max(16, count)];
+        Entry[] compactEntries = new Entry[compactIds.length];
+        Map<String, Integer> compactOrdinals = new ConcurrentHashMap<>();
+        int next = 0;
+        IntIterator iterator = live.getIntIterator();
+        while (iterator.hasNext()) {
+            int ordinal = iterator.next();
+            compactIds[next] = ids[ordinal];
+            compactEntries[next] = entries[ordinal];
+            compactOrdinals.put(ids[ordinal], next);
+            next++;
+        }
+
+        bitmaps.values().forEach(Map::clear);
+        for (int ordinal = 0; ordinal < next; ordinal++) {
+            set(ordinal, compactEntries[ordinal]);
+        }
+        RoaringBitmap compactLive = new RoaringBitmap();
+        compactLive.add(0L, (long) next);
+        live = compactLive;
+        entries = compactEntries;
+        ids = compactIds;
+        ordinals = compactOrdinals;
+    }
+
+    private void unset(int ordinal) {
+        Entry entry = entries[ordinal];
+        if (entry == null) {
+            return;
+        }
+        for (String tag : entry.tags) {
+            clearBit(MetadataFilter.Field.TAG, tag, ordinal);
+        }
+        if (entry.documentType != null) {
+            clearBit(MetadataFilter.Field.TYPE, entry.documentType, ordinal);
+        }
+        if (entry.source != null) {
+            clearBit(MetadataFilter.Field.SOURCE, entry.source, ordinal);
+        }
+    }
+
+    private void clearBit(MetadataFilter.Field field, String value, int ordinal) {
+        Map<String, RoaringBitmap> values = bitmaps.get(field);
+        String key = normalize(value);
+        RoaringBitmap bitmap = values.get(key);
+        if (bitmap != null) {
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                values.remove(key);
+            }
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > ids.length) {
+            int newCapacity = Math.max(required, ids.length * 2);
+            // 진행 중인 Match가 이전 배열을 계속 읽을 수 있도록 복사 후 교체
+            ids = Arrays.copyOf(ids, newCapacity);
+            entries = Arrays.copyOf(entries, newCapacity);
+        }
+    }
+
+    /**
+     * 값 비교는 대소문자와 앞뒤 공백을 무시합니다.
+     */
+    static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        private final Set<String> tags;
+        private final String documentType;
+        private final String source;
+
+        Entry(Collection<String> tags, String documentType, String source) {
+            this.tags = tags == null ? Set.of() : new LinkedHashSet<>(tags);
+            this.documentType = documentType;
+            this.source = source;
+        }
+    }
+
+    /**
+     * 필터 평가 결과. 평가 시점의 청크 집합을 고정해 보관하므로 이후 색인 변경의 영향을 받지 않습니다.
+     */
+    public static final class Match implements SearchFilter {
+        private final RoaringBitmap ordinals;
+        private final String[] ids;
+        private final Map<String, Integer> ordinalById;
+
+        private Match(RoaringBitmap ordinals, String[] ids, Map<String, Integer> ordinalById) {
+            this.ordinals = ordinals;
+            this.ids = ids;
+            this.ordinalById = ordinalById;
+        }
+
+        @Override
+        public int cardinality() {
+            return ordinals.getCardinality();
+        }
+
+        @Override
+        public boolean accepts(String id) {
+            Integer ordinal = ordinalById.get(id);
+            return ordinal != null && ordinals.contains(ordinal);
+        }
+
+        @Override
+        public void forEachId(Consumer<String> action) {
+            IntIterator iterator = ordinals.getIntIterator();
+            while (iterator.hasNext()) {
+                action.accept(ids[iterator.next()]);
+            }
+        }
+
+        public boolean isEmpty() {
+            return ordinals.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import java.util.Arrays;
+
+/**
+ * (점수, 노드) 쌍을 long 하나로 인코딩해 박싱 없이 보관하는 이진 힙.
+ * 상위 32비트는 정렬 가능한 float 비트, 하위 32비트는 노드 번호입니다.
+ */
+final class ScoreHeap {
+
+    private final boolean maxHeap;
+    private long[] heap;
+    private int size;
+
+    ScoreHeap(int initialCapacity, boolean maxHeap) {
+        this.heap = new long[Math.max(initialCapacity, 4)];
+        this.maxHeap = maxHeap;
+    }
+
+    static ScoreHeap minHeap(int initialCapacity) {
+        return new ScoreHeap(initialCapacity, false);
+    }
+
+    static ScoreHeap maxHeap(int initialCapacity) {
+        return new ScoreHeap(initialCapacity, true);
+    }
+
+    static long encode(float score, int node) {
+        return ((long) sortableBits(score) << 32) | (node & 0xFFFFFFFFL);
+    }
+
+    static float decodeScore(long encoded) {
+        return Float.intBitsToFloat(sortableBits((int) (encoded >> 32)));
+    }
+
+    static int decodeNode(long encoded) {
+        return (int) encoded;
+    }
+
+    /**
+     * float 비트를 부호 있는 int 비교 순서와 일치하도록 변환합니다. (자기 역함수)
+     */
+    private static int sortableBits(float score) {
+        int bits = Float.floatToIntBits(score);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    private static int sortableBits(int bits) {
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    void push(float score, int node) {
+        pushEncoded(encode(score, node));
+    }
+
+    void pushEncoded(long value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(value, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    long peek() {
+        return heap[0];
+    }
+
+    float peekScore() {
+        return decodeScore(heap[0]);
+    }
+
+    long pop() {
+        long top = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && before(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!before(heap[child], last)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (size > 0) {
+            heap[i] = last;
+        }
+        return top;
+    }
+
+    /**
+     * 힙 크기를 limit 이하로 유지하면서 값을 추가합니다. (min-heap 기준 상위 limit개 유지)
+     */
+    void pushBounded(float score, int node, int limit) {
+        if (size < limit) {
+            push(score, node);
+        } else if (before(heap[0], encode(score, node))) {
+            pop();
+            push(score, node);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * 힙 내용을 점수 내림차순으로 정렬해 반환합니다. 힙은 비워집니다.
+     */
+    long[] drainDescending() {
+        long[] result = new long[size];
+        if (maxHeap) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = pop();
+            }
+        } else {
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = pop();
+            }
+        }
+        return result;
+    }
+
+    private boolean before(long a, long b) {
+        return maxHeap ? a > b : a < b;
+    }
+}
@@ -0,0 +1,22 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import java.util.function.Consumer;
+
+/**
+ * 검색 대상을 일부 항목으로 제한하는 필터.
+ * 인덱스는 통과 항목 수에 따라 통과 항목만 직접 점수화하거나, 탐색 중에 통과 여부를 확인합니다.
+ */
+public interface SearchFilter {
+
+    /**
+     * 필터를 통과하는 항목 수
+     */
+    int cardinality();
+
+    boolean accepts(String id);
+
+    /**
+     * 통과하는 항목 ID를 모두 순회합니다.
+     */
+    void forEachId(Consumer<String> action);
+}
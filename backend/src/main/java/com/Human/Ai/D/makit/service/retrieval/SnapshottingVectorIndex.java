@@ -0,0 +1,356 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * HNSW 인덱스를 버전별 스냅샷 파일과 변경 로그(WAL)로 디스크에 보존하는 래퍼.
+ * 시작 시 최신 스냅샷을 memory-mapped로 열고 그 이후의 WAL만 재적용하므로,
+ * DB에서 전체 임베딩을 읽어 그래프를 다시 만들지 않고도 곧바로 검색할 수 있습니다.
+ * 스냅샷 작성 시에는 이 객체의 모니터 안에서 WAL만 새 버전으로 전환하고, 본문은 모니터 밖에서
+ * 위임 인덱스의 읽기 락으로 기록하므로 그동안의 갱신은 막히지 않습니다. 전환 이후의 변경은 스냅샷과
+ * 새 WAL 양쪽에 들어갈 수 있지만 WAL 재적용은 같은 ID를 덮어쓰거나 지우는 것이라 결과가 같습니다.
+ */
+public class SnapshottingVectorIndex implements VectorIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshottingVectorIndex.class);
+
+    private static final int MAGIC = 0x4D4B5649; // "MKVI"
+    private static final int FORMAT_VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 32;
+    private static final String FILE_PREFIX = "vectors-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String WAL_SUFFIX = ".wal";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final byte OP_UPSERT = 1;
+    private static final byte OP_REMOVE = 2;
+
+    private final HnswVectorIndex delegate;
+    private final Path directory;
+    // 스냅샷 작성끼리만 직렬화 (갱신은 this 모니터)
+    private final Object snapshotLock = new Object();
+
+    private long version;
+    private DataOutputStream wal;
+    private long walEntries;
+
+    public SnapshottingVectorIndex(HnswVectorIndex delegate, Path directory) {
+        this.delegate = delegate;
+        this.directory = directory;
+    }
+
+    @Override
+    public synchronized void upsert(String id, float[] vector) {
+        delegate.upsert(id, vector);
+        appendWal(OP_UPSERT, id, vector);
+    }
+
+    @Override
+    public synchronized boolean remove(String id) {
+        boolean removed = delegate.remove(id);
+        if (removed) {
+            appendWal(OP_REMOVE, id, null);
+        }
+        return removed;
+    }
+
+    @Override
+    public List<SearchHit> search(float[] query, int k) {
+        return delegate.search(query, k);
+    }
+
+    @Override
+    public List<SearchHit> search(float[] query, int k, SearchFilter filter) {
+        return delegate.search(query, k, filter);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * 메모리의 인덱스만 비웁니다. 디스크의 스냅샷과 WAL은 다음 {@link #snapshot()}까지 유지됩니다.
+     */
+    @Override
+    public synchronized void clear() {
+        delegate.clear();
+    }
+
+    public List<String> ids() {
+        return delegate.ids();
+    }
+
+    /**
+     * 최신 스냅샷을 매핑하고 해당 버전 이후의 WAL을 차례로 재적용한 뒤 이후 변경을 마지막 WAL에 이어 기록합니다.
+     * 스냅샷 작성이 중단되어 WAL만 남은 버전도 이렇게 복구됩니다. 최신 스냅샷을 읽을 수 없으면 이전 버전을 시도합니다.
+     *
+     * @return 복원한 스냅샷의 작성 시각, 사용할 스냅샷이 없으면 null
+     */
+    public synchronized Instant restore() {
+        for (long candidate : fileVersions(SNAPSHOT_SUFFIX)) {
+            Path snapshotPath = snapshotPath(candidate);
+            try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                while (header.hasRemaining() && channel.read(header) >= 0) {
+                    // 헤더를 끝까지 읽음
+                }
+                header.flip();
+                if (header.remaining() < FILE_HEADER_BYTES || header.getInt() != MAGIC
+                        || header.getInt() != FORMAT_VERSION || header.getLong() != candidate) {
+                    throw new IOException("Unrecognized snapshot header");
+                }
+                Instant createdAt = Instant.ofEpochMilli(header.getLong());
+                delegate.readSnapshot(channel, FILE_HEADER_BYTES);
+
+                long replayed = 0;
+                long latest = candidate;
+                List<Long> walVersions = fileVersions(WAL_SUFFIX);
+                walVersions.sort(Comparator.naturalOrder());
+                for (long walVersion : walVersions) {
+                    if (walVersion >= candidate) {
+                        replayed += replayWal(walPath(walVersion));
+                        latest = walVersion;
+                    }
+                }
+                version = latest;
+                openWal(latest, StandardOpenOption.APPEND);
+                walEntries = replayed;
+                logger.info("Restored vector index snapshot v{} ({} vectors, {} WAL entries replayed)",
+                        candidate, delegate.size(), replayed);
+                return createdAt;
+
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not restore vector index snapshot: {}", snapshotPath, e);
+                delegate.clear();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 빈 새 버전 WAL로 전환한 뒤 현재 인덱스를 그 버전의 스냅샷으로 기록하고 이전 버전 파일을 삭제합니다.
+     * 임시 파일에 쓴 뒤 원자적으로 이름을 바꾸므로 작성 중 중단되어도 이전 스냅샷과 WAL은 그대로 남습니다.
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long next;
+            synchronized (this) {
+                Files.createDirectories(directory);
+                next = version + 1;
+                closeWal();
+                version = next;
+                walEntries = 0;
+                openWal(next, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+
+            Path target = snapshotPath(next);
+            Path temp = directory.resolve(target.getFileName() + TEMP_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(next).putLong(System.currentTimeMillis());
+                header.clear();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                delegate.writeSnapshot(channel);
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            deleteFilesBefore(next);
+            logger.info("Wrote vector index snapshot v{} with {} vectors", next, delegate.size());
+        }
+    }
+
+    /**
+     * 마지막 스냅샷 이후 WAL에 기록된 변경 수
+     */
+    public synchronized long walEntries() {
+        return walEntries;
+    }
+
+    /**
+     * 현재 스냅샷 버전. 스냅샷이 없으면 0
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    public synchronized void close() {
+        closeWal();
+    }
+
+    private void appendWal(byte op, String id, float[] vector) {
+        if (wal == null) {
+            // 아직 스냅샷이 없으면 다음 스냅샷에 포함됨
+            return;
+        }
+        try {
+            byte[] key = id.getBytes(StandardCharsets.UTF_8);
+            wal.writeByte(op);
+            wal.writeInt(key.length);
+            wal.write(key);
+            if (op == OP_UPSERT) {
+                wal.writeInt(vector.length);
+                for (float value : vector) {
+                    wal.writeFloat(value);
+                }
+            }
+            wal.flush();
+            walEntries++;
+        } catch (IOException e) {
+            // WAL에 남기지 못한 변경은 다음 시작 시 DB 대조로 복구됨
+            logger.error("Failed to append to vector index WAL, disabling it until the next snapshot", e);
+            closeWal();
+        }
+    }
+
+    /**
+     * WAL을 인덱스에 재적용합니다. 마지막 레코드가 잘려 있으면 그 앞까지만 적용하고 파일을 잘라냅니다.
+     */
+    private long replayWal(Path walPath) throws IOException {
+        if (!Files.exists(walPath)) {
+            return 0;
+        }
+        long applied = 0;
+        long validLength = 0;
+        try (InputStream file = Files.newInputStream(walPath);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            while (true) {
+                int op = in.read();
+                if (op < 0) {
+                    break;
+                }
+                byte[] key = new byte[in.readInt()];
+                in.readFully(key);
+                String id = new String(key, StandardCharsets.UTF_8);
+                long recordLength = 1 + Integer.BYTES + key.length;
+                if (op == OP_UPSERT) {
+                    float[] vector = new float[in.readInt()];
+                    for (int i = 0; i < vector.length; i++) {
+                        vector[i] = in.readFloat();
+                    }
+                    delegate.upsert(id, vector);
+                    recordLength += Integer.BYTES + (long) vector.length * Float.BYTES;
+                } else if (op == OP_REMOVE) {
+                    delegate.remove(id);
+                } else {
+                    throw new IOException("Unknown WAL operation: " + op);
+                }
+                validLength += recordLength;
+                applied++;
+            }
+        } catch (EOFException e) {
+            logger.warn("Ignoring truncated trailing record in vector index WAL: {}", walPath);
+        }
+
+        if (validLength < Files.size(walPath)) {
+            try (FileChannel channel = FileChannel.open(walPath, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * @param mode 복원한 WAL에 이어 쓸 때는 APPEND, 새 버전으로 전환할 때는 중단된 이전 시도의 파일을 비우는 TRUNCATE_EXISTING
+     */
+    private void openWal(long walVersion, StandardOpenOption mode) throws IOException {
+        wal = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(walPath(walVersion),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)));
+    }
+
+    private void closeWal() {
+        if (wal == null) {
+            return;
+        }
+        try {
+            wal.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close vector index WAL", e);
+        }
+        wal = null;
+    }
+
+    /**
+     * 디렉터리에 있는 suffix 종류(스냅샷 또는 WAL) 파일의 버전을 최신순으로 반환합니다.
+     */
+    private List<Long> fileVersions(String suffix) {
+        List<Long> versions = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return versions;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(suffix))
+                    .forEach(name -> {
+                        try {
+                            versions.add(Long.parseLong(name.substring(
+                                    FILE_PREFIX.length(), name.length() - suffix.length())));
+                        } catch (NumberFormatException e) {
+                            // 다른 이름의 파일은 무시
+                        }
+                    });
+        } catch (IOException e) {
+            logger.warn("Failed to list vector index files in {}", directory, e);
+        }
+        versions.sort(Comparator.reverseOrder());
+        return versions;
+    }
+
+    private void deleteFilesBefore(long keepVersion) {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                if (!name.startsWith(FILE_PREFIX)) {
+                    return false;
+                }
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    return true;
+                }
+                return !name.equals(snapshotPath(keepVersion).getFileName().toString())
+                        && !name.equals(walPath(keepVersion).getFileName().toString());
+            }).forEach(path -> {
+                try {
+                    // 이미 매핑된 이전 스냅샷도 삭제 가능 (매핑은 해제될 때까지 유효)
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete old vector index file: {}", path, e);
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to clean up old vector index files in {}", directory, e);
+        }
+    }
+
+    private Path snapshotPath(long snapshotVersion) {
+        return directory.resolve(String.format("%s%010d%s", FILE_PREFIX, snapshotVersion, SNAPSHOT_SUFFIX));
+    }
+
+    private Path walPath(long snapshotVersion) {
+        return directory.resolve(String.format("%s%010d%s", FILE_PREFIX, snapshotVersion, WAL_SUFFIX));
+    }
+}
@@ -0,0 +1,82 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 임베딩 벡터에 대한 최근접 이웃 검색 인덱스.
+ * 점수는 코사인 유사도이며, 구현체는 동시 검색과 갱신을 지원해야 합니다.
+ */
+public interface VectorIndex {
+
+    /**
+     * 벡터를 추가합니다. 같은 ID가 이미 있으면 새 벡터로 교체합니다.
+     */
+    void upsert(String id, float[] vector);
+
+    /**
+     * 벡터를 제거합니다.
+     *
+     * @return 제거된 항목이 있었으면 true
+     */
+    boolean remove(String id);
+
+    /**
+     * 쿼리와 가장 유사한 상위 k개 항목을 유사도 내림차순으로 반환합니다.
+     */
+    List<SearchHit> search(float[] query, int k);
+
+    /**
+     * filter를 통과하는 항목 중에서 쿼리와 가장 유사한 상위 k개를 반환합니다.
+     * 기본 구현은 통과 비율의 역수만큼 후보를 늘려 검색한 뒤 걸러내므로, 가능한 구현체는 재정의해야 합니다.
+     */
+    default List<SearchHit> search(float[] query, int k, SearchFilter filter) {
+        int size = size();
+        int cardinality = filter.cardinality();
+        if (k <= 0 || size == 0 || cardinality == 0) {
+            return List.of();
+        }
+        int expanded = (int) Math.min(size, 2L * k * size / cardinality + k);
+        List<SearchHit> hits = new ArrayList<>(k);
+        for (SearchHit hit : search(query, expanded)) {
+            if (filter.accepts(hit.getId())) {
+                hits.add(hit);
+                if (hits.size() == k) {
+                    break;
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * 검색 가능한 항목 수를 반환합니다.
+     */
+    int size();
+
+    /**
+     * 모든 항목을 제거합니다.
+     */
+    void clear();
+
+    /**
+     * 검색 결과 항목
+     */
+    class SearchHit {
+        private final String id;
+        private final float score;
+
+        public SearchHit(String id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.FloatBuffer;
+
+/**
+ * 검색 경로에서 사용하는 벡터 연산 커널.
+ *
+ * <p>{@code jdk.incubator.vector} 모듈이 활성화되어 있으면 ({@code --add-modules jdk.incubator.vector})
+ * SIMD 구현을 사용하고, 그렇지 않으면 스칼라 구현으로 동작합니다.
+ * JDK 21에서 {@code MemorySegment}는 preview API이므로 off-heap 벡터는 {@link FloatBuffer}
+ * (direct 또는 memory-mapped 버퍼의 float 뷰)로 받습니다.
+ */
+public final class VectorMath {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorMath.class);
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String SIMD_KERNEL_CLASS = "com.Human.Ai.D.makit.service.retrieval.SimdVectorKernel";
+
+    private static final Kernel KERNEL = selectKernel();
+
+    // off-heap 벡터를 SIMD 커널에 넘기기 위한 스레드별 복사 버퍼
+    private static final ThreadLocal<float[]> SCRATCH = ThreadLocal.withInitial(() -> new float[0]);
+
+    private VectorMath() {}
+
+    public static boolean isVectorized() {
+        return !(KERNEL instanceof ScalarKernel);
+    }
+
+    public static float dot(float[] a, float[] b) {
+        checkLength(a.length, b.length);
+        return KERNEL.dot(a, 0, b, 0, a.length);
+    }
+
+    public static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return KERNEL.dot(a, aOffset, b, bOffset, length);
+    }
+
+    public static float squaredDistance(float[] a, float[] b) {
+        checkLength(a.length, b.length);
+        return KERNEL.squaredDistance(a, 0, b, 0, a.length);
+    }
+
+    public static float squaredDistance(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return KERNEL.squaredDistance(a, aOffset, b, bOffset, length);
+    }
+
+    public static float norm(float[] a) {
+        return (float) Math.sqrt(KERNEL.dot(a, 0, a, 0, a.length));
+    }
+
+    /**
+     * 미리 계산된 노름을 사용해 코사인 유사도를 계산합니다.
+     */
+    public static float cosine(float[] a, float aNorm, float[] b, float bNorm) {
+        if (aNorm == 0.0f || bNorm == 0.0f) {
+            return 0.0f;
+        }
+        return dot(a, b) / (aNorm * bNorm);
+    }
+
+    /**
+     * off-heap 버퍼의 offset 위치(float 단위)에 있는 벡터와의 내적을 계산합니다.
+     */
+    public static float dot(float[] a, FloatBuffer buffer, int offset) {
+        if (buffer.hasArray()) {
+            return KERNEL.dot(a, 0, buffer.array(), buffer.arrayOffset() + offset, a.length);
+        }
+        if (!isVectorized()) {
+            float sum = 0.0f;
+            for (int i = 0; i < a.length; i++) {
+                sum += a[i] * buffer.get(offset + i);
+            }
+            return sum;
+        }
+        float[] scratch = scratch(a.length);
+        buffer.get(offset, scratch, 0, a.length);
+        return KERNEL.dot(a, 0, scratch, 0, a.length);
+    }
+
+    /**
+     * 벡터를 단위 길이로 정규화한 복사본을 반환합니다. 영벡터는 그대로 0으로 반환합니다.
+     */
+    public static float[] normalize(float[] vector) {
+        float norm = norm(vector);
+        float[] normalized = new float[vector.length];
+        if (norm == 0.0f) {
+            return normalized;
+        }
+        float inverse = 1.0f / norm;
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * inverse;
+        }
+        return normalized;
+    }
+
+    private static float[] scratch(int length) {
+        float[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new float[length];
+            SCRATCH.set(scratch);
+        }
+        return scratch;
+    }
+
+    private static void checkLength(int a, int b) {
+        if (a != b) {
+            throw new IllegalArgumentException("Vector length mismatch: " + a + " vs " + b);
+        }
+    }
+
+    private static Kernel selectKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                Kernel kernel = (Kernel) Class.forName(SIMD_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+                logger.info("VectorMath using SIMD kernel ({} float lanes)", kernel.lanes());
+                return kernel;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("Failed to initialize SIMD kernel, falling back to scalar", e);
+            }
+        }
+        logger.info("VectorMath using scalar kernel; start the JVM with --add-modules {} to enable SIMD", VECTOR_MODULE);
+        return new ScalarKernel();
+    }
+
+    interface Kernel {
+        float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+        float squaredDistance(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+        int lanes();
+    }
+
+    static final class ScalarKernel implements Kernel {
+        @Override
+        public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+            float sum = 0.0f;
+            for (int i = 0; i < length; i++) {
+                sum += a[aOffset + i] * b[bOffset + i];
+            }
+            return sum;
+        }
+
+        @Override
+        public float squaredDistance(float[] a, int aOffset, float[] b, int bOffset, int length) {
+            float sum = 0.0f;
+            for (int i = 0; i < length; i++) {
+                float diff = a[aOffset + i] - b[bOffset + i];
+                sum += diff * diff;
+            }
+            return sum;
+        }
+
+        @Override
+        public int lanes() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.Human.Ai.D.makit.repository;
+
+import com.Human.Ai.D.makit.domain.ChatMessage;
+import com.Human.Ai.D.makit.domain.ConversationContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ChatMessageRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Test
+    void testFindLabeledUserMessagesSkipsModelLabelsAndLowConfidence() {
+        // Given
+        ConversationContext context = entityManager.persist(new ConversationContext("ctx-1", null, "session-1"));
+        persist(context, "환불해 주세요", false, "BILLING_INQUIRY", 0.8, "KEYWORD");
+        persist(context, "로그인이 안 돼요", false, "ACCOUNT_MANAGEMENT", 0.9, "CLAUDE");
+        persist(context, "요금이 궁금해요", false, "BILLING_INQUIRY", 0.95, "MODEL");
+        persist(context, "음...", false, "COMPLAINT", 0.5, "CLAUDE");
+        persist(context, "결제 관련 안내입니다", true, "BILLING_INQUIRY", 0.9, "KEYWORD");
+        entityManager.flush();
+
+        // When
+        List<Object[]> rows = chatMessageRepository.findLabeledUserMessages(
+                0.7, List.of("KEYWORD", "CLAUDE"), PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of("로그인이 안 돼요", "환불해 주세요"), rows.stream().map(row -> (String) row[0]).sorted().toList());
+    }
+
+    private void persist(ConversationContext context, String content, boolean fromBot, String intent,
+                         double confidence, String intentSource) {
+        ChatMessage message = new ChatMessage(context, fromBot ? "assistant" : "testuser", content,
+                ChatMessage.MessageType.CHAT, fromBot);
+        message.setIntent(intent);
+        message.setConfidence(confidence);
+        message.setIntentSource(intentSource);
+        entityManager.persist(message);
+    }
+}
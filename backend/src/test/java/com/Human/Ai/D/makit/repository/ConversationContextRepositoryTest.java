@@ -0,0 +1,86 @@
+package com.Human.Ai.D.makit.repository;
+
+import com.Human.Ai.D.makit.domain.ConversationContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ConversationContextRepositoryTest {
+
+    private static final ConversationContext.ConversationStatus ACTIVE = ConversationContext.ConversationStatus.ACTIVE;
+    private static final ConversationContext.ConversationStatus ENDED = ConversationContext.ConversationStatus.ENDED;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ConversationContextRepository conversationContextRepository;
+
+    @Test
+    void testEndInactiveContextsInRangeEndsOnlyExpiredActiveContextsInRange() {
+        // Given
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(30);
+        persist("ctx-a", ACTIVE, cutoff.minusMinutes(5));
+        persist("ctx-b", ACTIVE, cutoff.plusMinutes(5));
+        persist("ctx-c", ConversationContext.ConversationStatus.ESCALATED, cutoff.minusMinutes(5));
+        persist("ctx-d", ACTIVE, cutoff.minusMinutes(5));
+        persist("ctx-e", ACTIVE, cutoff.minusMinutes(5));
+        entityManager.flush();
+
+        // When
+        List<String> ids = conversationContextRepository.findInactiveContextIds(ACTIVE, cutoff, "", PageRequest.of(0, 2));
+        int ended = conversationContextRepository.endInactiveContextsInRange(ids.get(0), ids.get(ids.size() - 1), cutoff,
+                ACTIVE, ENDED);
+        entityManager.clear();
+
+        // Then
+        assertEquals(List.of("ctx-a", "ctx-d"), ids);
+        assertEquals(2, ended);
+        assertEquals(ENDED, statusOf("ctx-a"));
+        assertEquals(ACTIVE, statusOf("ctx-b"));
+        assertEquals(ConversationContext.ConversationStatus.ESCALATED, statusOf("ctx-c"));
+        assertEquals(ENDED, statusOf("ctx-d"));
+        assertEquals(ACTIVE, statusOf("ctx-e"));
+    }
+
+    @Test
+    void testIncrementMessageCountSurvivesSaveOfStaleEntity() {
+        // Given
+        persist("ctx-a", ACTIVE, LocalDateTime.now());
+        entityManager.flush();
+        entityManager.clear();
+        ConversationContext stale = conversationContextRepository.findById("ctx-a").orElseThrow();
+
+        // When
+        conversationContextRepository.incrementMessageCount("ctx-a", 3);
+        stale.setStatus(ConversationContext.ConversationStatus.ESCALATED);
+        conversationContextRepository.saveAndFlush(stale);
+        entityManager.clear();
+
+        // Then
+        ConversationContext reloaded = entityManager.find(ConversationContext.class, "ctx-a");
+        assertEquals(3, reloaded.getMessageCount());
+        assertEquals(ConversationContext.ConversationStatus.ESCALATED, reloaded.getStatus());
+    }
+
+    private void persist(String contextId, ConversationContext.ConversationStatus status, LocalDateTime lastActivity) {
+        ConversationContext context = new ConversationContext(contextId, null, "session-" + contextId);
+        context.setStatus(status);
+        context.setLastActivity(lastActivity);
+        entityManager.persist(context);
+    }
+
+    private ConversationContext.ConversationStatus statusOf(String contextId) {
+        return entityManager.find(ConversationContext.class, contextId).getStatus();
+    }
+}
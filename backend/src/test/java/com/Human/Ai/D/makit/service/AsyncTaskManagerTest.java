@@ -209,4 +209,25 @@ class AsyncTaskManagerTest {
         // Then
         assertFalse(cancelled);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTrackedTaskReportsDetailsAndCanBeCancelled() {
+        // Given
+        AsyncTaskManager.TaskProgress progress = asyncTaskManager.startTrackedTask("knowledge_reindex", "admin");
+        Map<String, Object> details = Map.of("documentsPerSecond", 12.5, "etaSeconds", 40L);
+
+        // When
+        asyncTaskManager.reportProgress(progress, 50, "Indexed 500 of 1000 documents", details);
+
+        // Then
+        AsyncTaskManager.TaskProgress tracked = asyncTaskManager.getTaskProgress(progress.getTaskId());
+        assertSame(progress, tracked);
+        assertEquals(AsyncTaskManager.TaskStatus.PROCESSING, tracked.getStatus());
+        assertEquals(50, tracked.getProgressPercentage());
+        assertEquals(details, tracked.getDetails());
+        verify(cacheService, atLeastOnce()).put(eq("taskProgress"), eq(progress.getTaskId()), eq(progress));
+
+        assertTrue(asyncTaskManager.cancelTask(progress.getTaskId()));
+        assertEquals(AsyncTaskManager.TaskStatus.CANCELLED, tracked.getStatus());
+    }
+}
@@ -6,6 +6,7 @@ import com.Human.Ai.D.makit.domain.User;
 import com.Human.Ai.D.makit.repository.AudienceSegmentRepository;
 import com.Human.Ai.D.makit.repository.CampaignAnalyticsRepository;
 import com.Human.Ai.D.makit.repository.UserRepository;
+import com.Human.Ai.D.makit.service.ai.BedrockCallOptions;
 import com.Human.Ai.D.makit.service.ai.BedrockService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -69,8 +70,8 @@ class AudienceSegmentationServiceTest {
         // Given
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(segmentRepository.save(any(AudienceSegment.class))).thenReturn(testSegment);
-        when(bedrockService.generateText(anyString(), anyString()))
-                .thenReturn("AI-generated insights for the segment");
+        when(bedrockService.generateTextAsync(anyString(), anyString(), any(BedrockCallOptions.class)))
+                .thenReturn(CompletableFuture.completedFuture("AI-generated insights for the segment"));
         
         // When
         CompletableFuture<AudienceSegment> future = segmentationService
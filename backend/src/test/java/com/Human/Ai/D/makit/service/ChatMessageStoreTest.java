@@ -0,0 +1,222 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.domain.ChatMessage;
+import com.Human.Ai.D.makit.domain.ConversationContext;
+import com.Human.Ai.D.makit.domain.User;
+import com.Human.Ai.D.makit.repository.ChatMessageRepository;
+import com.Human.Ai.D.makit.repository.ConversationContextRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatMessageStoreTest {
+
+    private static final String RING_KEY = "chat:history:ctx-1";
+    private static final String SUMMARY_KEY = "chat:summary:ctx-1";
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ListOperations<String, Object> listOperations;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    @Mock
+    private ConversationContextRepository conversationContextRepository;
+
+    @InjectMocks
+    private ChatMessageStore messageStore;
+
+    private ConversationContext context;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        context = new ConversationContext("ctx-1", user, "session-1");
+    }
+
+    private ChatMessage message(String content, boolean fromBot, LocalDateTime timestamp) {
+        ChatMessage message = new ChatMessage(context, fromBot ? "assistant" : "testuser", content,
+                ChatMessage.MessageType.CHAT, fromBot);
+        message.setMessageId("id-" + content);
+        message.setTimestamp(timestamp);
+        return message;
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void testAppendPushesToRingInOnePipeline() {
+        // Given
+        ChatMessage message = message("hello", false, LocalDateTime.now());
+        RedisOperations<String, Object> operations = mock(RedisOperations.class);
+        when(operations.opsForList()).thenReturn(listOperations);
+
+        // When
+        messageStore.append(message);
+
+        // Then
+        ArgumentCaptor<SessionCallback> callback = ArgumentCaptor.forClass(SessionCallback.class);
+        verify(redisTemplate).executePipelined(callback.capture());
+        callback.getValue().execute(operations);
+        verify(listOperations).leftPush(eq(RING_KEY), any(ChatMessageStore.StoredMessage.class));
+        verify(listOperations).trim(RING_KEY, 0, 49);
+        verify(operations).expire(RING_KEY, 120, TimeUnit.MINUTES);
+        verify(operations).delete(SUMMARY_KEY);
+        verifyNoInteractions(chatMessageRepository);
+        assertEquals(1, messageStore.getStats().getPendingMessages());
+    }
+
+    @Test
+    void testFlushSavesPendingMessagesInOneBatch() {
+        // Given
+        ChatMessage question = message("question", false, LocalDateTime.now().minusSeconds(1));
+        ChatMessage answer = message("answer", true, LocalDateTime.now());
+        messageStore.append(question);
+        messageStore.append(answer);
+
+        // When
+        messageStore.flush();
+
+        // Then
+        verify(chatMessageRepository, times(1)).saveAll(List.of(question, answer));
+        verify(chatMessageRepository, never()).save(any(ChatMessage.class));
+        verify(conversationContextRepository, times(1)).incrementMessageCount("ctx-1", 2);
+        verify(redisTemplate).delete(List.of(SUMMARY_KEY));
+        assertEquals(0, messageStore.getStats().getPendingMessages());
+        assertEquals(2, messageStore.getStats().getFlushedMessages());
+    }
+
+    @Test
+    void testFailedFlushKeepsMessagesQueued() {
+        // Given
+        ChatMessage question = message("question", false, LocalDateTime.now());
+        messageStore.append(question);
+        when(chatMessageRepository.saveAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(List.of(question));
+        when(chatMessageRepository.save(any(ChatMessage.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+
+        // When
+        messageStore.flush();
+        int pendingAfterFailure = messageStore.getStats().getPendingMessages();
+        messageStore.flush();
+
+        // Then
+        assertEquals(1, pendingAfterFailure);
+        assertEquals(1, messageStore.getStats().getFailedFlushes());
+        assertEquals(0, messageStore.getStats().getPendingMessages());
+        verify(conversationContextRepository, times(1)).incrementMessageCount("ctx-1", 1);
+    }
+
+    @Test
+    void testLatestMessagesAreServedFromRingInChronologicalOrder() {
+        // Given
+        ChatMessage older = message("question", false, LocalDateTime.now().minusSeconds(5));
+        ChatMessage newer = message("answer", true, LocalDateTime.now());
+        when(redisTemplate.opsForList()).thenReturn(listOperations);
+        when(listOperations.range(RING_KEY, 0, 9)).thenReturn(List.of(
+                ChatMessageStore.StoredMessage.from(newer), ChatMessageStore.StoredMessage.from(older)));
+
+        // When
+        List<ChatMessage> result = messageStore.getLatestMessages(context, 10);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals("question", result.get(0).getContent());
+        assertFalse(result.get(0).getIsFromBot());
+        assertEquals("answer", result.get(1).getContent());
+        assertTrue(result.get(1).getIsFromBot());
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    void testRingMissFallsBackToDatabaseAndPendingMessages() {
+        // Given
+        ChatMessage persisted = message("persisted", false, LocalDateTime.now().minusMinutes(1));
+        ChatMessage queued = message("queued", true, LocalDateTime.now());
+        messageStore.append(queued);
+        when(redisTemplate.opsForList()).thenReturn(listOperations);
+        when(listOperations.range(RING_KEY, 0, 9)).thenReturn(List.of());
+        when(chatMessageRepository.findLatestMessages(eq(context), any(Pageable.class)))
+                .thenReturn(List.of(persisted));
+
+        // When
+        List<ChatMessage> result = messageStore.getLatestMessages(context, 10);
+
+        // Then
+        assertEquals(List.of(persisted, queued), result);
+        assertEquals(1, messageStore.getStats().getRingMisses());
+    }
+
+    @Test
+    void testMessageSummaryIsServedFromCache() {
+        // Given
+        ChatMessageStore.MessageSummary cached = new ChatMessageStore.MessageSummary();
+        cached.setTotalMessages(4L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(SUMMARY_KEY)).thenReturn(cached);
+
+        // When
+        ChatMessageStore.MessageSummary summary = messageStore.getMessageSummary(context);
+
+        // Then
+        assertSame(cached, summary);
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    void testMessageSummaryAggregatesDatabaseAndPendingMessages() {
+        // Given
+        LocalDateTime first = LocalDateTime.now().minusMinutes(5).withNano(0);
+        LocalDateTime queuedAt = LocalDateTime.now().withNano(0);
+        messageStore.append(message("queued", true, queuedAt));
+        ChatMessageRepository.MessageAggregate aggregate = mock(ChatMessageRepository.MessageAggregate.class);
+        when(aggregate.getTotalMessages()).thenReturn(3L);
+        when(aggregate.getBotMessages()).thenReturn(1L);
+        when(aggregate.getUserMessages()).thenReturn(2L);
+        when(aggregate.getFirstMessageAt()).thenReturn(first);
+        when(aggregate.getLastMessageAt()).thenReturn(first.plusMinutes(1));
+        when(chatMessageRepository.aggregateByContextId("ctx-1")).thenReturn(aggregate);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        // When
+        ChatMessageStore.MessageSummary summary = messageStore.getMessageSummary(context);
+
+        // Then
+        assertEquals(4L, summary.getTotalMessages());
+        assertEquals(2L, summary.getBotMessages());
+        assertEquals(2L, summary.getUserMessages());
+        assertEquals(first, summary.firstMessageTime());
+        assertEquals(queuedAt, summary.lastMessageTime());
+        verify(valueOperations).set(SUMMARY_KEY, summary, 300, TimeUnit.SECONDS);
+        verify(chatMessageRepository, never()).findByConversationContextAndIsFromBot(any(), any());
+    }
+}
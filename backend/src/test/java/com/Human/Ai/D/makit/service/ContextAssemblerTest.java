@@ -0,0 +1,126 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.domain.ChatMessage;
+import com.Human.Ai.D.makit.domain.KnowledgeChunk;
+import com.Human.Ai.D.makit.domain.KnowledgeDocument;
+import com.Human.Ai.D.makit.service.retrieval.DocumentChunker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextAssemblerTest {
+
+    private ContextAssembler contextAssembler;
+
+    @BeforeEach
+    void setUp() {
+        contextAssembler = new ContextAssembler();
+    }
+
+    @Test
+    void testOverlappingChunksOfSameDocumentAreIncludedOnce() {
+        // Given
+        String first = "Campaigns are created from the dashboard. ";
+        String second = "Each campaign has a budget and a schedule. ";
+        String third = "Reports are refreshed every hour.";
+        KnowledgeDocument document = new KnowledgeDocument("guide", "Campaign Guide", first + second + third, "FAQ");
+        String text = document.getContent();
+        KnowledgeChunk head = new KnowledgeChunk(document, 0, text.substring(0, first.length() + second.length()),
+                0, first.length() + second.length(), 20);
+        KnowledgeChunk tail = new KnowledgeChunk(document, 1, text.substring(first.length()),
+                first.length(), text.length(), 20);
+
+        // When
+        ContextAssembler.AssembledContext assembled = contextAssembler.assemble(List.of(
+                new KnowledgeRetriever.RelevantDocument(tail, 0.9),
+                new KnowledgeRetriever.RelevantDocument(head, 0.8)), List.of());
+
+        // Then
+        String knowledge = assembled.getKnowledge();
+        assertEquals(knowledge.indexOf("budget and a schedule"), knowledge.lastIndexOf("budget and a schedule"));
+        assertTrue(knowledge.contains("Campaigns are created from the dashboard."));
+        assertTrue(knowledge.contains("Reports are refreshed every hour."));
+        assertEquals(2, assembled.getSlots().get(0).getIncluded());
+    }
+
+    @Test
+    void testIdenticalPassagesFromDifferentDocumentsAreDeduplicated() {
+        // Given
+        KnowledgeDocument original = new KnowledgeDocument("a", "FAQ", "비밀번호는 설정 메뉴에서 변경합니다.", "FAQ");
+        KnowledgeDocument copy = new KnowledgeDocument("b", "FAQ (copy)", "비밀번호는  설정 메뉴에서 변경합니다.", "FAQ");
+
+        // When
+        ContextAssembler.AssembledContext assembled = contextAssembler.assemble(List.of(
+                new KnowledgeRetriever.RelevantDocument(original, 0.9),
+                new KnowledgeRetriever.RelevantDocument(copy, 0.9)), List.of());
+
+        // Then
+        ContextAssembler.SlotUsage knowledge = assembled.getSlots().get(0);
+        assertEquals(1, knowledge.getIncluded());
+        assertEquals(1, knowledge.getOmitted());
+    }
+
+    @Test
+    void testAssembledContextStaysWithinBudget() {
+        // Given
+        ReflectionTestUtils.setField(contextAssembler, "maxTokens", 60);
+        List<KnowledgeRetriever.RelevantDocument> docs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String content = ("Section " + i + " explains audience targeting in detail. ").repeat(20);
+            docs.add(new KnowledgeRetriever.RelevantDocument(
+                    new KnowledgeDocument("doc-" + i, "Guide", content, "FAQ"), 0.9 - i * 0.1));
+        }
+        List<ChatMessage> history = List.of(
+                new ChatMessage(null, "user", "타겟팅은 어떻게 하나요?", ChatMessage.MessageType.CHAT),
+                new ChatMessage(null, "assistant", "대시보드에서 설정할 수 있습니다.", ChatMessage.MessageType.CHAT, true));
+
+        // When
+        ContextAssembler.AssembledContext assembled = contextAssembler.assemble(docs, history);
+
+        // Then
+        assertTrue(assembled.getUsedTokens() <= 60);
+        ContextAssembler.SlotUsage knowledge = assembled.getSlots().get(0);
+        assertEquals(1, knowledge.getIncluded());
+        assertEquals(2, knowledge.getOmitted());
+        assertTrue(assembled.getKnowledge().endsWith("..."));
+    }
+
+    @Test
+    void testOlderTurnsFallIntoSummary() {
+        // Given
+        List<ChatMessage> history = new ArrayList<>();
+        for (int i = 0; i < 14; i++) {
+            history.add(new ChatMessage(null, i % 2 == 0 ? "user" : "assistant",
+                    "question " + i + ". more details follow", ChatMessage.MessageType.CHAT, i % 2 == 1));
+        }
+
+        // When
+        ContextAssembler.AssembledContext assembled = contextAssembler.assemble(List.of(), history);
+
+        // Then
+        assertTrue(assembled.getRecentTurns().startsWith("User: question 4."));
+        assertTrue(assembled.getRecentTurns().endsWith("Assistant: question 13. more details follow"));
+        assertEquals("- question 0.\n- question 2.", assembled.getSummary());
+        assertEquals(10, assembled.getSlots().get(1).getIncluded());
+        assertEquals(2, assembled.getSlots().get(2).getIncluded());
+    }
+
+    @Test
+    void testTruncateToTokensRespectsLimit() {
+        // Given
+        String text = "캠페인 성과 리포트는 매시간 갱신됩니다. ".repeat(10);
+
+        // When
+        String truncated = ContextAssembler.truncateToTokens(text, 30);
+
+        // Then
+        assertTrue(DocumentChunker.estimateTokens(truncated) <= 30);
+        assertTrue(truncated.endsWith("..."));
+        assertEquals("짧은 문장", ContextAssembler.truncateToTokens("짧은 문장", 30));
+    }
+}
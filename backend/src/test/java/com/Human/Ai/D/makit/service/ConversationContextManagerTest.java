@@ -12,6 +12,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -30,6 +31,9 @@ class ConversationContextManagerTest {
     @Mock
     private ChatMessageRepository chatMessageRepository;
     
+    @Mock
+    private ChatMessageStore messageStore;
+    
     @InjectMocks
     private ConversationContextManager conversationContextManager;
     
@@ -119,23 +123,33 @@ class ConversationContextManagerTest {
     
     @Test
     void testAddMessage() {
-        // Given
-        when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
-        when(conversationContextRepository.save(any(ConversationContext.class))).thenReturn(testContext);
-        
         // When
         ChatMessage result = conversationContextManager.addMessage(
                 testContext, "testuser", "Hello", ChatMessage.MessageType.CHAT, false);
         
         // Then
         assertNotNull(result);
+        assertNotNull(result.getMessageId());
         assertEquals("testuser", result.getSender());
         assertEquals("Hello", result.getContent());
         assertEquals(ChatMessage.MessageType.CHAT, result.getType());
         assertFalse(result.getIsFromBot());
         
-        verify(chatMessageRepository, times(1)).save(any(ChatMessage.class));
-        verify(conversationContextRepository, times(1)).save(testContext);
+        verify(messageStore, times(1)).append(result);
+        verify(chatMessageRepository, never()).save(any(ChatMessage.class));
+        verify(conversationContextRepository, never()).save(any(ConversationContext.class));
+    }
+    
+    @Test
+    void testAddMessageWithIntent() {
+        // When
+        ChatMessage result = conversationContextManager.addMessage(
+                testContext, "testuser", "환불해 주세요", ChatMessage.MessageType.CHAT, false, "BILLING_INQUIRY", 0.85);
+        
+        // Then
+        assertEquals("BILLING_INQUIRY", result.getIntent());
+        assertEquals(0.85, result.getConfidence(), 1e-9);
+        verify(messageStore, times(1)).append(result);
     }
     
     @Test
@@ -167,15 +181,28 @@ class ConversationContextManagerTest {
     void testGetConversationHistory() {
         // Given
         List<ChatMessage> expectedMessages = Arrays.asList(testMessage);
-        when(chatMessageRepository.findByConversationContextOrderByTimestampAsc(testContext))
-                .thenReturn(expectedMessages);
+        when(messageStore.getLatestMessages(testContext, 50)).thenReturn(expectedMessages);
         
         // When
         List<ChatMessage> result = conversationContextManager.getConversationHistory(testContext);
         
         // Then
         assertEquals(expectedMessages, result);
-        verify(chatMessageRepository, times(1)).findByConversationContextOrderByTimestampAsc(testContext);
+        verifyNoInteractions(chatMessageRepository);
+    }
+    
+    @Test
+    void testGetRecentMessagesFiltersByTime() {
+        // Given
+        ChatMessage oldMessage = new ChatMessage(testContext, "testuser", "Old", ChatMessage.MessageType.CHAT, false);
+        oldMessage.setTimestamp(LocalDateTime.now().minusMinutes(90));
+        when(messageStore.getLatestMessages(testContext, 50)).thenReturn(Arrays.asList(oldMessage, testMessage));
+        
+        // When
+        List<ChatMessage> result = conversationContextManager.getRecentMessages(testContext, 30);
+        
+        // Then
+        assertEquals(List.of(testMessage), result);
     }
     
     @Test
@@ -222,7 +249,6 @@ class ConversationContextManagerTest {
     void testEscalateToHuman() {
         // Given
         when(conversationContextRepository.save(any(ConversationContext.class))).thenReturn(testContext);
-        when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(testMessage);
         
         // When
         conversationContextManager.escalateToHuman(testContext, "Complex query");
@@ -233,17 +259,20 @@ class ConversationContextManagerTest {
         assertNotNull(testContext.getContextVariable("escalation_time"));
         
         verify(conversationContextRepository, times(1)).save(testContext);
-        verify(chatMessageRepository, times(1)).save(any(ChatMessage.class));
+        verify(messageStore, times(1)).append(argThat(message ->
+                message.getType() == ChatMessage.MessageType.ESCALATION));
     }
     
     @Test
     void testGetContextStats() {
         // Given
-        when(chatMessageRepository.countByConversationContext(testContext)).thenReturn(5L);
-        when(chatMessageRepository.findByConversationContextAndIsFromBot(testContext, true))
-                .thenReturn(Arrays.asList(testMessage, testMessage));
-        when(chatMessageRepository.findByConversationContextAndIsFromBot(testContext, false))
-                .thenReturn(Arrays.asList(testMessage, testMessage, testMessage));
+        ChatMessageStore.MessageSummary summary = new ChatMessageStore.MessageSummary();
+        summary.setTotalMessages(5L);
+        summary.setBotMessages(2L);
+        summary.setUserMessages(3L);
+        summary.setFirstMessageAt(1_700_000_000_000L);
+        summary.setLastMessageAt(1_700_000_060_000L);
+        when(messageStore.getMessageSummary(testContext)).thenReturn(summary);
         
         // When
         ConversationContextManager.ConversationStats stats = 
@@ -255,5 +284,7 @@ class ConversationContextManagerTest {
         assertEquals(3L, stats.getUserMessages());
         assertNotNull(stats.getStartTime());
         assertNotNull(stats.getLastActivity());
+        assertEquals(Duration.ofMinutes(1), Duration.between(stats.getFirstMessageAt(), stats.getLastMessageAt()));
+        verifyNoInteractions(chatMessageRepository);
     }
 }
\ No newline at end of file
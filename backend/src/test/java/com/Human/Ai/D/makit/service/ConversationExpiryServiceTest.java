@@ -0,0 +1,125 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.domain.ConversationContext;
+import com.Human.Ai.D.makit.repository.ConversationArchiveRepository;
+import com.Human.Ai.D.makit.repository.ConversationContextRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationExpiryServiceTest {
+
+    private static final ConversationContext.ConversationStatus ACTIVE = ConversationContext.ConversationStatus.ACTIVE;
+    private static final ConversationContext.ConversationStatus ENDED = ConversationContext.ConversationStatus.ENDED;
+
+    @Mock
+    private ConversationContextRepository conversationContextRepository;
+
+    @Mock
+    private ConversationArchiveRepository conversationArchiveRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ConversationExpiryService expiryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(expiryService, "batchSize", 2);
+        ReflectionTestUtils.setField(expiryService, "pauseMs", 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        expiryService.shutdown();
+    }
+
+    @Test
+    void testExpiredContextsAreEndedByKeysetRange() {
+        // Given
+        when(conversationContextRepository.findInactiveContextIds(eq(ACTIVE), any(LocalDateTime.class), eq(""), any(Pageable.class)))
+                .thenReturn(List.of("a", "b"));
+        when(conversationContextRepository.findInactiveContextIds(eq(ACTIVE), any(LocalDateTime.class), eq("b"), any(Pageable.class)))
+                .thenReturn(List.of("c"));
+        when(conversationContextRepository.endInactiveContextsInRange(eq("a"), eq("b"), any(LocalDateTime.class), eq(ACTIVE), eq(ENDED)))
+                .thenReturn(2);
+        // c는 조회 후 대화가 이어져 UPDATE 조건에서 빠짐
+        when(conversationContextRepository.endInactiveContextsInRange(eq("c"), eq("c"), any(LocalDateTime.class), eq(ACTIVE), eq(ENDED)))
+                .thenReturn(0);
+        when(conversationContextRepository.findInactiveContextIds(eq(ENDED), any(LocalDateTime.class), eq(""), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        ConversationExpiryService.CleanupReport report = expiryService.runCleanup();
+
+        // Then
+        assertEquals(2, report.getEndedContexts());
+        assertEquals(0, report.getArchivedContexts());
+        assertEquals(2, report.getBatches());
+        assertFalse(report.isTruncated());
+        verify(conversationContextRepository, never()).findAll();
+        verifyNoInteractions(conversationArchiveRepository, transactionManager);
+    }
+
+    @Test
+    void testArchiveOnlyLockedContextsInOneTransaction() {
+        // Given
+        when(conversationContextRepository.findInactiveContextIds(eq(ACTIVE), any(LocalDateTime.class), eq(""), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(conversationContextRepository.findInactiveContextIds(eq(ENDED), any(LocalDateTime.class), eq(""), any(Pageable.class)))
+                .thenReturn(List.of("a", "b"));
+        when(conversationContextRepository.findInactiveContextIds(eq(ENDED), any(LocalDateTime.class), eq("b"), any(Pageable.class)))
+                .thenReturn(List.of());
+        // b는 그사이 다시 열려 잠금 조건에서 빠짐
+        when(conversationArchiveRepository.lockEndedContextIds(eq("a"), eq("b"), any(LocalDateTime.class)))
+                .thenReturn(List.of("a"));
+        when(conversationArchiveRepository.deleteContexts(List.of("a"))).thenReturn(1);
+
+        // When
+        ConversationExpiryService.CleanupReport report = expiryService.runCleanup();
+
+        // Then
+        assertEquals(1, report.getArchivedContexts());
+        verify(conversationArchiveRepository).archiveContexts(eq(List.of("a")), any(LocalDateTime.class));
+        verify(conversationArchiveRepository).deleteMessages(List.of("a"));
+        verify(conversationArchiveRepository).deleteVariables(List.of("a"));
+        verify(transactionManager).getTransaction(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void testBatchBudgetDefersRemainingWork() {
+        // Given
+        ReflectionTestUtils.setField(expiryService, "maxBatchesPerRun", 1);
+        when(conversationContextRepository.findInactiveContextIds(eq(ACTIVE), any(LocalDateTime.class), eq(""), any(Pageable.class)))
+                .thenReturn(List.of("a", "b"));
+        when(conversationContextRepository.endInactiveContextsInRange(eq("a"), eq("b"), any(LocalDateTime.class), eq(ACTIVE), eq(ENDED)))
+                .thenReturn(2);
+
+        // When
+        ConversationExpiryService.CleanupReport report = expiryService.runCleanup();
+
+        // Then
+        assertEquals(2, report.getEndedContexts());
+        assertTrue(report.isTruncated());
+        verify(conversationContextRepository, times(1))
+                .findInactiveContextIds(any(), any(LocalDateTime.class), anyString(), any(Pageable.class));
+        verifyNoInteractions(conversationArchiveRepository);
+    }
+}
@@ -0,0 +1,82 @@
+package com.Human.Ai.D.makit.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntentModelTest {
+
+    private static final String[] BILLING = {
+            "이번 달 청구 금액이 이상해요", "카드 결제가 두 번 됐어요", "환불은 언제 되나요",
+            "구독 요금을 바꾸고 싶어요", "영수증을 다시 받을 수 있나요", "결제 수단 변경 방법"
+    };
+    private static final String[] ACCOUNT = {
+            "비밀번호를 잊어버렸어요", "로그인이 안 됩니다", "회원 탈퇴하고 싶어요",
+            "이메일 주소를 바꾸고 싶어요", "계정이 잠겼어요", "아이디 찾는 방법"
+    };
+
+    private static List<IntentModel.LabeledText> examples() {
+        List<IntentModel.LabeledText> examples = new ArrayList<>();
+        for (String text : BILLING) {
+            examples.add(new IntentModel.LabeledText(text, IntentClassifier.Intent.BILLING_INQUIRY));
+        }
+        for (String text : ACCOUNT) {
+            examples.add(new IntentModel.LabeledText(text, IntentClassifier.Intent.ACCOUNT_MANAGEMENT));
+        }
+        return examples;
+    }
+
+    @Test
+    void testTrainedModelPredictsUnseenPhrasing() {
+        // Given
+        IntentModel model = IntentModel.train(examples(), 4096, 30, 0.5, 0.0, 7L);
+
+        // When
+        IntentClassifier.IntentClassificationResult billing = model.predict("결제 금액 환불 문의");
+        IntentClassifier.IntentClassificationResult account = model.predict("로그인 비밀번호 재설정");
+
+        // Then
+        assertEquals(IntentClassifier.Intent.BILLING_INQUIRY, billing.getIntent());
+        assertEquals(IntentClassifier.Intent.ACCOUNT_MANAGEMENT, account.getIntent());
+        assertTrue(billing.getConfidence() > 0.5);
+        assertEquals(List.of(IntentClassifier.Intent.ACCOUNT_MANAGEMENT, IntentClassifier.Intent.BILLING_INQUIRY),
+                model.getClasses());
+    }
+
+    @Test
+    void testSavedModelLoadsWithIdenticalPredictions() throws Exception {
+        // Given
+        IntentModel model = IntentModel.train(examples(), 1024, 10, 0.5, 0.000001, 7L);
+        Path file = Files.createTempFile("intent-model", ".bin");
+
+        try {
+            // When
+            model.save(file);
+            IntentModel loaded = IntentModel.load(file);
+
+            // Then
+            assertEquals(model.getBuckets(), loaded.getBuckets());
+            for (String text : List.of("환불해 주세요", "계정 삭제", "hello")) {
+                assertEquals(model.predict(text).getIntent(), loaded.predict(text).getIntent());
+                assertEquals(model.predict(text).getConfidence(), loaded.predict(text).getConfidence(), 1e-9);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testTrainingRequiresTwoIntents() {
+        // Given
+        List<IntentModel.LabeledText> single = List.of(
+                new IntentModel.LabeledText("안녕하세요", IntentClassifier.Intent.GREETING));
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> IntentModel.train(single, 1024, 1, 0.5, 0.0, 7L));
+    }
+}
@@ -0,0 +1,109 @@
+package com.Human.Ai.D.makit.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordAutomatonTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void testScoresAreMatchedRatioTimesGroupWeight() {
+        // Given
+        KeywordAutomaton automaton = KeywordAutomaton.builder(2)
+                .groupWeight(0, 0.8)
+                .keyword(0, "제품", 1.0)
+                .keyword(0, "가격", 1.0)
+                .keyword(0, "기능", 1.0)
+                .keyword(0, "비용", 1.0)
+                .groupWeight(1, 0.9)
+                .keyword(1, "안녕", 1.0)
+                .build();
+        double[] scores = new double[2];
+
+        // When
+        automaton.score("제품 가격이 궁금합니다. 제품 가격표가 있나요?", scores);
+
+        // Then
+        assertEquals(0.4, scores[0], DELTA);
+        assertEquals(0.0, scores[1], DELTA);
+    }
+
+    @Test
+    void testOverlappingKeywordsAreAllFound() {
+        // Given
+        KeywordAutomaton automaton = KeywordAutomaton.builder(4)
+                .keyword(0, "he", 1.0)
+                .keyword(1, "she", 1.0)
+                .keyword(2, "his", 1.0)
+                .keyword(3, "hers", 1.0)
+                .build();
+        double[] scores = new double[4];
+
+        // When
+        automaton.score("USHERS", scores);
+
+        // Then
+        assertEquals(1.0, scores[0], DELTA);
+        assertEquals(1.0, scores[1], DELTA);
+        assertEquals(0.0, scores[2], DELTA);
+        assertEquals(1.0, scores[3], DELTA);
+    }
+
+    @Test
+    void testSharedKeywordScoresEveryGroup() {
+        // Given
+        KeywordAutomaton automaton = KeywordAutomaton.builder(2)
+                .keyword(0, "안녕", 1.0)
+                .keyword(0, "반가워", 1.0)
+                .keyword(1, "안녕", 1.0)
+                .build();
+        double[] scores = new double[2];
+
+        // When
+        automaton.score("안녕!", scores);
+
+        // Then
+        assertEquals(0.5, scores[0], DELTA);
+        assertEquals(1.0, scores[1], DELTA);
+    }
+
+    @Test
+    void testWeightedAndNegatedKeywords() {
+        // Given
+        KeywordAutomaton automaton = KeywordAutomaton.builder(2)
+                .keyword(0, "환불", 3.0)
+                .keyword(0, "결제", 1.0)
+                .keyword(1, "안녕", 1.0)
+                .negatedKeyword(1, "안녕히")
+                .build();
+        double[] scores = new double[2];
+
+        // When
+        automaton.score("환불 부탁드려요, 안녕히 계세요", scores);
+
+        // Then
+        assertEquals(0.75, scores[0], DELTA);
+        assertEquals(0.0, scores[1], DELTA);
+    }
+
+    @Test
+    void testRepeatedScoringReusesStateWithoutLeakingMatches() {
+        // Given
+        KeywordAutomaton automaton = KeywordAutomaton.builder(1)
+                .keyword(0, "error", 1.0)
+                .keyword(0, "login", 1.0)
+                .build();
+        double[] scores = new double[1];
+
+        // When
+        automaton.score("Login ERROR", scores);
+        double first = scores[0];
+        automaton.score("no match here", scores);
+
+        // Then
+        assertEquals(1.0, first, DELTA);
+        assertEquals(0.0, scores[0], DELTA);
+    }
+}
@@ -1,18 +1,33 @@
 package com.Human.Ai.D.makit.service;
 
 import com.Human.Ai.D.makit.domain.KnowledgeDocument;
+import com.Human.Ai.D.makit.domain.KnowledgeIndexCheckpoint;
+import com.Human.Ai.D.makit.repository.KnowledgeChunkRepository;
 import com.Human.Ai.D.makit.repository.KnowledgeDocumentRepository;
-import com.Human.Ai.D.makit.service.ai.BedrockService;
+import com.Human.Ai.D.makit.repository.KnowledgeIndexCheckpointRepository;
+import com.Human.Ai.D.makit.service.ai.EmbeddingCache;
+import com.Human.Ai.D.makit.service.ai.RateLimiter;
+import com.Human.Ai.D.makit.service.retrieval.Bm25Index;
+import com.Human.Ai.D.makit.service.retrieval.MetadataIndex;
+import com.Human.Ai.D.makit.service.retrieval.DocumentChunker;
+import com.Human.Ai.D.makit.service.retrieval.VectorIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,7 +41,31 @@ class KnowledgeBaseManagerTest {
     private KnowledgeDocumentRepository knowledgeDocumentRepository;
     
     @Mock
-    private BedrockService bedrockService;
+    private KnowledgeChunkRepository knowledgeChunkRepository;
+    
+    @Mock
+    private EmbeddingCache embeddingCache;
+    
+    @Mock
+    private VectorIndex vectorIndex;
+    
+    @Mock
+    private Bm25Index keywordIndex;
+
+    @Mock
+    private MetadataIndex metadataIndex;
+    
+    @Mock
+    private KnowledgeIndexCheckpointRepository checkpointRepository;
+    
+    @Mock
+    private AsyncTaskManager asyncTaskManager;
+
+    @Mock
+    private SemanticAnswerCache answerCache;
+    
+    @Spy
+    private DocumentChunker documentChunker = new DocumentChunker(300, 50);
     
     @InjectMocks
     private KnowledgeBaseManager knowledgeBaseManager;
@@ -44,7 +83,7 @@ class KnowledgeBaseManagerTest {
     void testAddDocument() {
         // Given
         when(knowledgeDocumentRepository.save(any(KnowledgeDocument.class))).thenReturn(testDocument);
-        when(bedrockService.generateEmbedding(anyString())).thenReturn("[0.1, 0.2, 0.3]");
+        when(embeddingCache.getEmbedding(anyString(), isNull())).thenReturn(new float[]{0.1f, 0.2f, 0.3f});
         
         // When
         CompletableFuture<KnowledgeDocument> result = knowledgeBaseManager.addDocument(
@@ -57,7 +96,9 @@ class KnowledgeBaseManagerTest {
         assertEquals("Test Content", document.getContent());
         assertEquals("FAQ", document.getDocumentType());
         
-        verify(knowledgeDocumentRepository, times(1)).save(any(KnowledgeDocument.class));
+        // 문서 저장 후 비동기 색인이 INDEXED 상태를 한 번 더 저장함
+        verify(knowledgeDocumentRepository, timeout(5000).times(2)).save(any(KnowledgeDocument.class));
+        verify(knowledgeChunkRepository, timeout(5000)).saveAll(anyList());
     }
     
     @Test
@@ -121,7 +162,7 @@ class KnowledgeBaseManagerTest {
         // Given
         when(knowledgeDocumentRepository.findById("test-id")).thenReturn(Optional.of(testDocument));
         when(knowledgeDocumentRepository.save(any(KnowledgeDocument.class))).thenReturn(testDocument);
-        when(bedrockService.generateEmbedding(anyString())).thenReturn("[0.1, 0.2, 0.3]");
+        when(embeddingCache.getEmbedding(anyString(), isNull())).thenReturn(new float[]{0.1f, 0.2f, 0.3f});
         
         // When
         CompletableFuture<KnowledgeDocument> result = knowledgeBaseManager.updateDocument(
@@ -134,13 +175,15 @@ class KnowledgeBaseManagerTest {
         assertEquals("Updated Content", document.getContent());
         
         verify(knowledgeDocumentRepository, times(1)).findById("test-id");
-        verify(knowledgeDocumentRepository, times(1)).save(any(KnowledgeDocument.class));
+        verify(knowledgeDocumentRepository, timeout(5000).times(2)).save(any(KnowledgeDocument.class));
     }
     
     @Test
     void testDeleteDocument() {
         // Given
         when(knowledgeDocumentRepository.existsById("test-id")).thenReturn(true);
+        when(knowledgeChunkRepository.findChunkIdsByDocumentId("test-id"))
+                .thenReturn(Arrays.asList("test-id#0", "test-id#1"));
         
         // When
         knowledgeBaseManager.deleteDocument("test-id");
@@ -148,6 +191,12 @@ class KnowledgeBaseManagerTest {
         // Then
         verify(knowledgeDocumentRepository, times(1)).existsById("test-id");
         verify(knowledgeDocumentRepository, times(1)).deleteById("test-id");
+        verify(knowledgeChunkRepository, times(1)).deleteAllByIdInBatch(Arrays.asList("test-id#0", "test-id#1"));
+        verify(vectorIndex, times(1)).remove("test-id#0");
+        verify(vectorIndex, times(1)).remove("test-id#1");
+        verify(keywordIndex, times(1)).remove("test-id#0");
+        verify(keywordIndex, times(1)).remove("test-id#1");
+        verify(answerCache, times(1)).invalidateDocument("test-id");
     }
     
     @Test
@@ -165,7 +214,8 @@ class KnowledgeBaseManagerTest {
     void testGetStats() {
         // Given
         when(knowledgeDocumentRepository.count()).thenReturn(10L);
-        when(knowledgeDocumentRepository.findIndexedDocuments()).thenReturn(Arrays.asList(testDocument));
+        when(knowledgeDocumentRepository.findByStatus(KnowledgeDocument.DocumentStatus.INDEXED))
+                .thenReturn(Arrays.asList(testDocument));
         when(knowledgeDocumentRepository.findByStatus(KnowledgeDocument.DocumentStatus.PENDING))
                 .thenReturn(Arrays.asList());
         when(knowledgeDocumentRepository.findByStatus(KnowledgeDocument.DocumentStatus.FAILED))
@@ -184,7 +234,7 @@ class KnowledgeBaseManagerTest {
     @Test
     void testGenerateEmbedding() {
         // Given
-        when(bedrockService.generateEmbedding(anyString())).thenReturn("[0.1, 0.2, 0.3]");
+        when(embeddingCache.getEmbedding(anyString(), isNull())).thenReturn(new float[]{0.1f, 0.2f, 0.3f});
         when(knowledgeDocumentRepository.save(any(KnowledgeDocument.class))).thenReturn(testDocument);
         
         // When
@@ -194,7 +244,124 @@ class KnowledgeBaseManagerTest {
         assertNotNull(result);
         result.join(); // Wait for completion
         
-        verify(bedrockService, times(1)).generateEmbedding(anyString());
+        verify(embeddingCache, times(1)).getEmbedding(anyString(), isNull());
+        verify(knowledgeChunkRepository, times(1)).saveAll(anyList());
         verify(knowledgeDocumentRepository, times(1)).save(testDocument);
+        verify(vectorIndex, times(1)).upsert(eq("test-id#0"), any(float[].class));
+        verify(keywordIndex, times(1)).upsert(eq("test-id#0"), contains("Test Content"));
+        assertEquals(KnowledgeDocument.DocumentStatus.INDEXED, testDocument.getStatus());
+    }
+    
+    @Test
+    void testReindexingReplacesChunksInPlaceAndRemovesOnlyStaleOnes() {
+        // Given
+        testDocument.setStatus(KnowledgeDocument.DocumentStatus.INDEXED);
+        when(knowledgeChunkRepository.findChunkIdsByDocumentId("test-id")).thenReturn(Arrays.asList("test-id#0", "test-id#1"));
+        when(embeddingCache.getEmbedding(anyString(), isNull())).thenReturn(new float[]{0.1f, 0.2f, 0.3f});
+        
+        // When
+        knowledgeBaseManager.generateEmbedding(testDocument).join();
+        
+        // Then
+        InOrder order = inOrder(embeddingCache, knowledgeChunkRepository);
+        order.verify(embeddingCache).getEmbedding(anyString(), isNull());
+        order.verify(knowledgeChunkRepository).saveAll(anyList());
+        order.verify(knowledgeChunkRepository).deleteAllByIdInBatch(Set.of("test-id#1"));
+        verify(vectorIndex).upsert(eq("test-id#0"), any(float[].class));
+        verify(vectorIndex, never()).remove("test-id#0");
+        verify(vectorIndex).remove("test-id#1");
+        assertEquals(KnowledgeDocument.DocumentStatus.INDEXED, testDocument.getStatus());
+    }
+    
+    @Test
+    void testEmbeddingFailureKeepsExistingChunks() {
+        // Given
+        testDocument.setStatus(KnowledgeDocument.DocumentStatus.INDEXED);
+        when(knowledgeChunkRepository.findChunkIdsByDocumentId("test-id")).thenReturn(Arrays.asList("test-id#0"));
+        when(embeddingCache.getEmbedding(anyString(), isNull())).thenThrow(new RuntimeException("Bedrock unavailable"));
+        
+        // When
+        knowledgeBaseManager.generateEmbedding(testDocument).join();
+        
+        // Then
+        verify(knowledgeChunkRepository, never()).saveAll(anyList());
+        verify(knowledgeChunkRepository, never()).deleteAllByIdInBatch(any());
+        verify(vectorIndex, never()).remove(anyString());
+        verify(knowledgeDocumentRepository, never()).save(any(KnowledgeDocument.class));
+        assertEquals(KnowledgeDocument.DocumentStatus.INDEXED, testDocument.getStatus());
+    }
+    
+    @Test
+    void testRunReindexResumesFromCheckpoint() {
+        // Given
+        KnowledgeIndexCheckpoint checkpoint = new KnowledgeIndexCheckpoint("knowledge-reindex");
+        checkpoint.advance("doc-050", 50, 0);
+        KnowledgeDocument remaining = new KnowledgeDocument("doc-051", "Remaining", "Remaining content", "FAQ");
+        AsyncTaskManager.TaskProgress progress = new AsyncTaskManager.TaskProgress("task-1", "knowledge_reindex", "admin");
+        
+        when(checkpointRepository.findById("knowledge-reindex")).thenReturn(Optional.of(checkpoint));
+        when(knowledgeDocumentRepository.count()).thenReturn(51L);
+        when(knowledgeDocumentRepository.findDocumentsAfter(eq("doc-050"), any(Pageable.class)))
+                .thenReturn(Arrays.asList(remaining));
+        when(knowledgeDocumentRepository.findDocumentsAfter(eq("doc-051"), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        when(knowledgeChunkRepository.findChunkIdsByDocumentId("doc-051")).thenReturn(Collections.emptyList());
+        when(embeddingCache.getEmbedding(anyString(), any(RateLimiter.class))).thenReturn(new float[]{0.1f, 0.2f});
+        
+        // When
+        knowledgeBaseManager.runReindex(progress).join();
+        
+        // Then
+        verify(knowledgeDocumentRepository, never()).findAll();
+        verify(knowledgeDocumentRepository, times(1)).save(remaining);
+        assertEquals(KnowledgeDocument.DocumentStatus.INDEXED, remaining.getStatus());
+        assertEquals(KnowledgeIndexCheckpoint.CheckpointStatus.COMPLETED, checkpoint.getStatus());
+        assertEquals("doc-051", checkpoint.getLastDocumentId());
+        assertEquals(51L, checkpoint.getProcessedDocuments());
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> details = ArgumentCaptor.forClass(Map.class);
+        verify(asyncTaskManager).reportProgress(eq(progress), eq(99), anyString(), details.capture());
+        assertEquals(51L, details.getValue().get("processedDocuments"));
+        assertEquals(0L, details.getValue().get("etaSeconds"));
+        verify(asyncTaskManager).completeTrackedTask(eq(progress), any(AsyncTaskManager.TaskResult.class));
+    }
+    
+    @Test
+    void testIndexPendingDocumentsPagesThroughThrottledPath() {
+        // Given
+        KnowledgeDocument pending = new KnowledgeDocument("doc-001", "Pending", "Pending content", "FAQ");
+        when(knowledgeDocumentRepository.findByStatusAfter(eq(KnowledgeDocument.DocumentStatus.PENDING), eq(""), any(Pageable.class)))
+                .thenReturn(Arrays.asList(pending));
+        when(knowledgeDocumentRepository.findByStatusAfter(eq(KnowledgeDocument.DocumentStatus.PENDING), eq("doc-001"), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        when(embeddingCache.getEmbedding(anyString(), any(RateLimiter.class))).thenReturn(new float[]{0.1f, 0.2f});
+        
+        // When
+        knowledgeBaseManager.indexPendingDocuments().join();
+        
+        // Then
+        verify(knowledgeDocumentRepository, never()).findByStatus(any());
+        verify(embeddingCache, never()).getEmbedding(anyString(), isNull());
+        assertEquals(KnowledgeDocument.DocumentStatus.INDEXED, pending.getStatus());
+    }
+    
+    @Test
+    void testRunReindexStopsAndKeepsCheckpointWhenCancelled() {
+        // Given
+        KnowledgeIndexCheckpoint checkpoint = new KnowledgeIndexCheckpoint("knowledge-reindex");
+        AsyncTaskManager.TaskProgress progress = new AsyncTaskManager.TaskProgress("task-2", "knowledge_reindex", "admin");
+        progress.updateStatus(AsyncTaskManager.TaskStatus.CANCELLED);
+        
+        when(checkpointRepository.findById("knowledge-reindex")).thenReturn(Optional.of(checkpoint));
+        when(knowledgeDocumentRepository.count()).thenReturn(10L);
+        
+        // When
+        knowledgeBaseManager.runReindex(progress).join();
+        
+        // Then
+        verify(knowledgeDocumentRepository, never()).findDocumentsAfter(anyString(), any(Pageable.class));
+        assertEquals(KnowledgeIndexCheckpoint.CheckpointStatus.CANCELLED, checkpoint.getStatus());
+        assertTrue(checkpoint.isResumable());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.domain.KnowledgeChunk;
+import com.Human.Ai.D.makit.domain.KnowledgeDocument;
+import com.Human.Ai.D.makit.service.ai.EmbeddingCache;
+import com.Human.Ai.D.makit.service.retrieval.Bm25Index;
+import com.Human.Ai.D.makit.service.retrieval.MetadataFilter;
+import com.Human.Ai.D.makit.service.retrieval.MetadataIndex;
+import com.Human.Ai.D.makit.service.retrieval.SearchFilter;
+import com.Human.Ai.D.makit.service.retrieval.VectorIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KnowledgeRetrieverTest {
+
+    @Mock
+    private KnowledgeBaseManager knowledgeBaseManager;
+
+    @Mock
+    private EmbeddingCache embeddingCache;
+
+    @Mock
+    private VectorIndex vectorIndex;
+
+    @Mock
+    private Bm25Index keywordIndex;
+
+    @Spy
+    private MetadataIndex metadataIndex = new MetadataIndex();
+
+    @InjectMocks
+    private KnowledgeRetriever knowledgeRetriever;
+
+    private KnowledgeDocument document;
+
+    @BeforeEach
+    void setUp() {
+        document = new KnowledgeDocument("doc", "Campaign Guide", "content", "FAQ");
+        lenient().when(knowledgeBaseManager.getChunks(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .map(id -> new KnowledgeChunk(document, Integer.parseInt(id.substring(4)), "text " + id, 0, 1, 1))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        knowledgeRetriever.shutdown();
+    }
+
+    @Test
+    void testHybridSearchFusesRanksAndDedupes() {
+        // Given
+        when(embeddingCache.getEmbedding("campaign")).thenReturn(new float[]{0.1f, 0.2f});
+        when(vectorIndex.search(any(float[].class), eq(9))).thenReturn(Arrays.asList(
+                new VectorIndex.SearchHit("doc#1", 0.95f),
+                new VectorIndex.SearchHit("doc#2", 0.90f),
+                new VectorIndex.SearchHit("doc#3", 0.50f)));
+        when(keywordIndex.search("campaign", 9)).thenReturn(Arrays.asList(
+                new VectorIndex.SearchHit("doc#2", 8.0f),
+                new VectorIndex.SearchHit("doc#4", 4.0f)));
+
+        // When
+        List<KnowledgeRetriever.RelevantDocument> results = knowledgeRetriever.hybridSearch("campaign", 3);
+
+        // Then
+        assertEquals(3, results.size());
+
+        // 두 경로 모두에 있는 청크가 가장 위로 올라옴
+        KnowledgeRetriever.RelevantDocument first = results.get(0);
+        assertEquals("doc#2", first.getChunk().getChunkId());
+        assertEquals(2, first.getSemanticRank());
+        assertEquals(1, first.getKeywordRank());
+        assertEquals(1.0 / 62 + 1.0 / 61, first.getFusedScore(), 1e-9);
+        assertEquals(0.90, first.getSimilarity(), 1e-6);
+
+        assertEquals("doc#1", results.get(1).getChunk().getChunkId());
+        assertNull(results.get(1).getKeywordRank());
+
+        KnowledgeRetriever.RelevantDocument keywordOnly = results.get(2);
+        assertEquals("doc#4", keywordOnly.getChunk().getChunkId());
+        assertNull(keywordOnly.getSemanticRank());
+        assertEquals(0.5, keywordOnly.getSimilarity(), 1e-6);
+    }
+
+    @Test
+    void testHybridSearchFallsBackToKeywordLegWhenSemanticLegFails() {
+        // Given
+        when(embeddingCache.getEmbedding(anyString())).thenThrow(new RuntimeException("Bedrock unavailable"));
+        when(keywordIndex.search("campaign", 6)).thenReturn(Arrays.asList(
+                new VectorIndex.SearchHit("doc#7", 3.0f)));
+
+        // When
+        List<KnowledgeRetriever.RelevantDocument> results = knowledgeRetriever.hybridSearch("campaign", 2);
+
+        // Then
+        assertEquals(1, results.size());
+        assertEquals("doc#7", results.get(0).getChunk().getChunkId());
+        assertEquals(1, results.get(0).getKeywordRank());
+        // 키워드 경로에서만 찾은 최상위 청크도 상한을 넘는 유사도로 보고되지 않음
+        assertEquals(0.5, results.get(0).getSimilarity(), 1e-6);
+        verify(vectorIndex, never()).search(any(float[].class), anyInt());
+    }
+
+    @Test
+    void testTimedOutLegIsInterrupted() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(knowledgeRetriever, "legTimeoutMs", 50L);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(embeddingCache.getEmbedding("campaign")).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            return new float[]{0.1f, 0.2f};
+        });
+        when(keywordIndex.search("campaign", 6)).thenReturn(Arrays.asList(
+                new VectorIndex.SearchHit("doc#7", 3.0f)));
+
+        // When
+        List<KnowledgeRetriever.RelevantDocument> results = knowledgeRetriever.hybridSearch("campaign", 2);
+
+        // Then
+        assertEquals(1, results.size());
+        assertEquals("doc#7", results.get(0).getChunk().getChunkId());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        verify(vectorIndex, never()).search(any(float[].class), anyInt());
+    }
+
+    @Test
+    void testSearchByTagPassesBitmapFilterToBothLegs() {
+        // Given
+        metadataIndex.upsert("doc#1", Set.of("campaign"), "FAQ", "upload");
+        metadataIndex.upsert("doc#2", Set.of("billing"), "FAQ", "upload");
+        when(embeddingCache.getEmbedding("budget")).thenReturn(new float[]{0.1f, 0.2f});
+        when(vectorIndex.search(any(float[].class), eq(6), any(SearchFilter.class))).thenAnswer(invocation -> {
+            SearchFilter filter = invocation.getArgument(2);
+            assertEquals(1, filter.cardinality());
+            assertTrue(filter.accepts("doc#1"));
+            assertFalse(filter.accepts("doc#2"));
+            return Arrays.asList(new VectorIndex.SearchHit("doc#1", 0.8f));
+        });
+        when(keywordIndex.search(eq("budget"), eq(6), any(SearchFilter.class))).thenReturn(List.of());
+
+        // When
+        List<KnowledgeRetriever.RelevantDocument> results = knowledgeRetriever.searchByTag("Campaign", "budget", 2);
+
+        // Then
+        assertEquals(1, results.size());
+        assertEquals("doc#1", results.get(0).getChunk().getChunkId());
+        assertEquals(0.8, results.get(0).getSimilarity(), 1e-6);
+        verify(vectorIndex, never()).search(any(float[].class), anyInt());
+    }
+
+    @Test
+    void testFilteredSearchSkipsIndexesWhenNothingMatches() {
+        // Given
+        metadataIndex.upsert("doc#1", Set.of("campaign"), "FAQ", "upload");
+
+        // When
+        List<KnowledgeRetriever.RelevantDocument> results =
+                knowledgeRetriever.hybridSearch("budget", 3, MetadataFilter.type("TECHNICAL"));
+
+        // Then
+        assertTrue(results.isEmpty());
+        verifyNoInteractions(vectorIndex, keywordIndex, embeddingCache);
+    }
+}
@@ -17,6 +17,7 @@ import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
@@ -45,9 +46,11 @@ class RAGChatbotServiceIntegrationTest {
         testUser.setUsername("testuser");
         
         // Mock Bedrock service responses
-        when(bedrockService.generateEmbedding(anyString())).thenReturn("[0.1, 0.2, 0.3, 0.4, 0.5]");
+        when(bedrockService.generateEmbeddingVector(anyString(), any())).thenReturn(new float[]{0.1f, 0.2f, 0.3f, 0.4f, 0.5f});
         when(bedrockService.generateTextWithClaude(anyString(), anyInt()))
                 .thenReturn("안녕하세요! MarKIT에 대해 도움을 드릴 수 있습니다.");
+        when(bedrockService.generateTextWithClaude(anyString(), anyInt(), any()))
+                .thenReturn("안녕하세요! MarKIT에 대해 도움을 드릴 수 있습니다.");
     }
     
     @Test
@@ -0,0 +1,159 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.domain.ChatMessage;
+import com.Human.Ai.D.makit.domain.ConversationContext;
+import com.Human.Ai.D.makit.domain.KnowledgeDocument;
+import com.Human.Ai.D.makit.domain.User;
+import com.Human.Ai.D.makit.service.ai.BedrockService;
+import com.Human.Ai.D.makit.service.ai.EmbeddingCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RAGChatbotServicePipelineTest {
+
+    private static final String QUESTION = "MarKIT은 어떤 서비스인가요?";
+    private static final String GREETING = "안녕하세요";
+
+    @Mock
+    private ConversationContextManager contextManager;
+
+    @Mock
+    private KnowledgeRetriever knowledgeRetriever;
+
+    @Mock
+    private IntentClassifier intentClassifier;
+
+    @Mock
+    private BedrockService bedrockService;
+
+    @Mock
+    private SemanticAnswerCache answerCache;
+
+    @Mock
+    private EmbeddingCache embeddingCache;
+
+    @Spy
+    private ContextAssembler contextAssembler = new ContextAssembler();
+
+    @InjectMocks
+    private RAGChatbotService ragChatbotService;
+
+    private User user;
+    private ConversationContext context;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        context = new ConversationContext("ctx-1", user, "session-1");
+
+        when(contextManager.getOrCreateContext(user, "session-1")).thenReturn(context);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ragChatbotService.shutdown();
+    }
+
+    @Test
+    void testRetrievalStartsBeforeIntentClassificationCompletes() throws Exception {
+        // Given
+        CountDownLatch retrievalStarted = new CountDownLatch(1);
+        KnowledgeDocument document = new KnowledgeDocument("doc", "MarKIT 소개", "MarKIT은 AI 마케팅 플랫폼입니다.", "PRODUCT");
+        when(knowledgeRetriever.hybridSearch(QUESTION, 3)).thenAnswer(invocation -> {
+            retrievalStarted.countDown();
+            return List.of(new KnowledgeRetriever.RelevantDocument(document, 0.8));
+        });
+        // 분류가 검색 시작을 기다리므로 두 단계가 순차 실행되면 분류는 타임아웃으로 실패함
+        when(intentClassifier.classifyIntent(QUESTION)).thenAnswer(invocation -> {
+            assertTrue(retrievalStarted.await(5, TimeUnit.SECONDS), "retrieval did not overlap classification");
+            return new IntentClassifier.IntentClassificationResult(
+                    IntentClassifier.Intent.PRODUCT_INQUIRY, 0.9, "ai");
+        });
+        when(bedrockService.generateTextWithClaude(anyString(), eq(500))).thenReturn("MarKIT은 AI 마케팅 플랫폼입니다.");
+
+        // When
+        RAGChatbotService.ChatbotResponse response = ragChatbotService.processMessage(QUESTION, user, "session-1");
+
+        // Then
+        assertEquals("MarKIT은 AI 마케팅 플랫폼입니다.", response.getMessage());
+        assertEquals(0.8, response.getConfidence(), 1e-9);
+        verify(knowledgeRetriever, times(1)).hybridSearch(QUESTION, 3);
+    }
+
+    @Test
+    void testGreetingCancelsSpeculativeRetrieval() throws Exception {
+        // Given
+        CountDownLatch releaseEmbedding = new CountDownLatch(1);
+        lenient().when(embeddingCache.getEmbedding(GREETING)).thenAnswer(invocation -> {
+            releaseEmbedding.await(5, TimeUnit.SECONDS);
+            return new float[]{1.0f, 0.0f};
+        });
+        when(intentClassifier.classifyIntent(GREETING)).thenReturn(new IntentClassifier.IntentClassificationResult(
+                IntentClassifier.Intent.GREETING, 0.95, "keyword"));
+
+        // When
+        RAGChatbotService.ChatbotResponse response = ragChatbotService.processMessage(GREETING, user, "session-1");
+        releaseEmbedding.countDown();
+
+        // Then
+        assertTrue(response.getMessage().startsWith("안녕하세요"));
+        verify(knowledgeRetriever, after(200).never()).hybridSearch(anyString(), anyInt());
+        verifyNoInteractions(bedrockService);
+    }
+
+    @Test
+    void testAnswersWithConversationHistoryAreNotSharedThroughAnswerCache() {
+        // Given
+        User otherUser = new User();
+        otherUser.setId(2L);
+        otherUser.setUsername("otheruser");
+        ConversationContext otherContext = new ConversationContext("ctx-2", otherUser, "session-2");
+        when(contextManager.getOrCreateContext(otherUser, "session-2")).thenReturn(otherContext);
+        // 첫 사용자는 이전 대화에서 자신의 요금제를 언급함
+        when(contextManager.getLatestMessages(eq(context), anyInt())).thenReturn(List.of(
+                new ChatMessage(context, "testuser", "저는 프로 요금제를 쓰고 있어요", ChatMessage.MessageType.CHAT, false)));
+        when(contextManager.getLatestMessages(eq(otherContext), anyInt())).thenReturn(List.of());
+
+        KnowledgeDocument document = new KnowledgeDocument("doc", "MarKIT 소개", "MarKIT은 AI 마케팅 플랫폼입니다.", "PRODUCT");
+        when(knowledgeRetriever.hybridSearch(QUESTION, 3))
+                .thenReturn(List.of(new KnowledgeRetriever.RelevantDocument(document, 0.8)));
+        when(intentClassifier.classifyIntent(QUESTION)).thenReturn(new IntentClassifier.IntentClassificationResult(
+                IntentClassifier.Intent.PRODUCT_INQUIRY, 0.9, "keyword"));
+        when(bedrockService.generateTextWithClaude(anyString(), eq(500))).thenReturn(
+                "프로 요금제 고객님, MarKIT은 AI 마케팅 플랫폼입니다.",
+                "MarKIT은 AI 마케팅 플랫폼입니다.",
+                "프로 요금제에는 캠페인 자동화가 포함됩니다.");
+
+        // When
+        ragChatbotService.processMessage(QUESTION, user, "session-1");
+        RAGChatbotService.ChatbotResponse other = ragChatbotService.processMessage(QUESTION, otherUser, "session-2");
+        lenient().when(answerCache.lookup(QUESTION, "PRODUCT_INQUIRY")).thenReturn(new SemanticAnswerCache.CachedAnswer(
+                other.getMessage(), 0.8, 1.0, Set.of("doc")));
+        RAGChatbotService.ChatbotResponse followUp = ragChatbotService.processMessage(QUESTION, user, "session-1");
+
+        // Then
+        // 기록 없이 생성된 답변만 저장되고, 기록이 있는 대화는 캐시를 조회하지 않음
+        verify(answerCache, times(1)).store(eq(QUESTION), eq("PRODUCT_INQUIRY"),
+                eq("MarKIT은 AI 마케팅 플랫폼입니다."), anyDouble(), anyList());
+        verify(answerCache, times(1)).lookup(QUESTION, "PRODUCT_INQUIRY");
+        assertEquals("프로 요금제에는 캠페인 자동화가 포함됩니다.", followUp.getMessage());
+    }
+}
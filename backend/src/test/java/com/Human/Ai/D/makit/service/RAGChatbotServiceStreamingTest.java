@@ -0,0 +1,125 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.domain.ChatMessage;
+import com.Human.Ai.D.makit.domain.ConversationContext;
+import com.Human.Ai.D.makit.domain.KnowledgeDocument;
+import com.Human.Ai.D.makit.domain.User;
+import com.Human.Ai.D.makit.service.ai.BedrockService;
+import com.Human.Ai.D.makit.service.ai.EmbeddingCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RAGChatbotServiceStreamingTest {
+
+    private static final String QUESTION = "MarKIT은 어떤 서비스인가요?";
+
+    @Mock
+    private ConversationContextManager contextManager;
+
+    @Mock
+    private KnowledgeRetriever knowledgeRetriever;
+
+    @Mock
+    private IntentClassifier intentClassifier;
+
+    @Mock
+    private BedrockService bedrockService;
+
+    @Mock
+    private SemanticAnswerCache answerCache;
+
+    @Mock
+    private EmbeddingCache embeddingCache;
+
+    @Spy
+    private ContextAssembler contextAssembler = new ContextAssembler();
+
+    @InjectMocks
+    private RAGChatbotService ragChatbotService;
+
+    private User user;
+    private ConversationContext context;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        context = new ConversationContext("ctx-1", user, "session-1");
+
+        when(contextManager.getOrCreateContext(user, "session-1")).thenReturn(context);
+        when(intentClassifier.classifyIntent(QUESTION)).thenReturn(new IntentClassifier.IntentClassificationResult(
+                IntentClassifier.Intent.PRODUCT_INQUIRY, 0.9, "keyword"));
+        KnowledgeDocument document = new KnowledgeDocument("doc", "MarKIT 소개", "MarKIT은 AI 마케팅 플랫폼입니다.", "PRODUCT");
+        when(knowledgeRetriever.hybridSearch(QUESTION, 3))
+                .thenReturn(List.of(new KnowledgeRetriever.RelevantDocument(document, 0.8)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ragChatbotService.shutdown();
+    }
+
+    @Test
+    void testDeltasAreForwardedAndFullTextIsPersisted() {
+        // Given
+        when(bedrockService.streamTextWithClaude(anyString(), eq(500), any())).thenAnswer(invocation -> {
+            Consumer<String> onDelta = invocation.getArgument(2);
+            onDelta.accept("MarKIT은 ");
+            onDelta.accept("AI 마케팅 ");
+            onDelta.accept("플랫폼입니다.");
+            return CompletableFuture.completedFuture("MarKIT은 AI 마케팅 플랫폼입니다.");
+        });
+        List<String> deltas = new ArrayList<>();
+
+        // When
+        RAGChatbotService.ChatbotResponse response =
+                ragChatbotService.processMessage(QUESTION, user, "session-1", deltas::add);
+
+        // Then
+        assertEquals(List.of("MarKIT은 ", "AI 마케팅 ", "플랫폼입니다."), deltas);
+        assertEquals("MarKIT은 AI 마케팅 플랫폼입니다.", response.getMessage());
+        assertEquals(0.8, response.getConfidence(), 1e-9);
+        assertFalse(response.shouldEscalate());
+        verify(contextManager).addMessage(context, "assistant", "MarKIT은 AI 마케팅 플랫폼입니다.",
+                ChatMessage.MessageType.CHAT, true, "PRODUCT_INQUIRY", 0.8);
+        verify(bedrockService, never()).generateTextWithClaude(anyString(), anyInt());
+    }
+
+    @Test
+    void testFailedStreamReturnsErrorResponse() {
+        // Given
+        when(bedrockService.streamTextWithClaude(anyString(), eq(500), any())).thenAnswer(invocation -> {
+            Consumer<String> onDelta = invocation.getArgument(2);
+            onDelta.accept("MarKIT은 ");
+            return CompletableFuture.failedFuture(new RuntimeException("stream reset"));
+        });
+        List<String> deltas = new ArrayList<>();
+
+        // When
+        RAGChatbotService.ChatbotResponse response =
+                ragChatbotService.processMessage(QUESTION, user, "session-1", deltas::add);
+
+        // Then
+        assertEquals(1, deltas.size());
+        assertEquals(0.0, response.getConfidence(), 1e-9);
+        assertTrue(response.getMessage().startsWith("죄송합니다"));
+        verify(answerCache, never()).store(anyString(), anyString(), anyString(), anyDouble(), anyList());
+    }
+}
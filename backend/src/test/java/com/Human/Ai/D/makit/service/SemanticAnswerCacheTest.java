@@ -0,0 +1,128 @@
+package com.Human.Ai.D.makit.service;
+
+import com.Human.Ai.D.makit.domain.KnowledgeDocument;
+import com.Human.Ai.D.makit.repository.KnowledgeDocumentRepository;
+import com.Human.Ai.D.makit.service.ai.EmbeddingCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SemanticAnswerCacheTest {
+
+    @Mock
+    private EmbeddingCache embeddingCache;
+
+    @Mock
+    private KnowledgeDocumentRepository knowledgeDocumentRepository;
+
+    @InjectMocks
+    private SemanticAnswerCache answerCache;
+
+    private KnowledgeDocument pricing;
+    private LocalDateTime pricingVersion;
+
+    @BeforeEach
+    void setUp() {
+        pricingVersion = LocalDateTime.of(2024, 3, 1, 9, 0);
+        pricing = new KnowledgeDocument("pricing", "요금 안내", "Pro 플랜은 월 99,000원입니다", "FAQ");
+        pricing.setLastUpdated(pricingVersion);
+    }
+
+    @Test
+    void testSimilarQuestionIsServedFromCache() {
+        // Given
+        when(embeddingCache.getEmbedding("가격이 얼마예요")).thenReturn(new float[]{1.0f, 0.0f, 0.0f});
+        when(embeddingCache.getEmbedding("how much does it cost")).thenReturn(new float[]{0.98f, 0.1f, 0.0f});
+        when(knowledgeDocumentRepository.findLastUpdatedByDocumentIds(anyCollection()))
+                .thenReturn(Collections.singletonList(new Object[]{"pricing", pricingVersion}));
+        answerCache.store("가격이 얼마예요", "PRODUCT_INQUIRY", "월 99,000원입니다.", 0.8, sources(pricing));
+
+        // When
+        SemanticAnswerCache.CachedAnswer cached = answerCache.lookup("how much does it cost", "PRODUCT_INQUIRY");
+
+        // Then
+        assertNotNull(cached);
+        assertEquals("월 99,000원입니다.", cached.getAnswer());
+        assertEquals(0.8, cached.getConfidence(), 1e-9);
+        assertTrue(cached.getSimilarity() > 0.99);
+        assertEquals(1, answerCache.getStats().getHits());
+    }
+
+    @Test
+    void testDissimilarQuestionOrOtherScopeMisses() {
+        // Given
+        when(embeddingCache.getEmbedding("가격이 얼마예요")).thenReturn(new float[]{1.0f, 0.0f, 0.0f});
+        when(embeddingCache.getEmbedding("로그인이 안 돼요")).thenReturn(new float[]{0.0f, 1.0f, 0.0f});
+        answerCache.store("가격이 얼마예요", "PRODUCT_INQUIRY", "월 99,000원입니다.", 0.8, sources(pricing));
+
+        // When / Then
+        assertNull(answerCache.lookup("로그인이 안 돼요", "PRODUCT_INQUIRY"));
+        assertNull(answerCache.lookup("가격이 얼마예요", "TECHNICAL_SUPPORT"));
+        verifyNoInteractions(knowledgeDocumentRepository);
+        assertEquals(2, answerCache.getStats().getMisses());
+    }
+
+    @Test
+    void testChangedSourceDocumentIsNotServed() {
+        // Given
+        when(embeddingCache.getEmbedding("가격이 얼마예요")).thenReturn(new float[]{1.0f, 0.0f, 0.0f});
+        when(knowledgeDocumentRepository.findLastUpdatedByDocumentIds(anyCollection()))
+                .thenReturn(Collections.singletonList(new Object[]{"pricing", pricingVersion.plusHours(1)}));
+        answerCache.store("가격이 얼마예요", "PRODUCT_INQUIRY", "월 99,000원입니다.", 0.8, sources(pricing));
+
+        // When
+        SemanticAnswerCache.CachedAnswer cached = answerCache.lookup("가격이 얼마예요", "PRODUCT_INQUIRY");
+
+        // Then
+        assertNull(cached);
+        assertEquals(1, answerCache.getStats().getStaleRejections());
+        assertEquals(0, answerCache.getStats().getEntries());
+    }
+
+    @Test
+    void testInvalidateDocumentRemovesReferencingAnswers() {
+        // Given
+        when(embeddingCache.getEmbedding(anyString())).thenReturn(new float[]{1.0f, 0.0f, 0.0f});
+        KnowledgeDocument plans = new KnowledgeDocument("plans", "플랜 비교", "Basic, Pro, Enterprise", "FAQ");
+        answerCache.store("가격이 얼마예요", "PRODUCT_INQUIRY", "월 99,000원입니다.", 0.8, sources(pricing));
+        answerCache.store("플랜 종류", "UNKNOWN", "세 가지 플랜이 있습니다.", 0.7, sources(plans));
+
+        // When
+        int removed = answerCache.invalidateDocument("pricing");
+
+        // Then
+        assertEquals(1, removed);
+        assertEquals(1, answerCache.getStats().getEntries());
+        assertNull(answerCache.lookup("가격이 얼마예요", "PRODUCT_INQUIRY"));
+        assertEquals(0, answerCache.invalidateDocument("pricing"));
+    }
+
+    @Test
+    void testEmbeddingFailureSkipsCache() {
+        // Given
+        when(embeddingCache.getEmbedding(anyString())).thenThrow(new RuntimeException("Bedrock unavailable"));
+
+        // When
+        answerCache.store("가격이 얼마예요", "PRODUCT_INQUIRY", "월 99,000원입니다.", 0.8, sources(pricing));
+
+        // Then
+        assertNull(answerCache.lookup("가격이 얼마예요", "PRODUCT_INQUIRY"));
+        assertEquals(0, answerCache.getStats().getEntries());
+    }
+
+    private List<KnowledgeRetriever.RelevantDocument> sources(KnowledgeDocument document) {
+        return List.of(new KnowledgeRetriever.RelevantDocument(document, 0.9));
+    }
+}
@@ -0,0 +1,130 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BedrockResilienceTest {
+
+    private static final String MODEL = "model";
+
+    private final BedrockResilience resilience = new BedrockResilience();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(resilience, "baseDelayMs", 1L);
+        ReflectionTestUtils.setField(resilience, "maxDelayMs", 5L);
+    }
+
+    @Test
+    void testRetriesTransientFailures() throws Exception {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        BedrockResilience.Attempt<String> attempt = stillNeeded -> calls.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(SdkClientException.create("connection reset"))
+                : CompletableFuture.completedFuture("ok");
+
+        // When
+        String result = resilience.execute(MODEL, MODEL, BedrockCallOptions.DEFAULT, attempt).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, resilience.getStats().getRetries());
+    }
+
+    @Test
+    void testDoesNotRetryClientErrors() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        BedrockResilience.Attempt<String> attempt = stillNeeded -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalArgumentException("bad request"));
+        };
+
+        // When
+        CompletableFuture<String> result = resilience.execute(MODEL, MODEL, BedrockCallOptions.DEFAULT, attempt);
+
+        // Then
+        CompletionException error = assertThrows(CompletionException.class, result::join);
+        assertTrue(error.getCause() instanceof IllegalArgumentException);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testOpenCircuitFailsFastWithoutCallingModel() {
+        // Given
+        ReflectionTestUtils.setField(resilience, "maxAttempts", 1);
+        ReflectionTestUtils.setField(resilience, "circuitWindowSize", 2);
+        ReflectionTestUtils.setField(resilience, "circuitMinimumCalls", 2);
+        AtomicInteger calls = new AtomicInteger();
+        BedrockResilience.Attempt<String> failing = stillNeeded -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(SdkClientException.create("read timeout"));
+        };
+        assertThrows(CompletionException.class, () -> resilience.execute(MODEL, MODEL, BedrockCallOptions.DEFAULT, failing).join());
+        assertThrows(CompletionException.class, () -> resilience.execute(MODEL, MODEL, BedrockCallOptions.DEFAULT, failing).join());
+
+        // When
+        CompletableFuture<String> result = resilience.execute(MODEL, MODEL, BedrockCallOptions.DEFAULT, failing);
+
+        // Then
+        CompletionException error = assertThrows(CompletionException.class, result::join);
+        assertTrue(error.getCause() instanceof RejectedExecutionException);
+        assertEquals(2, calls.get());
+        assertEquals(ModelCircuitBreaker.State.OPEN, resilience.getCircuitStates().get(MODEL));
+    }
+
+    @Test
+    void testHedgeAnswersWhenFirstAttemptStalls() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(resilience, "hedgeMinSamples", 1);
+        ReflectionTestUtils.setField(resilience, "hedgeMinDelayMs", 1L);
+        ReflectionTestUtils.setField(resilience, "hedgeMaxRatio", 1.0);
+        resilience.execute(MODEL, MODEL, BedrockCallOptions.HEDGED,
+                stillNeeded -> CompletableFuture.completedFuture("warm-up")).get(5, TimeUnit.SECONDS);
+
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> stalled = new CompletableFuture<>();
+        BedrockResilience.Attempt<String> attempt = stillNeeded -> calls.incrementAndGet() == 1
+                ? stalled
+                : CompletableFuture.completedFuture("hedge");
+
+        // When
+        String result = resilience.execute(MODEL, MODEL, BedrockCallOptions.HEDGED, attempt).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("hedge", result);
+        assertEquals(2, calls.get());
+        assertEquals(1, resilience.getStats().getHedgeWins());
+    }
+
+    @Test
+    void testNoHedgeWithoutLatencyHistory() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(resilience, "hedgeMaxRatio", 1.0);
+        AtomicInteger calls = new AtomicInteger();
+        BedrockResilience.Attempt<String> attempt = stillNeeded -> {
+            calls.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> "slow",
+                    CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        };
+
+        // When
+        String result = resilience.execute(MODEL, MODEL, BedrockCallOptions.HEDGED, attempt).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("slow", result);
+        assertEquals(1, calls.get());
+        assertEquals(0, resilience.getStats().getHedgesSent());
+    }
+}
@@ -0,0 +1,96 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BedrockResponseCacheTest {
+
+    private static final String MODEL = "anthropic.claude-v2";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @InjectMocks
+    private BedrockResponseCache responseCache;
+
+    @Test
+    void testKeyIgnoresFieldOrderAndNumberFormatting() {
+        // Given
+        String body = "{\"prompt\":\"점수만 답해주세요\",\"temperature\":0.50,\"max_tokens_to_sample\":50}";
+        String reordered = "{\"max_tokens_to_sample\":50,\"temperature\":0.5,\"prompt\":\"점수만 답해주세요\"}";
+
+        // When
+        String key = responseCache.key(MODEL, body);
+
+        // Then
+        assertEquals(key, responseCache.key(MODEL, reordered));
+        assertTrue(key.startsWith("bedrock-response::" + MODEL + ":0.5:"));
+        assertNotEquals(key, responseCache.key(MODEL, body.replace("0.50", "0.7")));
+        assertNotEquals(key, responseCache.key("amazon.titan-text-express-v1", body));
+    }
+
+    @Test
+    void testPutServesLaterLookupsLocallyAndWritesCompressedToRedis() throws Exception {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        JsonNode response = objectMapper.readTree("{\"completion\":\" 85\"}");
+        String key = responseCache.key(MODEL, "{\"prompt\":\"p\"}");
+
+        // When
+        responseCache.put(key, response, Duration.ofMinutes(10));
+        JsonNode cached = responseCache.get(key);
+
+        // Then
+        assertSame(response, cached);
+        ArgumentCaptor<Object> stored = ArgumentCaptor.forClass(Object.class);
+        verify(valueOperations).set(eq(key), stored.capture(), eq(600_000L), eq(TimeUnit.MILLISECONDS));
+        String value = (String) stored.getValue();
+        byte[] json = BedrockResponseCache.gunzip(Base64.getDecoder().decode(value.substring(value.indexOf(':') + 1)));
+        assertEquals(response, objectMapper.readTree(json));
+        verify(valueOperations, never()).get(anyString());
+        assertEquals(1, responseCache.getStats().getLocalHits());
+    }
+
+    @Test
+    void testRedisHitIsDecompressedAndExpiredEntriesMiss() throws Exception {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        byte[] compressed = BedrockResponseCache.gzip("{\"completion\":\"GREETING\"}".getBytes());
+        String encoded = Base64.getEncoder().encodeToString(compressed);
+        when(valueOperations.get("fresh")).thenReturn((System.currentTimeMillis() + 60_000) + ":" + encoded);
+        when(valueOperations.get("stale")).thenReturn((System.currentTimeMillis() - 1) + ":" + encoded);
+
+        // When
+        JsonNode fresh = responseCache.get("fresh");
+        JsonNode stale = responseCache.get("stale");
+
+        // Then
+        assertEquals("GREETING", fresh.get("completion").asText());
+        assertNull(stale);
+        assertEquals(1, responseCache.getStats().getRedisHits());
+        assertEquals(1, responseCache.getStats().getMisses());
+        assertEquals(0.5, responseCache.getStats().getHitRatio(), 0.001);
+    }
+}
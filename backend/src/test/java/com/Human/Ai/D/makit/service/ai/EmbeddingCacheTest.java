@@ -0,0 +1,92 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import com.Human.Ai.D.makit.service.retrieval.EmbeddingCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmbeddingCacheTest {
+
+    @Mock
+    private BedrockService bedrockService;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @InjectMocks
+    private EmbeddingCache embeddingCache;
+
+    @Test
+    void testRepeatedTextIsServedFromLocalCache() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        float[] vector = {0.1f, 0.2f, 0.3f};
+        when(bedrockService.generateEmbeddingVector("캠페인 성과 확인", EmbeddingCache.INTERACTIVE_OPTIONS)).thenReturn(vector);
+
+        // When
+        float[] first = embeddingCache.getEmbedding("캠페인 성과 확인");
+        float[] second = embeddingCache.getEmbedding("  캠페인   성과\n확인 ");
+
+        // Then
+        assertArrayEquals(vector, first);
+        assertSame(first, second);
+        verify(bedrockService, times(1)).generateEmbeddingVector(anyString(), any());
+        verify(valueOperations, times(1)).set(startsWith("embedding::" + BedrockService.EMBEDDING_MODEL_ID + ":"),
+                anyString(), anyLong(), eq(TimeUnit.HOURS));
+        assertEquals(1, embeddingCache.getStats().getLocalHits());
+        assertEquals(1, embeddingCache.getStats().getMisses());
+    }
+
+    @Test
+    void testRedisHitSkipsBedrock() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        float[] vector = {0.5f, -0.25f};
+        when(valueOperations.get(anyString()))
+                .thenReturn(Base64.getEncoder().encodeToString(EmbeddingCodec.encode(vector)));
+
+        // When
+        float[] result = embeddingCache.getEmbedding("자주 묻는 질문");
+
+        // Then
+        assertArrayEquals(vector, result);
+        verify(bedrockService, never()).generateEmbeddingVector(anyString(), any());
+        assertEquals(1, embeddingCache.getStats().getRedisHits());
+    }
+
+    @Test
+    void testRedisFailureFallsBackToBedrock() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenThrow(new RuntimeException("Redis down"));
+        when(bedrockService.generateEmbeddingVector("question", EmbeddingCache.INTERACTIVE_OPTIONS)).thenReturn(new float[]{1.0f});
+
+        // When
+        float[] result = embeddingCache.getEmbedding("question");
+
+        // Then
+        assertArrayEquals(new float[]{1.0f}, result);
+    }
+
+    @Test
+    void testCacheKeyDependsOnModelAndText() {
+        assertEquals(EmbeddingCache.cacheKey("m", "a"), EmbeddingCache.cacheKey("m", "a"));
+        assertNotEquals(EmbeddingCache.cacheKey("m", "a"), EmbeddingCache.cacheKey("m", "b"));
+        assertNotEquals(EmbeddingCache.cacheKey("m1", "a"), EmbeddingCache.cacheKey("m2", "a"));
+    }
+}
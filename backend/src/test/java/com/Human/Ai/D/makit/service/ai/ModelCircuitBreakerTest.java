@@ -0,0 +1,86 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelCircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final ModelCircuitBreaker breaker = new ModelCircuitBreaker(4, 0.5, 4, 1000, clock::get);
+
+    @Test
+    void testOpensWhenFailureRateReachesThreshold() {
+        // Given
+        record(ModelLimiter.Outcome.SUCCESS, ModelLimiter.Outcome.FAILED, ModelLimiter.Outcome.SUCCESS);
+        assertEquals(ModelCircuitBreaker.State.CLOSED, breaker.getState());
+
+        // When
+        record(ModelLimiter.Outcome.FAILED);
+
+        // Then
+        assertEquals(ModelCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.getRejectedCalls());
+    }
+
+    @Test
+    void testThrottlingAndClientErrorsDoNotCount() {
+        // Given
+        record(ModelLimiter.Outcome.FAILED, ModelLimiter.Outcome.SUCCESS);
+
+        // When
+        record(ModelLimiter.Outcome.THROTTLED, ModelLimiter.Outcome.THROTTLED, ModelLimiter.Outcome.IGNORED);
+
+        // Then
+        assertEquals(ModelCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.5, breaker.getFailureRate(), 0.001);
+    }
+
+    @Test
+    void testSingleTrialAfterOpenPeriodClosesOnSuccess() {
+        // Given
+        record(ModelLimiter.Outcome.FAILED, ModelLimiter.Outcome.FAILED,
+                ModelLimiter.Outcome.FAILED, ModelLimiter.Outcome.FAILED);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        // When
+        boolean trial = breaker.tryAcquire();
+        boolean concurrent = breaker.tryAcquire();
+        breaker.record(ModelLimiter.Outcome.SUCCESS);
+
+        // Then
+        assertTrue(trial);
+        assertFalse(concurrent);
+        assertEquals(ModelCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate(), 0.001);
+    }
+
+    @Test
+    void testFailedTrialOpensAgain() {
+        // Given
+        record(ModelLimiter.Outcome.FAILED, ModelLimiter.Outcome.FAILED,
+                ModelLimiter.Outcome.FAILED, ModelLimiter.Outcome.FAILED);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(ModelCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // When
+        assertTrue(breaker.tryAcquire());
+        breaker.record(ModelLimiter.Outcome.FAILED);
+
+        // Then
+        assertEquals(ModelCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(2, breaker.getTimesOpened());
+    }
+
+    private void record(ModelLimiter.Outcome... outcomes) {
+        for (ModelLimiter.Outcome outcome : outcomes) {
+            assertTrue(breaker.tryAcquire());
+            breaker.record(outcome);
+        }
+    }
+}
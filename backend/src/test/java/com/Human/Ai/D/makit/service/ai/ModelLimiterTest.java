@@ -0,0 +1,168 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelLimiterTest {
+
+    private static final BedrockCallOptions.Priority INTERACTIVE = BedrockCallOptions.Priority.INTERACTIVE;
+    private static final BedrockCallOptions.Priority BATCH = BedrockCallOptions.Priority.BATCH;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    private ModelLimiter limiter(double requestsPerSecond, long tokensPerMinute, int concurrency, int maxQueued) {
+        ModelLimiter.Config config = new ModelLimiter.Config(requestsPerSecond, tokensPerMinute,
+                concurrency, 1, 100, 0.5, maxQueued, 1000);
+        return new ModelLimiter("model", config, clock::get);
+    }
+
+    @Test
+    void testConcurrencyLimitQueuesUntilRelease() {
+        // Given
+        ModelLimiter limiter = limiter(0, 0, 2, 10);
+        CompletableFuture<ModelLimiter.Permit> first = limiter.acquire(INTERACTIVE, 10);
+        limiter.acquire(INTERACTIVE, 10);
+
+        // When
+        CompletableFuture<ModelLimiter.Permit> third = limiter.acquire(INTERACTIVE, 10);
+
+        // Then
+        assertFalse(third.isDone());
+        first.join().release(ModelLimiter.Outcome.IGNORED);
+        assertTrue(third.isDone());
+        assertEquals(2, limiter.getStats().getInFlight());
+    }
+
+    @Test
+    void testInteractiveCallsAreAdmittedAheadOfBatch() {
+        // Given
+        ModelLimiter limiter = limiter(0, 0, 4, 10);
+        CompletableFuture<ModelLimiter.Permit> running = limiter.acquire(INTERACTIVE, 0);
+        limiter.acquire(INTERACTIVE, 0);
+        limiter.acquire(INTERACTIVE, 0);
+        limiter.acquire(INTERACTIVE, 0);
+        CompletableFuture<ModelLimiter.Permit> queuedBatch = limiter.acquire(BATCH, 0);
+        CompletableFuture<ModelLimiter.Permit> queuedInteractive = limiter.acquire(INTERACTIVE, 0);
+
+        // When
+        running.join().release(ModelLimiter.Outcome.IGNORED);
+
+        // Then
+        assertTrue(queuedInteractive.isDone());
+        assertFalse(queuedBatch.isDone());
+        assertEquals(1, limiter.getStats().getQueuedBatch());
+    }
+
+    @Test
+    void testBatchLaneUsesOnlyItsShareOfConcurrency() {
+        // Given
+        ModelLimiter limiter = limiter(0, 0, 4, 10);
+        limiter.acquire(BATCH, 0);
+        limiter.acquire(BATCH, 0);
+
+        // When
+        CompletableFuture<ModelLimiter.Permit> thirdBatch = limiter.acquire(BATCH, 0);
+        CompletableFuture<ModelLimiter.Permit> interactive = limiter.acquire(INTERACTIVE, 0);
+
+        // Then
+        assertFalse(thirdBatch.isDone());
+        assertTrue(interactive.isDone());
+    }
+
+    @Test
+    void testRequestBucketPacesAdmissions() {
+        // Given: 2 requests per second
+        ModelLimiter limiter = limiter(2, 0, 10, 10);
+        assertTrue(limiter.acquire(INTERACTIVE, 0).isDone());
+        assertTrue(limiter.acquire(INTERACTIVE, 0).isDone());
+
+        // When
+        CompletableFuture<ModelLimiter.Permit> third = limiter.acquire(INTERACTIVE, 0);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        limiter.dispatch();
+
+        // Then
+        assertTrue(third.isDone());
+        assertFalse(limiter.acquire(INTERACTIVE, 0).isDone());
+    }
+
+    @Test
+    void testTokenBucketWaitsForEnoughModelTokens() {
+        // Given: 600 tokens per minute, refilling 10 per second
+        ModelLimiter limiter = limiter(0, 600, 10, 10);
+        assertTrue(limiter.acquire(INTERACTIVE, 600).isDone());
+
+        // When
+        CompletableFuture<ModelLimiter.Permit> next = limiter.acquire(INTERACTIVE, 10);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        limiter.dispatch();
+
+        // Then
+        assertFalse(next.isDone());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        limiter.dispatch();
+        assertTrue(next.isDone());
+    }
+
+    @Test
+    void testThrottlingHalvesLimit() {
+        // Given
+        ModelLimiter limiter = limiter(0, 0, 8, 10);
+        CompletableFuture<ModelLimiter.Permit> throttledCall = limiter.acquire(INTERACTIVE, 0);
+
+        // When
+        throttledCall.join().release(ModelLimiter.Outcome.THROTTLED);
+
+        // Then
+        assertEquals(4.0, limiter.getStats().getConcurrencyLimit(), 0.001);
+        assertEquals(1, limiter.getStats().getThrottled());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.acquire(INTERACTIVE, 0).isDone());
+        }
+        assertFalse(limiter.acquire(INTERACTIVE, 0).isDone());
+    }
+
+    @Test
+    void testSuccessfulCallsUnderLoadRaiseLimit() {
+        // Given
+        ModelLimiter limiter = limiter(0, 0, 2, 10);
+        CompletableFuture<ModelLimiter.Permit> first = limiter.acquire(INTERACTIVE, 0);
+        limiter.acquire(INTERACTIVE, 0);
+
+        // When
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        first.join().release(ModelLimiter.Outcome.SUCCESS);
+
+        // Then
+        assertEquals(2.5, limiter.getStats().getConcurrencyLimit(), 0.001);
+        assertEquals(100, limiter.getStats().getRecentLatencyMs());
+    }
+
+    @Test
+    void testFullQueueAndLongWaitsAreRejected() {
+        // Given
+        ModelLimiter limiter = limiter(0, 0, 1, 1);
+        limiter.acquire(INTERACTIVE, 0);
+        CompletableFuture<ModelLimiter.Permit> queued = limiter.acquire(INTERACTIVE, 0);
+
+        // When
+        CompletableFuture<ModelLimiter.Permit> overflow = limiter.acquire(INTERACTIVE, 0);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.dispatch();
+
+        // Then
+        CompletionException rejected = assertThrows(CompletionException.class, overflow::join);
+        assertTrue(rejected.getCause() instanceof RejectedExecutionException);
+        CompletionException expired = assertThrows(CompletionException.class, queued::join);
+        assertTrue(expired.getCause() instanceof RejectedExecutionException);
+        assertEquals(1, limiter.getStats().getRejected());
+        assertEquals(1, limiter.getStats().getTimedOut());
+    }
+}
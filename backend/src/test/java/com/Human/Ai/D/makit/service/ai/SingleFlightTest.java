@@ -0,0 +1,98 @@
+package com.Human.Ai.D.makit.service.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testConcurrentIdenticalCallsShareOneUpstreamCall() throws Exception {
+        // Given
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        // When
+        CompletableFuture<String> first = singleFlight.execute("key", () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = singleFlight.execute("key", () -> {
+            upstreamCalls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        upstream.complete("result");
+
+        // Then
+        assertEquals("result", first.get());
+        assertEquals("result", second.get());
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, singleFlight.getCalls());
+        assertEquals(1, singleFlight.getCoalesced());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void testKeyIsReleasedAfterCompletion() throws Exception {
+        // Given
+        singleFlight.execute("key", () -> CompletableFuture.completedFuture("first")).get();
+
+        // When
+        String second = singleFlight.execute("key", () -> CompletableFuture.completedFuture("second")).get();
+
+        // Then
+        assertEquals("second", second);
+        assertEquals(2, singleFlight.getCalls());
+        assertEquals(0, singleFlight.getCoalesced());
+    }
+
+    @Test
+    void testFailureIsSharedAndDoesNotPinTheKey() throws Exception {
+        // Given
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("key", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("key", CompletableFuture::new);
+
+        // When
+        upstream.completeExceptionally(new RuntimeException("throttled"));
+
+        // Then
+        assertEquals("throttled", assertThrows(ExecutionException.class, first::get).getCause().getMessage());
+        assertEquals("throttled", assertThrows(ExecutionException.class, second::get).getCause().getMessage());
+        assertEquals("retry", singleFlight.execute("key", () -> CompletableFuture.completedFuture("retry")).get());
+    }
+
+    @Test
+    void testCancellingOneCallerDoesNotCancelTheSharedCall() throws Exception {
+        // Given
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("key", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("key", () -> upstream);
+
+        // When
+        first.cancel(true);
+        upstream.complete("result");
+
+        // Then
+        assertFalse(upstream.isCancelled());
+        assertEquals("result", second.get());
+    }
+
+    @Test
+    void testSupplierExceptionFailsTheCall() {
+        // When
+        CompletableFuture<String> result = singleFlight.execute("key", () -> {
+            throw new IllegalStateException("bad request");
+        });
+
+        // Then
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+}
@@ -0,0 +1,79 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Bm25IndexTest {
+
+    private Bm25Index index;
+
+    @BeforeEach
+    void setUp() {
+        index = new Bm25Index(1.2f, 0.75f);
+        index.upsert("campaign", "캠페인 성과 분석 리포트는 대시보드에서 확인할 수 있습니다");
+        index.upsert("password", "비밀번호를 재설정하려면 설정 메뉴로 이동하세요");
+        index.upsert("english", "Campaign performance report and ROI analysis");
+    }
+
+    @Test
+    void testKoreanQueryMatchesWithDifferentParticles() {
+        // When
+        List<VectorIndex.SearchHit> hits = index.search("캠페인 성과를 어디서 보나요", 3);
+
+        // Then
+        assertFalse(hits.isEmpty());
+        assertEquals("campaign", hits.get(0).getId());
+        assertTrue(hits.get(0).getScore() > 0.0f);
+    }
+
+    @Test
+    void testScoresAreOrderedByRelevance() {
+        // Given
+        index.upsert("roi", "ROI ROI analysis guide");
+
+        // When
+        List<VectorIndex.SearchHit> hits = index.search("ROI", 5);
+
+        // Then
+        assertEquals(2, hits.size());
+        assertEquals("roi", hits.get(0).getId());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void testUpsertReplacesAndRemoveDeletes() {
+        // When
+        index.upsert("password", "완전히 다른 내용");
+        index.remove("campaign");
+
+        // Then
+        assertTrue(index.search("비밀번호", 5).isEmpty());
+        assertTrue(index.search("캠페인", 5).isEmpty());
+        assertEquals("password", index.search("다른 내용", 5).get(0).getId());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testCompactionKeepsLiveDocumentsSearchable() {
+        // Given
+        for (int i = 0; i < 3000; i++) {
+            index.upsert("bulk-" + i, "대량 문서 " + i);
+        }
+
+        // When
+        for (int i = 0; i < 2500; i++) {
+            index.remove("bulk-" + i);
+        }
+
+        // Then
+        assertEquals(503, index.size());
+        List<VectorIndex.SearchHit> hits = index.search("대량", 1000);
+        assertEquals(500, hits.size());
+        assertTrue(hits.stream().allMatch(hit -> hit.getId().startsWith("bulk-")));
+        assertEquals("campaign", index.search("캠페인 성과", 1).get(0).getId());
+    }
+}
@@ -0,0 +1,81 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentChunkerTest {
+
+    @Test
+    void testShortDocumentIsSingleChunk() {
+        // Given
+        DocumentChunker chunker = new DocumentChunker(100, 20);
+        String text = "캠페인 성과는 대시보드에서 확인할 수 있습니다. 리포트는 매일 갱신됩니다.";
+
+        // When
+        List<DocumentChunker.Chunk> chunks = chunker.split(text);
+
+        // Then
+        assertEquals(1, chunks.size());
+        assertEquals(text, chunks.get(0).getText());
+        assertEquals(0, chunks.get(0).getStartOffset());
+        assertEquals(text.length(), chunks.get(0).getEndOffset());
+    }
+
+    @Test
+    void testChunksRespectTokenLimitAndOverlap() {
+        // Given
+        DocumentChunker chunker = new DocumentChunker(40, 12);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            text.append("문장 번호 ").append(i).append("입니다. ");
+        }
+
+        // When
+        List<DocumentChunker.Chunk> chunks = chunker.split(text.toString());
+
+        // Then
+        assertTrue(chunks.size() > 1);
+        for (int i = 0; i < chunks.size(); i++) {
+            DocumentChunker.Chunk chunk = chunks.get(i);
+            assertEquals(i, chunk.getIndex());
+            assertTrue(chunk.getTokenCount() <= 40);
+            assertEquals(text.substring(chunk.getStartOffset(), chunk.getEndOffset()), chunk.getText());
+            if (i > 0) {
+                // 다음 청크는 이전 청크 끝부분과 겹치면서 앞으로 전진해야 함
+                DocumentChunker.Chunk previous = chunks.get(i - 1);
+                assertTrue(chunk.getStartOffset() < previous.getEndOffset());
+                assertTrue(chunk.getStartOffset() > previous.getStartOffset());
+            }
+        }
+        assertTrue(chunks.get(chunks.size() - 1).getText().endsWith("29입니다."));
+    }
+
+    @Test
+    void testOversizedSentenceIsSplitAtWhitespace() {
+        // Given
+        DocumentChunker chunker = new DocumentChunker(16, 0);
+        String text = "word ".repeat(200).trim();
+
+        // When
+        List<DocumentChunker.Chunk> chunks = chunker.split(text);
+
+        // Then
+        assertTrue(chunks.size() > 1);
+        for (DocumentChunker.Chunk chunk : chunks) {
+            assertTrue(chunk.getTokenCount() <= 16);
+            assertFalse(chunk.getText().startsWith(" "));
+            assertTrue(chunk.getText().startsWith("word"));
+        }
+    }
+
+    @Test
+    void testBlankTextProducesNoChunks() {
+        DocumentChunker chunker = new DocumentChunker(100, 20);
+
+        assertTrue(chunker.split("   ").isEmpty());
+        assertTrue(chunker.split(null).isEmpty());
+    }
+}
@@ -0,0 +1,103 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswVectorIndexTest {
+    
+    private static final int DIMENSION = 32;
+    
+    private HnswVectorIndex index;
+    private float[][] vectors;
+    
+    @BeforeEach
+    void setUp() {
+        index = new HnswVectorIndex(8, 100, 64);
+        Random random = new Random(7);
+        vectors = new float[500][DIMENSION];
+        
+        for (int i = 0; i < vectors.length; i++) {
+            for (int j = 0; j < DIMENSION; j++) {
+                vectors[i][j] = (float) random.nextGaussian();
+            }
+            index.upsert("doc-" + i, vectors[i]);
+        }
+    }
+    
+    @Test
+    void testSearchFindsExactMatchFirst() {
+        // When
+        List<VectorIndex.SearchHit> hits = index.search(vectors[42], 5);
+        
+        // Then
+        assertEquals(5, hits.size());
+        assertEquals("doc-42", hits.get(0).getId());
+        assertEquals(1.0f, hits.get(0).getScore(), 1e-4);
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore());
+        }
+    }
+    
+    @Test
+    void testRemoveExcludesDocumentFromResults() {
+        // When
+        assertTrue(index.remove("doc-42"));
+        List<VectorIndex.SearchHit> hits = index.search(vectors[42], 10);
+        
+        // Then
+        assertEquals(499, index.size());
+        assertTrue(hits.stream().noneMatch(hit -> hit.getId().equals("doc-42")));
+        assertFalse(index.remove("doc-42"));
+    }
+    
+    @Test
+    void testUpsertReplacesExistingVector() {
+        // When
+        index.upsert("doc-1", vectors[2]);
+        List<VectorIndex.SearchHit> hits = index.search(vectors[1], 3);
+        
+        // Then
+        assertEquals(500, index.size());
+        assertTrue(hits.stream().noneMatch(hit -> hit.getId().equals("doc-1")
+                && hit.getScore() > 0.999f));
+    }
+    
+    @Test
+    void testFilteredSearchOnlyReturnsAcceptedIds() {
+        // Given
+        MetadataIndex metadata = new MetadataIndex();
+        for (int i = 0; i < vectors.length; i++) {
+            metadata.upsert("doc-" + i, List.of(i % 10 == 0 ? "even-tenth" : "other"), "FAQ", "upload");
+        }
+        SearchFilter filter = metadata.match(MetadataFilter.tag("even-tenth"));
+        
+        // When
+        List<VectorIndex.SearchHit> hits = index.search(vectors[42], 5, filter);
+        List<VectorIndex.SearchHit> self = index.search(vectors[40], 1, filter);
+        
+        // Then
+        assertEquals(5, hits.size());
+        assertTrue(hits.stream().allMatch(hit -> filter.accepts(hit.getId())));
+        assertEquals("doc-40", self.get(0).getId());
+    }
+    
+    @Test
+    void testDimensionMismatchIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> index.upsert("bad", new float[DIMENSION + 1]));
+    }
+    
+    @Test
+    void testClear() {
+        // When
+        index.clear();
+        
+        // Then
+        assertEquals(0, index.size());
+        assertTrue(index.search(vectors[0], 5).isEmpty());
+    }
+}
@@ -0,0 +1,133 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IvfPqVectorIndexTest {
+    
+    private static final int DIMENSION = 32;
+    
+    private final Map<String, float[]> store = new HashMap<>();
+    private final List<Collection<String>> loadedBatches = new ArrayList<>();
+    private IvfPqVectorIndex index;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new IvfPqVectorIndex(8, 8, 300, 0.9, 4, ids -> {
+            loadedBatches.add(ids);
+            Map<String, float[]> loaded = new HashMap<>();
+            for (String id : ids) {
+                if (store.containsKey(id)) {
+                    loaded.put(id, store.get(id));
+                }
+            }
+            return loaded;
+        });
+        
+        Random random = new Random(3);
+        for (int i = 0; i < 600; i++) {
+            float[] vector = new float[DIMENSION];
+            for (int j = 0; j < DIMENSION; j++) {
+                vector[j] = (float) random.nextGaussian();
+            }
+            store.put("doc-" + i, vector);
+            index.upsert("doc-" + i, vector);
+        }
+        index.awaitTraining(30, TimeUnit.SECONDS);
+        loadedBatches.clear();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+    
+    @Test
+    void testTrainsAndCompressesAfterTrainingSize() {
+        assertTrue(index.isTrained());
+        assertTrue(index.getNprobe() >= 1);
+        assertEquals(600, index.size());
+        // 8 bytes of PQ code + 4 bytes ordinal per vector
+        assertEquals(600L * 12, index.encodedBytes());
+    }
+    
+    @Test
+    void testSearchReranksWithExactVectors() {
+        // When
+        List<VectorIndex.SearchHit> hits = index.search(store.get("doc-123"), 5);
+        
+        // Then
+        assertFalse(hits.isEmpty());
+        assertEquals("doc-123", hits.get(0).getId());
+        assertEquals(1.0f, hits.get(0).getScore(), 1e-4);
+    }
+    
+    @Test
+    void testRemoveAndUpsert() {
+        // When
+        assertTrue(index.remove("doc-123"));
+        
+        // Then
+        assertEquals(599, index.size());
+        assertTrue(index.search(store.get("doc-123"), 10).stream()
+                .noneMatch(hit -> hit.getId().equals("doc-123")));
+        
+        // When
+        index.upsert("doc-123", store.get("doc-123"));
+        
+        // Then
+        assertEquals(600, index.size());
+        assertEquals("doc-123", index.search(store.get("doc-123"), 1).get(0).getId());
+    }
+    
+    @Test
+    void testSelectiveFilterScoresOnlyAcceptedIds() {
+        // Given
+        SearchFilter filter = tagFilter(i -> i % 10 == 0);
+        
+        // When
+        List<VectorIndex.SearchHit> hits = index.search(store.get("doc-40"), 5, filter);
+        
+        // Then
+        assertEquals(5, hits.size());
+        assertTrue(hits.stream().allMatch(hit -> filter.accepts(hit.getId())));
+        assertEquals("doc-40", hits.get(0).getId());
+        assertEquals(1, loadedBatches.size());
+        assertEquals(60, loadedBatches.get(0).size());
+    }
+    
+    @Test
+    void testBroadFilterIsAppliedWhileScanningLists() {
+        // Given
+        SearchFilter filter = tagFilter(i -> i % 10 != 0);
+        
+        // When
+        List<VectorIndex.SearchHit> hits = index.search(store.get("doc-41"), 5, filter);
+        
+        // Then
+        assertEquals(5, hits.size());
+        assertTrue(hits.stream().allMatch(hit -> filter.accepts(hit.getId())));
+        assertEquals("doc-41", hits.get(0).getId());
+        assertTrue(loadedBatches.stream().allMatch(batch -> batch.size() <= 5 * 64));
+    }
+    
+    private SearchFilter tagFilter(IntPredicate selected) {
+        MetadataIndex metadata = new MetadataIndex();
+        for (int i = 0; i < 600; i++) {
+            metadata.upsert("doc-" + i, List.of(selected.test(i) ? "selected" : "other"), "FAQ", "upload");
+        }
+        return metadata.match(MetadataFilter.tag("selected"));
+    }
+}
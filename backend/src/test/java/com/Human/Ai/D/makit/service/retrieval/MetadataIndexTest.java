@@ -0,0 +1,119 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetadataIndexTest {
+
+    private MetadataIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MetadataIndex();
+        index.upsert("guide#0", Set.of("campaign", "roi"), "FAQ", "upload");
+        index.upsert("guide#1", Set.of("campaign"), "FAQ", "upload");
+        index.upsert("manual#0", Set.of("api"), "TECHNICAL", "confluence");
+        index.upsert("policy#0", Set.of("billing"), "POLICY", "upload");
+    }
+
+    @Test
+    void testTermMatchIsCaseInsensitive() {
+        // When
+        MetadataIndex.Match match = index.match(MetadataFilter.tag(" Campaign "));
+
+        // Then
+        assertEquals(2, match.cardinality());
+        assertTrue(match.accepts("guide#0"));
+        assertTrue(match.accepts("guide#1"));
+        assertFalse(match.accepts("manual#0"));
+        assertFalse(match.accepts("unknown#0"));
+    }
+
+    @Test
+    void testParsedExpressionCombinesBitmaps() {
+        // When
+        MetadataIndex.Match match = index.match(
+                MetadataFilter.parse("(type:FAQ OR type:TECHNICAL) AND NOT tag:roi"));
+
+        // Then
+        List<String> ids = new ArrayList<>();
+        match.forEachId(ids::add);
+        assertEquals(List.of("guide#1", "manual#0"), ids);
+    }
+
+    @Test
+    void testQuotedValueAndSourceField() {
+        // Given
+        index.upsert("notes#0", Set.of("release notes"), "FAQ", "confluence");
+
+        // When
+        MetadataIndex.Match match = index.match(MetadataFilter.parse("tag:\"release notes\" and source:confluence"));
+
+        // Then
+        assertEquals(1, match.cardinality());
+        assertTrue(match.accepts("notes#0"));
+    }
+
+    @Test
+    void testUpsertReplacesAndRemoveClearsMetadata() {
+        // When
+        index.upsert("guide#1", Set.of("billing"), "POLICY", "upload");
+        assertTrue(index.remove("policy#0"));
+
+        // Then
+        assertEquals(1, index.match(MetadataFilter.tag("campaign")).cardinality());
+        MetadataIndex.Match billing = index.match(MetadataFilter.tag("billing"));
+        assertEquals(1, billing.cardinality());
+        assertTrue(billing.accepts("guide#1"));
+        assertTrue(index.match(MetadataFilter.not(MetadataFilter.type("FAQ"))).accepts("manual#0"));
+        assertFalse(index.remove("policy#0"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testRemovedOrdinalsAreCompacted() {
+        // Given
+        MetadataIndex.Match before = index.match(MetadataFilter.tag("campaign"));
+        for (int i = 0; i < 3000; i++) {
+            index.upsert("temp#" + i, Set.of(i % 2 == 0 ? "campaign" : "other"), "FAQ", "upload");
+        }
+
+        // When
+        for (int i = 0; i < 3000; i++) {
+            index.remove("temp#" + i);
+        }
+        index.upsert("guide#2", Set.of("campaign"), "FAQ", "upload");
+
+        // Then
+        assertTrue(index.ordinalCount() < 1024);
+        assertEquals(5, index.size());
+        MetadataIndex.Match campaign = index.match(MetadataFilter.tag("campaign"));
+        assertEquals(3, campaign.cardinality());
+        List<String> ids = new ArrayList<>();
+        campaign.forEachId(ids::add);
+        assertEquals(Set.of("guide#0", "guide#1", "guide#2"), Set.copyOf(ids));
+        assertTrue(index.match(MetadataFilter.tag("api")).accepts("manual#0"));
+        // 압축 전에 평가한 결과는 그대로 유지됨
+        assertEquals(2, before.cardinality());
+        assertTrue(before.accepts("guide#0"));
+        assertFalse(before.accepts("guide#2"));
+    }
+
+    @Test
+    void testUnknownValueMatchesNothing() {
+        assertTrue(index.match(MetadataFilter.tag("missing")).isEmpty());
+    }
+
+    @Test
+    void testInvalidExpressionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> MetadataFilter.parse("tag:campaign AND"));
+        assertThrows(IllegalArgumentException.class, () -> MetadataFilter.parse("author:kim"));
+        assertThrows(IllegalArgumentException.class, () -> MetadataFilter.parse("(type:FAQ"));
+    }
+}
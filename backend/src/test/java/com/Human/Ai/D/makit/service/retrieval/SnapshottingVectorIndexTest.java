@@ -0,0 +1,173 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshottingVectorIndexTest {
+
+    private static final int DIMENSION = 32;
+
+    @TempDir
+    Path directory;
+
+    private final Random random = new Random(7);
+
+    @Test
+    void testRestoreReturnsNullWithoutSnapshot() {
+        // Given
+        SnapshottingVectorIndex index = newIndex();
+
+        // When
+        Instant restored = index.restore();
+
+        // Then
+        assertNull(restored);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testRestoreMapsSnapshotAndReplaysWal() throws Exception {
+        // Given
+        SnapshottingVectorIndex original = newIndex();
+        float[][] vectors = new float[300][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector();
+            original.upsert("chunk#" + i, vectors[i]);
+        }
+        original.remove("chunk#0");
+        original.snapshot();
+
+        // 스냅샷 이후 변경은 WAL에만 기록됨
+        float[] added = randomVector();
+        original.upsert("added#0", added);
+        original.remove("chunk#1");
+        original.close();
+
+        // When
+        SnapshottingVectorIndex restored = newIndex();
+        Instant snapshotTime = restored.restore();
+
+        // Then
+        assertNotNull(snapshotTime);
+        assertEquals(1, restored.version());
+        assertEquals(2, restored.walEntries());
+        assertEquals(original.size(), restored.size());
+        assertFalse(restored.ids().contains("chunk#0"));
+        assertFalse(restored.ids().contains("chunk#1"));
+        assertEquals("added#0", restored.search(added, 1).get(0).getId());
+
+        List<VectorIndex.SearchHit> expected = original.search(vectors[42], 5);
+        List<VectorIndex.SearchHit> actual = restored.search(vectors[42], 5);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getScore(), actual.get(i).getScore(), 1e-6f);
+        }
+    }
+
+    @Test
+    void testSnapshotOfRestoredIndexKeepsMappedAndNewVectors() throws Exception {
+        // Given
+        SnapshottingVectorIndex first = newIndex();
+        float[] mappedVector = randomVector();
+        first.upsert("mapped", mappedVector);
+        first.snapshot();
+        first.close();
+
+        SnapshottingVectorIndex second = newIndex();
+        second.restore();
+        float[] heapVector = randomVector();
+        second.upsert("heap", heapVector);
+
+        // When
+        second.snapshot();
+        second.close();
+        SnapshottingVectorIndex third = newIndex();
+        third.restore();
+
+        // Then
+        assertEquals(2, third.version());
+        assertEquals(0, third.walEntries());
+        assertEquals("mapped", third.search(mappedVector, 1).get(0).getId());
+        assertEquals("heap", third.search(heapVector, 1).get(0).getId());
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count()); // 이전 버전 파일은 삭제됨
+        }
+    }
+
+    @Test
+    void testChangesAfterInterruptedSnapshotAreRestoredFromItsWal() throws Exception {
+        // Given
+        SnapshottingVectorIndex original = newIndex();
+        float[] first = randomVector();
+        original.upsert("first", first);
+        original.snapshot();
+        float[] beforeRotation = randomVector();
+        original.upsert("before-rotation", beforeRotation);
+
+        // 임시 파일 자리에 디렉터리를 만들어 v2 스냅샷 본문 기록을 실패시킴
+        Files.createDirectory(directory.resolve("vectors-0000000002.snap.tmp"));
+        assertThrows(IOException.class, original::snapshot);
+        float[] afterRotation = randomVector();
+        original.upsert("after-rotation", afterRotation);
+        original.close();
+
+        // When
+        SnapshottingVectorIndex restored = newIndex();
+        restored.restore();
+
+        // Then
+        assertEquals(2, restored.version());
+        assertEquals(2, restored.walEntries());
+        assertEquals(3, restored.size());
+        assertEquals("before-rotation", restored.search(beforeRotation, 1).get(0).getId());
+        assertEquals("after-rotation", restored.search(afterRotation, 1).get(0).getId());
+    }
+
+    @Test
+    void testTruncatedWalRecordIsIgnored() throws Exception {
+        // Given
+        SnapshottingVectorIndex index = newIndex();
+        index.upsert("kept", randomVector());
+        index.snapshot();
+        index.upsert("first", randomVector());
+        index.upsert("torn", randomVector());
+        index.close();
+
+        Path wal = directory.resolve("vectors-0000000001.wal");
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(wal) - 5);
+        }
+
+        // When
+        SnapshottingVectorIndex restored = newIndex();
+        restored.restore();
+
+        // Then
+        assertEquals(2, restored.size());
+        assertTrue(restored.ids().contains("first"));
+        assertFalse(restored.ids().contains("torn"));
+    }
+
+    private SnapshottingVectorIndex newIndex() {
+        return new SnapshottingVectorIndex(new HnswVectorIndex(8, 64, 64), directory);
+    }
+
+    private float[] randomVector() {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,90 @@
+package com.Human.Ai.D.makit.service.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorMathTest {
+
+    // SIMD 레인 수로 나누어 떨어지지 않는 길이로 스칼라 꼬리 처리까지 확인
+    private static final int DIMENSION = 1027;
+
+    @Test
+    void testDotAndDistanceMatchDoublePrecisionReference() {
+        // Given
+        float[] a = randomVector(1);
+        float[] b = randomVector(2);
+        double expectedDot = 0.0;
+        double expectedDistance = 0.0;
+        for (int i = 0; i < DIMENSION; i++) {
+            expectedDot += (double) a[i] * b[i];
+            double diff = a[i] - b[i];
+            expectedDistance += diff * diff;
+        }
+
+        // When & Then
+        assertEquals(expectedDot, VectorMath.dot(a, b), 1e-3);
+        assertEquals(expectedDistance, VectorMath.squaredDistance(a, b), 1e-2);
+        assertEquals(Math.sqrt(VectorMath.dot(a, a)), VectorMath.norm(a), 1e-3);
+    }
+
+    @Test
+    void testOffsetRangesUseOnlyRequestedElements() {
+        // Given
+        float[] a = {9f, 1f, 2f, 3f, 9f};
+        float[] b = {4f, 5f, 6f};
+
+        // When & Then
+        assertEquals(32f, VectorMath.dot(a, 1, b, 0, 3), 1e-6);
+        assertEquals(27f, VectorMath.squaredDistance(a, 1, b, 0, 3), 1e-6);
+    }
+
+    @Test
+    void testDotAgainstDirectBufferMatchesArray() {
+        // Given
+        float[] a = randomVector(3);
+        float[] b = randomVector(4);
+        FloatBuffer buffer = ByteBuffer.allocateDirect(Float.BYTES * DIMENSION * 2)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+        buffer.put(DIMENSION, b);
+
+        // When & Then
+        assertEquals(VectorMath.dot(a, b), VectorMath.dot(a, buffer, DIMENSION), 1e-3);
+    }
+
+    @Test
+    void testNormalizeAndCosine() {
+        // Given
+        float[] a = {3f, 4f};
+        float[] b = {6f, 8f};
+
+        // When
+        float[] normalized = VectorMath.normalize(a);
+
+        // Then
+        assertEquals(1.0f, VectorMath.norm(normalized), 1e-6);
+        assertEquals(1.0f, VectorMath.cosine(a, 5f, b, 10f), 1e-6);
+        assertEquals(0.0f, VectorMath.cosine(a, 0f, b, 10f));
+    }
+
+    @Test
+    void testLengthMismatchIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> VectorMath.dot(new float[3], new float[4]));
+    }
+
+    private float[] randomVector(long seed) {
+        Random random = new Random(seed);
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}